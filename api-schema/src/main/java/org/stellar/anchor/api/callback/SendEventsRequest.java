@@ -0,0 +1,21 @@
+package org.stellar.anchor.api.callback;
+
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * SendEventsRequest is the request body for the /event/batch Callback API endpoint.
+ *
+ * <p>The events of the same transaction are in the order they happened. The business server is
+ * expected to fail the later events of a transaction if one of its events fails, so the events
+ * are retried in order.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class SendEventsRequest {
+  /** The events, oldest first. */
+  List<SendEventRequest> events;
+}
@@ -0,0 +1,29 @@
+package org.stellar.anchor.api.callback;
+
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/** SendEventsResponse is the response body for the /event/batch Callback API endpoint. */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class SendEventsResponse {
+  /** The result of each event of the request. The events without result are retried. */
+  List<Result> results;
+
+  @Data
+  @AllArgsConstructor
+  @NoArgsConstructor
+  public static class Result {
+    /** The ID of the event */
+    String id;
+
+    /** The http status code of the event. The event is processed if the code is 2xx. */
+    int code;
+
+    /** The message of the result. */
+    String message;
+  }
+}
@@ -0,0 +1,36 @@
+package org.stellar.anchor.api.platform;
+
+import com.google.gson.annotations.SerializedName;
+import java.time.Instant;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/** A client status callback that could not be delivered, as listed by the dead letter API. */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class DeadLetterResponse {
+  String id;
+
+  @SerializedName("client_name")
+  String clientName;
+
+  @SerializedName("event_id")
+  String eventId;
+
+  @SerializedName("transaction_id")
+  String transactionId;
+
+  String error;
+
+  Integer attempts;
+
+  @SerializedName("created_at")
+  Instant createdAt;
+
+  @SerializedName("replay_started_at")
+  Instant replayStartedAt;
+}
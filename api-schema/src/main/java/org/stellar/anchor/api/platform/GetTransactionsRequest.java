@@ -31,4 +31,6 @@ public class GetTransactionsRequest {
 
   @SerializedName("page_number")
   private Integer pageNumber;
+
+  private String cursor;
 }
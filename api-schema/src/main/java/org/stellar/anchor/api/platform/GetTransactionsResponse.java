@@ -1,5 +1,6 @@
 package org.stellar.anchor.api.platform;
 
+import com.google.gson.annotations.SerializedName;
 import java.util.List;
 import lombok.AllArgsConstructor;
 import lombok.Data;
@@ -17,4 +18,12 @@ import lombok.NoArgsConstructor;
 @AllArgsConstructor
 public class GetTransactionsResponse {
   List<GetTransactionResponse> records;
+
+  /** The cursor of the next page. It is not set when the page is the last one. */
+  @SerializedName("next_cursor")
+  String nextCursor;
+
+  public GetTransactionsResponse(List<GetTransactionResponse> records) {
+    this.records = records;
+  }
 }
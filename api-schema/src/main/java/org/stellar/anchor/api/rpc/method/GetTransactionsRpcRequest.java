@@ -32,4 +32,6 @@ public class GetTransactionsRpcRequest extends RpcMethodParamsRequest {
 
   @SerializedName("page_size")
   private Integer pageSize;
+
+  private String cursor;
 }
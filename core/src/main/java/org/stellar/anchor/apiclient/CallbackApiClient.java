@@ -4,12 +4,15 @@ import static org.stellar.anchor.util.StringHelper.isEmpty;
 
 import com.google.gson.Gson;
 import java.io.IOException;
+import java.util.List;
 import okhttp3.HttpUrl;
 import okhttp3.Request;
 import okhttp3.RequestBody;
 import okhttp3.Response;
 import org.stellar.anchor.api.callback.SendEventRequest;
 import org.stellar.anchor.api.callback.SendEventResponse;
+import org.stellar.anchor.api.callback.SendEventsRequest;
+import org.stellar.anchor.api.callback.SendEventsResponse;
 import org.stellar.anchor.api.exception.AnchorException;
 import org.stellar.anchor.api.exception.InvalidConfigException;
 import org.stellar.anchor.auth.AuthHelper;
@@ -20,6 +23,7 @@ import org.stellar.anchor.util.OkHttpUtil;
 public class CallbackApiClient extends BaseApiClient {
   static final Gson gson = GsonUtils.getInstance();
   final HttpUrl url;
+  final HttpUrl batchUrl;
   private final AuthHelper authHelper;
 
   /**
@@ -37,6 +41,7 @@ public class CallbackApiClient extends BaseApiClient {
       throw new InvalidConfigException(
           String.format("Invalid endpoint: %s of the client.", endpoint));
     this.url = endpointUrl.newBuilder().addPathSegment("event").build();
+    this.batchUrl = url.newBuilder().addPathSegment("batch").build();
   }
 
   /**
@@ -56,4 +61,24 @@ public class CallbackApiClient extends BaseApiClient {
 
     return new SendEventResponse(response.code(), isEmpty(responseText) ? "" : responseText);
   }
+
+  /**
+   * Sends a batch of events to the /event/batch Callback API endpoint.
+   *
+   * @param sendEventsRequest the SendEventsRequest to send.
+   * @return the SendEventsResponse with the result of each event.
+   * @throws AnchorException if the response is not successful.
+   * @throws IOException if the request fails due to IO errors.
+   */
+  public SendEventsResponse sendEvents(SendEventsRequest sendEventsRequest)
+      throws AnchorException, IOException {
+    RequestBody requestBody = OkHttpUtil.buildJsonRequestBody(gson.toJson(sendEventsRequest));
+    Request request = getRequestBuilder().url(batchUrl).post(requestBody).build();
+    Response response = getClient().newCall(request).execute();
+    String responseText = handleResponse(response);
+
+    SendEventsResponse sendEventsResponse =
+        isEmpty(responseText) ? null : gson.fromJson(responseText, SendEventsResponse.class);
+    return (sendEventsResponse == null) ? new SendEventsResponse(List.of()) : sendEventsResponse;
+  }
 }
@@ -123,6 +123,32 @@ public class PlatformApiClient extends BaseApiClient {
       @Nullable Integer pageSize,
       @Nullable Integer pageNumber)
       throws IOException, AnchorException {
+    return getTransactionsByRpc(sep, orderBy, order, statuses, pageSize, pageNumber, null);
+  }
+
+  /**
+   * Get the transactions by the JSON-RPC method.
+   *
+   * @param sep The SEP to search in.
+   * @param orderBy The field to order by.
+   * @param order The direction to order by.
+   * @param statuses The statuses to filter by.
+   * @param pageSize The number of transactions to return per page.
+   * @param pageNumber The page number of the search. It is ignored if the cursor is set.
+   * @param cursor The next_cursor of the previous page.
+   * @return The GetTransactionsResponse.
+   * @throws IOException if the request fails due to IO errors.
+   * @throws AnchorException if the response is not successful.
+   */
+  public GetTransactionsResponse getTransactionsByRpc(
+      TransactionsSeps sep,
+      @Nullable TransactionsOrderBy orderBy,
+      @Nullable Sort.Direction order,
+      @Nullable List<SepTransactionStatus> statuses,
+      @Nullable Integer pageSize,
+      @Nullable Integer pageNumber,
+      @Nullable String cursor)
+      throws IOException, AnchorException {
     GetTransactionsRpcRequest requestParams =
         GetTransactionsRpcRequest.builder()
             .sep(sep)
@@ -131,6 +157,7 @@ public class PlatformApiClient extends BaseApiClient {
             .statuses(statuses)
             .pageSize(pageSize)
             .pageNumber(pageNumber)
+            .cursor(cursor)
             .build();
     RpcRequest rpcRequest =
         RpcRequest.builder()
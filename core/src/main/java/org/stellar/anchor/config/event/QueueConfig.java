@@ -6,6 +6,8 @@ public interface QueueConfig {
   enum QueueType {
     KAFKA,
     SQS,
-    MSK
+    MSK,
+    OUTBOX,
+    MEMORY
   }
 }
@@ -1,6 +1,7 @@
 package org.stellar.anchor.event;
 
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 import org.stellar.anchor.api.event.AnchorEvent;
 import org.stellar.anchor.api.exception.AnchorException;
 
@@ -55,6 +56,30 @@ public interface EventService {
      */
     void publish(AnchorEvent event) throws AnchorException;
 
+    /**
+     * Publishes an event to the event queue without waiting for it to be delivered. The
+     * implementations that cannot publish asynchronously publish the event synchronously.
+     *
+     * @param event the event to publish
+     * @return a future that completes when the event is delivered, or completes exceptionally if
+     *     the event could not be delivered.
+     */
+    default CompletableFuture<Void> publishAsync(AnchorEvent event) {
+      try {
+        publish(event);
+        return CompletableFuture.completedFuture(null);
+      } catch (AnchorException ex) {
+        return CompletableFuture.failedFuture(ex);
+      }
+    }
+
+    /**
+     * Blocks until the events published by this session are delivered.
+     *
+     * @throws AnchorException if some events could not be delivered.
+     */
+    default void flush() throws AnchorException {}
+
     /**
      * Reads events from the event queue.
      *
@@ -115,6 +115,20 @@ public class Horizon implements LedgerClient {
           nex);
     }
 
+    return toLedgerTransaction(txnResponse);
+  }
+
+  /**
+   * Convert a Horizon transaction response to a LedgerTransaction. This can be used when the
+   * transaction is already fetched, for example when it is joined to an operation.
+   *
+   * @param txnResponse the Horizon transaction response
+   * @return the ledger transaction. null if the operations of the transaction cannot be parsed.
+   * @throws LedgerException if the transaction envelope cannot be parsed
+   */
+  public LedgerTransaction toLedgerTransaction(TransactionResponse txnResponse)
+      throws LedgerException {
+    String txnHash = txnResponse.getHash();
     TransactionEnvelope txnEnv;
     try {
       txnEnv = TransactionEnvelope.fromXdrBase64(txnResponse.getEnvelopeXdr());
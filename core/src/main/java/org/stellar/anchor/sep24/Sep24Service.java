@@ -25,6 +25,7 @@ import static org.stellar.anchor.util.SepLanguageHelper.validateLanguage;
 import static org.stellar.anchor.util.StringHelper.isEmpty;
 
 import io.micrometer.core.instrument.Counter;
+import jakarta.transaction.Transactional;
 import java.io.IOException;
 import java.net.MalformedURLException;
 import java.net.URISyntaxException;
@@ -123,6 +124,7 @@ public class Sep24Service {
     info("Sep24Service initialized.");
   }
 
+  @Transactional(rollbackOn = {AnchorException.class, RuntimeException.class})
   public InteractiveTransactionResponse withdraw(
       WebAuthJwt token, Map<String, String> withdrawRequest)
       throws AnchorException, MalformedURLException, URISyntaxException {
@@ -271,6 +273,7 @@ public class Sep24Service {
     return response;
   }
 
+  @Transactional(rollbackOn = {AnchorException.class, RuntimeException.class})
   public InteractiveTransactionResponse deposit(
       WebAuthJwt token, Map<String, String> depositRequest)
       throws AnchorException, MalformedURLException, URISyntaxException {
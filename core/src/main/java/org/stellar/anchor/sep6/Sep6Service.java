@@ -13,6 +13,7 @@ import static org.stellar.anchor.util.SepLanguageHelper.validateLanguage;
 
 import com.google.common.collect.ImmutableMap;
 import io.micrometer.core.instrument.Counter;
+import jakarta.transaction.Transactional;
 import java.time.Instant;
 import java.util.*;
 import org.stellar.anchor.MoreInfoUrlConstructor;
@@ -97,6 +98,7 @@ public class Sep6Service {
     return infoResponse;
   }
 
+  @Transactional(rollbackOn = {AnchorException.class, RuntimeException.class})
   public StartDepositResponse deposit(WebAuthJwt token, StartDepositRequest request)
       throws AnchorException {
     sep6TransactionRequestedCounter.increment();
@@ -184,6 +186,7 @@ public class Sep6Service {
         .build();
   }
 
+  @Transactional(rollbackOn = {AnchorException.class, RuntimeException.class})
   public StartDepositResponse depositExchange(WebAuthJwt token, StartDepositExchangeRequest request)
       throws AnchorException {
     sep6TransactionRequestedCounter.increment();
@@ -288,6 +291,7 @@ public class Sep6Service {
         .build();
   }
 
+  @Transactional(rollbackOn = {AnchorException.class, RuntimeException.class})
   public StartWithdrawResponse withdraw(WebAuthJwt token, StartWithdrawRequest request)
       throws AnchorException {
     sep6TransactionRequestedCounter.increment();
@@ -360,6 +364,7 @@ public class Sep6Service {
     return StartWithdrawResponse.builder().id(txn.getId()).build();
   }
 
+  @Transactional(rollbackOn = {AnchorException.class, RuntimeException.class})
   public StartWithdrawResponse withdrawExchange(
       WebAuthJwt token, StartWithdrawExchangeRequest request) throws AnchorException {
     sep6TransactionRequestedCounter.increment();
@@ -49,10 +49,23 @@ public class MetricConstants {
       "payment_observer.latest_block_read";
   public static final String PAYMENT_OBSERVER_LATEST_BLOCK_PROCESSED =
       "payment_observer.latest_block_processed";
+  public static final String PAYMENT_OBSERVER_CAUGHT_UP = "payment_observer.caught_up";
+  public static final String PAYMENT_OBSERVER_LAG_LEDGERS = "payment_observer.lag_ledgers";
+  public static final String PAYMENT_OBSERVER_PAGES_PER_TICK = "payment_observer.pages_per_tick";
+  public static final String PAYMENT_OBSERVER_SAC_CACHE = "payment_observer.sac_cache";
+  public static final String TV_CACHE_HIT = "hit";
+  public static final String TV_CACHE_NEGATIVE_HIT = "negative_hit";
+  public static final String TV_CACHE_MISS = "miss";
 
   // event processor metrics
   public static final String EVENT_RECEIVED = "event_processor.event_received";
   public static final String EVENT_PROCESSED = "event_processor.event_processed";
+  public static final String CLIENT_STATUS_CALLBACK_QUEUE_DEPTH =
+      "event_processor.client_status_callback.queue_depth";
+  public static final String CLIENT_STATUS_CALLBACK_LAG =
+      "event_processor.client_status_callback.lag_ms";
+  public static final String CLIENT_STATUS_CALLBACK_COALESCED =
+      "event_processor.client_status_callback.coalesced";
   public static final String TV_BUSINESS_SERVER_CALLBACK = "business_server_callback_api";
   public static final String TV_STATUS_CALLBACK = "status_callback";
   public static final String TV_UNKNOWN = "unknown";
@@ -73,4 +86,6 @@ public class MetricConstants {
   public static final String QUEUE = "queue";
   public static final String STATUS = "status";
   public static final String TYPE = "type";
+  public static final String RESULT = "result";
+  public static final String CLIENT = "client";
 }
@@ -9,9 +9,11 @@ import org.stellar.anchor.api.platform.TransactionsOrderBy;
 import org.stellar.anchor.api.sep.SepTransactionStatus;
 
 /**
- * Offset-based pagination parameters for the internal Platform API (GET /transactions).
+ * Pagination parameters for the internal Platform API (GET /transactions).
  *
- * <p>Uses {@code pageNumber} and {@code pageSize} for traditional page-based pagination.
+ * <p>Uses {@code pageNumber} and {@code pageSize} for traditional page-based pagination. If the
+ * {@code cursor} returned with the previous page is set, the page following it is returned instead
+ * and {@code pageNumber} is ignored. The cursor pages do not slow down as the pages get deeper.
  *
  * <p>Not to be confused with {@link TransactionQueryLimits}, which provides cursor-based query
  * limits for the client-facing SEP-6/SEP-24 API endpoints.
@@ -24,4 +26,14 @@ public class TransactionsParams {
   @Nullable List<SepTransactionStatus> statuses;
   Integer pageNumber;
   Integer pageSize;
+  @Nullable String cursor;
+
+  public TransactionsParams(
+      TransactionsOrderBy orderBy,
+      Sort.Direction order,
+      @Nullable List<SepTransactionStatus> statuses,
+      Integer pageNumber,
+      Integer pageSize) {
+    this(orderBy, order, statuses, pageNumber, pageSize, null);
+  }
 }
@@ -0,0 +1,273 @@
+package org.stellar.anchor.platform.integrationtest
+
+import jakarta.persistence.EntityManager
+import jakarta.persistence.EntityManagerFactory
+import java.lang.reflect.InvocationHandler
+import java.lang.reflect.InvocationTargetException
+import java.lang.reflect.Method
+import java.lang.reflect.Proxy
+import java.sql.Connection
+import java.sql.DriverManager
+import java.sql.PreparedStatement
+import java.time.Instant
+import java.time.temporal.ChronoUnit.DAYS
+import javax.sql.DataSource
+import kotlin.text.RegexOption.IGNORE_CASE
+import org.hibernate.boot.model.naming.CamelCaseToUnderscoresNamingStrategy
+import org.junit.jupiter.api.Assertions.assertFalse
+import org.junit.jupiter.api.Assumptions.assumeTrue
+import org.junit.jupiter.params.ParameterizedTest
+import org.junit.jupiter.params.provider.ValueSource
+import org.springframework.boot.orm.jpa.hibernate.SpringImplicitNamingStrategy
+import org.springframework.data.domain.PageRequest
+import org.springframework.data.jpa.repository.support.JpaRepositoryFactory
+import org.springframework.data.repository.core.support.RepositoryComposition.RepositoryFragments
+import org.springframework.jdbc.datasource.SingleConnectionDataSource
+import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean
+import org.springframework.orm.jpa.vendor.HibernateJpaVendorAdapter
+import org.stellar.anchor.platform.TestConfig
+import org.stellar.anchor.platform.data.AllTransactionsRepositoryImpl
+import org.stellar.anchor.platform.data.JdbcSep24TransactionRepo
+import org.stellar.anchor.platform.data.JdbcSep6Transaction
+import org.stellar.anchor.platform.data.JdbcSep6TransactionRepo
+
+/**
+ * Loads synthetic transactions into the Postgres database of the test profile and checks that the
+ * plans of the SEP-6 and SEP-24 transaction history queries do not scan the whole table. The
+ * queries are run through the repositories, and the SQL generated by Hibernate is explained with
+ * the parameters it was bound to. The data is rolled back after the test.
+ */
+class TransactionHistoryQueryPlanTests {
+  companion object {
+    private const val TRANSACTION_COUNT = 100_000
+  }
+
+  /** A statement prepared by Hibernate, with the calls that bound its parameters. */
+  private class RecordedStatement(val sql: String) {
+    val binds = mutableListOf<Pair<Method, Array<out Any?>>>()
+  }
+
+  private val config = TestConfig()
+
+  @ParameterizedTest
+  @ValueSource(strings = ["sep6_transaction", "sep24_transaction"])
+  fun `test the transaction history queries do not use a sequential scan`(table: String) {
+    assumeTrue(config.env["data.type"] == "postgres", "The query plans are checked on Postgres")
+
+    connect().use { conn ->
+      conn.autoCommit = false
+      try {
+        loadSyntheticTransactions(conn, table)
+        val statements = mutableListOf<RecordedStatement>()
+        val tableQuery = Regex("\\bfrom $table\\b", IGNORE_CASE)
+        val emf = entityManagerFactory(recording(conn, statements))
+        try {
+          val em = emf.createEntityManager()
+          for (query in historyQueries(em, table)) {
+            statements.clear()
+            query()
+            val generated = statements.filter { it.sql.contains(tableQuery) }
+            assertFalse(generated.isEmpty(), "Hibernate did not query $table")
+            for (statement in generated) {
+              val plan = explain(conn, statement)
+              assertFalse(
+                plan.contains("Seq Scan"),
+                "The query falls back to a sequential scan:\n${statement.sql}\n$plan"
+              )
+            }
+          }
+        } finally {
+          emf.close()
+        }
+      } finally {
+        conn.rollback()
+      }
+    }
+  }
+
+  private fun connect(): Connection {
+    val conn =
+      DriverManager.getConnection(
+        "jdbc:postgresql://${config.env["data.server"]}/${config.env["data.database"]}",
+        config.env["secret.data.username"],
+        config.env["secret.data.password"]
+      )
+    conn.createStatement().use { it.execute("SET search_path TO \"${config.env["data.schema"]}\"") }
+    return conn
+  }
+
+  private fun loadSyntheticTransactions(conn: Connection, table: String) {
+    conn.createStatement().use {
+      it.execute(
+        """
+        INSERT INTO $table (
+          id, kind, status, request_asset_code, web_auth_account, web_auth_account_memo, started_at
+        )
+        SELECT 'query-plan-' || i,
+               CASE WHEN i % 2 = 0 THEN 'deposit' ELSE 'withdrawal' END,
+               'completed',
+               (ARRAY['USDC', 'JPYC', 'native'])[1 + i % 3],
+               'GACCOUNT' || (i % 1000),
+               CASE WHEN i % 4 = 0 THEN (i % 10)::text END,
+               now() - (i % 365) * INTERVAL '1 day'
+        FROM generate_series(1, $TRANSACTION_COUNT) AS i
+        """
+      )
+      it.execute("ANALYZE $table")
+    }
+  }
+
+  /**
+   * A data source on the connection of the test, so that Hibernate sees the synthetic
+   * transactions, which records the statements prepared by Hibernate.
+   */
+  private fun recording(conn: Connection, statements: MutableList<RecordedStatement>): DataSource {
+    val handler = InvocationHandler { _, method, args ->
+      val result = invoke(method, conn, args)
+      if (result is PreparedStatement && method.name == "prepareStatement") {
+        val recorded = RecordedStatement(args[0] as String)
+        statements.add(recorded)
+        recordingStatement(result, recorded)
+      } else result
+    }
+    val proxy =
+      Proxy.newProxyInstance(javaClass.classLoader, arrayOf(Connection::class.java), handler)
+    return SingleConnectionDataSource(proxy as Connection, true)
+  }
+
+  private fun recordingStatement(
+    statement: PreparedStatement,
+    recorded: RecordedStatement
+  ): PreparedStatement {
+    val handler = InvocationHandler { _, method, args ->
+      if (method.name.startsWith("set") && args != null && args.size > 1 && args[0] is Int) {
+        recorded.binds.add(method to args)
+      }
+      invoke(method, statement, args)
+    }
+    return Proxy.newProxyInstance(
+      javaClass.classLoader,
+      arrayOf(PreparedStatement::class.java),
+      handler
+    ) as PreparedStatement
+  }
+
+  private fun invoke(method: Method, target: Any, args: Array<out Any?>?): Any? {
+    try {
+      return method.invoke(target, *(args ?: emptyArray()))
+    } catch (ex: InvocationTargetException) {
+      throw ex.targetException
+    }
+  }
+
+  /** An entity manager factory configured with the naming strategies of Spring Boot. */
+  private fun entityManagerFactory(dataSource: DataSource): EntityManagerFactory {
+    val factory = LocalContainerEntityManagerFactoryBean()
+    factory.dataSource = dataSource
+    factory.setPackagesToScan(JdbcSep6Transaction::class.java.packageName)
+    factory.jpaVendorAdapter = HibernateJpaVendorAdapter()
+    factory.setJpaPropertyMap(
+      mapOf(
+        "hibernate.physical_naming_strategy" to
+          CamelCaseToUnderscoresNamingStrategy::class.java.name,
+        "hibernate.implicit_naming_strategy" to SpringImplicitNamingStrategy::class.java.name
+      )
+    )
+    factory.afterPropertiesSet()
+    return factory.`object`!!
+  }
+
+  private fun <T> repository(em: EntityManager, repo: Class<T>): T =
+    JpaRepositoryFactory(em)
+      .getRepository(repo, RepositoryFragments.just(AllTransactionsRepositoryImpl<Any>(em)))
+
+  /**
+   * The calls of findTransactionsWithFilters and findTransactionsWithMemoAndFilters, for all the
+   * kinds and one kind, and for the first page and the page following a transaction.
+   */
+  private fun historyQueries(em: EntityManager, table: String): List<() -> Any> {
+    val olderThan = Instant.now()
+    val noOlderThan = olderThan.minus(30, DAYS)
+    val page = PageRequest.of(0, 100)
+    val filters =
+      listOf("deposit", null).flatMap { kind ->
+        listOf(null, "query-plan-4200").map { pagingId -> kind to pagingId }
+      }
+    return if (table == "sep6_transaction") {
+      val repo = repository(em, JdbcSep6TransactionRepo::class.java)
+      filters.flatMap { (kind, pagingId) ->
+        listOf(
+          {
+            repo.findTransactionsWithFilters(
+              "GACCOUNT42",
+              "USDC",
+              kind,
+              noOlderThan,
+              olderThan,
+              pagingId,
+              page
+            )
+          },
+          {
+            repo.findTransactionsWithMemoAndFilters(
+              "GACCOUNT40",
+              "0",
+              "USDC",
+              kind,
+              noOlderThan,
+              olderThan,
+              pagingId,
+              page
+            )
+          }
+        )
+      }
+    } else {
+      val repo = repository(em, JdbcSep24TransactionRepo::class.java)
+      filters.flatMap { (kind, pagingId) ->
+        listOf(
+          {
+            repo.findTransactionsWithFilters(
+              "GACCOUNT42",
+              "USDC",
+              kind,
+              noOlderThan,
+              olderThan,
+              pagingId,
+              page
+            )
+          },
+          {
+            repo.findTransactionsWithMemoAndFilters(
+              "GACCOUNT40",
+              "0",
+              "GACCOUNT40:0",
+              "USDC",
+              kind,
+              noOlderThan,
+              olderThan,
+              pagingId,
+              page
+            )
+          }
+        )
+      }
+    }
+  }
+
+  /** Explain the statement with the parameters Hibernate bound to it. */
+  private fun explain(conn: Connection, statement: RecordedStatement): String {
+    conn.prepareStatement("EXPLAIN ${statement.sql}").use { explain ->
+      for ((method, args) in statement.binds) {
+        invoke(method, explain, args)
+      }
+      explain.executeQuery().use { rs ->
+        val plan = StringBuilder()
+        while (rs.next()) {
+          plan.appendLine(rs.getString(1))
+        }
+        return plan.toString()
+      }
+    }
+  }
+}
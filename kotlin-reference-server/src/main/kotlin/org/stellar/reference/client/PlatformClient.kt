@@ -69,6 +69,9 @@ class PlatformClient(
           if (request.pageNumber != null) {
             parameters.append("page_number", request.pageNumber.toString())
           }
+          if (request.cursor != null) {
+            parameters.append("cursor", request.cursor)
+          }
         }
       }
     if (response.status != HttpStatusCode.OK) {
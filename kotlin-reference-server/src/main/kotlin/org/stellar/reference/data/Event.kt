@@ -11,6 +11,8 @@ data class SendEventRequest(
   val payload: SendEventRequestPayload
 )
 
+data class SendEventsRequest(val events: List<SendEventRequest>)
+
 data class SendEventRequestPayload(
   val transaction: GetTransactionResponse?,
   val quote: GetQuoteResponse?,
@@ -11,6 +11,7 @@ import org.apache.hc.core5.http.HttpStatus
 import org.stellar.anchor.api.callback.SendEventResponse
 import org.stellar.anchor.util.GsonUtils
 import org.stellar.reference.data.SendEventRequest
+import org.stellar.reference.data.SendEventsRequest
 import org.stellar.reference.di.AUTH_CONFIG_ENDPOINT
 
 fun Route.event(eventService: EventService, enableTestEndpoints: Boolean) {
@@ -25,6 +26,12 @@ fun Route.event(eventService: EventService, enableTestEndpoints: Boolean) {
         eventService.processEvent(receivedEvent)
         call.respond(gson.toJson(SendEventResponse(HttpStatus.SC_OK, "event processed")))
       }
+      // The `POST /event/batch` endpoint of the Callback API to receive a batch of events.
+      post("/batch") {
+        val receivedEventsJson = call.receive<String>()
+        val receivedEvents = gson.fromJson(receivedEventsJson, SendEventsRequest::class.java)
+        call.respond(gson.toJson(eventService.processEvents(receivedEvents)))
+      }
     }
 
     if (enableTestEndpoints) {
@@ -5,8 +5,11 @@ import java.time.LocalDateTime
 import java.time.ZoneId
 import java.time.format.DateTimeFormatter
 import kotlinx.coroutines.channels.Channel
+import org.apache.hc.core5.http.HttpStatus
+import org.stellar.anchor.api.callback.SendEventsResponse
 import org.stellar.anchor.api.event.AnchorEvent
 import org.stellar.reference.data.SendEventRequest
+import org.stellar.reference.data.SendEventsRequest
 import org.stellar.reference.log
 
 class EventService {
@@ -25,6 +28,32 @@ class EventService {
     receivedEvents.add(receivedEvent)
   }
 
+  // Process the events of a batch in order. Once an event of a transaction fails, the later events
+  // of the transaction are failed too, so they are retried in order.
+  suspend fun processEvents(receivedEvents: SendEventsRequest): SendEventsResponse {
+    val failedTransactions = mutableSetOf<String>()
+    val results =
+      receivedEvents.events.map { event ->
+        val txnId = event.payload.transaction?.id
+        if (txnId != null && failedTransactions.contains(txnId)) {
+          return@map SendEventsResponse.Result(
+            event.id,
+            HttpStatus.SC_CONFLICT,
+            "an earlier event of the transaction failed"
+          )
+        }
+        try {
+          processEvent(event)
+          SendEventsResponse.Result(event.id, HttpStatus.SC_OK, "event processed")
+        } catch (e: Exception) {
+          log.error(e) { "Failed to process event ${event.id}" }
+          txnId?.let { failedTransactions.add(it) }
+          SendEventsResponse.Result(event.id, HttpStatus.SC_INTERNAL_SERVER_ERROR, e.message)
+        }
+      }
+    return SendEventsResponse(results)
+  }
+
   // Get all events. This is for testing purpose.
   // If txnId is not null, the events are filtered.
   fun getEvents(txnId: String?): List<SendEventRequest> {
@@ -22,6 +22,7 @@ import org.stellar.anchor.platform.configurator.SecretManager;
 @EntityScan(basePackages = {"org.stellar.anchor.platform.data"})
 @ComponentScan(
     basePackages = {
+      "org.stellar.anchor.platform.controller.eventprocessor",
       "org.stellar.anchor.platform.component.eventprocessor",
       "org.stellar.anchor.platform.component.share"
     })
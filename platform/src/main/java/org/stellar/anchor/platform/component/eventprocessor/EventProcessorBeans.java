@@ -1,6 +1,8 @@
 package org.stellar.anchor.platform.component.eventprocessor;
 
+import jakarta.servlet.Filter;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Import;
@@ -12,7 +14,12 @@ import org.stellar.anchor.event.EventService;
 import org.stellar.anchor.platform.component.sep.ApiClientBeans;
 import org.stellar.anchor.platform.config.CallbackApiConfig;
 import org.stellar.anchor.platform.config.EventProcessorConfig;
+import org.stellar.anchor.platform.config.PlatformApiConfig;
+import org.stellar.anchor.platform.config.PlatformServerConfig;
+import org.stellar.anchor.platform.data.JdbcClientCallbackDeadLetterRepo;
+import org.stellar.anchor.platform.event.ClientCallbackDeadLetterStore;
 import org.stellar.anchor.platform.event.EventProcessorManager;
+import org.stellar.anchor.platform.utils.PlatformAuthFilters;
 import org.stellar.anchor.sep24.Sep24TransactionStore;
 import org.stellar.anchor.sep31.Sep31TransactionStore;
 import org.stellar.anchor.sep6.Sep6TransactionStore;
@@ -21,6 +28,27 @@ import org.stellar.anchor.sep6.Sep6TransactionStore;
 @Import(ApiClientBeans.class)
 public class EventProcessorBeans {
 
+  /**
+   * Register the filter authenticating the requests to the dead letter API like the requests to
+   * the Platform API.
+   *
+   * @return Spring Filter Registration Bean
+   */
+  @Bean
+  public FilterRegistrationBean<Filter> deadLetterTokenFilter(
+      PlatformServerConfig serverConfig, PlatformApiConfig apiConfig) {
+    FilterRegistrationBean<Filter> registrationBean = new FilterRegistrationBean<>();
+    registrationBean.setFilter(PlatformAuthFilters.create(serverConfig, apiConfig));
+    registrationBean.addUrlPatterns("/dead_letters", "/dead_letters/*");
+    return registrationBean;
+  }
+
+  @Bean
+  ClientCallbackDeadLetterStore clientCallbackDeadLetterStore(
+      JdbcClientCallbackDeadLetterRepo deadLetterRepo) {
+    return new ClientCallbackDeadLetterStore(deadLetterRepo);
+  }
+
   @Bean
   EventProcessorManager eventProcessorManager(
       SecretConfig secretConfig,
@@ -32,6 +60,7 @@ public class EventProcessorBeans {
       Sep6TransactionStore sep6TransactionStore,
       Sep24TransactionStore sep24TransactionStore,
       Sep31TransactionStore sep31TransactionStore,
+      ClientCallbackDeadLetterStore clientCallbackDeadLetterStore,
       @Qualifier("sep6MoreInfoUrlConstructor") MoreInfoUrlConstructor sep6MoreInfoUrlConstructor,
       @Qualifier("sep24MoreInfoUrlConstructor")
           MoreInfoUrlConstructor sep24MoreInfoUrlConstructor) {
@@ -45,6 +74,7 @@ public class EventProcessorBeans {
         sep6TransactionStore,
         sep24TransactionStore,
         sep31TransactionStore,
+        clientCallbackDeadLetterStore,
         sep6MoreInfoUrlConstructor,
         sep24MoreInfoUrlConstructor);
   }
@@ -13,11 +13,16 @@ import org.stellar.anchor.ledger.Horizon;
 import org.stellar.anchor.ledger.LedgerClient;
 import org.stellar.anchor.ledger.StellarRpc;
 import org.stellar.anchor.platform.config.PaymentObserverConfig;
+import org.stellar.anchor.platform.config.PaymentObserverConfig.PaymentNotifierType;
 import org.stellar.anchor.platform.config.RpcConfig;
+import org.stellar.anchor.platform.data.JdbcPendingTransactionMatcher;
 import org.stellar.anchor.platform.data.JdbcSep24TransactionStore;
 import org.stellar.anchor.platform.data.JdbcSep31TransactionStore;
 import org.stellar.anchor.platform.data.JdbcSep6TransactionStore;
+import org.stellar.anchor.platform.observer.InProcessPaymentNotifier;
 import org.stellar.anchor.platform.observer.PaymentListener;
+import org.stellar.anchor.platform.observer.PaymentNotifier;
+import org.stellar.anchor.platform.observer.PlatformApiPaymentNotifier;
 import org.stellar.anchor.platform.observer.stellar.*;
 
 @Configuration
@@ -94,13 +99,24 @@ public class PaymentObserverBeans {
     return paymentObserver;
   }
 
+  @Bean
+  public PaymentNotifier paymentNotifier(
+      PaymentObserverConfig paymentObserverConfig, PlatformApiClient platformApiClient) {
+    PaymentNotifier httpNotifier = new PlatformApiPaymentNotifier(platformApiClient);
+    if (paymentObserverConfig.getNotifier() == PaymentNotifierType.HTTP) {
+      return httpNotifier;
+    }
+    return new InProcessPaymentNotifier(httpNotifier);
+  }
+
   @Bean
   public DefaultPaymentListener paymentListener(
       PaymentObservingAccountsManager paymentObservingAccountsManager,
       JdbcSep31TransactionStore sep31TransactionStore,
       JdbcSep24TransactionStore sep24TransactionStore,
       JdbcSep6TransactionStore sep6TransactionStore,
-      PlatformApiClient platformApiClient,
+      JdbcPendingTransactionMatcher pendingTransactionMatcher,
+      PaymentNotifier paymentNotifier,
       RpcConfig rpcConfig,
       SacToAssetMapper sacToAssetMapper) {
 
@@ -109,7 +125,8 @@ public class PaymentObserverBeans {
         sep31TransactionStore,
         sep24TransactionStore,
         sep6TransactionStore,
-        platformApiClient,
+        pendingTransactionMatcher,
+        paymentNotifier,
         rpcConfig,
         sacToAssetMapper);
   }
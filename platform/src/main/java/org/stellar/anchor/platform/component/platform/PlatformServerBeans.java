@@ -6,19 +6,20 @@ import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.stellar.anchor.api.exception.InvalidConfigException;
 import org.stellar.anchor.asset.AssetService;
-import org.stellar.anchor.auth.JwtService;
 import org.stellar.anchor.auth.NonceStore;
 import org.stellar.anchor.config.Sep24Config;
 import org.stellar.anchor.config.Sep31Config;
 import org.stellar.anchor.config.Sep6Config;
 import org.stellar.anchor.event.EventService;
-import org.stellar.anchor.filter.ApiKeyFilter;
-import org.stellar.anchor.filter.NoneFilter;
-import org.stellar.anchor.filter.PlatformAuthJwtFilter;
 import org.stellar.anchor.platform.config.PlatformApiConfig;
 import org.stellar.anchor.platform.config.PlatformServerConfig;
+import org.stellar.anchor.platform.data.JdbcSep24TransactionRepo;
+import org.stellar.anchor.platform.data.JdbcSep31TransactionRepo;
+import org.stellar.anchor.platform.data.JdbcSep6TransactionRepo;
+import org.stellar.anchor.platform.data.JdbcTransactionRouteRepo;
 import org.stellar.anchor.platform.job.NonceCleanupJob;
 import org.stellar.anchor.platform.service.*;
+import org.stellar.anchor.platform.utils.PlatformAuthFilters;
 import org.stellar.anchor.sep24.Sep24DepositInfoGenerator;
 import org.stellar.anchor.sep24.Sep24TransactionStore;
 import org.stellar.anchor.sep31.Sep31DepositInfoGenerator;
@@ -38,27 +39,8 @@ public class PlatformServerBeans {
   @Bean
   public FilterRegistrationBean<Filter> platformTokenFilter(
       PlatformServerConfig serverConfig, PlatformApiConfig apiConfig) {
-    Filter anchorToPlatformFilter;
-    String authSecret = serverConfig.getSecretConfig().getPlatformAuthSecret();
-    switch (apiConfig.getAuth().getType()) {
-      case JWT:
-        JwtService jwtService = JwtService.builder().platformAuthSecret(authSecret).build();
-        anchorToPlatformFilter =
-            new PlatformAuthJwtFilter(jwtService, apiConfig.getAuth().getJwt().getHttpHeader());
-        break;
-
-      case API_KEY:
-        anchorToPlatformFilter =
-            new ApiKeyFilter(authSecret, apiConfig.getAuth().getApiKey().getHttpHeader());
-        break;
-
-      default:
-        anchorToPlatformFilter = new NoneFilter();
-        break;
-    }
-
     FilterRegistrationBean<Filter> registrationBean = new FilterRegistrationBean<>();
-    registrationBean.setFilter(anchorToPlatformFilter);
+    registrationBean.setFilter(PlatformAuthFilters.create(serverConfig, apiConfig));
     return registrationBean;
   }
 
@@ -110,11 +92,30 @@ public class PlatformServerBeans {
     }
   }
 
+  @Bean
+  TransactionRouter transactionRouter(
+      Sep6TransactionStore txn6Store,
+      Sep24TransactionStore txn24Store,
+      Sep31TransactionStore txn31Store,
+      JdbcTransactionRouteRepo routeRepo) {
+    return new TransactionRouter(txn6Store, txn24Store, txn31Store, routeRepo);
+  }
+
+  @Bean
+  TransactionResponseCache transactionResponseCache(
+      JdbcSep6TransactionRepo txn6Repo,
+      JdbcSep24TransactionRepo txn24Repo,
+      JdbcSep31TransactionRepo txn31Repo) {
+    return new TransactionResponseCache(txn6Repo, txn24Repo, txn31Repo);
+  }
+
   @Bean
   TransactionService transactionService(
       Sep6TransactionStore txn6Store,
       Sep24TransactionStore txn24Store,
       Sep31TransactionStore txn31Store,
+      TransactionRouter txnRouter,
+      TransactionResponseCache txnResponseCache,
       Sep38QuoteStore quoteStore,
       AssetService assetService,
       EventService eventService,
@@ -124,6 +125,8 @@ public class PlatformServerBeans {
         txn6Store,
         txn24Store,
         txn31Store,
+        txnRouter,
+        txnResponseCache,
         quoteStore,
         assetService,
         eventService,
@@ -15,7 +15,10 @@ import org.stellar.anchor.platform.data.JdbcTransactionPendingTrustRepo;
 import org.stellar.anchor.platform.observer.stellar.PaymentObservingAccountsManager;
 import org.stellar.anchor.platform.observer.stellar.SacToAssetMapper;
 import org.stellar.anchor.platform.rpc.*;
+import org.stellar.anchor.platform.service.InProcessRpcServices;
 import org.stellar.anchor.platform.service.RpcService;
+import org.stellar.anchor.platform.service.TransactionResponseCache;
+import org.stellar.anchor.platform.service.TransactionRouter;
 import org.stellar.anchor.platform.service.TransactionService;
 import org.stellar.anchor.platform.validator.RequestValidator;
 import org.stellar.anchor.sep24.Sep24DepositInfoGenerator;
@@ -32,7 +35,10 @@ public class RpcActionBeans {
 
   @Bean
   RpcService rpcService(List<RpcMethodHandler<?>> rpcMethodHandlers, RpcConfig rpcConfig) {
-    return new RpcService(rpcMethodHandlers, rpcConfig);
+    RpcService rpcService = new RpcService(rpcMethodHandlers, rpcConfig);
+    // Allow the observer running in the same JVM to call the RPC service directly.
+    InProcessRpcServices.register(rpcService);
+    return rpcService;
   }
 
   @Bean
@@ -55,6 +61,8 @@ public class RpcActionBeans {
       Sep6TransactionStore txn6Store,
       Sep24TransactionStore txn24Store,
       Sep31TransactionStore txn31Store,
+      TransactionRouter txnRouter,
+      TransactionResponseCache txnResponseCache,
       RequestValidator requestValidator,
       AssetService assetService,
       EventService eventService,
@@ -63,6 +71,8 @@ public class RpcActionBeans {
         txn6Store,
         txn24Store,
         txn31Store,
+        txnRouter,
+        txnResponseCache,
         requestValidator,
         assetService,
         eventService,
@@ -74,6 +84,8 @@ public class RpcActionBeans {
       Sep6TransactionStore txn6Store,
       Sep24TransactionStore txn24Store,
       Sep31TransactionStore txn31Store,
+      TransactionRouter txnRouter,
+      TransactionResponseCache txnResponseCache,
       RequestValidator requestValidator,
       AssetService assetService,
       EventService eventService,
@@ -82,6 +94,8 @@ public class RpcActionBeans {
         txn6Store,
         txn24Store,
         txn31Store,
+        txnRouter,
+        txnResponseCache,
         requestValidator,
         assetService,
         eventService,
@@ -93,6 +107,8 @@ public class RpcActionBeans {
       Sep6TransactionStore txn6Store,
       Sep24TransactionStore txn24Store,
       Sep31TransactionStore txn31Store,
+      TransactionRouter txnRouter,
+      TransactionResponseCache txnResponseCache,
       RequestValidator requestValidator,
       AssetService assetService,
       EventService eventService,
@@ -101,6 +117,8 @@ public class RpcActionBeans {
         txn6Store,
         txn24Store,
         txn31Store,
+        txnRouter,
+        txnResponseCache,
         requestValidator,
         assetService,
         eventService,
@@ -112,6 +130,8 @@ public class RpcActionBeans {
       Sep6TransactionStore txn6Store,
       Sep24TransactionStore txn24Store,
       Sep31TransactionStore txn31Store,
+      TransactionRouter txnRouter,
+      TransactionResponseCache txnResponseCache,
       RequestValidator requestValidator,
       AssetService assetService,
       EventService eventService,
@@ -120,6 +140,8 @@ public class RpcActionBeans {
         txn6Store,
         txn24Store,
         txn31Store,
+        txnRouter,
+        txnResponseCache,
         requestValidator,
         assetService,
         eventService,
@@ -131,6 +153,8 @@ public class RpcActionBeans {
       Sep6TransactionStore txn6Store,
       Sep24TransactionStore txn24Store,
       Sep31TransactionStore txn31Store,
+      TransactionRouter txnRouter,
+      TransactionResponseCache txnResponseCache,
       RequestValidator requestValidator,
       AssetService assetService,
       EventService eventService,
@@ -139,6 +163,8 @@ public class RpcActionBeans {
         txn6Store,
         txn24Store,
         txn31Store,
+        txnRouter,
+        txnResponseCache,
         requestValidator,
         assetService,
         eventService,
@@ -150,6 +176,8 @@ public class RpcActionBeans {
       Sep6TransactionStore txn6Store,
       Sep24TransactionStore txn24Store,
       Sep31TransactionStore txn31Store,
+      TransactionRouter txnRouter,
+      TransactionResponseCache txnResponseCache,
       RequestValidator requestValidator,
       AssetService assetService,
       EventService eventService,
@@ -158,6 +186,8 @@ public class RpcActionBeans {
         txn6Store,
         txn24Store,
         txn31Store,
+        txnRouter,
+        txnResponseCache,
         requestValidator,
         assetService,
         eventService,
@@ -169,6 +199,8 @@ public class RpcActionBeans {
       Sep6TransactionStore txn6Store,
       Sep24TransactionStore txn24Store,
       Sep31TransactionStore txn31Store,
+      TransactionRouter txnRouter,
+      TransactionResponseCache txnResponseCache,
       RequestValidator requestValidator,
       LedgerClient ledgerClient,
       AssetService assetService,
@@ -179,6 +211,8 @@ public class RpcActionBeans {
         txn6Store,
         txn24Store,
         txn31Store,
+        txnRouter,
+        txnResponseCache,
         requestValidator,
         ledgerClient,
         assetService,
@@ -192,6 +226,8 @@ public class RpcActionBeans {
       Sep6TransactionStore txn6Store,
       Sep24TransactionStore txn24Store,
       Sep31TransactionStore txn31Store,
+      TransactionRouter txnRouter,
+      TransactionResponseCache txnResponseCache,
       RequestValidator requestValidator,
       LedgerClient ledgerClient,
       AssetService assetService,
@@ -202,6 +238,8 @@ public class RpcActionBeans {
         txn6Store,
         txn24Store,
         txn31Store,
+        txnRouter,
+        txnResponseCache,
         requestValidator,
         ledgerClient,
         assetService,
@@ -215,6 +253,8 @@ public class RpcActionBeans {
       Sep6TransactionStore txn6Store,
       Sep24TransactionStore txn24Store,
       Sep31TransactionStore txn31Store,
+      TransactionRouter txnRouter,
+      TransactionResponseCache txnResponseCache,
       RequestValidator requestValidator,
       AssetService assetService,
       EventService eventService,
@@ -223,6 +263,8 @@ public class RpcActionBeans {
         txn6Store,
         txn24Store,
         txn31Store,
+        txnRouter,
+        txnResponseCache,
         requestValidator,
         assetService,
         eventService,
@@ -234,6 +276,8 @@ public class RpcActionBeans {
       Sep6TransactionStore txn6Store,
       Sep24TransactionStore txn24Store,
       Sep31TransactionStore txn31Store,
+      TransactionRouter txnRouter,
+      TransactionResponseCache txnResponseCache,
       RequestValidator requestValidator,
       AssetService assetService,
       EventService eventService,
@@ -242,6 +286,8 @@ public class RpcActionBeans {
         txn6Store,
         txn24Store,
         txn31Store,
+        txnRouter,
+        txnResponseCache,
         requestValidator,
         assetService,
         eventService,
@@ -253,6 +299,8 @@ public class RpcActionBeans {
       Sep6TransactionStore txn6Store,
       Sep24TransactionStore txn24Store,
       Sep31TransactionStore txn31Store,
+      TransactionRouter txnRouter,
+      TransactionResponseCache txnResponseCache,
       RequestValidator requestValidator,
       AssetService assetService,
       EventService eventService,
@@ -262,6 +310,8 @@ public class RpcActionBeans {
         txn6Store,
         txn24Store,
         txn31Store,
+        txnRouter,
+        txnResponseCache,
         requestValidator,
         assetService,
         eventService,
@@ -274,6 +324,8 @@ public class RpcActionBeans {
       Sep6TransactionStore txn6Store,
       Sep24TransactionStore txn24Store,
       Sep31TransactionStore txn31Store,
+      TransactionRouter txnRouter,
+      TransactionResponseCache txnResponseCache,
       RequestValidator requestValidator,
       AssetService assetService,
       EventService eventService,
@@ -283,6 +335,8 @@ public class RpcActionBeans {
         txn6Store,
         txn24Store,
         txn31Store,
+        txnRouter,
+        txnResponseCache,
         requestValidator,
         assetService,
         eventService,
@@ -295,6 +349,8 @@ public class RpcActionBeans {
       Sep6TransactionStore txn6Store,
       Sep24TransactionStore txn24Store,
       Sep31TransactionStore txn31Store,
+      TransactionRouter txnRouter,
+      TransactionResponseCache txnResponseCache,
       RequestValidator requestValidator,
       AssetService assetService,
       EventService eventService,
@@ -303,6 +359,8 @@ public class RpcActionBeans {
         txn6Store,
         txn24Store,
         txn31Store,
+        txnRouter,
+        txnResponseCache,
         requestValidator,
         assetService,
         eventService,
@@ -314,6 +372,8 @@ public class RpcActionBeans {
       Sep6TransactionStore txn6Store,
       Sep24TransactionStore txn24Store,
       Sep31TransactionStore txn31Store,
+      TransactionRouter txnRouter,
+      TransactionResponseCache txnResponseCache,
       RequestValidator requestValidator,
       AssetService assetService,
       EventService eventService,
@@ -322,6 +382,8 @@ public class RpcActionBeans {
         txn6Store,
         txn24Store,
         txn31Store,
+        txnRouter,
+        txnResponseCache,
         requestValidator,
         assetService,
         eventService,
@@ -333,6 +395,8 @@ public class RpcActionBeans {
       Sep6TransactionStore txn6Store,
       Sep24TransactionStore txn24Store,
       Sep31TransactionStore txn31Store,
+      TransactionRouter txnRouter,
+      TransactionResponseCache txnResponseCache,
       RequestValidator requestValidator,
       AssetService assetService,
       EventService eventService,
@@ -341,6 +405,8 @@ public class RpcActionBeans {
         txn6Store,
         txn24Store,
         txn31Store,
+        txnRouter,
+        txnResponseCache,
         requestValidator,
         assetService,
         eventService,
@@ -352,6 +418,8 @@ public class RpcActionBeans {
       Sep6TransactionStore txn6Store,
       Sep24TransactionStore txn24Store,
       Sep31TransactionStore txn31Store,
+      TransactionRouter txnRouter,
+      TransactionResponseCache txnResponseCache,
       RequestValidator requestValidator,
       CustomerIntegration customerIntegration,
       AssetService assetService,
@@ -361,6 +429,8 @@ public class RpcActionBeans {
         txn6Store,
         txn24Store,
         txn31Store,
+        txnRouter,
+        txnResponseCache,
         requestValidator,
         customerIntegration,
         assetService,
@@ -373,6 +443,8 @@ public class RpcActionBeans {
       Sep6TransactionStore txn6Store,
       Sep24TransactionStore txn24Store,
       Sep31TransactionStore txn31Store,
+      TransactionRouter txnRouter,
+      TransactionResponseCache txnResponseCache,
       RequestValidator requestValidator,
       AssetService assetService,
       EventService eventService,
@@ -381,6 +453,8 @@ public class RpcActionBeans {
         txn6Store,
         txn24Store,
         txn31Store,
+        txnRouter,
+        txnResponseCache,
         requestValidator,
         assetService,
         eventService,
@@ -392,6 +466,8 @@ public class RpcActionBeans {
       Sep6TransactionStore txn6Store,
       Sep24TransactionStore txn24Store,
       Sep31TransactionStore txn31Store,
+      TransactionRouter txnRouter,
+      TransactionResponseCache txnResponseCache,
       RequestValidator requestValidator,
       AssetService assetService,
       Sep6DepositInfoGenerator sep6DepositInfoGenerator,
@@ -404,6 +480,8 @@ public class RpcActionBeans {
         txn6Store,
         txn24Store,
         txn31Store,
+        txnRouter,
+        txnResponseCache,
         requestValidator,
         assetService,
         sep6DepositInfoGenerator,
@@ -419,6 +497,8 @@ public class RpcActionBeans {
       Sep6TransactionStore txn6Store,
       Sep24TransactionStore txn24Store,
       Sep31TransactionStore txn31Store,
+      TransactionRouter txnRouter,
+      TransactionResponseCache txnResponseCache,
       RequestValidator requestValidator,
       AssetService assetService,
       EventService eventService,
@@ -427,6 +507,8 @@ public class RpcActionBeans {
         txn6Store,
         txn24Store,
         txn31Store,
+        txnRouter,
+        txnResponseCache,
         requestValidator,
         assetService,
         eventService,
@@ -10,6 +10,7 @@ import org.stellar.anchor.config.AssetsConfig;
 import org.stellar.anchor.config.StellarNetworkConfig;
 import org.stellar.anchor.platform.config.PropertyAssetsConfig;
 import org.stellar.anchor.platform.observer.stellar.SacToAssetMapper;
+import org.stellar.sdk.Network;
 import org.stellar.sdk.SorobanServer;
 
 @Configuration
@@ -26,7 +27,13 @@ public class AssetBeans {
   }
 
   @Bean
-  SacToAssetMapper sacToAssetMapper(StellarNetworkConfig stellarNetworkConfig) {
-    return new SacToAssetMapper(new SorobanServer(stellarNetworkConfig.getRpcUrl()));
+  SacToAssetMapper sacToAssetMapper(
+      StellarNetworkConfig stellarNetworkConfig, AssetService assetService) {
+    SacToAssetMapper sacToAssetMapper =
+        new SacToAssetMapper(new SorobanServer(stellarNetworkConfig.getRpcUrl()));
+    sacToAssetMapper.warmUp(
+        assetService.getStellarAssets(),
+        new Network(stellarNetworkConfig.getStellarNetworkPassphrase()));
+    return sacToAssetMapper;
   }
 }
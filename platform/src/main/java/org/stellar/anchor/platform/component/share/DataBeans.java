@@ -1,5 +1,6 @@
 package org.stellar.anchor.platform.component.share;
 
+import jakarta.persistence.EntityManager;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.stellar.anchor.platform.data.*;
@@ -10,18 +11,26 @@ import org.stellar.anchor.sep38.Sep38QuoteStore;
 @Configuration
 public class DataBeans {
   @Bean
-  JdbcSep6TransactionStore sep6TransactionStore(JdbcSep6TransactionRepo sep6TransactionRepo) {
-    return new JdbcSep6TransactionStore(sep6TransactionRepo);
+  JdbcSep6TransactionStore sep6TransactionStore(
+      JdbcSep6TransactionRepo sep6TransactionRepo, JdbcTransactionRouteRepo routeRepo) {
+    return new JdbcSep6TransactionStore(sep6TransactionRepo, routeRepo);
   }
 
   @Bean
-  JdbcSep24TransactionStore sep24TransactionStore(JdbcSep24TransactionRepo sep24TransactionRepo) {
-    return new JdbcSep24TransactionStore(sep24TransactionRepo);
+  JdbcSep24TransactionStore sep24TransactionStore(
+      JdbcSep24TransactionRepo sep24TransactionRepo, JdbcTransactionRouteRepo routeRepo) {
+    return new JdbcSep24TransactionStore(sep24TransactionRepo, routeRepo);
   }
 
   @Bean
-  JdbcSep31TransactionStore sep31TransactionStore(JdbcSep31TransactionRepo txnRepo) {
-    return new JdbcSep31TransactionStore(txnRepo);
+  JdbcSep31TransactionStore sep31TransactionStore(
+      JdbcSep31TransactionRepo txnRepo, JdbcTransactionRouteRepo routeRepo) {
+    return new JdbcSep31TransactionStore(txnRepo, routeRepo);
+  }
+
+  @Bean
+  JdbcPendingTransactionMatcher pendingTransactionMatcher(EntityManager entityManager) {
+    return new JdbcPendingTransactionMatcher(entityManager);
   }
 
   @Bean
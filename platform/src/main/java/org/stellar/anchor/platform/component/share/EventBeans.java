@@ -3,9 +3,13 @@ package org.stellar.anchor.platform.component.share;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.stellar.anchor.event.EventService;
 import org.stellar.anchor.platform.config.PropertyEventConfig;
+import org.stellar.anchor.platform.data.JdbcEventOutboxRepo;
 import org.stellar.anchor.platform.event.DefaultEventService;
+import org.stellar.anchor.platform.event.EventOutboxRelay;
 
 @Configuration
 public class EventBeans {
@@ -19,7 +23,17 @@ public class EventBeans {
   }
 
   @Bean
-  public EventService eventService(PropertyEventConfig eventConfig) {
-    return new DefaultEventService(eventConfig);
+  public EventService eventService(
+      PropertyEventConfig eventConfig, JdbcEventOutboxRepo outboxRepo) {
+    return new DefaultEventService(eventConfig, outboxRepo);
+  }
+
+  @Bean
+  EventOutboxRelay eventOutboxRelay(
+      PropertyEventConfig eventConfig,
+      JdbcEventOutboxRepo outboxRepo,
+      PlatformTransactionManager transactionManager) {
+    return new EventOutboxRelay(
+        eventConfig, outboxRepo, new TransactionTemplate(transactionManager));
   }
 }
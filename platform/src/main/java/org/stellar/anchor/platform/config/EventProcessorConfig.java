@@ -1,5 +1,6 @@
 package org.stellar.anchor.platform.config;
 
+import java.util.List;
 import lombok.Data;
 import org.jetbrains.annotations.NotNull;
 import org.springframework.boot.context.properties.ConfigurationProperties;
@@ -14,6 +15,8 @@ public class EventProcessorConfig implements Validator {
 
   ClientStatusCallbackConfig clientStatusCallback;
   CallbackApiRequestConfig callbackApiRequest;
+  DeadLetterApiConfig deadLetterApi;
+  int lanes = 1;
 
   @Override
   public boolean supports(@NotNull Class<?> clazz) {
@@ -21,15 +24,59 @@ public class EventProcessorConfig implements Validator {
   }
 
   @Override
-  public void validate(@NotNull Object target, @NotNull Errors errors) {}
+  public void validate(@NotNull Object target, @NotNull Errors errors) {
+    if (clientStatusCallback != null && clientStatusCallback.getCoalescingWindowMs() < 0) {
+      errors.reject(
+          "invalid-client-status-callback-coalescing-window",
+          "event_processor.client_status_callback.coalescing_window_ms must not be negative");
+    }
+    if (callbackApiRequest != null) {
+      if (callbackApiRequest.getBatchSize() < 1) {
+        errors.reject(
+            "invalid-callback-api-request-batch-size",
+            "event_processor.callback_api_request.batch_size must be greater than 0");
+      }
+      if (callbackApiRequest.getBatchLingerMs() < 0) {
+        errors.reject(
+            "invalid-callback-api-request-batch-linger",
+            "event_processor.callback_api_request.batch_linger_ms must not be negative");
+      }
+    }
+    if (lanes < 1) {
+      errors.reject(
+          "invalid-event-processor-lanes", "event_processor.lanes must be greater than 0");
+    }
+  }
 
   @Data
   public static class ClientStatusCallbackConfig {
     boolean enabled;
+    long coalescingWindowMs = 0;
+    List<String> coalescingExcludeList;
+
+    /**
+     * Returns the coalescing window of the status callbacks of the client.
+     *
+     * @param clientName the name of the client
+     * @return the coalescing window in milliseconds. 0 if the client receives every status change.
+     */
+    public long getCoalescingWindowMs(String clientName) {
+      if (coalescingExcludeList != null && coalescingExcludeList.contains(clientName)) {
+        return 0;
+      }
+      return coalescingWindowMs;
+    }
   }
 
   @Data
   public static class CallbackApiRequestConfig {
     boolean enabled;
+    int batchSize = 1;
+    long batchLingerMs = 50;
+  }
+
+  @Data
+  public static class DeadLetterApiConfig {
+    boolean enabled;
   }
 }
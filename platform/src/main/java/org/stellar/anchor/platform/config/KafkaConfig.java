@@ -34,6 +34,13 @@ public class KafkaConfig {
   /** Determines the maximum amount of time to wait for the batch to be filled. */
   int pollTimeoutSeconds;
 
+  /**
+   * If true, the events are published without waiting for the broker acknowledgement, so the
+   * producer can batch them. The events published in a database transaction are still flushed
+   * once the transaction commits.
+   */
+  boolean asyncPublish;
+
   /** The security protocol used to communicate with brokers. */
   SecurityProtocol securityProtocol;
 
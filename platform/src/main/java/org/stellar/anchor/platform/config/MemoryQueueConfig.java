@@ -0,0 +1,22 @@
+package org.stellar.anchor.platform.config;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class MemoryQueueConfig {
+  /** The number of events the ring buffer holds. It is rounded up to a power of two. */
+  int capacity = 4096;
+
+  /** The maximum number of events returned by a read. */
+  int readBatchSize = 100;
+
+  /** The maximum time (in milliseconds) a read waits for an event. */
+  long pollTimeoutMs = 1000;
+
+  /** The maximum time (in milliseconds) a publish waits for the subscribers to free a slot. */
+  long publishTimeoutMs = 10000;
+}
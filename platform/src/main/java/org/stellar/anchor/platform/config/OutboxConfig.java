@@ -0,0 +1,19 @@
+package org.stellar.anchor.platform.config;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OutboxConfig {
+  /** The maximum number of events relayed from the outbox table in a database transaction. */
+  int batchSize = 100;
+
+  /** The interval (in milliseconds) between two drains of the outbox table. */
+  long pollIntervalMs = 500;
+
+  /** The maximum time (in milliseconds) to wait for Kafka to acknowledge the events of a batch. */
+  long sendTimeoutMs = 30000;
+}
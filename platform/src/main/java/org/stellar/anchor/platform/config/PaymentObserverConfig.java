@@ -1,6 +1,5 @@
 package org.stellar.anchor.platform.config;
 
-import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.jetbrains.annotations.NotNull;
@@ -11,14 +10,21 @@ import org.springframework.validation.Validator;
 @Data
 public class PaymentObserverConfig implements Validator {
   PaymentObserverType type;
+  PaymentNotifierType notifier = PaymentNotifierType.AUTO;
   StellarPaymentObserverConfig stellar;
 
   public enum PaymentObserverType {
     STELLAR
   }
 
+  public enum PaymentNotifierType {
+    // Call the RPC service directly if the platform server runs in the same JVM, otherwise use HTTP
+    AUTO,
+    // Always call the platform server through HTTP
+    HTTP
+  }
+
   @Data
-  @AllArgsConstructor
   @NoArgsConstructor
   public static class StellarPaymentObserverConfig {
     int silenceCheckInterval;
@@ -28,6 +34,33 @@ public class PaymentObserverConfig implements Validator {
     int maxStreamBackoffTime;
     int initialEventBackoffTime;
     int maxEventBackoffTime;
+    // The maximum number of ledger transactions fetched concurrently while processing a page.
+    int transactionFetchConcurrency = 8;
+    // The interval (in seconds) between the polls once the observer has caught up.
+    int eventPollingInterval = 1;
+    // The number of lanes dispatching the payment events to the listeners.
+    int listenerDispatchConcurrency = 4;
+    // The number of processed events after which the acknowledged cursor is saved.
+    int cursorCheckpointEvents = 100;
+    // The maximum interval (in seconds) between two saves of the acknowledged cursor.
+    int cursorCheckpointInterval = 5;
+
+    public StellarPaymentObserverConfig(
+        int silenceCheckInterval,
+        int silenceTimeout,
+        int silenceTimeoutRetries,
+        int initialStreamBackoffTime,
+        int maxStreamBackoffTime,
+        int initialEventBackoffTime,
+        int maxEventBackoffTime) {
+      this.silenceCheckInterval = silenceCheckInterval;
+      this.silenceTimeout = silenceTimeout;
+      this.silenceTimeoutRetries = silenceTimeoutRetries;
+      this.initialStreamBackoffTime = initialStreamBackoffTime;
+      this.maxStreamBackoffTime = maxStreamBackoffTime;
+      this.initialEventBackoffTime = initialEventBackoffTime;
+      this.maxEventBackoffTime = maxEventBackoffTime;
+    }
   }
 
   @Override
@@ -92,6 +125,31 @@ public class PaymentObserverConfig implements Validator {
               "invalid-payment-observer-stellar-max-event-backoff-time",
               "The payment_observer.stellar.max_event_backoff_time must be equal or greater than 2");
         }
+        if (config.stellar.transactionFetchConcurrency < 1) {
+          errors.reject(
+              "invalid-payment-observer-stellar-transaction-fetch-concurrency",
+              "The payment_observer.stellar.transaction_fetch_concurrency must be equal or greater than 1");
+        }
+        if (config.stellar.eventPollingInterval < 1) {
+          errors.reject(
+              "invalid-payment-observer-stellar-event-polling-interval",
+              "The payment_observer.stellar.event_polling_interval must be equal or greater than 1");
+        }
+        if (config.stellar.listenerDispatchConcurrency < 1) {
+          errors.reject(
+              "invalid-payment-observer-stellar-listener-dispatch-concurrency",
+              "The payment_observer.stellar.listener_dispatch_concurrency must be equal or greater than 1");
+        }
+        if (config.stellar.cursorCheckpointEvents < 1) {
+          errors.reject(
+              "invalid-payment-observer-stellar-cursor-checkpoint-events",
+              "The payment_observer.stellar.cursor_checkpoint_events must be equal or greater than 1");
+        }
+        if (config.stellar.cursorCheckpointInterval < 0) {
+          errors.reject(
+              "invalid-payment-observer-stellar-cursor-checkpoint-interval",
+              "The payment_observer.stellar.cursor_checkpoint_interval must be equal or greater than 0");
+        }
       }
     }
   }
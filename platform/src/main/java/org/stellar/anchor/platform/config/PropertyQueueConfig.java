@@ -18,6 +18,8 @@ public class PropertyQueueConfig implements QueueConfig, Validator {
   KafkaConfig kafka;
   SqsConfig sqs;
   MskConfig msk;
+  OutboxConfig outbox;
+  MemoryQueueConfig memory;
 
   @Override
   public boolean supports(@NotNull Class<?> clazz) {
@@ -30,7 +32,7 @@ public class PropertyQueueConfig implements QueueConfig, Validator {
     if (config.getType() == null) {
       errors.reject(
           "queue-type-empty",
-          "queue.type is not defined. Please specify the type: KAFKA, SQS, or MSK");
+          "queue.type is not defined. Please specify the type: KAFKA, SQS, MSK, OUTBOX, or MEMORY");
       return;
     }
 
@@ -44,8 +46,16 @@ public class PropertyQueueConfig implements QueueConfig, Validator {
       case MSK:
         validateMsk(config, errors);
         break;
+      case OUTBOX:
+        validateOutbox(config, errors);
+        break;
+      case MEMORY:
+        validateMemory(config, errors);
+        break;
       default:
-        errors.reject("invalidType-queue-type", "queue.type must be one of 'KAFKA', 'SQS', or MSK");
+        errors.reject(
+            "invalidType-queue-type",
+            "queue.type must be one of 'KAFKA', 'SQS', 'MSK', 'OUTBOX', or 'MEMORY'");
     }
   }
 
@@ -135,6 +145,57 @@ public class PropertyQueueConfig implements QueueConfig, Validator {
     }
   }
 
+  void validateOutbox(PropertyQueueConfig config, Errors errors) {
+    if (config.getOutbox() == null) {
+      errors.reject(
+          "queue-outbox-empty",
+          "queue.outbox is not defined. Please specify the outbox configuration.");
+    } else {
+      if (config.getOutbox().getBatchSize() <= 0) {
+        errors.reject(
+            "outbox-batch-size-invalid", "queue.outbox.batch_size must be greater than 0.");
+      }
+      if (config.getOutbox().getPollIntervalMs() <= 0) {
+        errors.reject(
+            "outbox-poll-interval-ms-invalid",
+            "queue.outbox.poll_interval_ms must be greater than 0.");
+      }
+      if (config.getOutbox().getSendTimeoutMs() <= 0) {
+        errors.reject(
+            "outbox-send-timeout-ms-invalid",
+            "queue.outbox.send_timeout_ms must be greater than 0.");
+      }
+    }
+    // The events of the outbox are relayed to Kafka.
+    validateKafka(config, errors);
+  }
+
+  void validateMemory(PropertyQueueConfig config, Errors errors) {
+    if (config.getMemory() == null) {
+      errors.reject(
+          "queue-memory-empty",
+          "queue.memory is not defined. Please specify the in-memory queue configuration.");
+      return;
+    }
+    MemoryQueueConfig memoryConfig = config.getMemory();
+    if (memoryConfig.getCapacity() <= 0) {
+      errors.reject("memory-capacity-invalid", "queue.memory.capacity must be greater than 0.");
+    }
+    if (memoryConfig.getReadBatchSize() <= 0) {
+      errors.reject(
+          "memory-read-batch-size-invalid", "queue.memory.read_batch_size must be greater than 0.");
+    }
+    if (memoryConfig.getPollTimeoutMs() <= 0) {
+      errors.reject(
+          "memory-poll-timeout-ms-invalid", "queue.memory.poll_timeout_ms must be greater than 0.");
+    }
+    if (memoryConfig.getPublishTimeoutMs() < 0) {
+      errors.reject(
+          "memory-publish-timeout-ms-invalid",
+          "queue.memory.publish_timeout_ms must be greater than or equal to 0.");
+    }
+  }
+
   void validateMsk(PropertyQueueConfig config, Errors errors) {
     rejectIfEmptyOrWhitespace(errors, "msk.bootstrapServer", "msk-bootstrap-server-empty");
 
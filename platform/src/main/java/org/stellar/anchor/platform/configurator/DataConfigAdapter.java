@@ -281,6 +281,9 @@ public class DataConfigAdapter extends SpringConfigAdapter {
     set("spring.jpa.hibernate.use-new-id-generator-mappings", true);
     set("spring.jpa.open-in-view", true);
     set("spring.jpa.show-sql", false);
+    // Group the inserts and updates of a flush into JDBC batches
+    set("spring.jpa.properties.hibernate.jdbc.batch_size", 50);
+    set("spring.jpa.properties.hibernate.order_updates", true);
 
     set("spring.flyway.enabled", false);
   }
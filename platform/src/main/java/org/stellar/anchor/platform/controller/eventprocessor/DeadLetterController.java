@@ -0,0 +1,89 @@
+package org.stellar.anchor.platform.controller.eventprocessor;
+
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.annotation.RestController;
+import org.stellar.anchor.api.exception.AnchorException;
+import org.stellar.anchor.api.exception.NotFoundException;
+import org.stellar.anchor.api.platform.DeadLetterResponse;
+import org.stellar.anchor.platform.config.EventProcessorConfig;
+import org.stellar.anchor.platform.data.JdbcClientCallbackDeadLetter;
+import org.stellar.anchor.platform.event.ClientCallbackDeadLetterStore;
+
+/**
+ * Lists and replays the client status callbacks that could not be delivered. The endpoints are
+ * disabled unless event_processor.dead_letter_api.enabled is set, and are authenticated like the
+ * Platform API.
+ */
+@RestController
+@RequestMapping(
+    value = "/dead_letters",
+    produces = {MediaType.APPLICATION_JSON_VALUE})
+public class DeadLetterController {
+  private final EventProcessorConfig eventProcessorConfig;
+  private final ClientCallbackDeadLetterStore deadLetterStore;
+
+  DeadLetterController(
+      EventProcessorConfig eventProcessorConfig, ClientCallbackDeadLetterStore deadLetterStore) {
+    this.eventProcessorConfig = eventProcessorConfig;
+    this.deadLetterStore = deadLetterStore;
+  }
+
+  @ResponseStatus(code = HttpStatus.OK)
+  @RequestMapping(method = {RequestMethod.GET})
+  public List<DeadLetterResponse> getDeadLetters(
+      @RequestParam(required = false, value = "client_name") String clientName,
+      @RequestParam(required = false, value = "limit") Integer limit) throws NotFoundException {
+    checkEnabled();
+    return deadLetterStore.list(clientName, limit).stream()
+        .map(DeadLetterController::toResponse)
+        .collect(Collectors.toList());
+  }
+
+  @ResponseStatus(code = HttpStatus.ACCEPTED)
+  @RequestMapping(
+      value = "/{id}/replay",
+      method = {RequestMethod.POST})
+  public void replayDeadLetter(@PathVariable(name = "id") String id) throws AnchorException {
+    checkEnabled();
+    deadLetterStore.replay(id);
+  }
+
+  @ResponseStatus(code = HttpStatus.ACCEPTED)
+  @RequestMapping(
+      value = "/replay",
+      method = {RequestMethod.POST})
+  public Map<String, Integer> replayDeadLetters(
+      @RequestParam(value = "client_name") String clientName) throws AnchorException {
+    checkEnabled();
+    return Map.of("replayed", deadLetterStore.replayAll(clientName));
+  }
+
+  static DeadLetterResponse toResponse(JdbcClientCallbackDeadLetter deadLetter) {
+    return DeadLetterResponse.builder()
+        .id(deadLetter.getId())
+        .clientName(deadLetter.getClientName())
+        .eventId(deadLetter.getEventId())
+        .transactionId(deadLetter.getTransactionId())
+        .error(deadLetter.getError())
+        .attempts(deadLetter.getAttempts())
+        .createdAt(deadLetter.getCreatedAt())
+        .replayStartedAt(deadLetter.getReplayStartedAt())
+        .build();
+  }
+
+  void checkEnabled() throws NotFoundException {
+    if (eventProcessorConfig.getDeadLetterApi() == null
+        || !eventProcessorConfig.getDeadLetterApi().isEnabled()) {
+      throw new NotFoundException("The dead letter API is not enabled");
+    }
+  }
+}
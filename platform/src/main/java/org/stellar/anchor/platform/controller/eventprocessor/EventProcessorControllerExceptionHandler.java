@@ -0,0 +1,8 @@
+package org.stellar.anchor.platform.controller.eventprocessor;
+
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.stellar.anchor.platform.controller.AbstractControllerExceptionHandler;
+
+/** The uncaught exception handler. */
+@RestControllerAdvice
+public class EventProcessorControllerExceptionHandler extends AbstractControllerExceptionHandler {}
@@ -66,10 +66,11 @@ public class PlatformController {
       @RequestParam(required = false, value = "order", defaultValue = "asc") Sort.Direction order,
       @RequestParam(required = false, value = "statuses") List<SepTransactionStatus> statuses,
       @RequestParam(required = false, value = "page_number", defaultValue = "0") Integer pageNumber,
-      @RequestParam(required = false, value = "page_size", defaultValue = "20") Integer pageSize)
+      @RequestParam(required = false, value = "page_size", defaultValue = "20") Integer pageSize,
+      @RequestParam(required = false, value = "cursor") String cursor)
       throws AnchorException {
     TransactionsParams params =
-        new TransactionsParams(orderBy, order, statuses, pageNumber, pageSize);
+        new TransactionsParams(orderBy, order, statuses, pageNumber, pageSize, cursor);
     return transactionService.findTransactions(sep, params);
   }
 }
@@ -1,26 +1,36 @@
 package org.stellar.anchor.platform.data;
 
-import static org.stellar.anchor.api.sep.SepTransactionStatus.mergeStatusesList;
-
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.Query;
 import jakarta.persistence.Table;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.stream.Collectors;
+import lombok.SneakyThrows;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.repository.support.JpaEntityInformation;
 import org.springframework.data.jpa.repository.support.JpaEntityInformationSupport;
 import org.stellar.anchor.api.sep.SepTransactionStatus;
 import org.stellar.anchor.util.TransactionsParams;
 
+/**
+ * Finds the transactions of the Platform GET /transactions API.
+ *
+ * <p>The transactions are ordered by the {@code orderBy} column with the null values last, then by
+ * id. Without a cursor, the page is selected with OFFSET. With a cursor, the transactions following
+ * it are selected with a keyset condition on {@code (column, id)}, which seeks the index instead of
+ * scanning the previous pages. The transactions whose column is null are selected by a second query
+ * once the non-null values are exhausted, so that the keyset condition stays sargable.
+ */
 public class AllTransactionsRepositoryImpl<T> implements AllTransactionsRepository<T> {
   private final EntityManager em;
-  private static final String NL = System.lineSeparator();
 
   public AllTransactionsRepositoryImpl(EntityManager em) {
     this.em = em;
   }
 
   @Override
-  @SuppressWarnings("unchecked")
+  @SneakyThrows
   public List<T> findAllTransactions(TransactionsParams params, Class<T> entityClass) {
     JpaEntityInformation<T, ?> entityInformation =
         JpaEntityInformationSupport.getEntityInformation(entityClass, em);
@@ -30,23 +40,120 @@ public class AllTransactionsRepositoryImpl<T> implements AllTransactionsReposito
       throw new AssertionError("Class " + entityClass.getName() + " doesn't have table name");
     }
 
-    List<SepTransactionStatus> statuses = params.getStatuses();
+    String column = params.getOrderBy().getTableName();
+    boolean filterStatuses = params.getStatuses() != null;
+    Integer pageSize = params.getPageSize();
+    TransactionsCursor cursor = TransactionsCursor.decode(params);
 
-    // Create query
-    String nativeQuery =
-        String.format(
-            "SELECT * FROM %s t %s ORDER BY %s %s NULLS LAST, id ASC LIMIT %d OFFSET %d",
-            table.name(),
-            statuses == null ? "" : " WHERE t.status in (" + mergeStatusesList(statuses, "'") + ")",
-            params.getOrderBy().getTableName(),
-            params.getOrder().name(),
-            params.getPageSize(),
-            params.getPageNumber() * params.getPageSize());
+    if (cursor == null) {
+      String nativeQuery =
+          String.format(
+              "SELECT * FROM %s t%s ORDER BY t.%s %s NULLS LAST, t.id ASC",
+              table.name(),
+              filterStatuses ? " WHERE t.status IN (:statuses)" : "",
+              column,
+              params.getOrder().name());
+      Query query = createQuery(nativeQuery, params, entityClass, pageSize);
+      if (pageSize != null && params.getPageNumber() != null) {
+        query.setFirstResult(params.getPageNumber() * pageSize);
+      }
+      return getResultList(query);
+    }
 
-    Query query = em.createNativeQuery(nativeQuery, entityClass);
+    List<T> results = new ArrayList<>();
+    if (cursor.getValue() != null) {
+      Query query =
+          createQuery(
+              buildSeekQuery(table.name(), column, params.getOrder(), filterStatuses),
+              params,
+              entityClass,
+              pageSize);
+      query.setParameter("cursorValue", cursor.getValue());
+      query.setParameter("cursorId", cursor.getId());
+      results.addAll(getResultList(query));
+      if (pageSize != null && results.size() >= pageSize) {
+        return results;
+      }
+    }
+    // The non-null values are exhausted, continue with the null values.
+    boolean afterId = cursor.getValue() == null;
+    Query query =
+        createQuery(
+            buildNullTailQuery(table.name(), column, filterStatuses, afterId),
+            params,
+            entityClass,
+            (pageSize == null) ? null : pageSize - results.size());
+    if (afterId) {
+      query.setParameter("cursorId", cursor.getId());
+    }
+    results.addAll(getResultList(query));
+    return results;
+  }
+
+  /**
+   * Build the query of the transactions following the cursor whose column is not null.
+   *
+   * @param tableName the name of the table
+   * @param column the column to order by
+   * @param order the order of the column
+   * @param filterStatuses whether the transactions are filtered by the :statuses parameter
+   * @return the native query
+   */
+  static String buildSeekQuery(
+      String tableName, String column, Sort.Direction order, boolean filterStatuses) {
+    String keyset =
+        (order == Sort.Direction.ASC)
+            ? String.format("(t.%1$s, t.id) > (:cursorValue, :cursorId)", column)
+            // The id is ascending, so the row value comparison cannot be used. The first
+            // condition bounds the index scan.
+            : String.format(
+                "t.%1$s <= :cursorValue AND (t.%1$s < :cursorValue OR t.id > :cursorId)", column);
+    return String.format(
+        "SELECT * FROM %s t WHERE %s%s ORDER BY t.%s %s, t.id ASC",
+        tableName,
+        keyset,
+        filterStatuses ? " AND t.status IN (:statuses)" : "",
+        column,
+        order.name());
+  }
 
-    List<T> results = query.getResultList();
+  /**
+   * Build the query of the transactions whose column is null.
+   *
+   * @param tableName the name of the table
+   * @param column the column to order by
+   * @param filterStatuses whether the transactions are filtered by the :statuses parameter
+   * @param afterId whether only the transactions following the :cursorId parameter are selected
+   * @return the native query
+   */
+  static String buildNullTailQuery(
+      String tableName, String column, boolean filterStatuses, boolean afterId) {
+    return String.format(
+        "SELECT * FROM %s t WHERE t.%s IS NULL%s%s ORDER BY t.id ASC",
+        tableName,
+        column,
+        afterId ? " AND t.id > :cursorId" : "",
+        filterStatuses ? " AND t.status IN (:statuses)" : "");
+  }
 
-    return results;
+  private Query createQuery(
+      String nativeQuery, TransactionsParams params, Class<T> entityClass, Integer maxResults) {
+    Query query = em.createNativeQuery(nativeQuery, entityClass);
+    if (params.getStatuses() != null) {
+      query.setParameter(
+          "statuses",
+          params.getStatuses().stream()
+              .map(SepTransactionStatus::toString)
+              .collect(Collectors.toList()));
+    }
+    if (maxResults != null) {
+      query.setMaxResults(maxResults);
+    }
+    return query;
+  }
+
+  @SuppressWarnings("unchecked")
+  private List<T> getResultList(Query query) {
+    return query.getResultList();
   }
 }
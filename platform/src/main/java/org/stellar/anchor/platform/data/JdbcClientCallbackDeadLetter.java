@@ -0,0 +1,51 @@
+package org.stellar.anchor.platform.data;
+
+import com.google.gson.annotations.SerializedName;
+import jakarta.persistence.*;
+import java.time.Instant;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/** A client status callback that could not be delivered and is kept for replay. */
+@Getter
+@Setter
+@Entity
+@Access(AccessType.FIELD)
+@Table(name = "client_callback_dead_letter")
+@NoArgsConstructor
+public class JdbcClientCallbackDeadLetter {
+  @Id String id;
+
+  @SerializedName("client_name")
+  @Column(name = "client_name")
+  String clientName;
+
+  @SerializedName("event_id")
+  @Column(name = "event_id")
+  String eventId;
+
+  @SerializedName("transaction_id")
+  @Column(name = "transaction_id")
+  String transactionId;
+
+  @SerializedName("event")
+  @Column(name = "event_json")
+  String event;
+
+  @SerializedName("error")
+  @Column(name = "last_error")
+  String error;
+
+  @SerializedName("attempts")
+  @Column(name = "attempts")
+  Integer attempts;
+
+  @SerializedName("created_at")
+  @Column(name = "created_at")
+  Instant createdAt;
+
+  @SerializedName("replay_started_at")
+  @Column(name = "replay_started_at")
+  Instant replayStartedAt;
+}
@@ -0,0 +1,39 @@
+package org.stellar.anchor.platform.data;
+
+import java.time.Instant;
+import java.util.List;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+public interface JdbcClientCallbackDeadLetterRepo
+    extends CrudRepository<JdbcClientCallbackDeadLetter, String> {
+  List<JdbcClientCallbackDeadLetter> findAllByOrderByCreatedAtAsc(Pageable pageable);
+
+  List<JdbcClientCallbackDeadLetter> findByClientNameOrderByCreatedAtAsc(
+      String clientName, Pageable pageable);
+
+  List<JdbcClientCallbackDeadLetter> findByClientNameOrderByCreatedAtAsc(String clientName);
+
+  /**
+   * Marks the dead letter as replaying, unless its replay is in flight. A replay started before
+   * staleBefore is assumed to be lost.
+   *
+   * @return 1 if the dead letter is marked, 0 otherwise.
+   */
+  @Transactional
+  @Modifying
+  @Query(
+      "UPDATE JdbcClientCallbackDeadLetter d SET d.replayStartedAt = :now WHERE d.id = :id"
+          + " AND (d.replayStartedAt IS NULL OR d.replayStartedAt < :staleBefore)")
+  int markAsReplaying(
+      @Param("id") String id, @Param("now") Instant now, @Param("staleBefore") Instant staleBefore);
+
+  @Transactional
+  @Modifying
+  @Query("UPDATE JdbcClientCallbackDeadLetter d SET d.replayStartedAt = NULL WHERE d.id = :id")
+  void clearReplaying(@Param("id") String id);
+}
@@ -0,0 +1,34 @@
+package org.stellar.anchor.platform.data;
+
+import jakarta.persistence.*;
+import java.time.Instant;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/** An event written in the database transaction that produced it, waiting to be relayed. */
+@Getter
+@Setter
+@Entity
+@Access(AccessType.FIELD)
+@Table(name = "event_outbox")
+@NoArgsConstructor
+public class JdbcEventOutbox {
+  @Id String id;
+
+  /** The order in which the events were written, assigned by the database. */
+  @Column(name = "seq", insertable = false, updatable = false)
+  Long seq;
+
+  @Column(name = "event_queue")
+  String queue;
+
+  @Column(name = "event_id")
+  String eventId;
+
+  @Column(name = "event_json")
+  String event;
+
+  @Column(name = "created_at")
+  Instant createdAt;
+}
@@ -0,0 +1,31 @@
+package org.stellar.anchor.platform.data;
+
+import java.util.List;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
+
+public interface JdbcEventOutboxRepo extends CrudRepository<JdbcEventOutbox, String> {
+  /**
+   * Try to become the only relay of the outbox until the end of the current transaction. The lock
+   * is released when the transaction commits or rolls back. Must be called in a transaction.
+   *
+   * @return true if the lock is acquired, false if another relay holds it
+   */
+  @Query(
+      value = "SELECT pg_try_advisory_xact_lock(hashtext('event_outbox_relay'))",
+      nativeQuery = true)
+  boolean tryLockRelay();
+
+  /**
+   * Lock the oldest events of the outbox, in the order they were written. Must be called in a
+   * transaction.
+   *
+   * @param limit the maximum number of events
+   * @return the locked events, oldest first
+   */
+  @Query(
+      value = "SELECT * FROM event_outbox ORDER BY seq LIMIT :limit FOR UPDATE",
+      nativeQuery = true)
+  List<JdbcEventOutbox> lockOldest(@Param("limit") int limit);
+}
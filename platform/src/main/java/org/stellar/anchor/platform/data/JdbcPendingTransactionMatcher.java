@@ -0,0 +1,170 @@
+package org.stellar.anchor.platform.data;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Query;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.stellar.anchor.api.sep.SepTransactionStatus;
+
+/**
+ * Matches an observed payment to the pending SEP-31, SEP-24 and SEP-6 transactions. All the
+ * candidate (account, memo) pairs of the three tables are resolved by a single UNION ALL query, and
+ * the matched transactions are then loaded with one query per table.
+ */
+public class JdbcPendingTransactionMatcher {
+  private final EntityManager em;
+
+  public JdbcPendingTransactionMatcher(EntityManager em) {
+    this.em = em;
+  }
+
+  /**
+   * Find the pending transactions that match the payment.
+   *
+   * @param sep31Candidates the (to_account, stellar_memo) pairs of the SEP-31 transactions in
+   *     pending_sender status
+   * @param withdrawCandidates the (withdraw_anchor_account, memo) pairs of the SEP-24 and SEP-6
+   *     transactions in pending_user_transfer_start status
+   * @return the matched transactions ordered by SEP-31, SEP-24, SEP-6 and then by the order of the
+   *     candidates.
+   */
+  @SuppressWarnings("unchecked")
+  public List<JdbcSepTransaction> findPendingTransactions(
+      List<Candidate> sep31Candidates, List<Candidate> withdrawCandidates) {
+    List<String> selects = new ArrayList<>();
+    List<Class<? extends JdbcSepTransaction>> entityClasses = new ArrayList<>();
+    List<Object[]> parameters = new ArrayList<>();
+
+    for (Candidate candidate : sep31Candidates) {
+      addSelect(
+          selects,
+          entityClasses,
+          parameters,
+          JdbcSep31Transaction.class,
+          "sep31_transaction",
+          "to_account",
+          "stellar_memo",
+          SepTransactionStatus.PENDING_SENDER,
+          candidate);
+    }
+    for (Candidate candidate : withdrawCandidates) {
+      addSelect(
+          selects,
+          entityClasses,
+          parameters,
+          JdbcSep24Transaction.class,
+          "sep24_transaction",
+          "withdraw_anchor_account",
+          "memo",
+          SepTransactionStatus.PENDING_USR_TRANSFER_START,
+          candidate);
+    }
+    for (Candidate candidate : withdrawCandidates) {
+      addSelect(
+          selects,
+          entityClasses,
+          parameters,
+          JdbcSep6Transaction.class,
+          "sep6_transaction",
+          "withdraw_anchor_account",
+          "memo",
+          SepTransactionStatus.PENDING_USR_TRANSFER_START,
+          candidate);
+    }
+    if (selects.isEmpty()) {
+      return List.of();
+    }
+
+    Query query =
+        em.createNativeQuery(String.join(" UNION ALL ", selects) + " ORDER BY priority ASC");
+    for (Object[] parameter : parameters) {
+      query.setParameter((String) parameter[0], parameter[1]);
+    }
+
+    List<Object[]> rows = (List<Object[]>) query.getResultList();
+    Map<Class<? extends JdbcSepTransaction>, List<String>> ids = new LinkedHashMap<>();
+    for (Object[] row : rows) {
+      int priority = ((Number) row[1]).intValue();
+      ids.computeIfAbsent(entityClasses.get(priority), k -> new ArrayList<>()).add((String) row[0]);
+    }
+    Map<Class<? extends JdbcSepTransaction>, Map<String, JdbcSepTransaction>> loaded =
+        new HashMap<>();
+    for (Map.Entry<Class<? extends JdbcSepTransaction>, List<String>> entry : ids.entrySet()) {
+      loaded.put(entry.getKey(), findAll(entry.getKey(), entry.getValue()));
+    }
+
+    List<JdbcSepTransaction> results = new ArrayList<>();
+    for (Object[] row : rows) {
+      int priority = ((Number) row[1]).intValue();
+      JdbcSepTransaction txn = loaded.get(entityClasses.get(priority)).get((String) row[0]);
+      if (txn != null) {
+        results.add(txn);
+      }
+    }
+    return results;
+  }
+
+  /**
+   * Load the transactions of a table by their ids with a single query.
+   *
+   * @param entityClass the entity class of the table
+   * @param ids the transaction ids
+   * @return the transactions by id
+   */
+  Map<String, JdbcSepTransaction> findAll(
+      Class<? extends JdbcSepTransaction> entityClass, List<String> ids) {
+    String entityName = em.getMetamodel().entity(entityClass).getName();
+    List<? extends JdbcSepTransaction> txns =
+        em.createQuery("SELECT t FROM " + entityName + " t WHERE t.id IN :ids", entityClass)
+            .setParameter("ids", ids)
+            .getResultList();
+    Map<String, JdbcSepTransaction> byId = new HashMap<>();
+    for (JdbcSepTransaction txn : txns) {
+      byId.put(txn.getId(), txn);
+    }
+    return byId;
+  }
+
+  void addSelect(
+      List<String> selects,
+      List<Class<? extends JdbcSepTransaction>> entityClasses,
+      List<Object[]> parameters,
+      Class<? extends JdbcSepTransaction> entityClass,
+      String tableName,
+      String accountColumn,
+      String memoColumn,
+      SepTransactionStatus status,
+      Candidate candidate) {
+    int priority = selects.size();
+    String accountParam = "account" + priority;
+    String memoParam = "memo" + priority;
+    String statusParam = "status" + priority;
+
+    // A null memo must match the rows without memo.
+    String memoCondition =
+        (candidate.getMemo() == null) ? memoColumn + " IS NULL" : memoColumn + " = :" + memoParam;
+    selects.add(
+        String.format(
+            "SELECT id, %d AS priority FROM %s WHERE %s = :%s AND %s AND status = :%s",
+            priority, tableName, accountColumn, accountParam, memoCondition, statusParam));
+    entityClasses.add(entityClass);
+    parameters.add(new Object[] {accountParam, candidate.getAccount()});
+    if (candidate.getMemo() != null) {
+      parameters.add(new Object[] {memoParam, candidate.getMemo()});
+    }
+    parameters.add(new Object[] {statusParam, status.toString()});
+  }
+
+  /** The (account, memo) pair to match. */
+  @Getter
+  @AllArgsConstructor
+  public static class Candidate {
+    String account;
+    String memo;
+  }
+}
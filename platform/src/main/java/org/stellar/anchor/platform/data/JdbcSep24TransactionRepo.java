@@ -26,37 +26,67 @@ public interface JdbcSep24TransactionRepo
   JdbcSep24Transaction findOneByWithdrawAnchorAccountAndMemoAndStatus(
       String withdrawAnchorAccount, String memo, String status);
 
+  /**
+   * Find a page of the transactions of the account, newest first.
+   *
+   * @param account the account
+   * @param assetCode the asset code
+   * @param kind the kind, or null for all the kinds
+   * @param noOlderThan the lower bound (exclusive) of startedAt
+   * @param olderThan the upper bound (exclusive) of startedAt if pagingId is null
+   * @param pagingId the id of the last transaction of the previous page, or null
+   * @param pageable the page size
+   * @return the transactions
+   */
   @Query(
       "SELECT t FROM JdbcSep24Transaction t WHERE t.webAuthAccount = :account"
           + " AND t.requestAssetCode = :assetCode"
           + " AND (:kind IS NULL OR t.kind = :kind)"
           + " AND t.startedAt > :noOlderThan"
-          + " AND t.startedAt < :olderThan"
-          + " ORDER BY t.startedAt DESC")
+          // The page follows the (startedAt, id) of the paging transaction
+          + " AND t.startedAt <= COALESCE((SELECT p.startedAt FROM"
+          + " JdbcSep24Transaction p WHERE p.id = :pagingId), :olderThan)"
+          + " AND (t.startedAt < COALESCE((SELECT p.startedAt FROM"
+          + " JdbcSep24Transaction p WHERE p.id = :pagingId), :olderThan)"
+          + " OR t.id < :pagingId)"
+          + " ORDER BY t.startedAt DESC, t.id DESC")
   List<JdbcSep24Transaction> findTransactionsWithFilters(
       @Param("account") String account,
       @Param("assetCode") String assetCode,
       @Param("kind") String kind,
       @Param("noOlderThan") Instant noOlderThan,
       @Param("olderThan") Instant olderThan,
+      @Param("pagingId") String pagingId,
       Pageable pageable);
 
   @Query(
-      "SELECT t FROM JdbcSep24Transaction t WHERE t.webAuthAccount = :account"
-          + " AND t.webAuthAccountMemo = :accountMemo"
+      "SELECT t FROM JdbcSep24Transaction t WHERE ((t.webAuthAccount = :account"
+          + " AND t.webAuthAccountMemo = :accountMemo)"
+          // Legacy rows may have stored account:memo in webAuthAccount and no memo.
+          + " OR t.webAuthAccount = :legacyAccount)"
           + " AND t.requestAssetCode = :assetCode"
           + " AND (:kind IS NULL OR t.kind = :kind)"
           + " AND t.startedAt > :noOlderThan"
-          + " AND t.startedAt < :olderThan"
-          + " ORDER BY t.startedAt DESC")
+          // The page follows the (startedAt, id) of the paging transaction
+          + " AND t.startedAt <= COALESCE((SELECT p.startedAt FROM"
+          + " JdbcSep24Transaction p WHERE p.id = :pagingId), :olderThan)"
+          + " AND (t.startedAt < COALESCE((SELECT p.startedAt FROM"
+          + " JdbcSep24Transaction p WHERE p.id = :pagingId), :olderThan)"
+          + " OR t.id < :pagingId)"
+          + " ORDER BY t.startedAt DESC, t.id DESC")
   List<JdbcSep24Transaction> findTransactionsWithMemoAndFilters(
       @Param("account") String account,
       @Param("accountMemo") String accountMemo,
+      @Param("legacyAccount") String legacyAccount,
       @Param("assetCode") String assetCode,
       @Param("kind") String kind,
       @Param("noOlderThan") Instant noOlderThan,
       @Param("olderThan") Instant olderThan,
+      @Param("pagingId") String pagingId,
       Pageable pageable);
 
   Page<JdbcSep24Transaction> findByStatusIn(List<String> allowedStatuses, Pageable pageable);
+
+  @Query(value = "SELECT t.version FROM JdbcSep24Transaction t WHERE t.id = :id")
+  Integer findVersionById(@Param("id") String id);
 }
@@ -12,6 +12,7 @@ import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.stellar.anchor.api.exception.SepException;
 import org.stellar.anchor.api.exception.SepValidationException;
+import org.stellar.anchor.api.platform.PlatformTransactionData.Sep;
 import org.stellar.anchor.api.sep.sep24.GetTransactionsRequest;
 import org.stellar.anchor.sep24.Sep24RefundPayment;
 import org.stellar.anchor.sep24.Sep24Refunds;
@@ -22,9 +23,12 @@ import org.stellar.anchor.util.TransactionsParams;
 
 public class JdbcSep24TransactionStore implements Sep24TransactionStore {
   final JdbcSep24TransactionRepo txnRepo;
+  final JdbcTransactionRouteRepo routeRepo;
 
-  public JdbcSep24TransactionStore(JdbcSep24TransactionRepo txnRepo) {
+  public JdbcSep24TransactionStore(
+      JdbcSep24TransactionRepo txnRepo, JdbcTransactionRouteRepo routeRepo) {
     this.txnRepo = txnRepo;
+    this.routeRepo = routeRepo;
   }
 
   @Override
@@ -75,17 +79,8 @@ public class JdbcSep24TransactionStore implements Sep24TransactionStore {
     }
 
     Instant noOlderThan = Instant.EPOCH;
-    Instant olderThan = Instant.now();
-
-    if (tr.getPagingId() != null) {
-      Sep24Transaction txn = txnRepo.findOneByTransactionId(tr.getPagingId());
-      if (txn != null) {
-        olderThan = txn.getStartedAt();
-      } else {
-        throw new SepValidationException(
-            String.format("invalid paging_id field: %s", tr.getPagingId()));
-      }
-    }
+    // With a paging id, the page follows the paging transaction, resolved by the query.
+    Instant olderThan = (tr.getPagingId() == null) ? Instant.now() : null;
 
     if (tr.getNoOlderThan() != null) {
       try {
@@ -98,34 +93,36 @@ public class JdbcSep24TransactionStore implements Sep24TransactionStore {
 
     Pageable pageable = PageRequest.of(0, limit);
 
+    List<JdbcSep24Transaction> txns;
     if (accountMemo == null) {
-      return new ArrayList<>(
+      txns =
           txnRepo.findTransactionsWithFilters(
-              accountId, tr.getAssetCode(), tr.getKind(), noOlderThan, olderThan, pageable));
+              accountId,
+              tr.getAssetCode(),
+              tr.getKind(),
+              noOlderThan,
+              olderThan,
+              tr.getPagingId(),
+              pageable);
     } else {
-      List<JdbcSep24Transaction> txns =
+      txns =
           txnRepo.findTransactionsWithMemoAndFilters(
               accountId,
               accountMemo,
+              accountId + ":" + accountMemo,
               tr.getAssetCode(),
               tr.getKind(),
               noOlderThan,
               olderThan,
+              tr.getPagingId(),
               pageable);
-      // Backward compatibility for legacy rows that may have stored account:memo in
-      // web_auth_account and left web_auth_account_memo empty.
-      if (txns.isEmpty()) {
-        txns =
-            txnRepo.findTransactionsWithFilters(
-                accountId + ":" + accountMemo,
-                tr.getAssetCode(),
-                tr.getKind(),
-                noOlderThan,
-                olderThan,
-                pageable);
-      }
-      return new ArrayList<>(txns);
     }
+    // An unknown paging id returns no transactions
+    if (txns.isEmpty() && tr.getPagingId() != null && !txnRepo.existsById(tr.getPagingId())) {
+      throw new SepValidationException(
+          String.format("invalid paging_id field: %s", tr.getPagingId()));
+    }
+    return new ArrayList<>(txns);
   }
 
   @Override
@@ -135,7 +132,12 @@ public class JdbcSep24TransactionStore implements Sep24TransactionStore {
           sep24Transaction.getClass() + "  is not a sub-type of " + JdbcSep24Transaction.class);
     }
     txn.setId(txn.getTransactionId());
-    return txnRepo.save(txn);
+    boolean created = txn.getVersion() == null;
+    JdbcSep24Transaction saved = txnRepo.save(txn);
+    if (created) {
+      routeRepo.save(new JdbcTransactionRoute(saved.getTransactionId(), Sep.SEP_24));
+    }
+    return saved;
   }
 
   @Override
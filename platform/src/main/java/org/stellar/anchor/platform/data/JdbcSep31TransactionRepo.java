@@ -28,4 +28,7 @@ public interface JdbcSep31TransactionRepo
 
   Optional<JdbcSep31Transaction> findByToAccountAndStellarMemoAndStatus(
       String toAccount, String stellarMemo, String status);
+
+  @Query(value = "SELECT t.version FROM JdbcSep31Transaction t WHERE t.id = :id")
+  Integer findVersionById(@Param("id") String id);
 }
@@ -6,6 +6,7 @@ import java.util.List;
 import java.util.Optional;
 import lombok.NonNull;
 import org.stellar.anchor.api.exception.SepException;
+import org.stellar.anchor.api.platform.PlatformTransactionData.Sep;
 import org.stellar.anchor.sep31.RefundPayment;
 import org.stellar.anchor.sep31.Sep31Refunds;
 import org.stellar.anchor.sep31.Sep31Transaction;
@@ -14,9 +15,12 @@ import org.stellar.anchor.util.TransactionsParams;
 
 public class JdbcSep31TransactionStore implements Sep31TransactionStore {
   private final JdbcSep31TransactionRepo transactionRepo;
+  private final JdbcTransactionRouteRepo routeRepo;
 
-  public JdbcSep31TransactionStore(JdbcSep31TransactionRepo transactionRepo) {
+  public JdbcSep31TransactionStore(
+      JdbcSep31TransactionRepo transactionRepo, JdbcTransactionRouteRepo routeRepo) {
     this.transactionRepo = transactionRepo;
+    this.routeRepo = routeRepo;
   }
 
   @Override
@@ -63,7 +67,12 @@ public class JdbcSep31TransactionStore implements Sep31TransactionStore {
       txn.setAmountExpected(txn.getAmountIn());
     }
 
-    return transactionRepo.save((JdbcSep31Transaction) transaction);
+    boolean created = txn.getVersion() == null;
+    JdbcSep31Transaction saved = transactionRepo.save(txn);
+    if (created) {
+      routeRepo.save(new JdbcTransactionRoute(saved.getId(), Sep.SEP_31));
+    }
+    return saved;
   }
 
   public JdbcSep31Transaction findByToAccountAndMemoAndStatus(
@@ -11,6 +11,7 @@ import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.stellar.anchor.api.exception.SepException;
 import org.stellar.anchor.api.exception.SepValidationException;
+import org.stellar.anchor.api.platform.PlatformTransactionData.Sep;
 import org.stellar.anchor.api.sep.sep6.GetTransactionsRequest;
 import org.stellar.anchor.api.shared.RefundPayment;
 import org.stellar.anchor.api.shared.Refunds;
@@ -20,9 +21,12 @@ import org.stellar.anchor.util.TransactionsParams;
 
 public class JdbcSep6TransactionStore implements Sep6TransactionStore {
   private final JdbcSep6TransactionRepo transactionRepo;
+  private final JdbcTransactionRouteRepo routeRepo;
 
-  public JdbcSep6TransactionStore(JdbcSep6TransactionRepo transactionRepo) {
+  public JdbcSep6TransactionStore(
+      JdbcSep6TransactionRepo transactionRepo, JdbcTransactionRouteRepo routeRepo) {
     this.transactionRepo = transactionRepo;
+    this.routeRepo = routeRepo;
   }
 
   @Override
@@ -65,17 +69,8 @@ public class JdbcSep6TransactionStore implements Sep6TransactionStore {
     }
 
     Instant noOlderThan = Instant.EPOCH;
-    Instant olderThan = Instant.now();
-
-    if (request.getPagingId() != null) {
-      Sep6Transaction txn = transactionRepo.findOneByTransactionId(request.getPagingId());
-      if (txn != null) {
-        olderThan = txn.getStartedAt();
-      } else {
-        throw new SepValidationException(
-            String.format("invalid paging_id field: %s", request.getPagingId()));
-      }
-    }
+    // With a paging id, the page follows the paging transaction, resolved by the query.
+    Instant olderThan = (request.getPagingId() == null) ? Instant.now() : null;
 
     if (request.getNoOlderThan() != null) {
       try {
@@ -88,17 +83,19 @@ public class JdbcSep6TransactionStore implements Sep6TransactionStore {
 
     Pageable pageable = PageRequest.of(0, limit);
 
+    List<JdbcSep6Transaction> txns;
     if (accountMemo == null) {
-      return new ArrayList<>(
+      txns =
           transactionRepo.findTransactionsWithFilters(
               accountId,
               request.getAssetCode(),
               request.getKind(),
               noOlderThan,
               olderThan,
-              pageable));
+              request.getPagingId(),
+              pageable);
     } else {
-      List<JdbcSep6Transaction> txns =
+      txns =
           transactionRepo.findTransactionsWithMemoAndFilters(
               accountId,
               accountMemo,
@@ -106,9 +103,17 @@ public class JdbcSep6TransactionStore implements Sep6TransactionStore {
               request.getKind(),
               noOlderThan,
               olderThan,
+              request.getPagingId(),
               pageable);
-      return new ArrayList<>(txns);
     }
+    // An unknown paging id returns no transactions
+    if (txns.isEmpty()
+        && request.getPagingId() != null
+        && !transactionRepo.existsById(request.getPagingId())) {
+      throw new SepValidationException(
+          String.format("invalid paging_id field: %s", request.getPagingId()));
+    }
+    return new ArrayList<>(txns);
   }
 
   @Override
@@ -119,7 +124,12 @@ public class JdbcSep6TransactionStore implements Sep6TransactionStore {
     }
     txn.setUpdatedAt(Instant.now());
 
-    return transactionRepo.save(txn);
+    boolean created = txn.getVersion() == null;
+    JdbcSep6Transaction saved = transactionRepo.save(txn);
+    if (created) {
+      routeRepo.save(new JdbcTransactionRoute(saved.getTransactionId(), Sep.SEP_6));
+    }
+    return saved;
   }
 
   @Override
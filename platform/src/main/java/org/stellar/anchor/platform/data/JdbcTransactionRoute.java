@@ -0,0 +1,24 @@
+package org.stellar.anchor.platform.data;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.stellar.anchor.api.platform.PlatformTransactionData.Sep;
+
+/** The protocol of a transaction, written when the transaction is created. */
+@Getter
+@Setter
+@Entity
+@Access(AccessType.FIELD)
+@Table(name = "transaction_route")
+@NoArgsConstructor
+@AllArgsConstructor
+public class JdbcTransactionRoute {
+  @Id String id;
+
+  @Enumerated(EnumType.STRING)
+  @Column(name = "sep")
+  Sep sep;
+}
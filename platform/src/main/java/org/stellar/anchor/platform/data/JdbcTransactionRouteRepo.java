@@ -0,0 +1,5 @@
+package org.stellar.anchor.platform.data;
+
+import org.springframework.data.repository.CrudRepository;
+
+public interface JdbcTransactionRouteRepo extends CrudRepository<JdbcTransactionRoute, String> {}
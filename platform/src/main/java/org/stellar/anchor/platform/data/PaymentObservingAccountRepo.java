@@ -1,8 +1,37 @@
 package org.stellar.anchor.platform.data;
 
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import org.springframework.data.repository.CrudRepository;
+import org.springframework.transaction.annotation.Transactional;
 
 public interface PaymentObservingAccountRepo
     extends CrudRepository<PaymentObservingAccount, String> {
   PaymentObservingAccount findByAccount(String account);
+
+  /**
+   * Update the last observed timestamps of the accounts in a single transaction. The existing rows
+   * are loaded by one query and the updates are flushed as a JDBC batch when the transaction
+   * commits. The missing rows are inserted.
+   *
+   * @param lastObserved the last observed timestamps keyed by the account.
+   */
+  @Transactional
+  default void saveAllLastObserved(Map<String, Instant> lastObserved) {
+    Map<String, Instant> missing = new HashMap<>(lastObserved);
+    for (PaymentObservingAccount poa : findAllById(lastObserved.keySet())) {
+      Instant observed = missing.remove(poa.getAccount());
+      // save if newer
+      if (poa.getLastObserved() == null || observed.isAfter(poa.getLastObserved())) {
+        poa.setLastObserved(observed);
+      }
+    }
+    List<PaymentObservingAccount> newAccounts = new ArrayList<>();
+    missing.forEach(
+        (account, observed) -> newAccounts.add(new PaymentObservingAccount(account, observed)));
+    saveAll(newAccounts);
+  }
 }
@@ -0,0 +1,99 @@
+package org.stellar.anchor.platform.data;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import org.springframework.data.domain.Sort;
+import org.stellar.anchor.api.exception.BadRequestException;
+import org.stellar.anchor.api.platform.TransactionsOrderBy;
+import org.stellar.anchor.util.TransactionsParams;
+
+/**
+ * The position of a page of the GET /transactions results: the value of the {@code orderBy} column
+ * and the id of the last transaction of the page. The token is opaque to the clients.
+ */
+@Data
+@AllArgsConstructor
+public class TransactionsCursor {
+  private static final String SEPARATOR = ",";
+
+  TransactionsOrderBy orderBy;
+  Sort.Direction order;
+  // Null if the ordering column of the last transaction is null
+  Instant value;
+  String id;
+
+  /**
+   * Create the cursor of the page following the transaction.
+   *
+   * @param params the parameters of the query
+   * @param txn the last transaction of the page
+   * @return the cursor
+   */
+  public static TransactionsCursor after(TransactionsParams params, JdbcSepTransaction txn) {
+    return new TransactionsCursor(
+        params.getOrderBy(), params.getOrder(), valueOf(params.getOrderBy(), txn), txn.getId());
+  }
+
+  /**
+   * Decode the cursor of the parameters.
+   *
+   * @param params the parameters of the query
+   * @return the cursor, or null if the parameters have no cursor
+   * @throws BadRequestException if the cursor is invalid, or was created for another ordering
+   */
+  public static TransactionsCursor decode(TransactionsParams params) throws BadRequestException {
+    if (params.getCursor() == null) {
+      return null;
+    }
+    TransactionsCursor cursor;
+    try {
+      String decoded = new String(Base64.getUrlDecoder().decode(params.getCursor()), UTF_8);
+      String[] parts = decoded.split(SEPARATOR, 4);
+      if (parts.length != 4) {
+        throw new IllegalArgumentException();
+      }
+      cursor =
+          new TransactionsCursor(
+              TransactionsOrderBy.valueOf(parts[0]),
+              Sort.Direction.valueOf(parts[1]),
+              parts[2].isEmpty() ? null : Instant.parse(parts[2]),
+              parts[3]);
+    } catch (IllegalArgumentException | DateTimeParseException ex) {
+      throw new BadRequestException("cursor is invalid");
+    }
+    if (cursor.getOrderBy() != params.getOrderBy() || cursor.getOrder() != params.getOrder()) {
+      throw new BadRequestException("cursor does not match order_by and order");
+    }
+    return cursor;
+  }
+
+  /**
+   * Encode the cursor to an opaque token.
+   *
+   * @return the token
+   */
+  public String encode() {
+    String decoded =
+        String.join(
+            SEPARATOR, orderBy.name(), order.name(), (value == null) ? "" : value.toString(), id);
+    return Base64.getUrlEncoder().withoutPadding().encodeToString(decoded.getBytes(UTF_8));
+  }
+
+  static Instant valueOf(TransactionsOrderBy orderBy, JdbcSepTransaction txn) {
+    switch (orderBy) {
+      case CREATED_AT:
+        return txn.getStartedAt();
+      case TRANSFER_RECEIVED_AT:
+        return txn.getTransferReceivedAt();
+      case USER_ACTION_REQUIRED_BY:
+        return txn.getUserActionRequiredBy();
+      default:
+        throw new IllegalArgumentException("Unknown order by " + orderBy);
+    }
+  }
+}
@@ -1,9 +1,15 @@
 package org.stellar.anchor.platform.event;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import lombok.SneakyThrows;
 import org.springframework.transaction.support.TransactionSynchronization;
 import org.springframework.transaction.support.TransactionSynchronizationManager;
 import org.stellar.anchor.api.event.AnchorEvent;
 import org.stellar.anchor.api.exception.AnchorException;
+import org.stellar.anchor.api.exception.EventPublishException;
 import org.stellar.anchor.event.EventService;
 import org.stellar.anchor.util.Log;
 
@@ -12,7 +18,14 @@ import org.stellar.anchor.util.Log;
  * database transaction commits. This prevents consumers from receiving events before the
  * transaction data is visible in the database.
  *
- * <p>If no transaction is active, the event is published immediately.
+ * <p>The events of a transaction are published asynchronously once it commits, followed by a
+ * single {@link EventService.Session#flush()}. The flush is the durability barrier: the commit
+ * returns only after the events of the transaction are delivered. If an event cannot be delivered,
+ * the error is thrown to the caller of the commit. The database transaction is already committed
+ * then, so the events that must not be lost are published with the outbox queue type instead.
+ *
+ * <p>If no transaction is active, the event is published immediately and the caller waits for it
+ * to be delivered, so the failure is thrown to the caller.
  */
 public class AfterCommitEventSession implements EventService.Session {
   private final EventService.Session delegate;
@@ -22,24 +35,71 @@ public class AfterCommitEventSession implements EventService.Session {
   }
 
   @Override
+  @SuppressWarnings("unchecked")
   public void publish(AnchorEvent event) throws AnchorException {
     if (TransactionSynchronizationManager.isSynchronizationActive()) {
-      TransactionSynchronizationManager.registerSynchronization(
-          new TransactionSynchronization() {
-            @Override
-            public void afterCommit() {
-              try {
-                delegate.publish(event);
-              } catch (AnchorException e) {
-                Log.errorEx(e);
+      // The events of the transaction are bound to the transaction with this session as the key.
+      List<AnchorEvent> events =
+          (List<AnchorEvent>) TransactionSynchronizationManager.getResource(this);
+      if (events == null) {
+        List<AnchorEvent> transactionEvents = new ArrayList<>();
+        TransactionSynchronizationManager.bindResource(this, transactionEvents);
+        TransactionSynchronizationManager.registerSynchronization(
+            new TransactionSynchronization() {
+              @Override
+              public void afterCommit() {
+                publishAndFlush(transactionEvents);
+              }
+
+              @Override
+              public void afterCompletion(int status) {
+                TransactionSynchronizationManager.unbindResourceIfPossible(
+                    AfterCommitEventSession.this);
               }
-            }
-          });
+            });
+        events = transactionEvents;
+      }
+      events.add(event);
     } else {
-      delegate.publish(event);
+      try {
+        delegate.publishAsync(event).join();
+      } catch (CompletionException ex) {
+        throw toAnchorException(ex.getCause());
+      }
+    }
+  }
+
+  @SneakyThrows
+  void publishAndFlush(List<AnchorEvent> events) {
+    List<CompletableFuture<Void>> delivered = new ArrayList<>();
+    for (AnchorEvent event : events) {
+      delivered.add(delegate.publishAsync(event));
+    }
+    delegate.flush();
+    // The futures report the failures of the events of this transaction only.
+    try {
+      CompletableFuture.allOf(delivered.toArray(new CompletableFuture<?>[0])).join();
+    } catch (CompletionException ex) {
+      Log.errorEx(ex.getCause());
+      throw toAnchorException(ex.getCause());
     }
   }
 
+  static AnchorException toAnchorException(Throwable cause) {
+    if (cause instanceof AnchorException anchorException) {
+      return anchorException;
+    }
+    if (cause instanceof Error error) {
+      throw error;
+    }
+    return new EventPublishException("Failed to publish the event.", (Exception) cause);
+  }
+
+  @Override
+  public void flush() throws AnchorException {
+    delegate.flush();
+  }
+
   @Override
   public EventService.ReadResponse read() throws AnchorException {
     return delegate.read();
@@ -3,8 +3,14 @@ package org.stellar.anchor.platform.event;
 import static org.stellar.anchor.util.Log.*;
 
 import java.io.IOException;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
 import org.stellar.anchor.api.callback.SendEventRequest;
 import org.stellar.anchor.api.callback.SendEventResponse;
+import org.stellar.anchor.api.callback.SendEventsRequest;
+import org.stellar.anchor.api.callback.SendEventsResponse;
 import org.stellar.anchor.api.event.AnchorEvent;
 import org.stellar.anchor.api.exception.InvalidConfigException;
 import org.stellar.anchor.apiclient.CallbackApiClient;
@@ -37,4 +43,43 @@ public class CallbackApiEventHandler extends EventHandler {
       return false;
     }
   }
+
+  /**
+   * Send the events to the callback API in a single request.
+   *
+   * @param events the events, oldest first
+   * @return the events that are not processed by the callback API, oldest first
+   */
+  List<AnchorEvent> handleEvents(List<AnchorEvent> events) {
+    debugF("Sending {} events to callback API.", events.size());
+
+    SendEventsResponse sendEventsResponse;
+    try {
+      sendEventsResponse =
+          callbackApiClient.sendEvents(
+              new SendEventsRequest(
+                  events.stream().map(SendEventRequest::from).collect(Collectors.toList())));
+    } catch (Exception e) {
+      errorEx("Failed to send events to callback API.", e);
+      return events;
+    }
+
+    Set<String> processed = new HashSet<>();
+    if (sendEventsResponse.getResults() != null) {
+      for (SendEventsResponse.Result result : sendEventsResponse.getResults()) {
+        if (result.getCode() >= 200 && result.getCode() < 300) {
+          processed.add(result.getId());
+        } else {
+          debugF(
+              "Event {} failed in callback API. code: {}, message: {}",
+              result.getId(),
+              result.getCode(),
+              result.getMessage());
+        }
+      }
+    }
+    return events.stream()
+        .filter(event -> !processed.contains(event.getId()))
+        .collect(Collectors.toList());
+  }
 }
@@ -4,22 +4,176 @@ import static java.lang.Thread.currentThread;
 import static org.stellar.anchor.util.MetricConstants.TV_BUSINESS_SERVER_CALLBACK;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
 import org.stellar.anchor.api.event.AnchorEvent;
+import org.stellar.anchor.api.exception.AnchorException;
 import org.stellar.anchor.event.EventService;
+import org.stellar.anchor.platform.utils.DaemonExecutors;
 import org.stellar.anchor.util.ExponentialBackoffTimer;
 import org.stellar.anchor.util.Log;
 
+/**
+ * Delivers the events to the callback API of the business server.
+ *
+ * <p>If the batch size is greater than 1, the events are sent in batches to the /event/batch
+ * endpoint. A batch is sent when it is full or when its oldest event has waited for the linger
+ * time. The batches are sent in order by a single sender, and the failed events of a batch are
+ * retried until they are processed. The later events of a batch with the same ordering key as a
+ * failed event are retried with it, even if they were processed, so the callback API receives the
+ * events of a transaction in order.
+ */
 public class CallbackApiEventProcessor extends EventProcessor {
   private final CallbackApiEventHandler eventHandler;
-  private final ExponentialBackoffTimer backoffTimer = new ExponentialBackoffTimer();
+  // The maximum number of events sent in a request. 1 if the events are sent one at a time.
+  private final int batchSize;
+  // The maximum time (in milliseconds) an event waits for its batch to fill.
+  private final long batchLingerMillis;
+  private final ScheduledExecutorService batchSender;
+  // The events of the batch being filled, oldest first.
+  private List<BatchedEvent> batch = new ArrayList<>();
+  private ScheduledFuture<?> lingerTask = null;
+  // Each lane retries with its own timer.
+  private final ThreadLocal<ExponentialBackoffTimer> backoffTimer =
+      ThreadLocal.withInitial(ExponentialBackoffTimer::new);
 
   public CallbackApiEventProcessor(
       String name,
       EventService.EventQueue eventQueue,
       EventService eventService,
       CallbackApiEventHandler eventHandler) {
-    super(name, eventQueue, eventService);
+    this(name, eventQueue, eventService, eventHandler, 1);
+  }
+
+  public CallbackApiEventProcessor(
+      String name,
+      EventService.EventQueue eventQueue,
+      EventService eventService,
+      CallbackApiEventHandler eventHandler,
+      int laneCount) {
+    this(name, eventQueue, eventService, eventHandler, laneCount, 1, 0);
+  }
+
+  public CallbackApiEventProcessor(
+      String name,
+      EventService.EventQueue eventQueue,
+      EventService eventService,
+      CallbackApiEventHandler eventHandler,
+      int laneCount,
+      int batchSize,
+      long batchLingerMillis) {
+    // The batches are sent in order by the batch sender, so the lanes are not used.
+    super(name, eventQueue, eventService, (batchSize > 1) ? 1 : laneCount);
     this.eventHandler = eventHandler;
+    this.batchSize = Math.max(batchSize, 1);
+    this.batchLingerMillis = batchLingerMillis;
+    this.batchSender = (this.batchSize > 1) ? DaemonExecutors.newScheduledThreadPool(1) : null;
+  }
+
+  @Override
+  public void stop() throws AnchorException {
+    super.stop();
+    if (batchSender != null) {
+      batchSender.shutdownNow();
+    }
+  }
+
+  @Override
+  boolean dispatchesAsync() {
+    return batchSender != null || super.dispatchesAsync();
+  }
+
+  @Override
+  CompletableFuture<?> dispatch(AnchorEvent event) {
+    return (batchSender != null) ? addToBatch(event) : super.dispatch(event);
+  }
+
+  /**
+   * Add the event to the batch being filled. The batch is sent when it is full, or after the linger
+   * time.
+   *
+   * @param event the event
+   * @return a future that completes when the event is processed by the callback API.
+   */
+  synchronized CompletableFuture<Void> addToBatch(AnchorEvent event) {
+    BatchedEvent batched = new BatchedEvent(event);
+    batch.add(batched);
+    if (batch.size() >= batchSize) {
+      flushBatch();
+    } else if (batch.size() == 1) {
+      try {
+        lingerTask =
+            batchSender.schedule(this::flushBatch, batchLingerMillis, TimeUnit.MILLISECONDS);
+      } catch (RejectedExecutionException ex) {
+        // The processor is stopped. The events are read again by the next session.
+      }
+    }
+    return batched.handled;
+  }
+
+  synchronized void flushBatch() {
+    if (lingerTask != null) {
+      lingerTask.cancel(false);
+      lingerTask = null;
+    }
+    if (batch.isEmpty()) {
+      return;
+    }
+    List<BatchedEvent> events = batch;
+    batch = new ArrayList<>();
+    try {
+      batchSender.execute(() -> sendWithRetry(events));
+    } catch (RejectedExecutionException ex) {
+      // The processor is stopped. The events are read again by the next session.
+    }
+  }
+
+  /**
+   * Send the batch, then retry its failed events, and the later events with their ordering keys,
+   * until they are all processed or the thread is interrupted.
+   *
+   * @param events the events of the batch, oldest first
+   */
+  void sendWithRetry(List<BatchedEvent> events) {
+    List<BatchedEvent> remaining = events;
+    getBackoffTimer().reset();
+    while (!remaining.isEmpty() && !currentThread().isInterrupted()) {
+      Set<AnchorEvent> failed = Collections.newSetFromMap(new IdentityHashMap<>());
+      failed.addAll(
+          eventHandler.handleEvents(
+              remaining.stream().map(batched -> batched.event).collect(Collectors.toList())));
+      List<BatchedEvent> retries = new ArrayList<>();
+      // The ordering keys of the failed events, whose later events are held back.
+      Set<String> heldBack = new HashSet<>();
+      for (BatchedEvent batched : remaining) {
+        String key = orderingKey(batched.event);
+        if (failed.contains(batched.event) || heldBack.contains(key)) {
+          heldBack.add(key);
+          retries.add(batched);
+        } else {
+          incrementProcessedCounter();
+          batched.handled.complete(null);
+        }
+      }
+      remaining = retries;
+      if (!remaining.isEmpty()) {
+        try {
+          getBackoffTimer().backoff();
+        } catch (InterruptedException e) {
+          currentThread().interrupt();
+        }
+      }
+    }
   }
 
   @Override
@@ -57,6 +211,15 @@ public class CallbackApiEventProcessor extends EventProcessor {
   }
 
   ExponentialBackoffTimer getBackoffTimer() {
-    return backoffTimer;
+    return backoffTimer.get();
+  }
+
+  static class BatchedEvent {
+    final AnchorEvent event;
+    final CompletableFuture<Void> handled = new CompletableFuture<>();
+
+    BatchedEvent(AnchorEvent event) {
+      this.event = event;
+    }
   }
 }
@@ -0,0 +1,435 @@
+package org.stellar.anchor.platform.event;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.stellar.anchor.sep24.Sep24Helper.fromTxn;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.google.gson.stream.JsonWriter;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import org.stellar.anchor.MoreInfoUrlConstructor;
+import org.stellar.anchor.api.event.AnchorEvent;
+import org.stellar.anchor.api.exception.AnchorException;
+import org.stellar.anchor.api.exception.InternalServerErrorException;
+import org.stellar.anchor.api.exception.SepException;
+import org.stellar.anchor.api.platform.GetTransactionResponse;
+import org.stellar.anchor.api.sep.sep24.Sep24GetTransactionResponse;
+import org.stellar.anchor.api.sep.sep31.Sep31GetTransactionResponse;
+import org.stellar.anchor.api.sep.sep6.Sep6GetTransactionResponse;
+import org.stellar.anchor.api.sep.sep6.Sep6TransactionResponse;
+import org.stellar.anchor.api.shared.Amount;
+import org.stellar.anchor.api.shared.FeeDetails;
+import org.stellar.anchor.api.shared.RefundPayment;
+import org.stellar.anchor.api.shared.Refunds;
+import org.stellar.anchor.asset.AssetService;
+import org.stellar.anchor.platform.data.*;
+import org.stellar.anchor.sep24.*;
+import org.stellar.anchor.sep31.Sep31Refunds;
+import org.stellar.anchor.sep31.Sep31Transaction;
+import org.stellar.anchor.sep6.Sep6Transaction;
+import org.stellar.anchor.util.GsonUtils;
+
+/**
+ * Maps the events to the payloads of the client status callbacks.
+ *
+ * <p>The SEP-6 and SEP-31 responses are mapped directly from the transaction of the event, and the
+ * responses are serialized straight to UTF-8 bytes. The payloads of the recent events are kept, so
+ * the clients receiving the same event share the payload.
+ */
+public class CallbackPayloadMapper {
+  // The number of recent event payloads kept for the other clients.
+  static final int MAX_CACHED_PAYLOADS = 256;
+  // The payload field listing the statuses coalesced into the callback, oldest first.
+  static final String SKIPPED_STATUSES_FIELD = "skipped_statuses";
+  private static final Gson gson = GsonUtils.getInstance();
+  private final AssetService assetService;
+  private final MoreInfoUrlConstructor sep6MoreInfoUrlConstructor;
+  private final MoreInfoUrlConstructor sep24MoreInfoUrlConstructor;
+  private final Map<String, byte[]> payloads =
+      Collections.synchronizedMap(
+          new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, byte[]> eldest) {
+              return size() > MAX_CACHED_PAYLOADS;
+            }
+          });
+
+  public CallbackPayloadMapper(
+      AssetService assetService,
+      MoreInfoUrlConstructor sep6MoreInfoUrlConstructor,
+      MoreInfoUrlConstructor sep24MoreInfoUrlConstructor) {
+    this.assetService = assetService;
+    this.sep6MoreInfoUrlConstructor = sep6MoreInfoUrlConstructor;
+    this.sep24MoreInfoUrlConstructor = sep24MoreInfoUrlConstructor;
+  }
+
+  /**
+   * Get the callback payload of the event. The payload does not depend on the client, so it is
+   * mapped once per event.
+   *
+   * @param event the event
+   * @return the UTF-8 encoded JSON payload. The array must not be modified.
+   * @throws AnchorException if the event cannot be mapped.
+   */
+  byte[] getPayload(AnchorEvent event) throws AnchorException {
+    if (event.getId() == null) {
+      return toPayload(event);
+    }
+    byte[] payload = payloads.get(event.getId());
+    if (payload == null) {
+      // Concurrent clients may map the same event, which is harmless.
+      payload = toPayload(event);
+      payloads.put(event.getId(), payload);
+    }
+    return payload;
+  }
+
+  /**
+   * Get the callback payload of the event, listing the statuses coalesced into the event. The
+   * statuses are part of the signed payload, so the clients can trust them.
+   *
+   * @param event the event
+   * @param skippedStatuses the statuses coalesced into the event, oldest first
+   * @return the UTF-8 encoded JSON payload. The array must not be modified.
+   * @throws AnchorException if the event cannot be mapped.
+   */
+  byte[] getPayload(AnchorEvent event, List<String> skippedStatuses) throws AnchorException {
+    byte[] payload = getPayload(event);
+    if (skippedStatuses.isEmpty()) {
+      return payload;
+    }
+    // The coalesced callbacks are rare, so the shared payload is parsed again instead of mapping
+    // the event once per list of skipped statuses.
+    JsonObject json = JsonParser.parseString(new String(payload, UTF_8)).getAsJsonObject();
+    json.add(SKIPPED_STATUSES_FIELD, gson.toJsonTree(skippedStatuses));
+    return serialize(json);
+  }
+
+  byte[] toPayload(AnchorEvent event) throws AnchorException {
+    GetTransactionResponse txn = event.getTransaction();
+    if (txn != null) {
+      switch (txn.getSep()) {
+        case SEP_6:
+          return serialize(new Sep6GetTransactionResponse(toSep6TransactionResponse(txn)));
+        case SEP_24:
+          // The refunds and the more_info_url are computed from the SEP-24 transaction.
+          Sep24Transaction sep24Txn = fromSep24Txn(txn);
+          return serialize(
+              Sep24GetTransactionResponse.of(
+                  fromTxn(assetService, sep24MoreInfoUrlConstructor, sep24Txn, null)));
+        case SEP_31:
+          return serialize(toSep31GetTransactionResponse(txn));
+        default:
+          throw new SepException(String.format("Unsupported SEP: %s", txn.getSep()));
+      }
+    } else if (event.getCustomer() != null) {
+      return serialize(event.getCustomer());
+    } else {
+      throw new InternalServerErrorException("Event must have either a transaction or a customer");
+    }
+  }
+
+  /**
+   * Serialize the response to UTF-8 encoded JSON. The response is streamed to the JsonWriter by the
+   * Gson type adapters instead of being written field by field, so the payload keeps the field
+   * naming, the date formats and the null handling of the SEP API responses without duplicating
+   * them for every response class.
+   *
+   * @param response the response
+   * @return the UTF-8 encoded JSON
+   */
+  static byte[] serialize(Object response) {
+    ByteArrayOutputStream out = new ByteArrayOutputStream(2048);
+    try (JsonWriter writer = gson.newJsonWriter(new OutputStreamWriter(out, UTF_8))) {
+      gson.toJson(response, response.getClass(), writer);
+    } catch (IOException ex) {
+      throw new UncheckedIOException(ex);
+    }
+    return out.toByteArray();
+  }
+
+  Sep6TransactionResponse toSep6TransactionResponse(GetTransactionResponse txn) {
+    Sep6TransactionResponse.Sep6TransactionResponseBuilder builder =
+        Sep6TransactionResponse.builder()
+            .id(txn.getId())
+            .kind(txn.getKind().kind)
+            .status(txn.getStatus().getStatus())
+            // The more_info_url is computed from the SEP-6 transaction.
+            .moreInfoUrl(sep6MoreInfoUrlConstructor.construct(fromSep6Txn(txn), null))
+            .amountIn(amount(txn.getAmountIn()))
+            .amountInAsset(asset(txn.getAmountIn()))
+            .amountOut(amount(txn.getAmountOut()))
+            .amountOutAsset(asset(txn.getAmountOut()))
+            .feeDetails(feeDetails(txn.getFeeDetails()))
+            .quoteId(txn.getQuoteId())
+            .startedAt(toString(txn.getStartedAt()))
+            .completedAt(toString(txn.getCompletedAt()))
+            .stellarTransactionId(stellarTransactionId(txn))
+            .externalTransactionId(txn.getExternalTransactionId())
+            .from(txn.getSourceAccount())
+            .to(txn.getDestinationAccount())
+            .message(txn.getMessage())
+            .refunds(sep6Refunds(txn.getRefunds()))
+            .requiredInfoMessage(txn.getRequiredInfoMessage())
+            .requiredInfoUpdates(txn.getRequiredInfoUpdates())
+            .instructions(txn.getInstructions());
+
+    if (Sep6Transaction.Kind.valueOf(txn.getKind().name()).isDeposit()) {
+      return builder.depositMemo(txn.getMemo()).depositMemoType(txn.getMemoType()).build();
+    } else {
+      return builder.withdrawMemo(txn.getMemo()).withdrawMemoType(txn.getMemoType()).build();
+    }
+  }
+
+  static Sep31GetTransactionResponse toSep31GetTransactionResponse(GetTransactionResponse txn) {
+    return Sep31GetTransactionResponse.builder()
+        .transaction(
+            Sep31GetTransactionResponse.TransactionResponse.builder()
+                .id(txn.getId())
+                .status(txn.getStatus().getStatus())
+                .amountIn(amount(txn.getAmountIn()))
+                .amountInAsset(asset(txn.getAmountIn()))
+                .amountOut(amount(txn.getAmountOut()))
+                .amountOutAsset(asset(txn.getAmountOut()))
+                .feeDetails(feeDetails(txn.getFeeDetails()))
+                .quoteId(txn.getQuoteId())
+                .stellarAccountId(txn.getDestinationAccount())
+                .stellarMemo(txn.getMemo())
+                .stellarMemoType(txn.getMemoType())
+                .startedAt(txn.getStartedAt())
+                .completedAt(txn.getCompletedAt())
+                .externalTransactionId(txn.getExternalTransactionId())
+                .refunds(sep31Refunds(txn.getRefunds()))
+                .requiredInfoMessage(txn.getMessage())
+                .build())
+        .build();
+  }
+
+  static Refunds sep6Refunds(Refunds refunds) {
+    if (refunds == null || refunds.getPayments() == null) {
+      return null;
+    }
+    RefundPayment[] payments = new RefundPayment[refunds.getPayments().length];
+    for (int i = 0; i < payments.length; i++) {
+      RefundPayment payment = refunds.getPayments()[i];
+      payments[i] =
+          RefundPayment.builder()
+              .id(payment.getId())
+              .idType(payment.getIdType())
+              .amount(payment.getAmount())
+              .fee(payment.getFee())
+              .build();
+    }
+    return Refunds.builder()
+        .amountRefunded(refunds.getAmountRefunded())
+        .amountFee(refunds.getAmountFee())
+        .payments(payments)
+        .build();
+  }
+
+  static Sep31GetTransactionResponse.Refunds sep31Refunds(Refunds refunds) {
+    if (refunds == null) {
+      return null;
+    }
+    List<Sep31GetTransactionResponse.Sep31RefundPayment> payments = new ArrayList<>();
+    for (RefundPayment payment : refunds.getPayments()) {
+      payments.add(
+          Sep31GetTransactionResponse.Sep31RefundPayment.builder()
+              .id(payment.getId())
+              .amount(amount(payment.getAmount()))
+              .fee(amount(payment.getFee()))
+              .build());
+    }
+    return Sep31GetTransactionResponse.Refunds.builder()
+        .amountRefunded(amount(refunds.getAmountRefunded()))
+        .amountFee(amount(refunds.getAmountFee()))
+        .payments(payments)
+        .build();
+  }
+
+  static FeeDetails feeDetails(FeeDetails feeDetails) {
+    // The fee details without total are dropped, as the SEP transactions do.
+    return (feeDetails == null || feeDetails.getTotal() == null) ? null : feeDetails;
+  }
+
+  static String stellarTransactionId(GetTransactionResponse txn) {
+    return (txn.getStellarTransactions() != null && !txn.getStellarTransactions().isEmpty())
+        ? txn.getStellarTransactions().get(0).getId()
+        : null;
+  }
+
+  static String amount(Amount amount) {
+    return (amount != null) ? amount.getAmount() : null;
+  }
+
+  static String asset(Amount amount) {
+    return (amount != null) ? amount.getAsset() : null;
+  }
+
+  static String toString(Instant instant) {
+    return (instant != null) ? instant.toString() : null;
+  }
+
+  static Sep6Transaction fromSep6Txn(GetTransactionResponse txn) {
+    JdbcSep6Transaction sep6Txn = new JdbcSep6Transaction();
+    sep6Txn.setId(txn.getId());
+    sep6Txn.setTransactionId(txn.getId());
+    if (txn.getStellarTransactions() != null && !txn.getStellarTransactions().isEmpty()) {
+      sep6Txn.setStellarTransactionId(txn.getStellarTransactions().get(0).getId());
+    }
+    sep6Txn.setExternalTransactionId(txn.getExternalTransactionId());
+    sep6Txn.setStatus(txn.getStatus().getStatus());
+    sep6Txn.setKind(txn.getKind().kind);
+    sep6Txn.setStartedAt(txn.getStartedAt());
+    sep6Txn.setCompletedAt(txn.getCompletedAt());
+    sep6Txn.setTransferReceivedAt(txn.getTransferReceivedAt());
+    sep6Txn.setType(txn.getType());
+    if (txn.getAmountIn() != null) {
+      sep6Txn.setAmountIn(txn.getAmountIn().getAmount());
+      sep6Txn.setAmountInAsset(txn.getAmountIn().getAsset());
+    }
+    if (txn.getAmountOut() != null) {
+      sep6Txn.setAmountOut(txn.getAmountOut().getAmount());
+      sep6Txn.setAmountOutAsset(txn.getAmountOut().getAsset());
+    }
+    if (txn.getFeeDetails() != null) {
+      sep6Txn.setFeeDetails(txn.getFeeDetails());
+    }
+    if (txn.getAmountExpected() != null) {
+      sep6Txn.setAmountExpected(txn.getAmountExpected().getAmount());
+    }
+    sep6Txn.setFromAccount(txn.getSourceAccount());
+    sep6Txn.setToAccount(txn.getDestinationAccount());
+    sep6Txn.setMemo(txn.getMemo());
+    sep6Txn.setMemoType(txn.getMemoType());
+    sep6Txn.setClientDomain(txn.getClientDomain());
+    sep6Txn.setQuoteId(txn.getQuoteId());
+    sep6Txn.setMessage(txn.getMessage());
+    sep6Txn.setRefunds(txn.getRefunds());
+    sep6Txn.setRefundMemo(txn.getRefundMemo());
+    sep6Txn.setRefundMemoType(txn.getRefundMemoType());
+    sep6Txn.setRequiredInfoMessage(txn.getRequiredInfoMessage());
+    sep6Txn.setRequiredInfoUpdates(txn.getRequiredInfoUpdates());
+    sep6Txn.setInstructions(txn.getInstructions());
+
+    return sep6Txn;
+  }
+
+  static Sep24Transaction fromSep24Txn(GetTransactionResponse txn) {
+    JdbcSep24Transaction sep24Txn = new JdbcSep24Transaction();
+    sep24Txn.setId(txn.getId());
+    sep24Txn.setTransactionId(txn.getId());
+    sep24Txn.setKind(txn.getKind().kind);
+    sep24Txn.setStatus(txn.getStatus().getStatus());
+    if (txn.getAmountIn() != null) {
+      sep24Txn.setAmountIn(txn.getAmountIn().getAmount());
+      sep24Txn.setAmountInAsset(txn.getAmountIn().getAsset());
+    }
+    if (txn.getAmountOut() != null) {
+      sep24Txn.setAmountOut(txn.getAmountOut().getAmount());
+      sep24Txn.setAmountOutAsset(txn.getAmountOut().getAsset());
+    }
+    if (txn.getAmountExpected() != null) {
+      sep24Txn.setAmountExpected(txn.getAmountExpected().getAmount());
+    }
+    if (txn.getFeeDetails() != null) {
+      sep24Txn.setFeeDetails(txn.getFeeDetails());
+    }
+    sep24Txn.setStartedAt(txn.getStartedAt());
+    sep24Txn.setCompletedAt(txn.getCompletedAt());
+    sep24Txn.setExternalTransactionId(txn.getExternalTransactionId());
+    sep24Txn.setMessage(txn.getMessage());
+    sep24Txn.setFromAccount(txn.getSourceAccount());
+    sep24Txn.setToAccount(txn.getDestinationAccount());
+    sep24Txn.setMemo(txn.getMemo());
+    sep24Txn.setMemoType(txn.getMemoType());
+    sep24Txn.setClientDomain(txn.getClientDomain());
+    sep24Txn.setQuoteId(txn.getQuoteId());
+
+    if (txn.getRefunds() != null) {
+      List<Sep24RefundPayment> paymentList =
+          Arrays.stream(txn.getRefunds().getPayments())
+              .map(
+                  refundPayment -> {
+                    Sep24RefundPayment payment = new JdbcSep24RefundPayment();
+                    payment.setAmount(refundPayment.getAmount().getAmount());
+                    payment.setFee(refundPayment.getFee().getAmount());
+                    payment.setId(refundPayment.getId());
+                    payment.setIdType(refundPayment.getIdType().toString());
+                    return payment;
+                  })
+              .collect(Collectors.toList());
+      Sep24Refunds refunds = new JdbcSep24Refunds();
+      refunds.setAmountRefunded(txn.getRefunds().getAmountRefunded().getAmount());
+      refunds.setAmountFee(txn.getRefunds().getAmountFee().getAmount());
+      refunds.setRefundPayments(paymentList);
+      sep24Txn.setRefunds(refunds);
+    }
+
+    return sep24Txn;
+  }
+
+  static Sep31Transaction fromSep31Txn(GetTransactionResponse txn) {
+    JdbcSep31Transaction sep31Txn = new JdbcSep31Transaction();
+    sep31Txn.setId(txn.getId());
+    sep31Txn.setStatus(txn.getStatus().getStatus());
+    if (txn.getAmountIn() != null) {
+      sep31Txn.setAmountIn(txn.getAmountIn().getAmount());
+      sep31Txn.setAmountInAsset(txn.getAmountIn().getAsset());
+    }
+    if (txn.getAmountOut() != null) {
+      sep31Txn.setAmountOut(txn.getAmountOut().getAmount());
+      sep31Txn.setAmountOutAsset(txn.getAmountOut().getAsset());
+    }
+    if (txn.getAmountExpected() != null) {
+      sep31Txn.setAmountExpected(txn.getAmountExpected().getAmount());
+    }
+    if (txn.getFeeDetails() != null) {
+      sep31Txn.setFeeDetails(txn.getFeeDetails());
+    }
+    sep31Txn.setStartedAt(txn.getStartedAt());
+    sep31Txn.setCompletedAt(txn.getCompletedAt());
+    sep31Txn.setExternalTransactionId(txn.getExternalTransactionId());
+    sep31Txn.setRequiredInfoMessage(txn.getMessage());
+    sep31Txn.setStellarMemo(txn.getMemo());
+    sep31Txn.setStellarMemoType(txn.getMemoType());
+    sep31Txn.setFromAccount(txn.getSourceAccount());
+    sep31Txn.setToAccount(txn.getDestinationAccount());
+    sep31Txn.setClientDomain(txn.getClientDomain());
+    sep31Txn.setQuoteId(txn.getQuoteId());
+
+    if (txn.getRefunds() != null) {
+      List<org.stellar.anchor.sep31.RefundPayment> paymentList =
+          Arrays.stream(txn.getRefunds().getPayments())
+              .map(
+                  refundPayment -> {
+                    org.stellar.anchor.sep31.RefundPayment payment = new JdbcSep31RefundPayment();
+                    payment.setAmount(refundPayment.getAmount().getAmount());
+                    payment.setFee(refundPayment.getFee().getAmount());
+                    payment.setId(refundPayment.getId());
+
+                    return payment;
+                  })
+              .collect(Collectors.toList());
+      Sep31Refunds refunds = new JdbcSep31Refunds();
+      refunds.setAmountRefunded(txn.getRefunds().getAmountRefunded().getAmount());
+      refunds.setAmountFee(txn.getRefunds().getAmountFee().getAmount());
+      refunds.setRefundPayments(paymentList);
+      sep31Txn.setRefunds(refunds);
+    }
+
+    return sep31Txn;
+  }
+}
@@ -0,0 +1,53 @@
+package org.stellar.anchor.platform.event;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.util.Base64;
+import org.bouncycastle.crypto.params.Ed25519PrivateKeyParameters;
+import org.bouncycastle.crypto.signers.Ed25519Signer;
+import org.stellar.sdk.StrKey;
+
+/**
+ * Signs the client status callbacks. The private key is decoded once, and each thread signs with
+ * its own signer, whose message buffer is reused across the callbacks.
+ *
+ * <p>The signed message is {@code <timestamp>.<domain>.<payload>}.
+ */
+class CallbackSigner {
+  private static final byte SEPARATOR = '.';
+  private final Ed25519PrivateKeyParameters privateKey;
+  private final ThreadLocal<Ed25519Signer> signers;
+
+  CallbackSigner(String secretSeed) {
+    this.privateKey =
+        new Ed25519PrivateKeyParameters(
+            StrKey.decodeEd25519SecretSeed(secretSeed.toCharArray()), 0);
+    this.signers =
+        ThreadLocal.withInitial(
+            () -> {
+              Ed25519Signer signer = new Ed25519Signer();
+              signer.init(true, privateKey);
+              return signer;
+            });
+  }
+
+  /**
+   * Sign the callback.
+   *
+   * @param timestamp the timestamp (in seconds) of the callback
+   * @param domain the domain of the callback URL, UTF-8 encoded
+   * @param payload the payload of the callback, UTF-8 encoded
+   * @return the Base64 encoded signature
+   */
+  String sign(String timestamp, byte[] domain, byte[] payload) {
+    Ed25519Signer signer = signers.get();
+    byte[] ts = timestamp.getBytes(UTF_8);
+    signer.update(ts, 0, ts.length);
+    signer.update(SEPARATOR);
+    signer.update(domain, 0, domain.length);
+    signer.update(SEPARATOR);
+    signer.update(payload, 0, payload.length);
+    // generateSignature() resets the message buffer for the next callback
+    return Base64.getEncoder().encodeToString(signer.generateSignature());
+  }
+}
@@ -0,0 +1,164 @@
+package org.stellar.anchor.platform.event;
+
+import static org.stellar.anchor.util.Log.*;
+import static org.stellar.anchor.util.TransactionQueryLimits.DEFAULT_LIMIT;
+import static org.stellar.anchor.util.TransactionQueryLimits.MAX_LIMIT;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import org.springframework.data.domain.PageRequest;
+import org.stellar.anchor.api.event.AnchorEvent;
+import org.stellar.anchor.api.exception.AnchorException;
+import org.stellar.anchor.api.exception.BadRequestException;
+import org.stellar.anchor.api.exception.NotFoundException;
+import org.stellar.anchor.platform.data.JdbcClientCallbackDeadLetter;
+import org.stellar.anchor.platform.data.JdbcClientCallbackDeadLetterRepo;
+import org.stellar.anchor.util.GsonUtils;
+
+/**
+ * Persists the client status callbacks that could not be delivered, and replays them to the
+ * delivery queue of their client. A dead letter is marked as replaying while its replay is in
+ * flight, so it is not enqueued again until the replay completes.
+ */
+public class ClientCallbackDeadLetterStore {
+  // A replay that has not completed in this time is assumed to be lost with its server.
+  static final Duration REPLAY_TIMEOUT = Duration.ofHours(1);
+  private final JdbcClientCallbackDeadLetterRepo repo;
+  private final Map<String, ClientStatusCallbackQueue> clientQueues = new ConcurrentHashMap<>();
+
+  public ClientCallbackDeadLetterStore(JdbcClientCallbackDeadLetterRepo repo) {
+    this.repo = repo;
+  }
+
+  /**
+   * Register the delivery queue of a client so its dead letters can be replayed.
+   *
+   * @param clientQueue the delivery queue
+   */
+  void register(ClientStatusCallbackQueue clientQueue) {
+    clientQueues.put(clientQueue.getClientName(), clientQueue);
+  }
+
+  /**
+   * Save an event that could not be delivered to the client.
+   *
+   * @param clientName the name of the client
+   * @param event the event
+   * @param error the last delivery error
+   * @param attempts the number of delivery attempts
+   */
+  void save(String clientName, AnchorEvent event, String error, int attempts) {
+    JdbcClientCallbackDeadLetter deadLetter = new JdbcClientCallbackDeadLetter();
+    deadLetter.setId(UUID.randomUUID().toString());
+    deadLetter.setClientName(clientName);
+    deadLetter.setEventId(event.getId());
+    deadLetter.setTransactionId(
+        (event.getTransaction() != null) ? event.getTransaction().getId() : null);
+    deadLetter.setEvent(GsonUtils.getInstance().toJson(event));
+    deadLetter.setError(error);
+    deadLetter.setAttempts(attempts);
+    deadLetter.setCreatedAt(Instant.now());
+    repo.save(deadLetter);
+  }
+
+  /**
+   * List the oldest dead letters.
+   *
+   * @param clientName the name of the client. If null, the dead letters of all clients are listed.
+   * @param limit the maximum number of dead letters. If null or not positive, the default limit is
+   *     used.
+   * @return the dead letters, oldest first
+   */
+  public List<JdbcClientCallbackDeadLetter> list(String clientName, Integer limit) {
+    int pageSize = (limit == null || limit <= 0) ? DEFAULT_LIMIT : Math.min(limit, MAX_LIMIT);
+    PageRequest page = PageRequest.of(0, pageSize);
+    return (clientName == null)
+        ? repo.findAllByOrderByCreatedAtAsc(page)
+        : repo.findByClientNameOrderByCreatedAtAsc(clientName, page);
+  }
+
+  /**
+   * Enqueue the dead letter to the delivery queue of its client. The dead letter is removed from
+   * the store once the event is delivered, and kept if the delivery fails again.
+   *
+   * @param id the id of the dead letter
+   * @throws NotFoundException if the dead letter or the client queue is not found
+   * @throws BadRequestException if the replay of the dead letter is in flight
+   */
+  public void replay(String id) throws AnchorException {
+    JdbcClientCallbackDeadLetter deadLetter =
+        repo.findById(id)
+            .orElseThrow(
+                () -> new NotFoundException(String.format("dead letter %s not found", id)));
+    if (!replay(deadLetter)) {
+      throw new BadRequestException(String.format("dead letter %s is being replayed", id));
+    }
+  }
+
+  /**
+   * Replay all the dead letters of the client, oldest first. The dead letters whose replay is in
+   * flight are skipped.
+   *
+   * @param clientName the name of the client
+   * @return the number of replayed dead letters
+   * @throws NotFoundException if the client queue is not found
+   */
+  public int replayAll(String clientName) throws NotFoundException {
+    int replayed = 0;
+    for (JdbcClientCallbackDeadLetter deadLetter :
+        repo.findByClientNameOrderByCreatedAtAsc(clientName)) {
+      if (replay(deadLetter)) {
+        replayed++;
+      }
+    }
+    return replayed;
+  }
+
+  /**
+   * Enqueue the dead letter unless its replay is in flight.
+   *
+   * @param deadLetter the dead letter
+   * @return true if the dead letter is enqueued, false if its replay is in flight
+   * @throws NotFoundException if the client queue is not found
+   */
+  boolean replay(JdbcClientCallbackDeadLetter deadLetter) throws NotFoundException {
+    ClientStatusCallbackQueue clientQueue = clientQueues.get(deadLetter.getClientName());
+    if (clientQueue == null) {
+      throw new NotFoundException(
+          String.format("status callback of client %s not found", deadLetter.getClientName()));
+    }
+    Instant now = Instant.now();
+    if (repo.markAsReplaying(deadLetter.getId(), now, now.minus(REPLAY_TIMEOUT)) == 0) {
+      infoF("Dead letter id={} is being replayed and is skipped", deadLetter.getId());
+      return false;
+    }
+    AnchorEvent event = GsonUtils.getInstance().fromJson(deadLetter.getEvent(), AnchorEvent.class);
+    infoF(
+        "Replaying dead letter id={}, client={}, event={}",
+        deadLetter.getId(),
+        deadLetter.getClientName(),
+        deadLetter.getEventId());
+    clientQueue
+        .replay(event)
+        .thenAccept(
+            delivered -> {
+              if (delivered) {
+                repo.delete(deadLetter);
+              } else {
+                warnF("Dead letter id={} was not delivered and is kept", deadLetter.getId());
+                repo.clearReplaying(deadLetter.getId());
+              }
+            })
+        .exceptionally(
+            ex -> {
+              errorEx("Failed to replay the dead letter " + deadLetter.getId(), ex);
+              repo.clearReplaying(deadLetter.getId());
+              return null;
+            });
+    return true;
+  }
+}
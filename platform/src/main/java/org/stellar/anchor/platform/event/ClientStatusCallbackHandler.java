@@ -1,45 +1,32 @@
 package org.stellar.anchor.platform.event;
 
-import static org.stellar.anchor.sep24.Sep24Helper.fromTxn;
+import static java.nio.charset.StandardCharsets.UTF_8;
 import static org.stellar.anchor.util.Log.debugF;
 import static org.stellar.anchor.util.Log.errorF;
 import static org.stellar.anchor.util.NetUtil.getDomainFromURL;
+import static org.stellar.anchor.util.OkHttpUtil.TYPE_JSON;
 import static org.stellar.anchor.util.OkHttpUtil.buildJsonRequestBody;
 import static org.stellar.anchor.util.StringHelper.json;
 
 import java.io.IOException;
-import java.util.Arrays;
+import java.net.MalformedURLException;
 import java.util.Base64;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
-import java.util.stream.Collectors;
 import javax.annotation.Nullable;
 import lombok.SneakyThrows;
 import okhttp3.OkHttpClient;
 import okhttp3.Request;
+import okhttp3.RequestBody;
 import okhttp3.Response;
 import org.apache.commons.lang3.StringUtils;
-import org.stellar.anchor.MoreInfoUrlConstructor;
 import org.stellar.anchor.api.event.AnchorEvent;
-import org.stellar.anchor.api.exception.AnchorException;
-import org.stellar.anchor.api.exception.InternalServerErrorException;
 import org.stellar.anchor.api.exception.InvalidConfigException;
-import org.stellar.anchor.api.exception.SepException;
-import org.stellar.anchor.api.platform.GetTransactionResponse;
-import org.stellar.anchor.api.sep.sep24.Sep24GetTransactionResponse;
-import org.stellar.anchor.api.sep.sep6.Sep6GetTransactionResponse;
-import org.stellar.anchor.asset.AssetService;
 import org.stellar.anchor.client.ClientConfig;
 import org.stellar.anchor.config.SecretConfig;
-import org.stellar.anchor.platform.data.*;
-import org.stellar.anchor.sep24.*;
-import org.stellar.anchor.sep24.Sep24Transaction;
-import org.stellar.anchor.sep31.RefundPayment;
-import org.stellar.anchor.sep31.Sep31Refunds;
-import org.stellar.anchor.sep31.Sep31Transaction;
-import org.stellar.anchor.sep6.Sep6Transaction;
-import org.stellar.anchor.sep6.Sep6TransactionUtils;
 import org.stellar.anchor.util.Log;
 import org.stellar.sdk.KeyPair;
 
@@ -53,29 +40,37 @@ public class ClientStatusCallbackHandler extends EventHandler {
           .build();
   private final SecretConfig secretConfig;
   private final ClientConfig clientConfig;
-  private final AssetService assetService;
-  private final MoreInfoUrlConstructor sep6MoreInfoUrlConstructor;
-  private final MoreInfoUrlConstructor sep24MoreInfoUrlConstructor;
+  private final CallbackPayloadMapper payloadMapper;
+  // The domains of the callback URLs of the client
+  private final Map<String, byte[]> callbackDomains = new ConcurrentHashMap<>();
+  private volatile CallbackSigner signer;
 
   public ClientStatusCallbackHandler(
       SecretConfig secretConfig,
       ClientConfig clientConfig,
-      AssetService assetService,
-      MoreInfoUrlConstructor sep6MoreInfoUrlConstructor,
-      MoreInfoUrlConstructor sep24MoreInfoUrlConstructor) {
+      CallbackPayloadMapper payloadMapper) {
     super();
     this.secretConfig = secretConfig;
     this.clientConfig = clientConfig;
-    this.assetService = assetService;
-    this.sep6MoreInfoUrlConstructor = sep6MoreInfoUrlConstructor;
-    this.sep24MoreInfoUrlConstructor = sep24MoreInfoUrlConstructor;
+    this.payloadMapper = payloadMapper;
   }
 
   @Override
   boolean handleEvent(AnchorEvent event) throws IOException {
+    return handleEvent(event, List.of());
+  }
+
+  /**
+   * Send the status callback of the event.
+   *
+   * @param event the event
+   * @param skippedStatuses the statuses coalesced into the event, oldest first
+   * @return true if the callback is sent or not needed, false if the client responded with an error
+   * @throws IOException if the callback cannot be sent
+   */
+  boolean handleEvent(AnchorEvent event, List<String> skippedStatuses) throws IOException {
     if (event.getTransaction() != null || event.getCustomer() != null) {
-      KeyPair signer = KeyPair.fromSecretSeed(secretConfig.getSep10SigningSeed());
-      Request request = buildHttpRequest(signer, event);
+      Request request = buildHttpRequest(event, skippedStatuses);
 
       if (request != null) {
         try (Response response = httpClient.newCall(request).execute()) {
@@ -90,8 +85,12 @@ public class ClientStatusCallbackHandler extends EventHandler {
     return true;
   }
 
+  Request buildHttpRequest(AnchorEvent event) {
+    return buildHttpRequest(event, List.of());
+  }
+
   @SneakyThrows
-  Request buildHttpRequest(KeyPair signer, AnchorEvent event) {
+  Request buildHttpRequest(AnchorEvent event, List<String> skippedStatuses) {
     String callbackUrl = getCallbackUrl(event);
     if (callbackUrl == null) {
       Log.debugF(
@@ -101,8 +100,28 @@ public class ClientStatusCallbackHandler extends EventHandler {
       return null;
     }
 
-    String payload = getPayload(event);
-    return buildHttpRequest(signer, payload, callbackUrl);
+    byte[] payload = payloadMapper.getPayload(event, skippedStatuses);
+    String currentTs = String.valueOf(TimeUnit.MILLISECONDS.toSeconds(System.currentTimeMillis()));
+    String signature = getSigner().sign(currentTs, getDomain(callbackUrl), payload);
+    return buildSignedRequest(
+        callbackUrl, currentTs, signature, RequestBody.create(payload, TYPE_JSON));
+  }
+
+  CallbackSigner getSigner() {
+    if (signer == null) {
+      // Decoding the key is idempotent, so concurrent lanes may race safely.
+      signer = new CallbackSigner(secretConfig.getSep10SigningSeed());
+    }
+    return signer;
+  }
+
+  byte[] getDomain(String callbackUrl) throws MalformedURLException {
+    byte[] domain = callbackDomains.get(callbackUrl);
+    if (domain == null) {
+      domain = getDomainFromURL(callbackUrl).getBytes(UTF_8);
+      callbackDomains.put(callbackUrl, domain);
+    }
+    return domain;
   }
 
   @Nullable
@@ -160,191 +179,24 @@ public class ClientStatusCallbackHandler extends EventHandler {
     String encodedSignature =
         new String(Base64.getEncoder().encode(signer.sign(payloadToSign.getBytes())));
 
-    // Build the X-Stellar-Signature header
+    return buildSignedRequest(url, currentTs, encodedSignature, buildJsonRequestBody(payload));
+  }
+
+  /**
+   * Build the callback request with its Signature header.
+   *
+   * @param url the callback URL
+   * @param timestamp the timestamp (in seconds) of the callback
+   * @param signature the Base64 encoded signature of the callback
+   * @param body the payload of the callback
+   * @return the request
+   */
+  static Request buildSignedRequest(
+      String url, String timestamp, String signature, RequestBody body) {
     return new Request.Builder()
         .url(url)
-        .header("Signature", String.format("t=%s, s=%s", currentTs, encodedSignature))
-        .post(buildJsonRequestBody(payload))
+        .header("Signature", String.format("t=%s, s=%s", timestamp, signature))
+        .post(body)
         .build();
   }
-
-  private String getPayload(AnchorEvent event) throws AnchorException {
-    if (event.getTransaction() != null) {
-      switch (event.getTransaction().getSep()) {
-        case SEP_6:
-          Sep6Transaction sep6Txn = fromSep6Txn(event.getTransaction());
-          Sep6GetTransactionResponse sep6TxnRes =
-              new Sep6GetTransactionResponse(
-                  Sep6TransactionUtils.fromTxn(sep6Txn, sep6MoreInfoUrlConstructor, null));
-          return json(sep6TxnRes);
-        case SEP_24:
-          Sep24Transaction sep24Txn = fromSep24Txn(event.getTransaction());
-          Sep24GetTransactionResponse txn24Response =
-              Sep24GetTransactionResponse.of(
-                  fromTxn(assetService, sep24MoreInfoUrlConstructor, sep24Txn, null));
-          return json(txn24Response);
-        case SEP_31:
-          Sep31Transaction sep31Txn = fromSep31Txn(event.getTransaction());
-          return json(sep31Txn.toSep31GetTransactionResponse());
-        default:
-          throw new SepException(
-              String.format("Unsupported SEP: %s", event.getTransaction().getSep()));
-      }
-    } else if (event.getCustomer() != null) {
-      return json(event.getCustomer());
-    } else {
-      throw new InternalServerErrorException("Event must have either a transaction or a customer");
-    }
-  }
-
-  static Sep6Transaction fromSep6Txn(GetTransactionResponse txn) {
-    JdbcSep6Transaction sep6Txn = new JdbcSep6Transaction();
-    sep6Txn.setId(txn.getId());
-    sep6Txn.setTransactionId(txn.getId());
-    if (txn.getStellarTransactions() != null && !txn.getStellarTransactions().isEmpty()) {
-      sep6Txn.setStellarTransactionId(txn.getStellarTransactions().get(0).getId());
-    }
-    sep6Txn.setExternalTransactionId(txn.getExternalTransactionId());
-    sep6Txn.setStatus(txn.getStatus().getStatus());
-    sep6Txn.setKind(txn.getKind().kind);
-    sep6Txn.setStartedAt(txn.getStartedAt());
-    sep6Txn.setCompletedAt(txn.getCompletedAt());
-    sep6Txn.setTransferReceivedAt(txn.getTransferReceivedAt());
-    sep6Txn.setType(txn.getType());
-    if (txn.getAmountIn() != null) {
-      sep6Txn.setAmountIn(txn.getAmountIn().getAmount());
-      sep6Txn.setAmountInAsset(txn.getAmountIn().getAsset());
-    }
-    if (txn.getAmountOut() != null) {
-      sep6Txn.setAmountOut(txn.getAmountOut().getAmount());
-      sep6Txn.setAmountOutAsset(txn.getAmountOut().getAsset());
-    }
-    if (txn.getFeeDetails() != null) {
-      sep6Txn.setFeeDetails(txn.getFeeDetails());
-    }
-    if (txn.getAmountExpected() != null) {
-      sep6Txn.setAmountExpected(txn.getAmountExpected().getAmount());
-    }
-    sep6Txn.setFromAccount(txn.getSourceAccount());
-    sep6Txn.setToAccount(txn.getDestinationAccount());
-    sep6Txn.setMemo(txn.getMemo());
-    sep6Txn.setMemoType(txn.getMemoType());
-    sep6Txn.setClientDomain(txn.getClientDomain());
-    sep6Txn.setQuoteId(txn.getQuoteId());
-    sep6Txn.setMessage(txn.getMessage());
-    sep6Txn.setRefunds(txn.getRefunds());
-    sep6Txn.setRefundMemo(txn.getRefundMemo());
-    sep6Txn.setRefundMemoType(txn.getRefundMemoType());
-    sep6Txn.setRequiredInfoMessage(txn.getRequiredInfoMessage());
-    sep6Txn.setRequiredInfoUpdates(txn.getRequiredInfoUpdates());
-    sep6Txn.setInstructions(txn.getInstructions());
-
-    return sep6Txn;
-  }
-
-  static Sep24Transaction fromSep24Txn(GetTransactionResponse txn) {
-    JdbcSep24Transaction sep24Txn = new JdbcSep24Transaction();
-    sep24Txn.setId(txn.getId());
-    sep24Txn.setTransactionId(txn.getId());
-    sep24Txn.setKind(txn.getKind().kind);
-    sep24Txn.setStatus(txn.getStatus().getStatus());
-    if (txn.getAmountIn() != null) {
-      sep24Txn.setAmountIn(txn.getAmountIn().getAmount());
-      sep24Txn.setAmountInAsset(txn.getAmountIn().getAsset());
-    }
-    if (txn.getAmountOut() != null) {
-      sep24Txn.setAmountOut(txn.getAmountOut().getAmount());
-      sep24Txn.setAmountOutAsset(txn.getAmountOut().getAsset());
-    }
-    if (txn.getAmountExpected() != null) {
-      sep24Txn.setAmountExpected(txn.getAmountExpected().getAmount());
-    }
-    if (txn.getFeeDetails() != null) {
-      sep24Txn.setFeeDetails(txn.getFeeDetails());
-    }
-    sep24Txn.setStartedAt(txn.getStartedAt());
-    sep24Txn.setCompletedAt(txn.getCompletedAt());
-    sep24Txn.setExternalTransactionId(txn.getExternalTransactionId());
-    sep24Txn.setMessage(txn.getMessage());
-    sep24Txn.setFromAccount(txn.getSourceAccount());
-    sep24Txn.setToAccount(txn.getDestinationAccount());
-    sep24Txn.setMemo(txn.getMemo());
-    sep24Txn.setMemoType(txn.getMemoType());
-    sep24Txn.setClientDomain(txn.getClientDomain());
-    sep24Txn.setQuoteId(txn.getQuoteId());
-
-    if (txn.getRefunds() != null) {
-      List<Sep24RefundPayment> paymentList =
-          Arrays.stream(txn.getRefunds().getPayments())
-              .map(
-                  refundPayment -> {
-                    Sep24RefundPayment payment = new JdbcSep24RefundPayment();
-                    payment.setAmount(refundPayment.getAmount().getAmount());
-                    payment.setFee(refundPayment.getFee().getAmount());
-                    payment.setId(refundPayment.getId());
-                    payment.setIdType(refundPayment.getIdType().toString());
-                    return payment;
-                  })
-              .collect(Collectors.toList());
-      Sep24Refunds refunds = new JdbcSep24Refunds();
-      refunds.setAmountRefunded(txn.getRefunds().getAmountRefunded().getAmount());
-      refunds.setAmountFee(txn.getRefunds().getAmountFee().getAmount());
-      refunds.setRefundPayments(paymentList);
-      sep24Txn.setRefunds(refunds);
-    }
-
-    return sep24Txn;
-  }
-
-  static Sep31Transaction fromSep31Txn(GetTransactionResponse txn) {
-    JdbcSep31Transaction sep31Txn = new JdbcSep31Transaction();
-    sep31Txn.setId(txn.getId());
-    sep31Txn.setStatus(txn.getStatus().getStatus());
-    if (txn.getAmountIn() != null) {
-      sep31Txn.setAmountIn(txn.getAmountIn().getAmount());
-      sep31Txn.setAmountInAsset(txn.getAmountIn().getAsset());
-    }
-    if (txn.getAmountOut() != null) {
-      sep31Txn.setAmountOut(txn.getAmountOut().getAmount());
-      sep31Txn.setAmountOutAsset(txn.getAmountOut().getAsset());
-    }
-    if (txn.getAmountExpected() != null) {
-      sep31Txn.setAmountExpected(txn.getAmountExpected().getAmount());
-    }
-    if (txn.getFeeDetails() != null) {
-      sep31Txn.setFeeDetails(txn.getFeeDetails());
-    }
-    sep31Txn.setStartedAt(txn.getStartedAt());
-    sep31Txn.setCompletedAt(txn.getCompletedAt());
-    sep31Txn.setExternalTransactionId(txn.getExternalTransactionId());
-    sep31Txn.setRequiredInfoMessage(txn.getMessage());
-    sep31Txn.setStellarMemo(txn.getMemo());
-    sep31Txn.setStellarMemoType(txn.getMemoType());
-    sep31Txn.setFromAccount(txn.getSourceAccount());
-    sep31Txn.setToAccount(txn.getDestinationAccount());
-    sep31Txn.setClientDomain(txn.getClientDomain());
-    sep31Txn.setQuoteId(txn.getQuoteId());
-
-    if (txn.getRefunds() != null) {
-      List<RefundPayment> paymentList =
-          Arrays.stream(txn.getRefunds().getPayments())
-              .map(
-                  refundPayment -> {
-                    RefundPayment payment = new JdbcSep31RefundPayment();
-                    payment.setAmount(refundPayment.getAmount().getAmount());
-                    payment.setFee(refundPayment.getFee().getAmount());
-                    payment.setId(refundPayment.getId());
-
-                    return payment;
-                  })
-              .collect(Collectors.toList());
-      Sep31Refunds refunds = new JdbcSep31Refunds();
-      refunds.setAmountRefunded(txn.getRefunds().getAmountRefunded().getAmount());
-      refunds.setAmountFee(txn.getRefunds().getAmountFee().getAmount());
-      refunds.setRefundPayments(paymentList);
-      sep31Txn.setRefunds(refunds);
-    }
-
-    return sep31Txn;
-  }
 }
@@ -1,111 +1,79 @@
 package org.stellar.anchor.platform.event;
 
-import static java.lang.Thread.currentThread;
 import static org.stellar.anchor.util.MetricConstants.*;
-import static org.stellar.anchor.util.StringHelper.json;
 
-import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
 import org.stellar.anchor.api.event.AnchorEvent;
+import org.stellar.anchor.api.exception.AnchorException;
+import org.stellar.anchor.api.exception.InternalServerErrorException;
 import org.stellar.anchor.event.EventService;
-import org.stellar.anchor.util.ExponentialBackoffTimer;
 import org.stellar.anchor.util.Log;
 
+/**
+ * Reads the events with a single consumer and routes each event to the delivery queue of every
+ * client. The events are read and deserialized once regardless of the number of clients.
+ *
+ * <p>Each client queue delivers the events at its own pace, and the consumer keeps reading while a
+ * client is slow, up to {@code MAX_IN_FLIGHT_READS} reads ahead of it. Since the clients share the
+ * consumer group, a read is acknowledged once all the client queues have delivered its events or
+ * saved them to the dead letter store, so the events are not lost if the processor stops before
+ * the delivery. If an event can be neither delivered nor saved, the events read are not
+ * acknowledged and are read again by the next session.
+ */
 public class ClientStatusCallbackProcessor extends EventProcessor {
-  private final ClientStatusCallbackHandler eventHandler;
-  // The initial backoff time for connection error.
-  private final long NETWORK_INITIAL_BACKOFF_TIME_SECONDS = 1;
-  // The maximum backoff time for connection error.
-  private final long NETWORK_MAX_BACKOFF_TIME_SECONDS = 30;
-  // The initial backoff time for HTTP status code other than 200s or 300s.
-  private final long HTTP_STATUS_INITIAL_BACKOFF_TIME_SECONDS = 1;
-  // The maximum backoff time for HTTP status code other than 200s or 300s.
-  private final long HTTP_STATUS_MAX_BACKOFF_TIME_SECONDS = 5;
-  // The maximum number of retries for HTTP status code other than 200s or 300s.
-  private final long MAX_RETRIES = 3;
-  private final ExponentialBackoffTimer networkBackoffTimer =
-      new ExponentialBackoffTimer(
-          NETWORK_INITIAL_BACKOFF_TIME_SECONDS, NETWORK_MAX_BACKOFF_TIME_SECONDS);
-  private final ExponentialBackoffTimer httpErrorBackoffTimer =
-      new ExponentialBackoffTimer(
-          HTTP_STATUS_INITIAL_BACKOFF_TIME_SECONDS, HTTP_STATUS_MAX_BACKOFF_TIME_SECONDS);
+  private final List<ClientStatusCallbackQueue> clientQueues;
 
   protected ClientStatusCallbackProcessor(
       String name,
       EventService.EventQueue eventQueue,
       EventService eventService,
-      ClientStatusCallbackHandler eventHandler) {
+      List<ClientStatusCallbackQueue> clientQueues) {
     super(name, eventQueue, eventService);
-    this.eventHandler = eventHandler;
+    this.clientQueues = clientQueues;
   }
 
   @Override
-  void handleEventWithRetry(AnchorEvent event) {
-    boolean isProcessed = false;
-    int retryAttempts = 0;
-    // For every event, reset the timer.
-    getHttpErrorBackoffTimer().reset();
-    getNetworkBackoffTimer().reset();
-    // Retry until the event is processed or the thread is interrupted.
-    while (!isProcessed && !currentThread().isInterrupted()) {
-      try {
-        if (eventHandler.handleEvent(event)) {
-          // ***** The event is processed successfully.
-          isProcessed = true;
-          incrementProcessedCounter();
-        } else {
-          // ***** Error #2. HTTP status code other than 200s or 300s
-          if (++retryAttempts < MAX_RETRIES) {
-            // retry.
-            try {
-              getHttpErrorBackoffTimer().backoff();
-            } catch (InterruptedException e) {
-              // The thread is interrupted, so we need to stop the processor. This will
-              // break the while loop.
-              currentThread().interrupt();
-            }
-          } else {
-            // retry >= 3 times, skip the event.
-            isProcessed = true;
-            incrementProcessedCounter();
-          }
-        }
-      } catch (IOException ioex) {
-        // Retry for connection error
-        if (++retryAttempts < MAX_RETRIES) {
-          try {
-            getNetworkBackoffTimer().backoff();
-          } catch (InterruptedException e) {
-            // The thread is interrupted, so we need to stop the processor. This will
-            // break the while loop.
-            currentThread().interrupt();
-          }
-        } else {
-          isProcessed = true;
-          incrementProcessedCounter();
-        }
-      } catch (Exception e) {
-        // ***** Error #3. uncaught exception
-        sendToDLQ(event, e);
-        isProcessed = true;
-      }
+  boolean dispatchesAsync() {
+    return true;
+  }
+
+  /**
+   * Enqueue the event to every client queue without waiting for the delivery.
+   *
+   * @param event the event
+   * @return a future that completes when every client queue has delivered the event or saved it to
+   *     the dead letter store.
+   */
+  @Override
+  CompletableFuture<Void> dispatch(AnchorEvent event) {
+    CompletableFuture<?>[] deliveries = new CompletableFuture<?>[clientQueues.size()];
+    for (int i = 0; i < deliveries.length; i++) {
+      deliveries[i] = clientQueues.get(i).enqueue(event);
     }
+    return CompletableFuture.allOf(deliveries);
   }
 
   @Override
-  String toMetricTag(String queueName) {
-    return TV_STATUS_CALLBACK;
+  void handleEventWithRetry(AnchorEvent event) {
+    dispatch(event).join();
   }
 
-  ExponentialBackoffTimer getHttpErrorBackoffTimer() {
-    return httpErrorBackoffTimer;
+  @Override
+  void onHandlingFailed(Throwable cause) throws AnchorException {
+    Log.errorEx(cause);
+    throw new InternalServerErrorException(
+        "The event was neither delivered nor saved to the dead letter store");
   }
 
-  ExponentialBackoffTimer getNetworkBackoffTimer() {
-    return networkBackoffTimer;
+  @Override
+  public void stop() throws AnchorException {
+    super.stop();
+    clientQueues.forEach(ClientStatusCallbackQueue::stop);
   }
 
-  void sendToDLQ(AnchorEvent event, Exception e) {
-    Log.errorF("Failed to process event: {}", json(event));
-    Log.errorEx(e);
+  @Override
+  String toMetricTag(String queueName) {
+    return TV_STATUS_CALLBACK;
   }
 }
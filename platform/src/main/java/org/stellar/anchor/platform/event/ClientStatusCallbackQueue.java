@@ -0,0 +1,454 @@
+package org.stellar.anchor.platform.event;
+
+import static org.stellar.anchor.util.MetricConstants.*;
+import static org.stellar.anchor.util.StringHelper.json;
+
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Tags;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import lombok.Getter;
+import org.stellar.anchor.api.event.AnchorEvent;
+import org.stellar.anchor.platform.utils.DaemonExecutors;
+import org.stellar.anchor.util.Log;
+
+/**
+ * The delivery queue of the status callbacks of a client. The events are delivered by one or more
+ * lanes, and the retry state is independent of the other clients. The events of the same
+ * transaction are always delivered by the same lane.
+ *
+ * <p>A failed delivery does not block the queue. It is redelivered by a scheduler after a backoff
+ * delay, while the events of the other transactions keep being delivered. The events of the same
+ * transaction are held until the retried event is delivered, so their order is preserved. The
+ * events that still fail after {@code MAX_RETRIES} attempts are saved to the dead letter store.
+ *
+ * <p>The future returned by {@link #enqueue(AnchorEvent)} completes only when the event is
+ * delivered or saved to the dead letter store, so the events read are not acknowledged while they
+ * are waiting for retry. It completes exceptionally if the event cannot be saved to the dead letter
+ * store.
+ *
+ * <p>If the coalescing window is set, the status changes of a transaction are held for the window,
+ * and only the latest one is delivered. The delivery is tagged with the statuses it skipped.
+ */
+public class ClientStatusCallbackQueue {
+  @Getter private final String name;
+  @Getter private final String clientName;
+  private final ClientStatusCallbackHandler eventHandler;
+  private final ClientCallbackDeadLetterStore deadLetterStore;
+  // The initial backoff time for connection error.
+  static final long NETWORK_INITIAL_BACKOFF_TIME_SECONDS = 1;
+  // The maximum backoff time for connection error.
+  static final long NETWORK_MAX_BACKOFF_TIME_SECONDS = 30;
+  // The initial backoff time for HTTP status code other than 200s or 300s.
+  static final long HTTP_STATUS_INITIAL_BACKOFF_TIME_SECONDS = 1;
+  // The maximum backoff time for HTTP status code other than 200s or 300s.
+  static final long HTTP_STATUS_MAX_BACKOFF_TIME_SECONDS = 5;
+  // The maximum number of delivery attempts.
+  static final int MAX_RETRIES = 3;
+  private final ExecutorService[] lanes;
+  private final ScheduledExecutorService retryScheduler = DaemonExecutors.newScheduledThreadPool(1);
+  // The enqueue times (epoch ms) of the events waiting to be delivered, oldest first.
+  private final ConcurrentLinkedDeque<Long> pending = new ConcurrentLinkedDeque<>();
+  // The deliveries held by the transaction of a retried event. The retried delivery is the first
+  // one. A deque is only accessed by the lane of its transaction.
+  private final Map<String, Deque<Delivery>> held = new ConcurrentHashMap<>();
+  // The coalescing window (in milliseconds) of the status changes. 0 if disabled.
+  private final long coalescingWindowMillis;
+  // The status changes waiting for the end of the coalescing window of their transaction.
+  private final Map<String, Coalesced> coalescing = new ConcurrentHashMap<>();
+  private final Tags tags;
+
+  public ClientStatusCallbackQueue(
+      String name,
+      String clientName,
+      ClientStatusCallbackHandler eventHandler,
+      ClientCallbackDeadLetterStore deadLetterStore) {
+    this(name, clientName, eventHandler, deadLetterStore, 1);
+  }
+
+  public ClientStatusCallbackQueue(
+      String name,
+      String clientName,
+      ClientStatusCallbackHandler eventHandler,
+      ClientCallbackDeadLetterStore deadLetterStore,
+      int laneCount) {
+    this(name, clientName, eventHandler, deadLetterStore, laneCount, 0);
+  }
+
+  public ClientStatusCallbackQueue(
+      String name,
+      String clientName,
+      ClientStatusCallbackHandler eventHandler,
+      ClientCallbackDeadLetterStore deadLetterStore,
+      int laneCount,
+      long coalescingWindowMillis) {
+    this.name = name;
+    this.clientName = clientName;
+    this.eventHandler = eventHandler;
+    this.deadLetterStore = deadLetterStore;
+    this.coalescingWindowMillis = coalescingWindowMillis;
+    this.lanes = new ExecutorService[Math.max(laneCount, 1)];
+    for (int i = 0; i < lanes.length; i++) {
+      lanes[i] = DaemonExecutors.newFixedThreadPool(1);
+    }
+
+    this.tags = Tags.of(CLIENT, clientName);
+    // the number of events waiting to be delivered to the client
+    Metrics.gauge(CLIENT_STATUS_CALLBACK_QUEUE_DEPTH, tags, pending, ConcurrentLinkedDeque::size);
+    // the age of the oldest event waiting to be delivered to the client
+    Metrics.gauge(CLIENT_STATUS_CALLBACK_LAG, tags, this, ClientStatusCallbackQueue::getLagMillis);
+  }
+
+  /**
+   * Enqueue the event for delivery.
+   *
+   * @param event the event to deliver
+   * @return a future that completes when the event is delivered or saved to the dead letter store.
+   */
+  CompletableFuture<Void> enqueue(AnchorEvent event) {
+    Delivery delivery = new Delivery(event, System.currentTimeMillis());
+    if (coalescingWindowMillis > 0 && isStatusChange(event)) {
+      return coalesce(delivery);
+    }
+    return submit(delivery);
+  }
+
+  /**
+   * Enqueue an event of the dead letter store for delivery. The event is not coalesced, and it is
+   * not saved to the dead letter store again if the delivery fails, since its dead letter is kept.
+   *
+   * @param event the event to deliver
+   * @return a future that completes with true if the event is delivered, or false if it is given
+   *     up.
+   */
+  CompletableFuture<Boolean> replay(AnchorEvent event) {
+    Delivery delivery = new Delivery(event, System.currentTimeMillis());
+    delivery.replayed = true;
+    return submit(delivery).thenApply(result -> delivery.delivered);
+  }
+
+  CompletableFuture<Void> submit(Delivery delivery) {
+    // The status changes of the transaction waiting for the window are delivered first.
+    Coalesced previous = coalescing.remove(delivery.key);
+    if (previous != null) {
+      flush(previous);
+    }
+    pending.addLast(delivery.enqueuedAt);
+    CompletableFuture.runAsync(() -> deliver(delivery), laneOf(delivery))
+        .exceptionally(
+            ex -> {
+              delivery.done.completeExceptionally(ex);
+              return null;
+            });
+    return delivery.done;
+  }
+
+  static boolean isStatusChange(AnchorEvent event) {
+    return event.getType() == AnchorEvent.Type.TRANSACTION_STATUS_CHANGED
+        && event.getTransaction() != null
+        && event.getTransaction().getStatus() != null;
+  }
+
+  /**
+   * Hold the status change until the end of the coalescing window of its transaction. If a status
+   * change of the transaction is already held, it is replaced and its status is skipped.
+   *
+   * @param delivery the delivery of the status change
+   * @return a future that completes when the latest status change of the window is delivered or
+   *     saved to the dead letter store
+   */
+  CompletableFuture<Void> coalesce(Delivery delivery) {
+    Coalesced coalesced =
+        coalescing.compute(
+            delivery.key,
+            (key, current) -> {
+              if (current == null) {
+                pending.addLast(delivery.enqueuedAt);
+                Coalesced started = new Coalesced(delivery);
+                scheduleFlush(started);
+                return started;
+              }
+              current.replace(delivery);
+              Metrics.counter(CLIENT_STATUS_CALLBACK_COALESCED, tags).increment();
+              return current;
+            });
+    return coalesced.handled;
+  }
+
+  void scheduleFlush(Coalesced coalesced) {
+    try {
+      retryScheduler.schedule(
+          () -> {
+            // The window may have been flushed by a later event of the transaction.
+            if (coalescing.remove(coalesced.first.key, coalesced)) {
+              flush(coalesced);
+            }
+          },
+          coalescingWindowMillis,
+          TimeUnit.MILLISECONDS);
+    } catch (RejectedExecutionException ex) {
+      // The queue is stopped. The coalesced deliveries are saved by stop().
+    }
+  }
+
+  void flush(Coalesced coalesced) {
+    Delivery delivery =
+        new Delivery(coalesced.latest.event, coalesced.first.enqueuedAt, coalesced.skipped);
+    completeWith(coalesced.handled, delivery.done);
+    try {
+      CompletableFuture.runAsync(() -> deliver(delivery), laneOf(delivery))
+          .exceptionally(
+              ex -> {
+                delivery.done.completeExceptionally(ex);
+                return null;
+              });
+    } catch (RejectedExecutionException ex) {
+      sendToDLQ(delivery, "The event processor stopped before the delivery");
+    }
+  }
+
+  static void completeWith(CompletableFuture<Void> future, CompletableFuture<Void> source) {
+    source.whenComplete(
+        (result, ex) -> {
+          if (ex != null) {
+            future.completeExceptionally(ex);
+          } else {
+            future.complete(null);
+          }
+        });
+  }
+
+  ExecutorService laneOf(Delivery delivery) {
+    return lanes[Math.floorMod(delivery.key.hashCode(), lanes.length)];
+  }
+
+  void deliver(Delivery delivery) {
+    Deque<Delivery> waiting = held.get(delivery.key);
+    if (waiting != null) {
+      // An event of the same transaction is waiting for retry
+      waiting.addLast(delivery);
+      return;
+    }
+    process(delivery);
+  }
+
+  /**
+   * Attempt the delivery, then the deliveries held behind it as long as they do not need retry.
+   *
+   * @param delivery the delivery to attempt
+   */
+  void process(Delivery delivery) {
+    while (delivery != null) {
+      long retryDelay = attempt(delivery);
+      if (retryDelay > 0) {
+        Deque<Delivery> waiting = held.computeIfAbsent(delivery.key, k -> new ArrayDeque<>());
+        if (waiting.peekFirst() != delivery) {
+          waiting.addFirst(delivery);
+        }
+        scheduleRetry(delivery, retryDelay);
+        return;
+      }
+      pending.removeFirstOccurrence(delivery.enqueuedAt);
+      delivery = nextHeld(delivery);
+    }
+  }
+
+  Delivery nextHeld(Delivery done) {
+    Deque<Delivery> waiting = held.get(done.key);
+    if (waiting == null) {
+      return null;
+    }
+    if (waiting.peekFirst() == done) {
+      waiting.pollFirst();
+    }
+    Delivery next = waiting.peekFirst();
+    if (next == null) {
+      held.remove(done.key);
+    }
+    return next;
+  }
+
+  void scheduleRetry(Delivery delivery, long delaySeconds) {
+    try {
+      retryScheduler.schedule(
+          () -> laneOf(delivery).execute(() -> process(delivery)), delaySeconds, TimeUnit.SECONDS);
+    } catch (RejectedExecutionException ex) {
+      // The queue is stopped. The held deliveries are saved by stop().
+    }
+  }
+
+  /**
+   * Attempt to deliver the event once.
+   *
+   * @param delivery the delivery
+   * @return the delay (in seconds) before the next attempt. 0 if the event is delivered or given
+   *     up.
+   */
+  long attempt(Delivery delivery) {
+    String error;
+    long backoff;
+    try {
+      boolean delivered =
+          delivery.skippedStatuses.isEmpty()
+              ? eventHandler.handleEvent(delivery.event)
+              : eventHandler.handleEvent(delivery.event, delivery.skippedStatuses);
+      if (delivered) {
+        // ***** The event is processed successfully.
+        incrementProcessedCounter();
+        delivery.delivered = true;
+        delivery.done.complete(null);
+        return 0;
+      }
+      // ***** Error #2. HTTP status code other than 200s or 300s
+      error = "The client responded with an error status";
+      backoff =
+          backoffSeconds(
+              delivery.attempts,
+              HTTP_STATUS_INITIAL_BACKOFF_TIME_SECONDS,
+              HTTP_STATUS_MAX_BACKOFF_TIME_SECONDS);
+    } catch (IOException ioex) {
+      // ***** Error #1. Connection error
+      error = ioex.toString();
+      backoff =
+          backoffSeconds(
+              delivery.attempts,
+              NETWORK_INITIAL_BACKOFF_TIME_SECONDS,
+              NETWORK_MAX_BACKOFF_TIME_SECONDS);
+    } catch (Exception e) {
+      // ***** Error #3. uncaught exception
+      sendToDLQ(delivery, e.toString());
+      Log.errorEx(e);
+      return 0;
+    }
+
+    if (++delivery.attempts < MAX_RETRIES) {
+      return backoff;
+    }
+    // retry >= 3 times, give up the event.
+    sendToDLQ(delivery, error);
+    return 0;
+  }
+
+  static long backoffSeconds(int attempts, long initialSeconds, long maxSeconds) {
+    return Math.min(initialSeconds << Math.min(attempts, 30), maxSeconds);
+  }
+
+  /**
+   * Stop the delivery. The event being delivered is interrupted, and the events waiting for retry
+   * or for the end of their coalescing window are saved to the dead letter store so they can be
+   * replayed.
+   */
+  void stop() {
+    retryScheduler.shutdownNow();
+    for (String key : coalescing.keySet()) {
+      Coalesced coalesced = coalescing.remove(key);
+      if (coalesced != null) {
+        completeWith(coalesced.handled, coalesced.latest.done);
+        sendToDLQ(coalesced.latest, "The event processor stopped before the delivery");
+      }
+    }
+    for (ExecutorService lane : lanes) {
+      lane.shutdownNow();
+    }
+    try {
+      for (ExecutorService lane : lanes) {
+        if (!lane.awaitTermination(5, TimeUnit.SECONDS)) {
+          Log.warnF("The delivery of {} did not stop in time", name);
+        }
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    for (Deque<Delivery> waiting : held.values()) {
+      for (Delivery delivery : waiting) {
+        sendToDLQ(delivery, "The event processor stopped before the delivery");
+      }
+    }
+    held.clear();
+  }
+
+  long getLagMillis() {
+    Long oldest = pending.peekFirst();
+    return (oldest == null) ? 0 : Math.max(0, System.currentTimeMillis() - oldest);
+  }
+
+  int getDepth() {
+    return pending.size();
+  }
+
+  void incrementProcessedCounter() {
+    Metrics.counter(EVENT_PROCESSED, QUEUE, TV_STATUS_CALLBACK).increment();
+  }
+
+  void sendToDLQ(Delivery delivery, String error) {
+    Log.errorF("Failed to process event for {}: {}", name, json(delivery.event));
+    if (delivery.replayed) {
+      // The dead letter of the replayed event is kept.
+      delivery.done.complete(null);
+      return;
+    }
+    try {
+      deadLetterStore.save(clientName, delivery.event, error, delivery.attempts);
+      delivery.done.complete(null);
+    } catch (Exception ex) {
+      Log.errorEx("Failed to save the event to the dead letter store", ex);
+      // The event is read again if it is not acknowledged.
+      delivery.done.completeExceptionally(ex);
+    }
+  }
+
+  static class Delivery {
+    final AnchorEvent event;
+    // The events of the same transaction are delivered in order.
+    final String key;
+    final Long enqueuedAt;
+    // The statuses coalesced into the event, oldest first.
+    final List<String> skippedStatuses;
+    // Completes when the event is delivered or saved to the dead letter store.
+    final CompletableFuture<Void> done = new CompletableFuture<>();
+    // Whether the event is replayed from the dead letter store.
+    boolean replayed = false;
+    boolean delivered = false;
+    int attempts = 0;
+
+    Delivery(AnchorEvent event, long enqueuedAt) {
+      this(event, enqueuedAt, List.of());
+    }
+
+    Delivery(AnchorEvent event, long enqueuedAt, List<String> skippedStatuses) {
+      this.event = event;
+      this.key = EventProcessor.orderingKey(event);
+      this.enqueuedAt = enqueuedAt;
+      this.skippedStatuses = skippedStatuses;
+    }
+  }
+
+  /** The status changes of a transaction in the same coalescing window. */
+  static class Coalesced {
+    final Delivery first;
+    final List<String> skipped = new ArrayList<>();
+    final CompletableFuture<Void> handled = new CompletableFuture<>();
+    Delivery latest;
+
+    Coalesced(Delivery first) {
+      this.first = first;
+      this.latest = first;
+    }
+
+    void replace(Delivery delivery) {
+      skipped.add(latest.event.getTransaction().getStatus().getStatus());
+      latest = delivery;
+    }
+  }
+}
@@ -4,13 +4,21 @@ import lombok.SneakyThrows;
 import org.apache.commons.lang3.NotImplementedException;
 import org.stellar.anchor.config.event.EventConfig;
 import org.stellar.anchor.event.EventService;
+import org.stellar.anchor.platform.config.MemoryQueueConfig;
 import org.stellar.anchor.platform.config.PropertyEventConfig;
+import org.stellar.anchor.platform.data.JdbcEventOutboxRepo;
 
 public class DefaultEventService implements EventService {
   private final PropertyEventConfig eventConfig;
+  private final JdbcEventOutboxRepo outboxRepo;
 
   public DefaultEventService(EventConfig eventConfig) {
+    this(eventConfig, null);
+  }
+
+  public DefaultEventService(EventConfig eventConfig, JdbcEventOutboxRepo outboxRepo) {
     this.eventConfig = (PropertyEventConfig) eventConfig;
+    this.outboxRepo = outboxRepo;
   }
 
   @Override
@@ -28,6 +36,19 @@ public class DefaultEventService implements EventService {
         case MSK:
           // TODO: Implement this
           throw new NotImplementedException("MSK is not implemented yet");
+        case OUTBOX:
+          // The events are written in the database transaction, so they are not deferred until
+          // the commit. The events relayed to Kafka are read from Kafka.
+          return new OutboxSession(
+              outboxRepo,
+              eventQueue,
+              new KafkaSession(eventConfig.getQueue().getKafka(), sessionName, eventQueue));
+        case MEMORY:
+          MemoryQueueConfig memoryConfig = eventConfig.getQueue().getMemory();
+          session =
+              new RingBufferSession(
+                  memoryConfig, sessionName, RingBufferEventQueue.of(eventQueue, memoryConfig));
+          break;
         default:
           throw new RuntimeException("Unknown queue type");
       }
@@ -0,0 +1,167 @@
+package org.stellar.anchor.platform.event;
+
+import static org.stellar.anchor.util.Log.debugF;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.stellar.anchor.api.event.AnchorEvent;
+import org.stellar.anchor.config.event.QueueConfig.QueueType;
+import org.stellar.anchor.event.EventService.EventQueue;
+import org.stellar.anchor.platform.config.PropertyEventConfig;
+import org.stellar.anchor.platform.data.JdbcEventOutbox;
+import org.stellar.anchor.platform.data.JdbcEventOutboxRepo;
+import org.stellar.anchor.platform.utils.DaemonExecutors;
+import org.stellar.anchor.util.GsonUtils;
+import org.stellar.anchor.util.Log;
+
+/**
+ * Relays the events of the outbox table to Kafka.
+ *
+ * <p>The oldest events are locked in the order of their sequence, sent to Kafka and deleted in the
+ * same database transaction. If an event cannot be delivered, or Kafka does not acknowledge the
+ * batch within the send timeout, the transaction rolls back and the events are relayed again by the
+ * next drain. Therefore, an event may be delivered more than once, but it is never lost.
+ *
+ * <p>Every server runs a relay, but a batch is relayed only by the relay that holds the advisory
+ * lock of the outbox, so the events are sent by one relay at a time, in sequence order. The
+ * updates of a transaction are serialized by its row lock, so its events are written, and
+ * relayed, in the order of the updates.
+ */
+public class EventOutboxRelay {
+  private final PropertyEventConfig eventConfig;
+  private final JdbcEventOutboxRepo outboxRepo;
+  private final TransactionTemplate transactionTemplate;
+  private final Map<EventQueue, KafkaSession> sessions = new EnumMap<>(EventQueue.class);
+  private ScheduledExecutorService scheduler = null;
+
+  public EventOutboxRelay(
+      PropertyEventConfig eventConfig,
+      JdbcEventOutboxRepo outboxRepo,
+      TransactionTemplate transactionTemplate) {
+    this.eventConfig = eventConfig;
+    this.outboxRepo = outboxRepo;
+    this.transactionTemplate = transactionTemplate;
+  }
+
+  @PostConstruct
+  public void start() {
+    if (!eventConfig.isEnabled() || eventConfig.getQueue().getType() != QueueType.OUTBOX) {
+      return;
+    }
+    long interval = eventConfig.getQueue().getOutbox().getPollIntervalMs();
+    scheduler = DaemonExecutors.newScheduledThreadPool(1);
+    scheduler.scheduleWithFixedDelay(this::drain, interval, interval, TimeUnit.MILLISECONDS);
+  }
+
+  @PreDestroy
+  public void stop() {
+    if (scheduler != null) {
+      scheduler.shutdownNow();
+    }
+    for (KafkaSession session : sessions.values()) {
+      session.close();
+    }
+  }
+
+  /** Relay the events until the outbox is empty or a batch fails. */
+  void drain() {
+    int batchSize = eventConfig.getQueue().getOutbox().getBatchSize();
+    try {
+      int relayed;
+      do {
+        relayed = relayBatch(batchSize);
+      } while (relayed == batchSize && !Thread.currentThread().isInterrupted());
+    } catch (Exception ex) {
+      // The events are relayed again by the next drain.
+      Log.errorEx("Failed to relay the events of the outbox", ex);
+    }
+  }
+
+  /**
+   * Relay the oldest events of the outbox in a database transaction.
+   *
+   * @param batchSize the maximum number of events
+   * @return the number of events relayed
+   */
+  int relayBatch(int batchSize) {
+    Integer relayed =
+        transactionTemplate.execute(
+            status -> {
+              if (!outboxRepo.tryLockRelay()) {
+                // The relay of another server is draining the outbox.
+                return 0;
+              }
+              List<JdbcEventOutbox> outboxEvents = outboxRepo.lockOldest(batchSize);
+              if (outboxEvents.isEmpty()) {
+                return 0;
+              }
+              List<CompletableFuture<Void>> delivered = new ArrayList<>();
+              for (JdbcEventOutbox outboxEvent : outboxEvents) {
+                AnchorEvent event =
+                    GsonUtils.getInstance().fromJson(outboxEvent.getEvent(), AnchorEvent.class);
+                // The failed events stay in the outbox and are sent again by the next batch.
+                delivered.add(getSession(outboxEvent.getQueue()).send(event));
+              }
+              flushSessions();
+              // Throwing rolls back the transaction, so the events are not deleted.
+              awaitDelivery(delivered);
+              outboxRepo.deleteAll(outboxEvents);
+              return outboxEvents.size();
+            });
+    debugF("Relayed {} events from the outbox", relayed);
+    return (relayed == null) ? 0 : relayed;
+  }
+
+  /**
+   * Wait for Kafka to acknowledge the events, at most the send timeout, so that an unreachable
+   * broker does not hold the database transaction and the advisory lock of the outbox.
+   *
+   * @param delivered the futures of the events
+   */
+  void awaitDelivery(List<CompletableFuture<Void>> delivered) {
+    long timeout = eventConfig.getQueue().getOutbox().getSendTimeoutMs();
+    try {
+      CompletableFuture.allOf(delivered.toArray(new CompletableFuture<?>[0]))
+          .get(timeout, TimeUnit.MILLISECONDS);
+    } catch (TimeoutException ex) {
+      throw new IllegalStateException(
+          String.format("Kafka did not acknowledge the events within %d ms", timeout), ex);
+    } catch (ExecutionException ex) {
+      throw new IllegalStateException("Failed to deliver the events", ex.getCause());
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted while delivering the events", ex);
+    }
+  }
+
+  void flushSessions() {
+    // The failures are reported by the futures of the events.
+    for (KafkaSession session : sessions.values()) {
+      session.flush();
+    }
+  }
+
+  KafkaSession getSession(String queue) {
+    return sessions.computeIfAbsent(
+        EventQueue.valueOf(queue),
+        eventQueue -> {
+          try {
+            return new KafkaSession(
+                eventConfig.getQueue().getKafka(), "event-outbox-relay", eventQueue);
+          } catch (IOException ex) {
+            throw new IllegalStateException("Failed to create the Kafka session", ex);
+          }
+        });
+  }
+}
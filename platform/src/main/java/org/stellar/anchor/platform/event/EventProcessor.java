@@ -6,7 +6,12 @@ import static org.stellar.anchor.util.Log.infoF;
 import static org.stellar.anchor.util.MetricConstants.*;
 
 import io.micrometer.core.instrument.Metrics;
+import java.util.ArrayDeque;
+import java.util.Deque;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.ScheduledThreadPoolExecutor;
@@ -19,21 +24,42 @@ import org.stellar.anchor.event.EventService.EventQueue;
 import org.stellar.anchor.platform.utils.DaemonExecutors;
 import org.stellar.anchor.util.Log;
 
+/**
+ * Reads the events from the event queue and handles them.
+ *
+ * <p>With a single lane, the events read are handled one at a time by the consumer thread. With
+ * more lanes, the events are distributed to the lanes by transaction, so the events of the same
+ * transaction are handled in order, and the consumer keeps reading while the lanes are busy. The
+ * events read are acknowledged in the order they are read, once all the events up to them are
+ * handled.
+ */
 public abstract class EventProcessor implements Runnable {
+  // The maximum number of read responses being handled by the lanes.
+  static final int MAX_IN_FLIGHT_READS = 4;
   private final String name;
   private final EventQueue eventQueue;
   private final EventService eventService;
   private final ScheduledExecutorService consumerScheduler =
       DaemonExecutors.newScheduledThreadPool(1);
+  private final ExecutorService[] lanes;
   private ScheduledFuture<?> processingTask = null;
   // The flag to indicate if the processor is stopped.
   private boolean stopped = false;
 
   protected EventProcessor(
       String name, EventService.EventQueue eventQueue, EventService eventService) {
+    this(name, eventQueue, eventService, 1);
+  }
+
+  protected EventProcessor(
+      String name, EventService.EventQueue eventQueue, EventService eventService, int laneCount) {
     this.name = name;
     this.eventQueue = eventQueue;
     this.eventService = eventService;
+    this.lanes = new ExecutorService[(laneCount > 1) ? laneCount : 0];
+    for (int i = 0; i < lanes.length; i++) {
+      lanes[i] = DaemonExecutors.newFixedThreadPool(1);
+    }
   }
 
   public void start() {
@@ -46,6 +72,9 @@ public abstract class EventProcessor implements Runnable {
       processingTask.cancel(true);
     }
     consumerScheduler.shutdown();
+    for (ExecutorService lane : lanes) {
+      lane.shutdownNow();
+    }
   }
 
   @SneakyThrows
@@ -56,20 +85,11 @@ public abstract class EventProcessor implements Runnable {
         getConsumerRestartCount() + 1);
     EventService.Session queueSession = eventService.createSession(name, eventQueue);
     try {
-      while (!currentThread().isInterrupted() && !stopped) {
-        EventService.ReadResponse readResponse = queueSession.read();
-        List<AnchorEvent> events = readResponse.getEvents();
-        Metrics.counter(EVENT_RECEIVED, QUEUE, toMetricTag(eventQueue.name()))
-            .increment(events.size());
-        debugF("Received {} events from queue", events.size());
-        for (AnchorEvent event : events) {
-          handleEventWithRetry(event);
-          if (currentThread().isInterrupted()) break;
-        }
-        queueSession.ack(readResponse);
+      if (dispatchesAsync()) {
+        processInLanes(queueSession);
+      } else {
+        process(queueSession);
       }
-
-      queueSession.close();
     } catch (Exception ex) {
       // This is unexpected, so we need to restart the consumer.
       Log.errorEx(ex);
@@ -79,8 +99,121 @@ public abstract class EventProcessor implements Runnable {
     }
   }
 
+  void process(EventService.Session queueSession) throws Exception {
+    while (!currentThread().isInterrupted() && !stopped) {
+      EventService.ReadResponse readResponse = read(queueSession);
+      for (AnchorEvent event : readResponse.getEvents()) {
+        handleEventWithRetry(event);
+        if (currentThread().isInterrupted()) break;
+      }
+      queueSession.ack(readResponse);
+    }
+  }
+
+  void processInLanes(EventService.Session queueSession) throws Exception {
+    // The read responses being handled, in the order they are read
+    Deque<InFlightRead> inFlight = new ArrayDeque<>();
+    while (!currentThread().isInterrupted() && !stopped) {
+      EventService.ReadResponse readResponse = read(queueSession);
+      List<AnchorEvent> events = readResponse.getEvents();
+      CompletableFuture<?>[] handled = new CompletableFuture<?>[events.size()];
+      for (int i = 0; i < events.size(); i++) {
+        handled[i] = dispatch(events.get(i));
+      }
+      inFlight.addLast(new InFlightRead(readResponse, CompletableFuture.allOf(handled)));
+      // Wait for the oldest read when too many reads are being handled.
+      ackHandled(queueSession, inFlight, inFlight.size() - MAX_IN_FLIGHT_READS);
+    }
+    // The reads not handled yet are read again by the next session.
+    ackHandled(queueSession, inFlight, 0);
+  }
+
+  /**
+   * Acknowledge the oldest read responses whose events are all handled.
+   *
+   * @param queueSession the session of the read responses
+   * @param inFlight the read responses being handled, oldest first
+   * @param mustAck the number of oldest read responses to wait for before acknowledging
+   */
+  void ackHandled(EventService.Session queueSession, Deque<InFlightRead> inFlight, int mustAck)
+      throws AnchorException, InterruptedException {
+    while (!inFlight.isEmpty() && (mustAck-- > 0 || inFlight.peekFirst().handled.isDone())) {
+      InFlightRead oldest = inFlight.peekFirst();
+      try {
+        oldest.handled.get();
+      } catch (ExecutionException ex) {
+        onHandlingFailed(ex.getCause());
+      }
+      queueSession.ack(oldest.readResponse);
+      inFlight.pollFirst();
+    }
+  }
+
+  /**
+   * Whether the events are handed off by {@link #dispatch(AnchorEvent)} so the consumer keeps
+   * reading while they are handled.
+   *
+   * @return true if the events are dispatched to the lanes.
+   */
+  boolean dispatchesAsync() {
+    return lanes.length > 0;
+  }
+
+  /**
+   * Hand the event off for handling without waiting.
+   *
+   * @param event the event
+   * @return a future that completes when the event is handled.
+   */
+  CompletableFuture<?> dispatch(AnchorEvent event) {
+    return CompletableFuture.runAsync(() -> handleEventWithRetry(event), laneOf(event));
+  }
+
+  ExecutorService laneOf(AnchorEvent event) {
+    return lanes[Math.floorMod(orderingKey(event).hashCode(), lanes.length)];
+  }
+
+  EventService.ReadResponse read(EventService.Session queueSession) throws AnchorException {
+    EventService.ReadResponse readResponse = queueSession.read();
+    List<AnchorEvent> events = readResponse.getEvents();
+    Metrics.counter(EVENT_RECEIVED, QUEUE, toMetricTag(eventQueue.name()))
+        .increment(events.size());
+    debugF("Received {} events from queue", events.size());
+    return readResponse;
+  }
+
+  /**
+   * The key that orders the events. The events with the same key are handled in the order they are
+   * read.
+   *
+   * @param event the event
+   * @return the transaction id, the customer id or the event id, whichever is present first.
+   */
+  static String orderingKey(AnchorEvent event) {
+    if (event.getTransaction() != null && event.getTransaction().getId() != null) {
+      return "transaction:" + event.getTransaction().getId();
+    }
+    if (event.getCustomer() != null && event.getCustomer().getId() != null) {
+      return "customer:" + event.getCustomer().getId();
+    }
+    return "event:" + event.getId();
+  }
+
   abstract void handleEventWithRetry(AnchorEvent event);
 
+  /**
+   * Called when the events of a read response dispatched by {@link #dispatch(AnchorEvent)} failed
+   * to be handled.
+   *
+   * @param cause the error
+   * @throws AnchorException if the read response must not be acknowledged. The session is closed,
+   *     and its events are read again by the next session.
+   */
+  void onHandlingFailed(Throwable cause) throws AnchorException {
+    // The events are retried by handleEventWithRetry, so this is unexpected.
+    Log.errorEx(cause);
+  }
+
   abstract String toMetricTag(String queueName);
 
   long getConsumerRestartCount() {
@@ -90,4 +223,14 @@ public abstract class EventProcessor implements Runnable {
   void incrementProcessedCounter() {
     Metrics.counter(EVENT_PROCESSED, QUEUE, toMetricTag(eventQueue.name())).increment();
   }
+
+  static class InFlightRead {
+    final EventService.ReadResponse readResponse;
+    final CompletableFuture<Void> handled;
+
+    InFlightRead(EventService.ReadResponse readResponse, CompletableFuture<Void> handled) {
+      this.readResponse = readResponse;
+      this.handled = handled;
+    }
+  }
 }
@@ -29,6 +29,7 @@ import org.stellar.anchor.util.Log;
 public class EventProcessorManager {
   public static final String CLIENT_STATUS_CALLBACK_EVENT_PROCESSOR_NAME_PREFIX =
       "client-status-callback-";
+  public static final String CLIENT_STATUS_CALLBACK_EVENT_PROCESSOR_NAME = "client-status-callback";
   public static final String CALLBACK_API_EVENT_PROCESSOR_NAME = "callback-api";
   private final SecretConfig secretConfig;
   private final EventProcessorConfig eventProcessorConfig;
@@ -39,6 +40,7 @@ public class EventProcessorManager {
   private final Sep6TransactionStore sep6TransactionStore;
   private final Sep24TransactionStore sep24TransactionStore;
   private final Sep31TransactionStore sep31TransactionStore;
+  private final ClientCallbackDeadLetterStore clientCallbackDeadLetterStore;
   private final MoreInfoUrlConstructor sep6MoreInfoUrlConstructor;
   private final MoreInfoUrlConstructor sep24MoreInfoUrlConstructor;
   private final List<EventProcessor> processors = new ArrayList<>();
@@ -53,6 +55,7 @@ public class EventProcessorManager {
       Sep6TransactionStore sep6TransactionStore,
       Sep24TransactionStore sep24TransactionStore,
       Sep31TransactionStore sep31TransactionStore,
+      ClientCallbackDeadLetterStore clientCallbackDeadLetterStore,
       MoreInfoUrlConstructor sep6MoreInfoUrlConstructor,
       MoreInfoUrlConstructor sep24MoreInfoUrlConstructor) {
     this.secretConfig = secretConfig;
@@ -64,6 +67,7 @@ public class EventProcessorManager {
     this.sep6TransactionStore = sep6TransactionStore;
     this.sep24TransactionStore = sep24TransactionStore;
     this.sep31TransactionStore = sep31TransactionStore;
+    this.clientCallbackDeadLetterStore = clientCallbackDeadLetterStore;
     this.sep6MoreInfoUrlConstructor = sep6MoreInfoUrlConstructor;
     this.sep24MoreInfoUrlConstructor = sep24MoreInfoUrlConstructor;
   }
@@ -78,24 +82,32 @@ public class EventProcessorManager {
               CALLBACK_API_EVENT_PROCESSOR_NAME,
               EventQueue.TRANSACTION,
               eventService,
-              new CallbackApiEventHandler(callbackApiConfig)));
+              new CallbackApiEventHandler(callbackApiConfig),
+              eventProcessorConfig.getLanes(),
+              eventProcessorConfig.getCallbackApiRequest().getBatchSize(),
+              eventProcessorConfig.getCallbackApiRequest().getBatchLingerMs()));
     }
-    // Create a processor of the client status callback handler for each client defined in the
-    // clientsConfig
+    // Create a single processor that routes the events to the delivery queue of each client
+    // defined in the clientsConfig
     if (eventProcessorConfig.getClientStatusCallback().isEnabled()) {
+      List<ClientStatusCallbackQueue> clientQueues = new ArrayList<>();
+      // The payloads are shared by the clients
+      CallbackPayloadMapper payloadMapper =
+          new CallbackPayloadMapper(
+              assetService, sep6MoreInfoUrlConstructor, sep24MoreInfoUrlConstructor);
       for (ClientConfig clientConfig : clientService.getAllClients()) {
         if (!clientConfig.isCallbackEnabled()) {
           Log.info(String.format("Client status callback skipped: %s", json(clientConfig)));
           continue;
         }
 
-        String processorName;
+        String queueName;
         if (clientConfig instanceof CustodialClient) {
-          processorName =
+          queueName =
               CLIENT_STATUS_CALLBACK_EVENT_PROCESSOR_NAME_PREFIX
                   + String.join(",", ((CustodialClient) clientConfig).getSigningKeys());
         } else if (clientConfig instanceof NonCustodialClient) {
-          processorName =
+          queueName =
               CLIENT_STATUS_CALLBACK_EVENT_PROCESSOR_NAME_PREFIX
                   + String.join(",", ((NonCustodialClient) clientConfig).getDomains());
         } else {
@@ -104,17 +116,27 @@ public class EventProcessorManager {
               "Unknown client type: " + clientConfig.getClass().getName());
         }
 
+        ClientStatusCallbackQueue clientQueue =
+            new ClientStatusCallbackQueue(
+                queueName,
+                clientConfig.getName(),
+                new ClientStatusCallbackHandler(secretConfig, clientConfig, payloadMapper),
+                clientCallbackDeadLetterStore,
+                eventProcessorConfig.getLanes(),
+                eventProcessorConfig
+                    .getClientStatusCallback()
+                    .getCoalescingWindowMs(clientConfig.getName()));
+        clientCallbackDeadLetterStore.register(clientQueue);
+        clientQueues.add(clientQueue);
+      }
+
+      if (!clientQueues.isEmpty()) {
         processors.add(
             new ClientStatusCallbackProcessor(
-                processorName,
+                CLIENT_STATUS_CALLBACK_EVENT_PROCESSOR_NAME,
                 EventQueue.TRANSACTION,
                 eventService,
-                new ClientStatusCallbackHandler(
-                    secretConfig,
-                    clientConfig,
-                    assetService,
-                    sep6MoreInfoUrlConstructor,
-                    sep24MoreInfoUrlConstructor)));
+                clientQueues));
       }
     }
 
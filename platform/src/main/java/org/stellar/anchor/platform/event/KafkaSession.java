@@ -6,6 +6,8 @@ import static org.apache.kafka.common.config.SaslConfigs.SASL_MECHANISM;
 import static org.apache.kafka.common.config.SslConfigs.*;
 import static org.stellar.anchor.platform.config.PropertySecretConfig.*;
 import static org.stellar.anchor.platform.configurator.SecretManager.*;
+import static org.stellar.anchor.platform.event.EventProcessorManager.CLIENT_STATUS_CALLBACK_EVENT_PROCESSOR_NAME;
+import static org.stellar.anchor.platform.event.EventProcessorManager.CLIENT_STATUS_CALLBACK_EVENT_PROCESSOR_NAME_PREFIX;
 import static org.stellar.anchor.platform.utils.ResourceHelper.*;
 import static org.stellar.anchor.util.Log.debugF;
 import static org.stellar.anchor.util.StringHelper.isEmpty;
@@ -15,16 +17,25 @@ import io.micrometer.core.instrument.Metrics;
 import java.io.IOException;
 import java.time.Duration;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Properties;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import lombok.AllArgsConstructor;
+import lombok.Getter;
 import org.apache.kafka.clients.admin.AdminClient;
+import org.apache.kafka.clients.admin.ConsumerGroupListing;
 import org.apache.kafka.clients.admin.ListTopicsOptions;
 import org.apache.kafka.clients.consumer.*;
 import org.apache.kafka.clients.producer.KafkaProducer;
 import org.apache.kafka.clients.producer.Producer;
 import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.TopicPartition;
 import org.apache.kafka.common.header.internals.RecordHeader;
 import org.apache.kafka.common.serialization.StringDeserializer;
 import org.apache.kafka.common.serialization.StringSerializer;
@@ -66,50 +77,131 @@ public class KafkaSession implements EventService.Session {
 
   @Override
   public void publish(AnchorEvent event) throws AnchorException {
-    try {
-      if (producer == null) {
-        producer = createProducer();
+    CompletableFuture<Void> delivered = publishAsync(event);
+    if (!kafkaConfig.isAsyncPublish()) {
+      try {
+        delivered.join();
+      } catch (CompletionException ex) {
+        throw (EventPublishException) ex.getCause();
       }
+    }
+  }
+
+  /**
+   * Sends the event to the producer without waiting for the broker acknowledgement. The events that
+   * cannot be delivered are not retried by the session: the failure is reported to the caller by
+   * the returned future only. The events that must not be lost are published with the outbox queue
+   * type, which retries them from the database.
+   *
+   * @param event the event to publish
+   * @return a future that completes when the broker acknowledges the event.
+   */
+  @Override
+  public CompletableFuture<Void> publishAsync(AnchorEvent event) {
+    return send(event);
+  }
+
+  /**
+   * Sends the buffered events to the broker and waits for their acknowledgement. The delivery
+   * failures are reported by the futures returned by {@link #publishAsync(AnchorEvent)}, which
+   * complete before this method returns.
+   */
+  @Override
+  public void flush() {
+    if (producer != null) {
+      producer.flush();
+    }
+  }
+
+  /**
+   * Sends the event to the producer.
+   *
+   * @param event the event to send
+   * @return a future that completes when the broker acknowledges the event, or completes
+   *     exceptionally with an {@link EventPublishException} if it cannot be delivered.
+   */
+  CompletableFuture<Void> send(AnchorEvent event) {
+    CompletableFuture<Void> delivered = new CompletableFuture<>();
+    try {
       String serialized = GsonUtils.getInstance().toJson(event);
       ProducerRecord<String, String> record =
           new ProducerRecord<>(topic, event.getId(), serialized);
       record.headers().add(new RecordHeader("type", event.getType().type.getBytes()));
-      // If the queue is offline, throw an exception
-      try {
-        producer.send(record).get();
-      } catch (Exception ex) {
-        throw new EventPublishException("Failed to publish event to Kafka.", ex);
-      }
+      getProducer()
+          .send(
+              record,
+              (metadata, ex) -> {
+                if (ex == null) {
+                  // publish the event to the metrics
+                  Metrics.counter(
+                          "event.published",
+                          "class",
+                          event.getClass().getSimpleName(),
+                          "type",
+                          event.getType().type)
+                      .increment();
+                  delivered.complete(null);
+                } else {
+                  onDeliveryFailure(event, ex, delivered);
+                }
+              });
+    } catch (Exception ex) {
+      // If the queue is offline, the producer may fail before sending the record
+      onDeliveryFailure(event, ex, delivered);
+    }
+    return delivered;
+  }
 
-      // publish the event to the metrics
-      Metrics.counter(
-              "event.published",
-              "class",
-              event.getClass().getSimpleName(),
-              "type",
-              event.getType().type)
-          .increment();
+  void onDeliveryFailure(AnchorEvent event, Exception ex, CompletableFuture<Void> delivered) {
+    Metrics.counter(
+            "event.publish_failed",
+            "class",
+            event.getClass().getSimpleName(),
+            "type",
+            event.getType().type)
+        .increment();
+    delivered.completeExceptionally(
+        new EventPublishException(
+            String.format("Failed to publish event id=%s to Kafka.", event.getId()), ex));
+  }
 
-    } catch (Exception ex) {
-      Log.errorEx(ex);
+  synchronized Producer<String, String> getProducer() throws InvalidConfigException {
+    if (producer == null) {
+      producer = createProducer();
     }
+    return producer;
   }
 
   @Override
   public EventService.ReadResponse read() throws AnchorException {
     if (consumer == null) {
       consumer = createConsumer();
-      consumer.subscribe(java.util.Collections.singletonList(topic));
+      consumer.subscribe(
+          java.util.Collections.singletonList(topic),
+          new ConsumerRebalanceListener() {
+            @Override
+            public void onPartitionsRevoked(Collection<TopicPartition> partitions) {}
+
+            @Override
+            public void onPartitionsAssigned(Collection<TopicPartition> partitions) {
+              seedOffsets(partitions);
+            }
+          });
     }
 
     ConsumerRecords<String, String> consumerRecords =
         consumer.poll(Duration.ofSeconds(kafkaConfig.getPollTimeoutSeconds()));
     ArrayList<AnchorEvent> events = new ArrayList<>(consumerRecords.count());
+    // The offsets to commit once the events are processed
+    Map<TopicPartition, OffsetAndMetadata> offsets = new HashMap<>();
     if (consumerRecords.isEmpty()) {
       debugF("Received {} Kafka records", consumerRecords.count());
     } else {
       Log.infoF("Received {} Kafka records", consumerRecords.count());
       for (ConsumerRecord<String, String> record : consumerRecords) {
+        offsets.put(
+            new TopicPartition(record.topic(), record.partition()),
+            new OffsetAndMetadata(record.offset() + 1));
         try {
           AnchorEvent deserialized =
               GsonUtils.getInstance().fromJson(record.value(), AnchorEvent.class);
@@ -124,12 +216,86 @@ public class KafkaSession implements EventService.Session {
       }
       // TOOD: emit metrics here.
     }
-    return new KafkaReadResponse(events);
+    return new KafkaReadResponse(events, offsets);
+  }
+
+  /**
+   * Seeds the offsets of the partitions the shared client-status-callback consumer group has not
+   * committed yet. The shared group replaces the groups of the client-status-callback-{client}
+   * sessions, and resumes from the lowest offset they committed, so the events they did not
+   * process are not lost, and the events they all processed are not processed again. The other
+   * partitions start from the earliest retained offset. The offsets of the other groups are not
+   * seeded.
+   *
+   * @param partitions the partitions assigned to the consumer
+   */
+  void seedOffsets(Collection<TopicPartition> partitions) {
+    if (!CLIENT_STATUS_CALLBACK_EVENT_PROCESSOR_NAME.equals(sessionName)) {
+      return;
+    }
+    Map<TopicPartition, OffsetAndMetadata> committed =
+        consumer.committed(new HashSet<>(partitions));
+    Set<TopicPartition> unseeded = new HashSet<>();
+    for (TopicPartition partition : partitions) {
+      if (committed.get(partition) == null) {
+        unseeded.add(partition);
+      }
+    }
+    if (unseeded.isEmpty()) {
+      return;
+    }
+    Map<TopicPartition, Long> seeds = new HashMap<>();
+    for (Map<TopicPartition, OffsetAndMetadata> offsets : findReplacedGroupOffsets().values()) {
+      for (TopicPartition partition : unseeded) {
+        OffsetAndMetadata offset = offsets.get(partition);
+        if (offset != null) {
+          seeds.merge(partition, offset.offset(), Math::min);
+        }
+      }
+    }
+    seeds.forEach(
+        (partition, offset) -> {
+          Log.infoF("Seeding the offset of {} from the replaced groups: {}", partition, offset);
+          consumer.seek(partition, offset);
+        });
+  }
+
+  /**
+   * Finds the offsets committed by the client-status-callback-{client} consumer groups.
+   *
+   * @return the committed offsets by group id.
+   */
+  Map<String, Map<TopicPartition, OffsetAndMetadata>> findReplacedGroupOffsets() {
+    String prefix = "group-" + CLIENT_STATUS_CALLBACK_EVENT_PROCESSOR_NAME_PREFIX;
+    Map<String, Map<TopicPartition, OffsetAndMetadata>> groupOffsets = new HashMap<>();
+    try (AdminClient adminClient = AdminClient.create(createProducerConfig())) {
+      for (ConsumerGroupListing group : adminClient.listConsumerGroups().all().get()) {
+        if (group.groupId().startsWith(prefix)) {
+          groupOffsets.put(
+              group.groupId(),
+              adminClient
+                  .listConsumerGroupOffsets(group.groupId())
+                  .partitionsToOffsetAndMetadata()
+                  .get());
+        }
+      }
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+    } catch (Exception ex) {
+      Log.errorEx("Failed to find the offsets of the replaced consumer groups", ex);
+    }
+    return groupOffsets;
+  }
+
+  String getGroupId() {
+    return "group-" + sessionName;
   }
 
   @AllArgsConstructor
   public static class KafkaReadResponse implements EventService.ReadResponse {
     private final List<AnchorEvent> events;
+    // The offset following the last record read from each partition.
+    @Getter private final Map<TopicPartition, OffsetAndMetadata> offsets;
 
     @Override
     public List<AnchorEvent> getEvents() {
@@ -137,16 +303,31 @@ public class KafkaSession implements EventService.Session {
     }
   }
 
+  /**
+   * Commits the offsets of the records returned by the read response. The responses read later are
+   * not committed, so they can be acknowledged in the order they are processed.
+   *
+   * @param readResponse the read response object.
+   */
   @Override
   public void ack(EventService.ReadResponse readResponse) throws AnchorException {
     if (consumer != null) {
-      consumer.commitSync();
+      if (readResponse instanceof KafkaReadResponse) {
+        Map<TopicPartition, OffsetAndMetadata> offsets =
+            ((KafkaReadResponse) readResponse).getOffsets();
+        if (!offsets.isEmpty()) {
+          consumer.commitSync(offsets);
+        }
+      } else {
+        consumer.commitSync();
+      }
     }
   }
 
   @Override
   public void close() {
     if (producer != null) {
+      // Closing the producer waits for the buffered events to be sent
       producer.close();
     }
     if (consumer != null) {
@@ -199,7 +380,7 @@ public class KafkaSession implements EventService.Session {
     if (!isEmpty(kafkaConfig.getClientId())) {
       props.put(ConsumerConfig.CLIENT_ID_CONFIG, kafkaConfig.getClientId());
     }
-    props.put(ConsumerConfig.GROUP_ID_CONFIG, "group-" + sessionName);
+    props.put(ConsumerConfig.GROUP_ID_CONFIG, getGroupId());
     props.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest");
     props.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false);
     props.put(JsonDeserializer.TRUSTED_PACKAGES, "*");
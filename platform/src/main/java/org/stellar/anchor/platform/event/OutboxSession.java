@@ -0,0 +1,61 @@
+package org.stellar.anchor.platform.event;
+
+import java.time.Instant;
+import java.util.UUID;
+import org.stellar.anchor.api.event.AnchorEvent;
+import org.stellar.anchor.api.exception.AnchorException;
+import org.stellar.anchor.event.EventService;
+import org.stellar.anchor.event.EventService.EventQueue;
+import org.stellar.anchor.platform.data.JdbcEventOutbox;
+import org.stellar.anchor.platform.data.JdbcEventOutboxRepo;
+import org.stellar.anchor.util.GsonUtils;
+
+/**
+ * A session that publishes the events to the outbox table. The event is written in the current
+ * database transaction, so it is saved if and only if the transaction commits. The services that
+ * update a transaction and publish its event are transactional for this reason. The events are
+ * relayed to Kafka by the {@link EventOutboxRelay}, and read from Kafka by the reading session.
+ */
+public class OutboxSession implements EventService.Session {
+  private final JdbcEventOutboxRepo outboxRepo;
+  private final EventQueue queue;
+  private final EventService.Session readSession;
+
+  public OutboxSession(
+      JdbcEventOutboxRepo outboxRepo, EventQueue queue, EventService.Session readSession) {
+    this.outboxRepo = outboxRepo;
+    this.queue = queue;
+    this.readSession = readSession;
+  }
+
+  @Override
+  public void publish(AnchorEvent event) throws AnchorException {
+    JdbcEventOutbox outboxEvent = new JdbcEventOutbox();
+    outboxEvent.setId(UUID.randomUUID().toString());
+    outboxEvent.setQueue(queue.name());
+    outboxEvent.setEventId(event.getId());
+    outboxEvent.setEvent(GsonUtils.getInstance().toJson(event));
+    outboxEvent.setCreatedAt(Instant.now());
+    outboxRepo.save(outboxEvent);
+  }
+
+  @Override
+  public EventService.ReadResponse read() throws AnchorException {
+    return readSession.read();
+  }
+
+  @Override
+  public void ack(EventService.ReadResponse readResponse) throws AnchorException {
+    readSession.ack(readResponse);
+  }
+
+  @Override
+  public void close() throws AnchorException {
+    readSession.close();
+  }
+
+  @Override
+  public String getSessionName() {
+    return readSession.getSessionName();
+  }
+}
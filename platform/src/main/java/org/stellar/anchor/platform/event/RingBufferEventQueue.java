@@ -0,0 +1,205 @@
+package org.stellar.anchor.platform.event;
+
+import static org.stellar.anchor.util.Log.warnF;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.LockSupport;
+import org.stellar.anchor.api.event.AnchorEvent;
+import org.stellar.anchor.api.exception.EventPublishException;
+import org.stellar.anchor.event.EventService.EventQueue;
+import org.stellar.anchor.platform.config.MemoryQueueConfig;
+
+/**
+ * A bounded in-memory event queue shared by all the servers running in the same JVM. The events are
+ * passed by reference, so they must not be modified once published.
+ *
+ * <p>The events are stored in a ring buffer. A publisher claims the next sequence with a CAS,
+ * stores the event in the slot of the sequence and marks the slot as available. Each subscriber,
+ * identified by the session name, has its own read position and acknowledged position. A slot is
+ * reused only when all the subscribers have acknowledged its event, so a publisher waits when the
+ * slowest subscriber is a full buffer behind.
+ *
+ * <p>The events are not durable. The events not acknowledged are lost when the JVM stops.
+ */
+public class RingBufferEventQueue {
+  private static final Map<EventQueue, RingBufferEventQueue> queues = new ConcurrentHashMap<>();
+  private static final long MIN_WAIT_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+  private static final long MAX_WAIT_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+  private final int mask;
+  private final AtomicReferenceArray<AnchorEvent> events;
+  // The sequence of the event stored in each slot
+  private final AtomicLongArray available;
+  // The last claimed sequence
+  private final AtomicLong claimed = new AtomicLong(-1);
+  private final Map<String, Subscriber> subscribers = new ConcurrentHashMap<>();
+
+  RingBufferEventQueue(int capacity) {
+    int size = Integer.highestOneBit(Math.max(capacity, 1));
+    if (size < capacity) {
+      size <<= 1;
+    }
+    this.mask = size - 1;
+    this.events = new AtomicReferenceArray<>(size);
+    this.available = new AtomicLongArray(size);
+    for (int i = 0; i < size; i++) {
+      available.set(i, -1);
+    }
+  }
+
+  /**
+   * Get the queue of the JVM. The queue is created by the first call.
+   *
+   * @param eventQueue the event queue
+   * @param config the configuration of the in-memory queues
+   * @return the queue
+   */
+  static RingBufferEventQueue of(EventQueue eventQueue, MemoryQueueConfig config) {
+    return queues.computeIfAbsent(
+        eventQueue, queue -> new RingBufferEventQueue(config.getCapacity()));
+  }
+
+  int getCapacity() {
+    return mask + 1;
+  }
+
+  /**
+   * Publish the event. Waits while the slowest subscriber is a full buffer behind.
+   *
+   * @param event the event
+   * @param timeoutMillis the maximum time to wait for a free slot
+   * @throws EventPublishException if no slot was freed before the timeout
+   */
+  void publish(AnchorEvent event, long timeoutMillis) throws EventPublishException {
+    long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+    long waitNanos = MIN_WAIT_NANOS;
+    long seq;
+    while (true) {
+      long current = claimed.get();
+      seq = current + 1;
+      if (seq - getCapacity() >= minAcked(seq)) {
+        if (System.nanoTime() - deadline > 0) {
+          throw new EventPublishException(
+              String.format(
+                  "The in-memory event queue is full. Dropping event id=%s", event.getId()));
+        }
+        LockSupport.parkNanos(waitNanos);
+        waitNanos = Math.min(waitNanos * 2, MAX_WAIT_NANOS);
+      } else if (claimed.compareAndSet(current, seq)) {
+        break;
+      }
+    }
+    int slot = (int) seq & mask;
+    events.set(slot, event);
+    available.set(slot, seq);
+  }
+
+  /**
+   * Read the events following the read position of the subscriber. Waits until an event is
+   * available or the timeout expires.
+   *
+   * @param subscriber the subscriber
+   * @param maxEvents the maximum number of events to read
+   * @param timeoutMillis the maximum time to wait for an event
+   * @return the events read, and the sequence following the last event
+   */
+  Read read(Subscriber subscriber, int maxEvents, long timeoutMillis) {
+    long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+    long waitNanos = MIN_WAIT_NANOS;
+    while (true) {
+      long start = subscriber.position.get();
+      List<AnchorEvent> read = new ArrayList<>();
+      long seq = start;
+      while (read.size() < maxEvents) {
+        int slot = (int) seq & mask;
+        long stored = available.get(slot);
+        if (stored < seq) {
+          // Not published yet
+          break;
+        }
+        AnchorEvent event = events.get(slot);
+        if (stored > seq || available.get(slot) != seq) {
+          // Only possible for the events published while the subscriber registered.
+          warnF(
+              "Skipping event seq={} overwritten before it was read by {}", seq, subscriber.name);
+        } else {
+          read.add(event);
+        }
+        seq++;
+      }
+      if (seq > start && subscriber.position.compareAndSet(start, seq)) {
+        return new Read(read, seq);
+      }
+      if (seq == start) {
+        if (System.nanoTime() - deadline > 0) {
+          return new Read(read, start);
+        }
+        LockSupport.parkNanos(waitNanos);
+        waitNanos = Math.min(waitNanos * 2, MAX_WAIT_NANOS);
+      }
+    }
+  }
+
+  /**
+   * Get the subscriber, registering it if needed. A new subscriber starts from the oldest event of
+   * the buffer. An existing subscriber is rewound to its acknowledged position, so the events read
+   * but not acknowledged by the previous sessions are read again.
+   *
+   * @param name the name of the subscriber
+   * @return the subscriber
+   */
+  Subscriber subscribe(String name) {
+    return subscribers.compute(
+        name,
+        (n, subscriber) -> {
+          if (subscriber == null) {
+            return new Subscriber(n, Math.max(0, claimed.get() + 1 - getCapacity()));
+          }
+          subscriber.position.set(subscriber.acked.get());
+          return subscriber;
+        });
+  }
+
+  long minAcked(long defaultValue) {
+    long min = defaultValue;
+    for (Subscriber subscriber : subscribers.values()) {
+      min = Math.min(min, subscriber.acked.get());
+    }
+    return min;
+  }
+
+  static class Subscriber {
+    final String name;
+    // The sequence of the next event to read
+    final AtomicLong position;
+    // The sequence of the first event not acknowledged
+    final AtomicLong acked;
+
+    Subscriber(String name, long start) {
+      this.name = name;
+      this.position = new AtomicLong(start);
+      this.acked = new AtomicLong(start);
+    }
+
+    void ack(long end) {
+      acked.accumulateAndGet(end, Math::max);
+    }
+  }
+
+  static class Read {
+    final List<AnchorEvent> events;
+    final long end;
+
+    Read(List<AnchorEvent> events, long end) {
+      this.events = events;
+      this.end = end;
+    }
+  }
+}
@@ -0,0 +1,76 @@
+package org.stellar.anchor.platform.event;
+
+import static org.stellar.anchor.util.Log.debugF;
+
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.stellar.anchor.api.event.AnchorEvent;
+import org.stellar.anchor.api.exception.AnchorException;
+import org.stellar.anchor.event.EventService;
+import org.stellar.anchor.platform.config.MemoryQueueConfig;
+
+/**
+ * A session of the {@link RingBufferEventQueue}. The sessions with the same name share the read
+ * position, like the consumers of a Kafka consumer group.
+ */
+public class RingBufferSession implements EventService.Session {
+  final MemoryQueueConfig config;
+  final String sessionName;
+  final RingBufferEventQueue queue;
+  RingBufferEventQueue.Subscriber subscriber = null;
+
+  public RingBufferSession(
+      MemoryQueueConfig config, String sessionName, RingBufferEventQueue queue) {
+    this.config = config;
+    this.sessionName = sessionName;
+    this.queue = queue;
+  }
+
+  @Override
+  public void publish(AnchorEvent event) throws AnchorException {
+    queue.publish(event, config.getPublishTimeoutMs());
+  }
+
+  @Override
+  public EventService.ReadResponse read() throws AnchorException {
+    // The session subscribes on the first read, so the publishing sessions do not hold the buffer.
+    if (subscriber == null) {
+      subscriber = queue.subscribe(sessionName);
+    }
+    RingBufferEventQueue.Read read =
+        queue.read(subscriber, config.getReadBatchSize(), config.getPollTimeoutMs());
+    debugF("Read {} events from the in-memory queue", read.events.size());
+    return new RingBufferReadResponse(read.events, read.end);
+  }
+
+  @Override
+  public void ack(EventService.ReadResponse readResponse) throws AnchorException {
+    if (subscriber != null && readResponse instanceof RingBufferReadResponse) {
+      subscriber.ack(((RingBufferReadResponse) readResponse).getEnd());
+    }
+  }
+
+  @Override
+  public void close() throws AnchorException {
+    // The subscriber is kept, so the next session with the same name resumes from the events
+    // not acknowledged.
+  }
+
+  @Override
+  public String getSessionName() {
+    return sessionName;
+  }
+
+  @AllArgsConstructor
+  public static class RingBufferReadResponse implements EventService.ReadResponse {
+    private final List<AnchorEvent> events;
+    // The sequence following the last event read
+    @Getter private final long end;
+
+    @Override
+    public List<AnchorEvent> getEvents() {
+      return events;
+    }
+  }
+}
@@ -0,0 +1,87 @@
+package org.stellar.anchor.platform.observer;
+
+import static org.stellar.anchor.api.rpc.method.RpcMethod.NOTIFY_ONCHAIN_FUNDS_RECEIVED;
+import static org.stellar.anchor.api.rpc.method.RpcMethod.NOTIFY_ONCHAIN_FUNDS_SENT;
+import static org.stellar.anchor.platform.utils.RpcUtil.JSON_RPC_VERSION;
+import static org.stellar.anchor.util.Log.warnF;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.UUID;
+import org.stellar.anchor.api.exception.AnchorException;
+import org.stellar.anchor.api.rpc.RpcRequest;
+import org.stellar.anchor.api.rpc.RpcResponse;
+import org.stellar.anchor.api.rpc.method.AmountRequest;
+import org.stellar.anchor.api.rpc.method.NotifyOnchainFundsReceivedRequest;
+import org.stellar.anchor.api.rpc.method.NotifyOnchainFundsSentRequest;
+import org.stellar.anchor.api.rpc.method.RpcMethod;
+import org.stellar.anchor.platform.service.InProcessRpcServices;
+import org.stellar.anchor.platform.service.RpcService;
+
+/**
+ * Notifies the platform by calling the RPC service of the platform server running in the same JVM.
+ * This skips the HTTP round-trip and the JSON serialization of the requests. If the platform server
+ * is not running in the same JVM, the notifications are sent by the fallback notifier.
+ */
+public class InProcessPaymentNotifier implements PaymentNotifier {
+  private final PaymentNotifier fallback;
+
+  public InProcessPaymentNotifier(PaymentNotifier fallback) {
+    this.fallback = fallback;
+  }
+
+  @Override
+  public void notifyOnchainFundsSent(String txnId, String stellarTxnId, String message)
+      throws AnchorException, IOException {
+    RpcService rpcService = InProcessRpcServices.get();
+    if (rpcService == null) {
+      fallback.notifyOnchainFundsSent(txnId, stellarTxnId, message);
+      return;
+    }
+    NotifyOnchainFundsSentRequest request =
+        NotifyOnchainFundsSentRequest.builder()
+            .transactionId(txnId)
+            .stellarTransactionId(stellarTxnId)
+            .message(message)
+            .build();
+    handle(rpcService, NOTIFY_ONCHAIN_FUNDS_SENT, request);
+  }
+
+  @Override
+  public void notifyOnchainFundsReceived(
+      String txnId, String stellarTxnId, String amountIn, String message)
+      throws AnchorException, IOException {
+    RpcService rpcService = InProcessRpcServices.get();
+    if (rpcService == null) {
+      fallback.notifyOnchainFundsReceived(txnId, stellarTxnId, amountIn, message);
+      return;
+    }
+    NotifyOnchainFundsReceivedRequest request =
+        NotifyOnchainFundsReceivedRequest.builder()
+            .transactionId(txnId)
+            .stellarTransactionId(stellarTxnId)
+            .message(message)
+            .amountIn(new AmountRequest(amountIn))
+            .build();
+    handle(rpcService, NOTIFY_ONCHAIN_FUNDS_RECEIVED, request);
+  }
+
+  void handle(RpcService rpcService, RpcMethod method, Object requestParams) {
+    RpcRequest rpcRequest =
+        RpcRequest.builder()
+            .id(UUID.randomUUID().toString())
+            .method(method.toString())
+            .jsonrpc(JSON_RPC_VERSION)
+            .params(requestParams)
+            .build();
+    for (RpcResponse response : rpcService.handle(List.of(rpcRequest))) {
+      if (response.getError() != null) {
+        warnF(
+            "RPC request with method[{}] and id[{}] failed: {}",
+            method,
+            rpcRequest.getId(),
+            response.getError().getMessage());
+      }
+    }
+  }
+}
@@ -0,0 +1,14 @@
+package org.stellar.anchor.platform.observer;
+
+import java.io.IOException;
+import org.stellar.anchor.api.exception.AnchorException;
+
+/** Notifies the platform of the payments observed on the Stellar network. */
+public interface PaymentNotifier {
+  void notifyOnchainFundsSent(String txnId, String stellarTxnId, String message)
+      throws AnchorException, IOException;
+
+  void notifyOnchainFundsReceived(
+      String txnId, String stellarTxnId, String amountIn, String message)
+      throws AnchorException, IOException;
+}
@@ -0,0 +1,30 @@
+package org.stellar.anchor.platform.observer;
+
+import java.io.IOException;
+import org.stellar.anchor.api.exception.AnchorException;
+import org.stellar.anchor.apiclient.PlatformApiClient;
+
+/**
+ * Notifies the platform through the JSON-RPC endpoint of the platform server. This is used when the
+ * observer and the platform server run in different processes.
+ */
+public class PlatformApiPaymentNotifier implements PaymentNotifier {
+  private final PlatformApiClient platformApiClient;
+
+  public PlatformApiPaymentNotifier(PlatformApiClient platformApiClient) {
+    this.platformApiClient = platformApiClient;
+  }
+
+  @Override
+  public void notifyOnchainFundsSent(String txnId, String stellarTxnId, String message)
+      throws AnchorException, IOException {
+    platformApiClient.notifyOnchainFundsSent(txnId, stellarTxnId, message);
+  }
+
+  @Override
+  public void notifyOnchainFundsReceived(
+      String txnId, String stellarTxnId, String amountIn, String message)
+      throws AnchorException, IOException {
+    platformApiClient.notifyOnchainFundsReceived(txnId, stellarTxnId, amountIn, message);
+  }
+}
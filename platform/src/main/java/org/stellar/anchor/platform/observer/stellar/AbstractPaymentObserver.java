@@ -20,6 +20,7 @@ import lombok.Data;
 import org.jetbrains.annotations.NotNull;
 import org.springframework.transaction.TransactionException;
 import org.stellar.anchor.api.exception.AnchorException;
+import org.stellar.anchor.api.exception.EventPublishException;
 import org.stellar.anchor.api.platform.HealthCheckResult;
 import org.stellar.anchor.api.platform.HealthCheckStatus;
 import org.stellar.anchor.healthcheck.HealthCheckable;
@@ -39,6 +40,7 @@ import org.stellar.anchor.util.ExponentialBackoffTimer;
  *   <li>the payment observer's silence (check if the observer is silent for too long)
  *   <li>the payment observer's backoff timers (for reconnecting to the stream, database, etc.)
  *   <li>the payment observer's metrics (latest block read, latest block processed)
+ *   <li>the dispatching of the payment events to the payment listeners
  * </ol>
  */
 public abstract class AbstractPaymentObserver implements HealthCheckable {
@@ -46,6 +48,7 @@ public abstract class AbstractPaymentObserver implements HealthCheckable {
   final List<PaymentListener> paymentListeners;
   final StellarPaymentStreamerCursorStore paymentStreamerCursorStore;
   final PaymentObservingAccountsManager paymentObservingAccountsManager;
+  final PaymentEventDispatcher dispatcher;
 
   final ExponentialBackoffTimer publishingBackoffTimer;
   final ExponentialBackoffTimer streamBackoffTimer;
@@ -69,6 +72,9 @@ public abstract class AbstractPaymentObserver implements HealthCheckable {
     this.paymentListeners = paymentListeners;
     this.paymentStreamerCursorStore = paymentStreamerCursorStore;
     this.paymentObservingAccountsManager = paymentObservingAccountsManager;
+    this.dispatcher =
+        new PaymentEventDispatcher(
+            paymentListeners, config.getListenerDispatchConcurrency(), this::handleDispatchError);
 
     publishingBackoffTimer =
         new ExponentialBackoffTimer(
@@ -112,6 +118,9 @@ public abstract class AbstractPaymentObserver implements HealthCheckable {
 
     infoF("Stopping the status watcher");
     statusWatcher.shutdown();
+
+    infoF("Stopping the payment dispatcher");
+    dispatcher.shutdown();
     setStatus(SHUTDOWN);
   }
 
@@ -135,20 +144,37 @@ public abstract class AbstractPaymentObserver implements HealthCheckable {
 
   /**
    * Handle the payment transfer event. This is called when a new payment transfer event is received
-   * from the ledger.
+   * from the ledger. The event is dispatched to the payment listeners asynchronously. The events of
+   * the same destination account are processed in order.
    *
    * @param transferEvent the payment transfer event
    * @throws AnchorException if the event cannot be handled
    * @throws IOException if there is an error processing the event
    */
   void handleEvent(PaymentTransferEvent transferEvent) throws AnchorException, IOException {
-    // process the payment
-    for (PaymentListener listener : paymentListeners) {
-      listener.onReceived(transferEvent);
-    }
+    dispatcher.dispatch(transferEvent);
     publishingBackoffTimer.reset();
   }
 
+  /**
+   * Handle the error thrown by the payment listeners. If the event could not be published, the
+   * cursor is held before the event, and the observer is restarted from it. The other errors are
+   * not recoverable by processing the event again, so they are logged and the event is skipped.
+   *
+   * @param t the error
+   * @return true if the event must be processed again.
+   */
+  boolean handleDispatchError(Throwable t) {
+    if (t instanceof EventPublishException) {
+      // restart the observer from the last acknowledged cursor
+      errorEx("Failed to send event to payment listeners.", t);
+      setStatus(PUBLISHER_ERROR);
+      return true;
+    }
+    errorEx("Error processing the payment transfer event. The event is skipped.", t);
+    return false;
+  }
+
   @Override
   public int compareTo(@NotNull HealthCheckable other) {
     return this.getName().compareTo(other.getName());
@@ -0,0 +1,60 @@
+package org.stellar.anchor.platform.observer.stellar;
+
+import java.nio.ByteBuffer;
+import org.stellar.sdk.StrKey;
+
+/**
+ * The 32-byte key of an observed account. G-accounts and M-accounts are keyed by their ed25519
+ * public key, so a muxed account shares the key of its base account. C-accounts are keyed by their
+ * contract id. The key is held in four longs to keep the index compact and the hashing cheap.
+ */
+final class AccountKey {
+  private final long k0;
+  private final long k1;
+  private final long k2;
+  private final long k3;
+
+  private AccountKey(byte[] key, int offset) {
+    ByteBuffer buffer = ByteBuffer.wrap(key, offset, 32);
+    this.k0 = buffer.getLong();
+    this.k1 = buffer.getLong();
+    this.k2 = buffer.getLong();
+    this.k3 = buffer.getLong();
+  }
+
+  /**
+   * Get the key of the account.
+   *
+   * @param account the G, M or C address of the account
+   * @return the key of the account. null if the address is not a valid G, M or C address.
+   */
+  static AccountKey of(String account) {
+    if (account == null || account.isEmpty()) {
+      return null;
+    }
+    try {
+      return switch (account.charAt(0)) {
+        case 'G' -> new AccountKey(StrKey.decodeEd25519PublicKey(account), 0);
+        // The raw M-address is the 32-byte ed25519 public key followed by the 8-byte id.
+        case 'M' -> new AccountKey(StrKey.decodeMed25519PublicKey(account), 0);
+        case 'C' -> new AccountKey(StrKey.decodeContract(account), 0);
+        default -> null;
+      };
+    } catch (RuntimeException ex) {
+      return null;
+    }
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) return true;
+    if (!(o instanceof AccountKey that)) return false;
+    return k0 == that.k0 && k1 == that.k1 && k2 == that.k2 && k3 == that.k3;
+  }
+
+  @Override
+  public int hashCode() {
+    // The keys are uniformly distributed. Hashing the first long is enough.
+    return Long.hashCode(k0);
+  }
+}
@@ -0,0 +1,72 @@
+package org.stellar.anchor.platform.observer.stellar;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.function.Consumer;
+
+/**
+ * Decides when the acknowledged cursor of an observer is saved to the database. The cursor is
+ * saved once the configured number of events has been processed since the last save, once the
+ * configured interval has elapsed, or when {@link #flush()} is called on shutdown.
+ *
+ * <p>Only cursors acknowledged by the {@link PaymentEventDispatcher} must be recorded. Since the
+ * saved cursor never goes past an event that is not fully processed, a crash between two saves
+ * only causes the events since the last save to be delivered again (at-least-once).
+ */
+class CursorCheckpointer {
+  final int checkpointEvents;
+  final Duration checkpointInterval;
+  final Consumer<String> saver;
+  final Clock clock;
+
+  String pendingCursor = null;
+  int pendingEvents = 0;
+  Instant lastSaved;
+
+  CursorCheckpointer(int checkpointEvents, Duration checkpointInterval, Consumer<String> saver) {
+    this(checkpointEvents, checkpointInterval, saver, Clock.systemUTC());
+  }
+
+  CursorCheckpointer(
+      int checkpointEvents, Duration checkpointInterval, Consumer<String> saver, Clock clock) {
+    this.checkpointEvents = Math.max(1, checkpointEvents);
+    this.checkpointInterval = checkpointInterval;
+    this.saver = saver;
+    this.clock = clock;
+    this.lastSaved = clock.instant();
+  }
+
+  /**
+   * Record an acknowledged cursor and save it if the checkpoint policy is met.
+   *
+   * @param cursor the acknowledged cursor. null if no new cursor is acknowledged.
+   * @param events the number of events observed since the last call
+   * @return true if the cursor was saved.
+   */
+  synchronized boolean acknowledge(String cursor, int events) {
+    pendingEvents += events;
+    if (cursor != null) pendingCursor = cursor;
+    if (pendingCursor == null) return false;
+    if (pendingEvents >= checkpointEvents
+        || !clock.instant().isBefore(lastSaved.plus(checkpointInterval))) {
+      return flush();
+    }
+    return false;
+  }
+
+  /**
+   * Save the latest acknowledged cursor, if it has not been saved yet. If the saver throws, the
+   * cursor is kept and saved again by the next checkpoint.
+   *
+   * @return true if a cursor was saved.
+   */
+  synchronized boolean flush() {
+    if (pendingCursor == null) return false;
+    saver.accept(pendingCursor);
+    pendingCursor = null;
+    pendingEvents = 0;
+    lastSaved = clock.instant();
+    return true;
+  }
+}
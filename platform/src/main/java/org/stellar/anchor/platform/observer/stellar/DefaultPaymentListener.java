@@ -14,18 +14,22 @@ import static org.stellar.anchor.util.StringHelper.isEmpty;
 import io.micrometer.core.instrument.Metrics;
 import java.io.IOException;
 import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Objects;
+import java.util.Set;
 import org.stellar.anchor.api.exception.AnchorException;
 import org.stellar.anchor.api.sep.SepTransactionStatus;
-import org.stellar.anchor.apiclient.PlatformApiClient;
 import org.stellar.anchor.ledger.LedgerTransaction;
 import org.stellar.anchor.ledger.LedgerTransaction.LedgerInvokeHostFunctionOperation;
 import org.stellar.anchor.ledger.LedgerTransaction.LedgerPayment;
 import org.stellar.anchor.ledger.PaymentTransferEvent;
 import org.stellar.anchor.platform.config.RpcConfig;
 import org.stellar.anchor.platform.data.*;
+import org.stellar.anchor.platform.data.JdbcPendingTransactionMatcher.Candidate;
 import org.stellar.anchor.platform.observer.PaymentListener;
+import org.stellar.anchor.platform.observer.PaymentNotifier;
 import org.stellar.anchor.platform.service.AnchorMetrics;
 import org.stellar.anchor.util.AssetHelper;
 import org.stellar.anchor.util.GsonUtils;
@@ -40,7 +44,8 @@ public class DefaultPaymentListener implements PaymentListener {
   final JdbcSep31TransactionStore sep31TransactionStore;
   final JdbcSep24TransactionStore sep24TransactionStore;
   final JdbcSep6TransactionStore sep6TransactionStore;
-  private final PlatformApiClient platformApiClient;
+  final JdbcPendingTransactionMatcher pendingTransactionMatcher;
+  private final PaymentNotifier paymentNotifier;
   private final RpcConfig rpcConfig;
   private final SacToAssetMapper sacToAssetMapper;
 
@@ -49,14 +54,16 @@ public class DefaultPaymentListener implements PaymentListener {
       JdbcSep31TransactionStore sep31TransactionStore,
       JdbcSep24TransactionStore sep24TransactionStore,
       JdbcSep6TransactionStore sep6TransactionStore,
-      PlatformApiClient platformApiClient,
+      JdbcPendingTransactionMatcher pendingTransactionMatcher,
+      PaymentNotifier paymentNotifier,
       RpcConfig rpcConfig,
       SacToAssetMapper sacToAssetMapper) {
     this.paymentObservingAccountsManager = paymentObservingAccountsManager;
     this.sep31TransactionStore = sep31TransactionStore;
     this.sep24TransactionStore = sep24TransactionStore;
     this.sep6TransactionStore = sep6TransactionStore;
-    this.platformApiClient = platformApiClient;
+    this.pendingTransactionMatcher = pendingTransactionMatcher;
+    this.paymentNotifier = paymentNotifier;
     this.rpcConfig = rpcConfig;
     this.sacToAssetMapper = sacToAssetMapper;
   }
@@ -110,36 +117,91 @@ public class DefaultPaymentListener implements PaymentListener {
       return;
     }
 
+    List<JdbcSepTransaction> sepTxns;
     try {
-      String memo = xdrMemoToString(ledgerTransaction.getMemo());
-      JdbcSep31Transaction sep31Txn =
-          sep31TransactionStore.findByToAccountAndMemoAndStatus(
-              ledgerPayment.getTo(), memo, SepTransactionStatus.PENDING_SENDER.toString());
-      if (sep31Txn == null) {
-        if (ledgerPayment.getTo().startsWith("M")) {
-          // Try again if the destination account is a muxed account.
-          MuxedAccount muxedAccount = new MuxedAccount(ledgerPayment.getTo());
-          sep31Txn =
-              sep31TransactionStore.findByToAccountAndMemoAndStatus(
-                  muxedAccount.getAccountId(),
-                  String.valueOf(muxedAccount.getMuxedId()),
-                  SepTransactionStatus.PENDING_SENDER.toString());
-        }
+      sepTxns =
+          pendingTransactionMatcher.findPendingTransactions(
+              getSep31Candidates(ledgerTransaction, ledgerPayment),
+              getWithdrawCandidates(ledgerTransaction, ledgerPayment));
+    } catch (Exception ex) {
+      errorEx(ex);
+      return;
+    }
+
+    // The matched transactions are ordered by SEP-31, SEP-24 and SEP-6. Only the first match of
+    // each protocol is handled.
+    Set<String> handledProtocols = new HashSet<>();
+    for (JdbcSepTransaction sepTxn : sepTxns) {
+      if (!handledProtocols.add(sepTxn.getProtocol())) {
+        continue;
       }
-      if (sep31Txn != null) {
-        try {
-          handleSep31Transaction(ledgerTransaction, ledgerPayment, sep31Txn);
-          return;
-        } catch (AnchorException aex) {
-          warnF("Error handling the SEP31 transaction id={}.", sep31Txn.getId());
-          errorEx(aex);
-          return;
+      try {
+        switch (sepTxn.getProtocol()) {
+          case "31":
+            try {
+              handleSep31Transaction(ledgerTransaction, ledgerPayment, sepTxn);
+            } catch (AnchorException aex) {
+              warnF("Error handling the SEP31 transaction id={}.", sepTxn.getId());
+              errorEx(aex);
+            }
+            return;
+          case "24":
+            try {
+              handleSep24Transaction(ledgerTransaction, ledgerPayment, sepTxn);
+              return;
+            } catch (AnchorException aex) {
+              warnF("Error handling the SEP24 transaction id={}.", sepTxn.getId());
+              errorEx(aex);
+            }
+            break;
+          case "6":
+            try {
+              handleSep6Transaction(ledgerTransaction, ledgerPayment, sepTxn);
+            } catch (AnchorException aex) {
+              warnF("Error handling the SEP6 transaction id={}.", sepTxn.getId());
+              errorEx(aex);
+            }
+            break;
+          default:
+            break;
         }
+      } catch (Exception ex) {
+        errorEx(ex);
       }
-    } catch (Exception ex) {
-      errorEx(ex);
     }
+  }
+
+  /**
+   * Get the (to_account, memo) pairs of the SEP-31 transactions that may match the payment.
+   *
+   * @param ledgerTransaction the ledger transaction
+   * @param ledgerPayment the payment
+   * @return the candidates in the order of preference.
+   */
+  List<Candidate> getSep31Candidates(
+      LedgerTransaction ledgerTransaction, LedgerPayment ledgerPayment) {
+    List<Candidate> candidates = new ArrayList<>();
+    candidates.add(
+        new Candidate(ledgerPayment.getTo(), xdrMemoToString(ledgerTransaction.getMemo())));
+    if (ledgerPayment.getTo().startsWith("M")) {
+      // Try again if the destination account is a muxed account.
+      MuxedAccount muxedAccount = new MuxedAccount(ledgerPayment.getTo());
+      candidates.add(
+          new Candidate(muxedAccount.getAccountId(), String.valueOf(muxedAccount.getMuxedId())));
+    }
+    return candidates;
+  }
 
+  /**
+   * Get the (withdraw_anchor_account, memo) pairs of the SEP-24 and SEP-6 transactions that may
+   * match the payment.
+   *
+   * @param ledgerTransaction the ledger transaction
+   * @param ledgerPayment the payment
+   * @return the candidates in the order of preference.
+   */
+  List<Candidate> getWithdrawCandidates(
+      LedgerTransaction ledgerTransaction, LedgerPayment ledgerPayment) {
     // For SEP-24 and SEP-6, we need to check the memo and the destination account.
     // We need to handle the case where a C-account sends a payment to a G-account with a memo.
     // In this case, the memo is the muxed-id of the muxed account.
@@ -155,65 +217,15 @@ public class DefaultPaymentListener implements PaymentListener {
       memo = Memo.fromXdr(ledgerTransaction.getMemo());
     }
 
-    try {
-      JdbcSep24Transaction sep24Txn =
-          sep24TransactionStore.findOneByWithdrawAnchorAccountAndMemoAndStatus(
-              toAccount,
-              memoAsString(memo),
-              SepTransactionStatus.PENDING_USR_TRANSFER_START.toString());
-      if (sep24Txn == null) {
-        if (toAccount.startsWith("M")) {
-          // Try again if the destination account is a muxed account.
-          MuxedAccount muxedAccount = new MuxedAccount(toAccount);
-          sep24Txn =
-              sep24TransactionStore.findOneByWithdrawAnchorAccountAndMemoAndStatus(
-                  muxedAccount.getAccountId(),
-                  String.valueOf(muxedAccount.getMuxedId()),
-                  SepTransactionStatus.PENDING_USR_TRANSFER_START.toString());
-        }
-      }
-
-      if (sep24Txn != null) {
-        try {
-          handleSep24Transaction(ledgerTransaction, ledgerPayment, sep24Txn);
-          return;
-        } catch (AnchorException aex) {
-          warnF("Error handling the SEP24 transaction id={}.", sep24Txn.getId());
-          errorEx(aex);
-        }
-      }
-    } catch (Exception ex) {
-      errorEx(ex);
-    }
-
-    try {
-      JdbcSep6Transaction sep6Txn =
-          sep6TransactionStore.findOneByWithdrawAnchorAccountAndMemoAndStatus(
-              toAccount,
-              memoAsString(memo),
-              SepTransactionStatus.PENDING_USR_TRANSFER_START.toString());
-      if (sep6Txn == null) {
-        if (toAccount.startsWith("M")) {
-          // Try again if the destination account is a muxed account.
-          MuxedAccount muxedAccount = new MuxedAccount(toAccount);
-          sep6Txn =
-              sep6TransactionStore.findOneByWithdrawAnchorAccountAndMemoAndStatus(
-                  muxedAccount.getAccountId(),
-                  String.valueOf(muxedAccount.getMuxedId()),
-                  SepTransactionStatus.PENDING_USR_TRANSFER_START.toString());
-        }
-      }
-      if (sep6Txn != null) {
-        try {
-          handleSep6Transaction(ledgerTransaction, ledgerPayment, sep6Txn);
-        } catch (AnchorException aex) {
-          warnF("Error handling the SEP6 transaction id={}.", sep6Txn.getId());
-          errorEx(aex);
-        }
-      }
-    } catch (Exception ex) {
-      errorEx(ex);
+    List<Candidate> candidates = new ArrayList<>();
+    candidates.add(new Candidate(toAccount, memoAsString(memo)));
+    if (toAccount.startsWith("M")) {
+      // Try again if the destination account is a muxed account.
+      MuxedAccount muxedAccount = new MuxedAccount(toAccount);
+      candidates.add(
+          new Candidate(muxedAccount.getAccountId(), String.valueOf(muxedAccount.getMuxedId())));
     }
+    return candidates;
   }
 
   void handleSep31Transaction(
@@ -224,7 +236,7 @@ public class DefaultPaymentListener implements PaymentListener {
 
     checkAndWarnAssetAmountMismatch(ledgerTransaction, ledgerPayment, sepTransaction);
 
-    platformApiClient.notifyOnchainFundsReceived(
+    paymentNotifier.notifyOnchainFundsReceived(
         sepTransaction.getId(),
         ledgerTransaction.getHash(),
         AssetHelper.fromXdrAmount(ledgerPayment.getAmount()),
@@ -253,12 +265,12 @@ public class DefaultPaymentListener implements PaymentListener {
     JdbcSep24Transaction sep24Txn = (JdbcSep24Transaction) sepTransaction;
 
     if (DEPOSIT.getKind().equals(sep24Txn.getKind())) {
-      platformApiClient.notifyOnchainFundsSent(
+      paymentNotifier.notifyOnchainFundsSent(
           sepTransaction.getId(),
           ledgerTransaction.getHash(),
           rpcConfig.getCustomMessages().getOutgoingPaymentSent());
     } else if (WITHDRAWAL.getKind().equals(sep24Txn.getKind())) {
-      platformApiClient.notifyOnchainFundsReceived(
+      paymentNotifier.notifyOnchainFundsReceived(
           sepTransaction.getId(),
           ledgerTransaction.getHash(),
           AssetHelper.fromXdrAmount(ledgerPayment.getAmount()),
@@ -291,13 +303,13 @@ public class DefaultPaymentListener implements PaymentListener {
     JdbcSep6Transaction sep6Txn = (JdbcSep6Transaction) sepTransaction;
     if (DEPOSIT.getKind().equals(sep6Txn.getKind())
         || DEPOSIT_EXCHANGE.getKind().equals(sep6Txn.getKind())) {
-      platformApiClient.notifyOnchainFundsSent(
+      paymentNotifier.notifyOnchainFundsSent(
           sepTransaction.getId(),
           ledgerTransaction.getHash(),
           rpcConfig.getCustomMessages().getOutgoingPaymentSent());
     } else if (WITHDRAWAL.getKind().equals(sep6Txn.getKind())
         || WITHDRAWAL_EXCHANGE.getKind().equals(sep6Txn.getKind())) {
-      platformApiClient.notifyOnchainFundsReceived(
+      paymentNotifier.notifyOnchainFundsReceived(
           sepTransaction.getId(),
           ledgerTransaction.getHash(),
           AssetHelper.fromXdrAmount(ledgerPayment.getAmount()),
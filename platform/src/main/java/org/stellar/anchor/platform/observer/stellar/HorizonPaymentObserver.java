@@ -24,6 +24,7 @@ import org.stellar.anchor.api.exception.LedgerException;
 import org.stellar.anchor.api.platform.HealthCheckResult;
 import org.stellar.anchor.api.platform.HealthCheckStatus;
 import org.stellar.anchor.ledger.Horizon;
+import org.stellar.anchor.ledger.LedgerTransaction;
 import org.stellar.anchor.ledger.PaymentTransferEvent;
 import org.stellar.anchor.platform.config.PaymentObserverConfig.StellarPaymentObserverConfig;
 import org.stellar.anchor.platform.observer.PaymentListener;
@@ -49,8 +50,20 @@ public class HorizonPaymentObserver extends AbstractPaymentObserver {
   /** The minimum number of results the Stellar Blockchain can return. */
   private static final int MIN_RESULTS = 1;
 
+  /** The number of recently built ledger transactions kept for the operations of the same txn. */
+  static final int RECENT_TRANSACTIONS_SIZE = 64;
+
   final Horizon horizon;
+  final CursorCheckpointer checkpointer;
   SSEStream<OperationResponse> stream;
+  final Map<String, LedgerTransaction> recentTransactions =
+      Collections.synchronizedMap(
+          new LinkedHashMap<>(RECENT_TRANSACTIONS_SIZE, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, LedgerTransaction> eldest) {
+              return size() > RECENT_TRANSACTIONS_SIZE;
+            }
+          });
 
   public HorizonPaymentObserver(
       Horizon horizon,
@@ -60,6 +73,11 @@ public class HorizonPaymentObserver extends AbstractPaymentObserver {
       StellarPaymentStreamerCursorStore paymentStreamerCursorStore) {
     super(config, paymentListeners, paymentObservingAccountsManager, paymentStreamerCursorStore);
     this.horizon = horizon;
+    this.checkpointer =
+        new CursorCheckpointer(
+            config.getCursorCheckpointEvents(),
+            Duration.ofSeconds(config.getCursorCheckpointInterval()),
+            this::saveHorizonCursor);
   }
 
   /** Start the observer. */
@@ -74,6 +92,10 @@ public class HorizonPaymentObserver extends AbstractPaymentObserver {
   void shutdownInternal() {
     infoF("Shutting down the SSEStream");
     stopStream();
+    // Save the cursor of the events processed before the shutdown, and hold it before the events
+    // that failed to publish
+    checkpointer.acknowledge(dispatcher.awaitAcknowledged(), 0);
+    checkpointer.flush();
   }
 
   void startStream() {
@@ -216,7 +238,12 @@ public class HorizonPaymentObserver extends AbstractPaymentObserver {
       errorEx("Something went wrong in the observer while sending the event", t);
       setStatus(PUBLISHER_ERROR);
     } finally {
-      saveHorizonCursor(operationResponse.getPagingToken());
+      // Only the cursors of which all the events before are processed by the listeners are
+      // acknowledged. The acknowledged cursor is saved according to the checkpoint policy. The
+      // cursors after an event that failed to publish are not acknowledged, so the observer
+      // restarted on the PUBLISHER_ERROR streams the event again.
+      dispatcher.checkpoint(operationResponse.getPagingToken());
+      checkpointer.acknowledge(dispatcher.acknowledged(), 1);
     }
   }
 
@@ -238,7 +265,7 @@ public class HorizonPaymentObserver extends AbstractPaymentObserver {
             .amount(AssetHelper.toXdrAmount(paymentOp.getAmount()).toBigInteger())
             .operationId(String.valueOf(operation.getId()))
             .txHash(paymentOp.getTransactionHash())
-            .ledgerTransaction(horizon.getTransaction(operation.getTransactionHash()))
+            .ledgerTransaction(getLedgerTransaction(operation))
             .build();
       } else {
         return null;
@@ -253,7 +280,7 @@ public class HorizonPaymentObserver extends AbstractPaymentObserver {
             .sep11Asset(AssetHelper.getSep11AssetName(pathPaymentOp.getAsset().toXdr()))
             .operationId(String.valueOf(operation.getId()))
             .txHash(pathPaymentOp.getTransactionHash())
-            .ledgerTransaction(horizon.getTransaction(operation.getTransactionHash()))
+            .ledgerTransaction(getLedgerTransaction(operation))
             .build();
       } else {
         return null;
@@ -283,7 +310,7 @@ public class HorizonPaymentObserver extends AbstractPaymentObserver {
                 .amount(AssetHelper.toXdrAmount(assetBalanceChange.getAmount()).toBigInteger())
                 .txHash(invokeOp.getTransactionHash())
                 .operationId(String.valueOf(invokeOp.getId()))
-                .ledgerTransaction(horizon.getTransaction(operation.getTransactionHash()))
+                .ledgerTransaction(getLedgerTransaction(operation))
                 .build();
           }
         } catch (IOException ioex) {
@@ -296,6 +323,34 @@ public class HorizonPaymentObserver extends AbstractPaymentObserver {
     return null;
   }
 
+  /**
+   * Get the ledger transaction of the operation. The transaction joined to the streamed operation
+   * is used. Horizon is only queried if the join is missing and the transaction was not recently
+   * built.
+   *
+   * @param operation the Horizon operation
+   * @return the ledger transaction of the operation
+   * @throws LedgerException if there is an error fetching or parsing the transaction
+   */
+  LedgerTransaction getLedgerTransaction(OperationResponse operation) throws LedgerException {
+    String txnHash = operation.getTransactionHash();
+    LedgerTransaction ledgerTransaction = recentTransactions.get(txnHash);
+    if (ledgerTransaction != null) {
+      return ledgerTransaction;
+    }
+
+    if (operation.getTransaction() != null) {
+      ledgerTransaction = horizon.toLedgerTransaction(operation.getTransaction());
+    } else {
+      debugF("The transaction {} is not joined to the operation. Fetching from Horizon.", txnHash);
+      ledgerTransaction = horizon.getTransaction(txnHash);
+    }
+    if (ledgerTransaction != null) {
+      recentTransactions.put(txnHash, ledgerTransaction);
+    }
+    return ledgerTransaction;
+  }
+
   @Override
   public String getName() {
     return "horizon_payment_observer";
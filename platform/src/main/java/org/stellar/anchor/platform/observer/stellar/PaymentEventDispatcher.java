@@ -0,0 +1,185 @@
+package org.stellar.anchor.platform.observer.stellar;
+
+import static org.stellar.anchor.util.Log.*;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+import lombok.AllArgsConstructor;
+import org.stellar.anchor.ledger.PaymentTransferEvent;
+import org.stellar.anchor.platform.observer.PaymentListener;
+import org.stellar.anchor.platform.utils.DaemonThreadFactory;
+
+/**
+ * Dispatches the payment transfer events to the payment listeners on a bounded number of lanes.
+ * The events are partitioned by the destination account, and each lane is served by a single
+ * thread. Therefore, the events of the same account are processed in the order they are
+ * dispatched.
+ *
+ * <p>Each lane holds at most {@code LANE_CAPACITY} events waiting to be processed. When a lane is
+ * full, {@link #dispatch(PaymentTransferEvent)} blocks, so the stream is not read faster than the
+ * listeners process the events.
+ *
+ * <p>The observers register their cursors as checkpoints. A checkpoint is acknowledged when all
+ * the events dispatched before it have been processed by the listeners. Only acknowledged cursors
+ * should be persisted. If the error handler asks for an event to be retried, the checkpoints from
+ * the one following the event are never acknowledged, so the cursor is held before the event and
+ * the observer restarted from it processes the event again.
+ */
+class PaymentEventDispatcher {
+  // The maximum number of events waiting to be processed by a lane.
+  static final int LANE_CAPACITY = 1000;
+  final List<PaymentListener> paymentListeners;
+  final Predicate<Throwable> errorHandler;
+  final ExecutorService[] lanes;
+  final Deque<Checkpoint> checkpoints = new ArrayDeque<>();
+  List<CompletableFuture<Void>> inFlight = new ArrayList<>();
+
+  PaymentEventDispatcher(
+      List<PaymentListener> paymentListeners, int concurrency, Predicate<Throwable> errorHandler) {
+    this(paymentListeners, concurrency, LANE_CAPACITY, errorHandler);
+  }
+
+  /**
+   * @param paymentListeners the payment listeners
+   * @param concurrency the number of lanes
+   * @param laneCapacity the maximum number of events waiting to be processed by a lane
+   * @param errorHandler handles the errors thrown by the listeners. Returns true if the event must
+   *     be processed again, in which case its cursor is not acknowledged.
+   */
+  PaymentEventDispatcher(
+      List<PaymentListener> paymentListeners,
+      int concurrency,
+      int laneCapacity,
+      Predicate<Throwable> errorHandler) {
+    this.paymentListeners = paymentListeners;
+    this.errorHandler = errorHandler;
+    this.lanes = new ExecutorService[Math.max(1, concurrency)];
+    for (int i = 0; i < lanes.length; i++) {
+      lanes[i] =
+          new ThreadPoolExecutor(
+              1,
+              1,
+              0L,
+              TimeUnit.MILLISECONDS,
+              new ArrayBlockingQueue<>(Math.max(1, laneCapacity)),
+              new DaemonThreadFactory(),
+              PaymentEventDispatcher::waitForRoom);
+    }
+  }
+
+  /** Block the dispatching thread until the lane has room for the event. */
+  static void waitForRoom(Runnable task, ThreadPoolExecutor lane) {
+    if (lane.isShutdown()) {
+      throw new RejectedExecutionException("The payment dispatching lane is shut down");
+    }
+    try {
+      lane.getQueue().put(task);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new RejectedExecutionException("Interrupted while waiting for the lane", e);
+    }
+  }
+
+  /**
+   * Dispatch the event to the lane of its destination account. Blocks while the lane is full.
+   *
+   * @param event the payment transfer event
+   */
+  synchronized void dispatch(PaymentTransferEvent event) {
+    ExecutorService lane = lanes[Math.floorMod(Objects.hashCode(event.getTo()), lanes.length)];
+    inFlight.add(CompletableFuture.runAsync(() -> notifyListeners(event), lane));
+  }
+
+  void notifyListeners(PaymentTransferEvent event) {
+    try {
+      for (PaymentListener listener : paymentListeners) {
+        listener.onReceived(event);
+      }
+    } catch (Throwable t) {
+      if (errorHandler.test(t)) {
+        // Fail the event so the checkpoints after it are not acknowledged.
+        throw new CompletionException(t);
+      }
+    }
+  }
+
+  /**
+   * Register a checkpoint. The checkpoint is acknowledged when all events dispatched before it are
+   * processed.
+   *
+   * @param cursor the cursor of the checkpoint
+   */
+  synchronized void checkpoint(String cursor) {
+    CompletableFuture<Void> done =
+        CompletableFuture.allOf(inFlight.toArray(new CompletableFuture<?>[0]));
+    checkpoints.addLast(new Checkpoint(cursor, done));
+    inFlight = new ArrayList<>();
+  }
+
+  /**
+   * Remove the acknowledged checkpoints without waiting. A checkpoint following a failed event is
+   * not acknowledged.
+   *
+   * @return the cursor of the latest acknowledged checkpoint. null if no checkpoint is
+   *     acknowledged since the last call.
+   */
+  synchronized String acknowledged() {
+    String cursor = null;
+    while (!checkpoints.isEmpty()
+        && checkpoints.peekFirst().done.isDone()
+        && !checkpoints.peekFirst().done.isCompletedExceptionally()) {
+      cursor = checkpoints.pollFirst().cursor;
+    }
+    return cursor;
+  }
+
+  /**
+   * Wait until the events of all registered checkpoints are processed. The checkpoints held by a
+   * failed event are then discarded, since the observer processes their events again from the
+   * held cursor.
+   *
+   * @return the cursor of the latest acknowledged checkpoint. null if there is no checkpoint or if
+   *     the first one is held by a failed event.
+   */
+  String awaitAcknowledged() {
+    List<Checkpoint> pending;
+    synchronized (this) {
+      pending = new ArrayList<>(checkpoints);
+    }
+    for (Checkpoint checkpoint : pending) {
+      checkpoint.done.handle((result, ex) -> null).join();
+    }
+    synchronized (this) {
+      String cursor = acknowledged();
+      if (!checkpoints.isEmpty()) {
+        warnF("Holding the cursor before {} failed checkpoints", checkpoints.size());
+        checkpoints.clear();
+      }
+      return cursor;
+    }
+  }
+
+  void shutdown() {
+    debugF("Shutting down {} payment dispatching lanes", lanes.length);
+    for (ExecutorService lane : lanes) {
+      lane.shutdown();
+    }
+  }
+
+  @AllArgsConstructor
+  static class Checkpoint {
+    String cursor;
+    CompletableFuture<Void> done;
+  }
+}
@@ -2,12 +2,17 @@ package org.stellar.anchor.platform.observer.stellar;
 
 import java.time.Instant;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import org.stellar.anchor.platform.data.PaymentObservingAccount;
 import org.stellar.anchor.platform.data.PaymentObservingAccountRepo;
 import org.stellar.anchor.util.Log;
 
 public class PaymentObservingAccountStore {
+  // The maximum number of accounts updated in one transaction
+  static final int UPSERT_BATCH_SIZE = 500;
+
   final PaymentObservingAccountRepo repo;
 
   public PaymentObservingAccountStore(PaymentObservingAccountRepo repo) {
@@ -36,6 +41,27 @@ public class PaymentObservingAccountStore {
     }
   }
 
+  /**
+   * Upsert the last observed timestamps of the accounts. The accounts are written in batches of
+   * UPSERT_BATCH_SIZE.
+   *
+   * @param lastObserved the last observed timestamps keyed by the account.
+   */
+  void upsertAll(Map<String, Instant> lastObserved) {
+    Log.infoF("Upserting {} accounts", lastObserved.size());
+    Map<String, Instant> batch = new LinkedHashMap<>();
+    for (Map.Entry<String, Instant> entry : lastObserved.entrySet()) {
+      batch.put(entry.getKey(), entry.getValue());
+      if (batch.size() == UPSERT_BATCH_SIZE) {
+        repo.saveAllLastObserved(batch);
+        batch = new LinkedHashMap<>();
+      }
+    }
+    if (!batch.isEmpty()) {
+      repo.saveAllLastObserved(batch);
+    }
+  }
+
   void delete(String account) {
     PaymentObservingAccount poa = repo.findByAccount(account);
     if (poa != null) {
@@ -8,19 +8,19 @@ import jakarta.annotation.PreDestroy;
 import java.time.Duration;
 import java.time.Instant;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
-import lombok.AllArgsConstructor;
 import org.stellar.anchor.platform.data.PaymentObservingAccount;
 import org.stellar.anchor.platform.utils.DaemonExecutors;
 import org.stellar.anchor.util.Log;
-import org.stellar.sdk.MuxedAccount;
 
 public class PaymentObservingAccountsManager {
-  final Map<String, ObservingAccount> allAccounts;
+  final Map<AccountKey, ObservingAccount> allAccounts;
   private final PaymentObservingAccountStore store;
 
   public PaymentObservingAccountsManager(PaymentObservingAccountStore store) {
@@ -35,7 +35,12 @@ public class PaymentObservingAccountsManager {
       ObservingAccount oa =
           new ObservingAccount(
               account.getAccount(), account.getLastObserved(), AccountType.TRANSIENT);
-      upsert(oa);
+      // The account is loaded from the store. There is nothing to persist.
+      oa.persisted = oa.lastObserved;
+      AccountKey key = AccountKey.of(oa.account);
+      if (key != null) {
+        allAccounts.putIfAbsent(key, oa);
+      }
     }
   }
 
@@ -56,12 +61,34 @@ public class PaymentObservingAccountsManager {
   }
 
   public void evictAndPersist() {
-    Log.debug("Evicting old accounts...");
-    this.evict(getEvictMaxIdleTime());
-    Log.debug("Persisting accounts...");
-    for (ObservingAccount account : this.getAccounts()) {
-      store.upsert(account.account, account.lastObserved);
+    try {
+      Log.debug("Evicting old accounts...");
+      this.evict(getEvictMaxIdleTime());
+      Log.debug("Persisting accounts...");
+      persist();
+    } catch (Exception ex) {
+      // Keep the scheduled task running. The changes will be persisted in the next run.
+      Log.errorEx("Failed to persist the observing accounts", ex);
+    }
+  }
+
+  /** Persist the accounts whose lastObserved timestamp changed since they were last persisted. */
+  void persist() {
+    Map<ObservingAccount, Long> changed = new HashMap<>();
+    Map<String, Instant> lastObserved = new HashMap<>();
+    for (ObservingAccount account : allAccounts.values()) {
+      long observed = account.lastObserved;
+      if (observed != account.persisted) {
+        changed.put(account, observed);
+        lastObserved.put(account.account, Instant.ofEpochMilli(observed));
+      }
+    }
+    if (changed.isEmpty()) {
+      return;
     }
+
+    store.upsertAll(lastObserved);
+    changed.forEach((account, observed) -> account.persisted = observed);
   }
 
   /**
@@ -82,18 +109,24 @@ public class PaymentObservingAccountsManager {
    * @param observingAccount The account being observed.
    */
   public void upsert(ObservingAccount observingAccount) {
-    if (observingAccount != null) {
-      ObservingAccount existingAccount = allAccounts.get(observingAccount.account);
-      if (existingAccount == null) {
-        allAccounts.put(observingAccount.account, observingAccount);
-        // update the database
-        store.upsert(observingAccount.account, observingAccount.lastObserved);
-      } else {
-        existingAccount.account = observingAccount.account;
-        existingAccount.lastObserved = observingAccount.lastObserved;
-        if (existingAccount.type == AccountType.TRANSIENT) {
-          existingAccount.type = observingAccount.type;
-        }
+    if (observingAccount == null) {
+      return;
+    }
+    AccountKey key = AccountKey.of(observingAccount.account);
+    if (key == null) {
+      Log.warnF("Account[{}] is not a valid Stellar address. Ignored.", observingAccount.account);
+      return;
+    }
+
+    ObservingAccount existingAccount = allAccounts.putIfAbsent(key, observingAccount);
+    if (existingAccount == null) {
+      // update the database
+      store.upsert(observingAccount.account, observingAccount.getLastObserved());
+      observingAccount.persisted = observingAccount.lastObserved;
+    } else {
+      existingAccount.lastObserved = observingAccount.lastObserved;
+      if (existingAccount.type == AccountType.TRANSIENT) {
+        existingAccount.type = observingAccount.type;
       }
     }
   }
@@ -115,20 +148,13 @@ public class PaymentObservingAccountsManager {
    * @return true if the account is being observed. false, otherwise.
    */
   public boolean lookupAndUpdate(String account) {
-    if (account == null) {
-      return false;
-    }
-
-    // MuxedAccount handles both muxed and non-muxed accounts
-    if (account.startsWith("M")) {
-      // If the account is a muxed account, we need to extract the G-account ID
-      MuxedAccount muxedAccount = new MuxedAccount(account);
-      account = muxedAccount.getAccountId();
-    }
+    // A muxed account has the same key as its G-account
+    AccountKey key = AccountKey.of(account);
+    if (key == null) return false;
 
-    ObservingAccount acct = allAccounts.get(account);
+    ObservingAccount acct = allAccounts.get(key);
     if (acct == null) return false;
-    acct.lastObserved = Instant.now();
+    acct.lastObserved = System.currentTimeMillis();
     return true;
   }
 
@@ -138,12 +164,15 @@ public class PaymentObservingAccountsManager {
    * @param maxIdleTime evict all accounts that are older than maxAge
    */
   public void evict(Duration maxIdleTime) {
-    for (ObservingAccount acct : getAccounts()) {
+    long now = System.currentTimeMillis();
+    Iterator<Map.Entry<AccountKey, ObservingAccount>> it = allAccounts.entrySet().iterator();
+    while (it.hasNext()) {
+      ObservingAccount acct = it.next().getValue();
       if (acct.type == AccountType.RESIDENTIAL) continue;
 
-      Duration idleTime = Duration.between(Instant.now(), acct.lastObserved).abs();
+      Duration idleTime = Duration.ofMillis(Math.abs(now - acct.lastObserved));
       if (idleTime.compareTo(maxIdleTime) > 0) {
-        allAccounts.remove(acct.account);
+        it.remove();
         store.delete(acct.account);
       }
     }
@@ -155,11 +184,23 @@ public class PaymentObservingAccountsManager {
     // distribution account
   }
 
-  @AllArgsConstructor
   public static class ObservingAccount {
-    String account;
-    Instant lastObserved;
-    AccountType type;
+    final String account;
+    // The epoch milliseconds when the account was last observed. Updated without locking.
+    volatile long lastObserved;
+    // The lastObserved value that was last written to the store
+    volatile long persisted = Long.MIN_VALUE;
+    volatile AccountType type;
+
+    public ObservingAccount(String account, Instant lastObserved, AccountType type) {
+      this.account = account;
+      this.lastObserved = lastObserved == null ? 0 : lastObserved.toEpochMilli();
+      this.type = type;
+    }
+
+    public Instant getLastObserved() {
+      return Instant.ofEpochMilli(lastObserved);
+    }
   }
 
   Duration getEvictPeriod() {
@@ -1,21 +1,48 @@
 package org.stellar.anchor.platform.observer.stellar;
 
+import static org.stellar.anchor.util.Log.debugF;
+import static org.stellar.anchor.util.Log.warnF;
+import static org.stellar.anchor.util.MetricConstants.*;
 import static org.stellar.sdk.xdr.ContractExecutableType.CONTRACT_EXECUTABLE_STELLAR_ASSET;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Metrics;
 import java.io.IOException;
+import java.time.Duration;
 import java.util.Collections;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import org.stellar.anchor.api.asset.StellarAssetInfo;
 import org.stellar.sdk.Address;
+import org.stellar.sdk.Network;
 import org.stellar.sdk.SorobanServer;
 import org.stellar.sdk.responses.sorobanrpc.GetLedgerEntriesResponse;
 import org.stellar.sdk.scval.Scv;
 import org.stellar.sdk.xdr.*;
 
 public class SacToAssetMapper {
+  // The maximum number of SACs kept in each of the caches
+  static final long MAX_CACHE_SIZE = 10_000;
+  // How long a contract that is not a SAC is remembered
+  static final Duration NEGATIVE_ENTRY_TTL = Duration.ofMinutes(10);
+
   SorobanServer sorobanServer;
-  HashMap<String, Asset> sacToAssetMap = new HashMap<>();
+  final Cache<String, Asset> sacToAssetMap =
+      CacheBuilder.newBuilder().maximumSize(MAX_CACHE_SIZE).build();
+  final Cache<String, Boolean> nonSacContracts =
+      CacheBuilder.newBuilder()
+          .maximumSize(MAX_CACHE_SIZE)
+          .expireAfterWrite(NEGATIVE_ENTRY_TTL)
+          .build();
+
+  private final Counter cacheHits =
+      Metrics.counter(PAYMENT_OBSERVER_SAC_CACHE, RESULT, TV_CACHE_HIT);
+  private final Counter cacheNegativeHits =
+      Metrics.counter(PAYMENT_OBSERVER_SAC_CACHE, RESULT, TV_CACHE_NEGATIVE_HIT);
+  private final Counter cacheMisses =
+      Metrics.counter(PAYMENT_OBSERVER_SAC_CACHE, RESULT, TV_CACHE_MISS);
 
   public SacToAssetMapper(SorobanServer sorobanServer) {
     this.sorobanServer = sorobanServer;
@@ -25,30 +52,63 @@ public class SacToAssetMapper {
     return null;
   }
 
+  /**
+   * Populates the cache with the SACs of the Stellar assets. The SAC ids are derived from the
+   * assets, so no request is sent to the RPC.
+   *
+   * @param assets the Stellar assets
+   * @param network the Stellar network
+   */
+  public void warmUp(List<StellarAssetInfo> assets, Network network) {
+    for (StellarAssetInfo assetInfo : assets) {
+      try {
+        org.stellar.sdk.Asset asset =
+            org.stellar.sdk.Asset.create(
+                assetInfo.getIssuer() == null
+                    ? "native"
+                    : assetInfo.getCode() + ":" + assetInfo.getIssuer());
+        sacToAssetMap.put(asset.getContractId(network), asset.toXdr());
+      } catch (Exception ex) {
+        warnF("Failed to compute the SAC of asset {}: {}", assetInfo.getId(), ex.getMessage());
+      }
+    }
+    debugF("{} SACs are cached", sacToAssetMap.size());
+  }
+
   /**
    * Maps a Stellar Asset Contract ID to an Asset object.
    *
    * @param sac the Stellar Asset Contract ID
-   * @return the corresponding Asset object
+   * @return the corresponding Asset object. null if the contract is not a SAC.
    */
   public Asset getAssetFromSac(String sac) {
-    if (sacToAssetMap.containsKey(sac)) {
-      return sacToAssetMap.get(sac);
+    Asset cached = sacToAssetMap.getIfPresent(sac);
+    if (cached != null) {
+      cacheHits.increment();
+      return cached;
+    }
+    if (nonSacContracts.getIfPresent(sac) != null) {
+      cacheNegativeHits.increment();
+      return null;
     }
+    cacheMisses.increment();
 
     SCVal metadata;
     try {
       metadata = fetchSacMetadata(sac);
-      if (metadata == null) {
-        return null;
-      }
     } catch (IOException e) {
+      // The RPC may be temporarily unavailable. Do not remember the failure.
+      return null;
+    }
+    if (metadata == null) {
+      nonSacContracts.put(sac, Boolean.TRUE);
       return null;
     }
 
     Map<SCVal, SCVal> scMap = Scv.fromMap(metadata);
     SCVal scAssetName = scMap.get(Scv.toSymbol("name"));
     if (scAssetName == null) {
+      nonSacContracts.put(sac, Boolean.TRUE);
       return null;
     }
 
@@ -72,6 +132,10 @@ public class SacToAssetMapper {
                 .build());
 
     GetLedgerEntriesResponse response = sorobanServer.getLedgerEntries(ledgerKeys);
+    if (response.getEntries() == null || response.getEntries().isEmpty()) {
+      // The contract does not exist
+      return null;
+    }
     SCContractInstance contractInstance =
         LedgerEntry.LedgerEntryData.fromXdrBase64(response.getEntries().get(0).getXdr())
             .getContractData()
@@ -1,26 +1,37 @@
 package org.stellar.anchor.platform.observer.stellar;
 
+import static io.micrometer.core.instrument.Metrics.gauge;
 import static org.stellar.anchor.api.platform.HealthCheckStatus.*;
 import static org.stellar.anchor.api.platform.HealthCheckStatus.RED;
 import static org.stellar.anchor.healthcheck.HealthCheckable.Tags.ALL;
 import static org.stellar.anchor.healthcheck.HealthCheckable.Tags.EVENT;
 import static org.stellar.anchor.platform.observer.stellar.StellarRpcPaymentObserver.ShouldProcessResult.*;
 import static org.stellar.anchor.util.Log.*;
+import static org.stellar.anchor.util.MetricConstants.PAYMENT_OBSERVER_CAUGHT_UP;
+import static org.stellar.anchor.util.MetricConstants.PAYMENT_OBSERVER_LAG_LEDGERS;
+import static org.stellar.anchor.util.MetricConstants.PAYMENT_OBSERVER_PAGES_PER_TICK;
 import static org.stellar.anchor.util.StringHelper.isEmpty;
 
 import java.io.IOException;
+import java.time.Duration;
 import java.time.Instant;
-import java.util.Base64;
-import java.util.List;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Stream;
 import lombok.Builder;
 import lombok.Getter;
+import lombok.SneakyThrows;
 import org.stellar.anchor.api.asset.AssetInfo;
 import org.stellar.anchor.api.asset.StellarAssetInfo;
 import org.stellar.anchor.api.exception.AnchorException;
+import org.stellar.anchor.api.exception.LedgerException;
 import org.stellar.anchor.api.platform.HealthCheckResult;
 import org.stellar.anchor.api.platform.HealthCheckStatus;
 import org.stellar.anchor.asset.AssetService;
@@ -32,6 +43,7 @@ import org.stellar.anchor.ledger.PaymentTransferEvent;
 import org.stellar.anchor.ledger.StellarRpc;
 import org.stellar.anchor.platform.config.PaymentObserverConfig.StellarPaymentObserverConfig;
 import org.stellar.anchor.platform.observer.PaymentListener;
+import org.stellar.anchor.platform.utils.DaemonExecutors;
 import org.stellar.anchor.util.AssetHelper;
 import org.stellar.anchor.util.GsonUtils;
 import org.stellar.anchor.util.Log;
@@ -49,11 +61,24 @@ import org.stellar.sdk.xdr.SCVal;
 import org.stellar.sdk.xdr.SCValType;
 
 public class StellarRpcPaymentObserver extends AbstractPaymentObserver {
+  static final long EVENTS_PAGE_LIMIT = 100L;
+  // The XDR base64 encoded `transfer` symbol topic.
+  static final String TRANSFER_TOPIC = encodeSymbol("transfer");
+
   @Getter final StellarRpc stellarRpc;
   @Getter final SorobanServer sorobanServer;
   final SacToAssetMapper sacToAssetMapper;
   final AssetService assetService;
+  ExecutorService transactionFetcher;
+  final CursorCheckpointer checkpointer;
   ObserverStatus status = ObserverStatus.STARTING;
+  // The event filters are cached until the stellar assets change.
+  List<StellarAssetInfo> filterStellarAssets;
+  List<String> filterDistributionAccounts;
+  List<EventFilter> eventFilters;
+  AtomicLong metricCaughtUp = new AtomicLong(0);
+  AtomicLong metricLagLedgers = new AtomicLong(0);
+  AtomicLong metricPagesPerTick = new AtomicLong(0);
 
   public StellarRpcPaymentObserver(
       StellarRpc stellarRpc,
@@ -65,26 +90,54 @@ public class StellarRpcPaymentObserver extends AbstractPaymentObserver {
       AssetService assetService) {
     super(config, paymentListeners, paymentObservingAccountsManager, paymentStreamerCursorStore);
     this.stellarRpc = stellarRpc;
+    this.checkpointer =
+        new CursorCheckpointer(
+            config.getCursorCheckpointEvents(),
+            Duration.ofSeconds(config.getCursorCheckpointInterval()),
+            this::saveStellarRpcCursor);
     this.assetService = assetService;
     this.sorobanServer = stellarRpc.getSorobanServer();
     this.sacToAssetMapper = sacToAssetMapper;
+    this.transactionFetcher = newTransactionFetcher();
+
+    // 1 if the cursor has caught up with the latest ledger, 0 otherwise
+    gauge(PAYMENT_OBSERVER_CAUGHT_UP, metricCaughtUp);
+    // the number of ledgers the cursor is behind the latest ledger
+    gauge(PAYMENT_OBSERVER_LAG_LEDGERS, metricLagLedgers);
+    // the number of pages fetched in the last polling tick
+    gauge(PAYMENT_OBSERVER_PAGES_PER_TICK, metricPagesPerTick);
   }
 
   @Override
   void startInternal() {
     info("Starting Soroban RPC payment observer");
+    if (transactionFetcher.isShutdown()) {
+      // The observer is restarted
+      transactionFetcher = newTransactionFetcher();
+    }
     task =
-        executorService.scheduleAtFixedRate(
-            this::fetchEvents, 0, 1, java.util.concurrent.TimeUnit.SECONDS);
+        executorService.scheduleWithFixedDelay(
+            this::pollEvents, 0, Math.max(1, config.getEventPollingInterval()), TimeUnit.SECONDS);
     status = ObserverStatus.RUNNING;
   }
 
   @Override
   void shutdownInternal() {
     task.cancel(true);
+    transactionFetcher.shutdown();
+    // Save the cursor of the events processed before the shutdown
+    try {
+      checkpointer.flush();
+    } catch (Exception ex) {
+      errorEx("Failed to save the RPC cursor on shutdown", ex);
+    }
     status = ObserverStatus.SHUTDOWN;
   }
 
+  ExecutorService newTransactionFetcher() {
+    return DaemonExecutors.newFixedThreadPool(Math.max(1, config.getTransactionFetchConcurrency()));
+  }
+
   @Override
   public String getName() {
     return "stellar_rpc_payment_observer";
@@ -115,7 +168,27 @@ public class StellarRpcPaymentObserver extends AbstractPaymentObserver {
 
   ScheduledFuture<?> task;
 
-  void fetchEvents() {
+  /**
+   * Fetch the pages back-to-back until the observer catches up with the latest ledger. The
+   * scheduler then waits for the polling interval before the next tick.
+   */
+  void pollEvents() {
+    int pages = 0;
+    boolean hasMore;
+    do {
+      hasMore = fetchEvents();
+      pages++;
+    } while (hasMore && isHealthy() && !Thread.currentThread().isInterrupted());
+    metricPagesPerTick.set(pages);
+  }
+
+  /**
+   * Fetch and process one page of events.
+   *
+   * @return true if the page was full or the cursor is still behind the latest ledger. false if the
+   *     observer has caught up or the fetch failed.
+   */
+  boolean fetchEvents() {
     String cursor = (this.cursor != null) ? this.cursor : loadStellarRpcCursor();
 
     try {
@@ -123,18 +196,32 @@ public class StellarRpcPaymentObserver extends AbstractPaymentObserver {
       lastActivityTime = Instant.now();
       silenceTimeoutCount = 0;
       metricLatestBlockRead.set(response.getLatestLedger());
+      int events = 0;
       if (response.getEvents() != null && !response.getEvents().isEmpty()) {
         processEvents(response.getEvents());
+        events = response.getEvents().size();
       }
-      // Save the cursor for the next request
-      cursor = response.getCursor();
+      // Move to the next page once the listeners have processed this one. The cursor is saved to
+      // the database according to the checkpoint policy.
+      dispatcher.checkpoint(response.getCursor());
+      String acknowledged = dispatcher.awaitAcknowledged();
       try {
-        saveCursor(cursor);
+        if (acknowledged == null) {
+          // An event of the page failed to publish. Save the cursor of the pages before, and fetch
+          // the page again from it.
+          checkpointer.flush();
+          this.cursor = null;
+          return false;
+        }
+        this.cursor = acknowledged;
+        checkpointer.acknowledge(this.cursor, events);
         metricLatestBlockProcessed.set(response.getLatestLedger());
       } catch (Exception tex) {
         warnF("Failed to persist RPC cursor. Will retry next tick. ex={}", tex.getMessage());
         setStatus(ObserverStatus.DATABASE_ERROR);
+        return false;
       }
+      return updateLag(response);
     } catch (IOException ioex) {
       warnF(
           "Error fetching latest ledger: {}. ex={}. Wait for next retry.",
@@ -146,24 +233,124 @@ public class StellarRpcPaymentObserver extends AbstractPaymentObserver {
       errorEx("Unhandled error in RPC observer loop", t);
       setStatus(ObserverStatus.STREAM_ERROR);
     }
+    return false;
+  }
+
+  /**
+   * Update the lag metrics from the response.
+   *
+   * @param response the getEvents response
+   * @return true if there are more events to drain.
+   */
+  boolean updateLag(GetEventsResponse response) {
+    boolean fullPage =
+        response.getEvents() != null && response.getEvents().size() >= EVENTS_PAGE_LIMIT;
+    Long cursorLedger = getCursorLedger(response.getCursor());
+    long lag =
+        (cursorLedger == null || response.getLatestLedger() == null)
+            ? 0
+            : Math.max(0, response.getLatestLedger() - cursorLedger);
+    boolean caughtUp = !fullPage && lag <= 1;
+
+    metricLagLedgers.set(lag);
+    metricCaughtUp.set(caughtUp ? 1 : 0);
+    return !caughtUp;
   }
 
-  private void processEvents(List<EventInfo> events) {
+  /**
+   * Extract the ledger sequence from the RPC cursor. The cursor is formatted as
+   * `{toid}-{event_index}` where the ledger sequence is the upper 32 bits of the TOID.
+   *
+   * @param cursor the RPC cursor
+   * @return the ledger sequence or null if the cursor cannot be parsed.
+   */
+  static Long getCursorLedger(String cursor) {
+    if (isEmpty(cursor)) return null;
+    try {
+      int dash = cursor.indexOf('-');
+      long toid = Long.parseLong((dash < 0) ? cursor : cursor.substring(0, dash));
+      return toid >> 32;
+    } catch (NumberFormatException nfex) {
+      return null;
+    }
+  }
+
+  void processEvents(List<EventInfo> events) {
     if (events == null || events.isEmpty()) return;
     debugF("Processing {} 'transfer' events", events.size());
 
+    List<ShouldProcessResult> results = new ArrayList<>();
     for (EventInfo event : events) {
       ShouldProcessResult result = shouldProcess(event);
       if (result.shouldProcess) {
-        processTransferEvent(result);
+        results.add(result);
+      }
+    }
+    if (results.isEmpty()) return;
+
+    // Dispatch in ledger order. The sort is stable, so the order of the events within a ledger
+    // returned by the RPC is kept.
+    results.sort(Comparator.comparing(result -> result.event.getLedger()));
+    // Several transfer events may belong to the same transaction. Fetch each transaction once.
+    Map<String, LedgerTransaction> transactions =
+        fetchTransactions(
+            results.stream().map(result -> result.event.getTransactionHash()).distinct().toList());
+
+    for (ShouldProcessResult result : results) {
+      processTransferEvent(result, transactions.get(result.event.getTransactionHash()));
+    }
+  }
+
+  /**
+   * Fetch the transactions concurrently. The number of in-flight requests is bounded by the size of
+   * the transactionFetcher pool.
+   *
+   * @param hashes the de-duplicated transaction hashes
+   * @return the map of the transaction hash to the fetched transaction. The transactions failed to
+   *     be fetched are not included.
+   */
+  Map<String, LedgerTransaction> fetchTransactions(List<String> hashes) {
+    Map<String, CompletableFuture<LedgerTransaction>> futures = new LinkedHashMap<>();
+    for (String hash : hashes) {
+      futures.put(
+          hash,
+          CompletableFuture.supplyAsync(
+              () -> {
+                try {
+                  return stellarRpc.getTransaction(hash);
+                } catch (LedgerException lex) {
+                  throw new CompletionException(lex);
+                }
+              },
+              transactionFetcher));
+    }
+
+    Map<String, LedgerTransaction> transactions = new HashMap<>();
+    for (Map.Entry<String, CompletableFuture<LedgerTransaction>> entry : futures.entrySet()) {
+      try {
+        LedgerTransaction txn = entry.getValue().join();
+        if (txn != null) {
+          transactions.put(entry.getKey(), txn);
+        }
+      } catch (CompletionException cex) {
+        warnF(
+            "Error fetching transaction: {}. ex={}",
+            entry.getKey(),
+            (cex.getCause() != null) ? cex.getCause().getMessage() : cex.getMessage());
       }
     }
+    return transactions;
   }
 
-  private void processTransferEvent(ShouldProcessResult result) {
+  private void processTransferEvent(ShouldProcessResult result, LedgerTransaction txn) {
     debug("Processing transfer event: {}", GsonUtils.getInstance().toJson(result.event));
+    if (txn == null) {
+      warnF(
+          "Skip processing transfer event because the transaction is not available: {}",
+          result.event.getTransactionHash());
+      return;
+    }
     try {
-      LedgerTransaction txn = stellarRpc.getTransaction(result.event.getTransactionHash());
       LedgerOperation op = txn.getOperations().get(result.event.getOperationIndex().intValue());
       processOperation(txn, op);
     } catch (Exception ex) {
@@ -193,16 +380,15 @@ public class StellarRpcPaymentObserver extends AbstractPaymentObserver {
         return builder.build();
       }
 
-      SCVal function = SCVal.fromXdrBase64(event.getTopic().get(0));
+      // XDR encoding is canonical. Compare the encoded topic before decoding the event.
+      if (!TRANSFER_TOPIC.equals(event.getTopic().get(0))) {
+        return builder.build();
+      }
+
       SCVal from = SCVal.fromXdrBase64(event.getTopic().get(1));
       SCVal to = SCVal.fromXdrBase64(event.getTopic().get(2));
       SCVal asset = SCVal.fromXdrBase64(event.getTopic().get(3));
 
-      if (function.getDiscriminant() != SCValType.SCV_SYMBOL
-          || !function.getSym().getSCSymbol().toString().equals("transfer")) {
-        return builder.build();
-      }
-
       if (from.getDiscriminant() != SCValType.SCV_ADDRESS
           || to.getDiscriminant() != SCValType.SCV_ADDRESS
           || asset.getDiscriminant() != SCValType.SCV_STRING) {
@@ -262,48 +448,7 @@ public class StellarRpcPaymentObserver extends AbstractPaymentObserver {
   }
 
   GetEventsRequest buildEventRequest(String cursor) throws IOException {
-    List<String> uniqueDistributionAccounts =
-        assetService.getStellarAssets().stream()
-            .filter(asset -> asset.getSchema() == AssetInfo.Schema.STELLAR)
-            .map(StellarAssetInfo::getDistributionAccount)
-            .distinct()
-            .toList();
-
-    List<EventFilter> filters =
-        uniqueDistributionAccounts.stream()
-            .flatMap(
-                distributionAccount -> {
-                  try {
-                    return Stream.of(
-                        // Filter for transfers from the distribution account
-                        EventFilter.builder()
-                            .type(EventFilterType.CONTRACT)
-                            .topic(
-                                List.of(
-                                    Scv.toSymbol("transfer").toXdrBase64(),
-                                    Scv.toAddress(distributionAccount).toXdrBase64(),
-                                    "*",
-                                    "*"))
-                            .build(),
-                        // Filter for transfers to the distribution account
-                        EventFilter.builder()
-                            .type(EventFilterType.CONTRACT)
-                            .topic(
-                                List.of(
-                                    Scv.toSymbol("transfer").toXdrBase64(),
-                                    "*",
-                                    Scv.toAddress(distributionAccount).toXdrBase64(),
-                                    "*"))
-                            .build());
-                  } catch (IOException e) {
-                    Log.errorF(
-                        "Skipping asset due to invalid distribution account: {}. Error: {}",
-                        distributionAccount,
-                        e.getMessage());
-                    return Stream.empty();
-                  }
-                })
-            .toList();
+    List<EventFilter> filters = getEventFilters();
 
     if (isEmpty(cursor)) {
       long latestLedger = getLatestLedger();
@@ -312,11 +457,76 @@ public class StellarRpcPaymentObserver extends AbstractPaymentObserver {
       return GetEventsRequest.builder()
           .filters(filters)
           .pagination(
-              GetEventsRequest.PaginationOptions.builder().limit(100L).cursor(cursor).build())
+              GetEventsRequest.PaginationOptions.builder()
+                  .limit(EVENTS_PAGE_LIMIT)
+                  .cursor(cursor)
+                  .build())
           .build();
     }
   }
 
+  /**
+   * Get the event filters of the distribution accounts. The filters are only rebuilt when the
+   * stellar assets have changed.
+   *
+   * @return the list of event filters
+   */
+  List<EventFilter> getEventFilters() {
+    List<StellarAssetInfo> stellarAssets = assetService.getStellarAssets();
+    if (eventFilters != null && stellarAssets == filterStellarAssets) {
+      return eventFilters;
+    }
+
+    List<String> uniqueDistributionAccounts =
+        stellarAssets.stream()
+            .filter(asset -> asset.getSchema() == AssetInfo.Schema.STELLAR)
+            .map(StellarAssetInfo::getDistributionAccount)
+            .distinct()
+            .toList();
+    if (eventFilters == null || !uniqueDistributionAccounts.equals(filterDistributionAccounts)) {
+      debugF(
+          "Building event filters for {} distribution accounts",
+          uniqueDistributionAccounts.size());
+      eventFilters = buildEventFilters(uniqueDistributionAccounts);
+      filterDistributionAccounts = uniqueDistributionAccounts;
+    }
+    filterStellarAssets = stellarAssets;
+    return eventFilters;
+  }
+
+  List<EventFilter> buildEventFilters(List<String> distributionAccounts) {
+    return distributionAccounts.stream()
+        .flatMap(
+            distributionAccount -> {
+              try {
+                String address = Scv.toAddress(distributionAccount).toXdrBase64();
+                return Stream.of(
+                    // Filter for transfers from the distribution account
+                    EventFilter.builder()
+                        .type(EventFilterType.CONTRACT)
+                        .topic(List.of(TRANSFER_TOPIC, address, "*", "*"))
+                        .build(),
+                    // Filter for transfers to the distribution account
+                    EventFilter.builder()
+                        .type(EventFilterType.CONTRACT)
+                        .topic(List.of(TRANSFER_TOPIC, "*", address, "*"))
+                        .build());
+              } catch (IOException e) {
+                Log.errorF(
+                    "Skipping asset due to invalid distribution account: {}. Error: {}",
+                    distributionAccount,
+                    e.getMessage());
+                return Stream.empty();
+              }
+            })
+        .toList();
+  }
+
+  @SneakyThrows
+  static String encodeSymbol(String symbol) {
+    return Scv.toSymbol(symbol).toXdrBase64();
+  }
+
   void processOperation(LedgerTransaction ledgerTxn, LedgerOperation op)
       throws IOException, AnchorException {
     PaymentTransferEvent event =
@@ -366,11 +576,6 @@ public class StellarRpcPaymentObserver extends AbstractPaymentObserver {
     }
   }
 
-  private void saveCursor(String cursor) {
-    this.cursor = cursor;
-    saveStellarRpcCursor(cursor);
-  }
-
   private Long getLatestLedger() {
     GetLatestLedgerResponse response = sorobanServer.getLatestLedger();
     return response.getSequence().longValue();
@@ -28,7 +28,8 @@ public class GetTransactionsHandler extends RpcMethodHandler<GetTransactionsRpcR
             request.getOrder(),
             request.getStatuses(),
             request.getPageNumber(),
-            request.getPageSize());
+            request.getPageSize(),
+            request.getCursor());
     return txnService.findTransactions(request.getSep(), params);
   }
 }
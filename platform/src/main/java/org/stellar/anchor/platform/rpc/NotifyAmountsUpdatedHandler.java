@@ -22,6 +22,8 @@ import org.stellar.anchor.metrics.MetricsService;
 import org.stellar.anchor.platform.data.JdbcSep24Transaction;
 import org.stellar.anchor.platform.data.JdbcSep6Transaction;
 import org.stellar.anchor.platform.data.JdbcSepTransaction;
+import org.stellar.anchor.platform.service.TransactionResponseCache;
+import org.stellar.anchor.platform.service.TransactionRouter;
 import org.stellar.anchor.platform.utils.AssetValidationUtils;
 import org.stellar.anchor.platform.validator.RequestValidator;
 import org.stellar.anchor.sep24.Sep24TransactionStore;
@@ -35,6 +37,8 @@ public class NotifyAmountsUpdatedHandler
       Sep6TransactionStore txn6Store,
       Sep24TransactionStore txn24Store,
       Sep31TransactionStore txn31Store,
+      TransactionRouter txnRouter,
+      TransactionResponseCache txnResponseCache,
       RequestValidator requestValidator,
       AssetService assetService,
       EventService eventService,
@@ -43,6 +47,8 @@ public class NotifyAmountsUpdatedHandler
         txn6Store,
         txn24Store,
         txn31Store,
+        txnRouter,
+        txnResponseCache,
         requestValidator,
         assetService,
         eventService,
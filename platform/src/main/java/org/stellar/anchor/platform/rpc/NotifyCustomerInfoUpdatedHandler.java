@@ -24,6 +24,8 @@ import org.stellar.anchor.asset.AssetService;
 import org.stellar.anchor.event.EventService;
 import org.stellar.anchor.metrics.MetricsService;
 import org.stellar.anchor.platform.data.JdbcSepTransaction;
+import org.stellar.anchor.platform.service.TransactionResponseCache;
+import org.stellar.anchor.platform.service.TransactionRouter;
 import org.stellar.anchor.platform.validator.RequestValidator;
 import org.stellar.anchor.sep24.Sep24TransactionStore;
 import org.stellar.anchor.sep31.Sep31TransactionStore;
@@ -38,6 +40,8 @@ public class NotifyCustomerInfoUpdatedHandler
       Sep6TransactionStore txn6Store,
       Sep24TransactionStore txn24Store,
       Sep31TransactionStore txn31Store,
+      TransactionRouter txnRouter,
+      TransactionResponseCache txnResponseCache,
       RequestValidator requestValidator,
       CustomerIntegration customerIntegration,
       AssetService assetService,
@@ -47,6 +51,8 @@ public class NotifyCustomerInfoUpdatedHandler
         txn6Store,
         txn24Store,
         txn31Store,
+        txnRouter,
+        txnResponseCache,
         requestValidator,
         assetService,
         eventService,
@@ -21,6 +21,8 @@ import org.stellar.anchor.event.EventService;
 import org.stellar.anchor.metrics.MetricsService;
 import org.stellar.anchor.platform.data.JdbcSep24Transaction;
 import org.stellar.anchor.platform.data.JdbcSepTransaction;
+import org.stellar.anchor.platform.service.TransactionResponseCache;
+import org.stellar.anchor.platform.service.TransactionRouter;
 import org.stellar.anchor.platform.utils.AssetValidationUtils;
 import org.stellar.anchor.platform.validator.RequestValidator;
 import org.stellar.anchor.sep24.Sep24TransactionStore;
@@ -34,6 +36,8 @@ public class NotifyInteractiveFlowCompletedHandler
       Sep6TransactionStore txn6Store,
       Sep24TransactionStore txn24Store,
       Sep31TransactionStore txn31Store,
+      TransactionRouter txnRouter,
+      TransactionResponseCache txnResponseCache,
       RequestValidator requestValidator,
       AssetService assetService,
       EventService eventService,
@@ -42,6 +46,8 @@ public class NotifyInteractiveFlowCompletedHandler
         txn6Store,
         txn24Store,
         txn31Store,
+        txnRouter,
+        txnResponseCache,
         requestValidator,
         assetService,
         eventService,
@@ -11,6 +11,7 @@ import static org.stellar.anchor.platform.service.AnchorMetrics.PLATFORM_RPC_TRA
 import static org.stellar.anchor.platform.utils.PlatformTransactionHelper.toGetTransactionResponse;
 import static org.stellar.anchor.util.MetricConstants.*;
 
+import jakarta.transaction.Transactional;
 import java.time.Instant;
 import java.util.Set;
 import java.util.UUID;
@@ -33,10 +34,10 @@ import org.stellar.anchor.platform.data.JdbcSep24Transaction;
 import org.stellar.anchor.platform.data.JdbcSep31Transaction;
 import org.stellar.anchor.platform.data.JdbcSep6Transaction;
 import org.stellar.anchor.platform.data.JdbcSepTransaction;
+import org.stellar.anchor.platform.service.TransactionResponseCache;
+import org.stellar.anchor.platform.service.TransactionRouter;
 import org.stellar.anchor.platform.validator.RequestValidator;
-import org.stellar.anchor.sep24.Sep24Transaction;
 import org.stellar.anchor.sep24.Sep24TransactionStore;
-import org.stellar.anchor.sep31.Sep31Transaction;
 import org.stellar.anchor.sep31.Sep31TransactionStore;
 import org.stellar.anchor.sep6.Sep6TransactionStore;
 import org.stellar.anchor.util.Log;
@@ -47,6 +48,8 @@ public abstract class RpcTransactionStatusHandler<T extends RpcMethodParamsReque
   protected final Sep6TransactionStore txn6Store;
   protected final Sep24TransactionStore txn24Store;
   protected final Sep31TransactionStore txn31Store;
+  private final TransactionRouter txnRouter;
+  private final TransactionResponseCache txnResponseCache;
   protected final AssetService assetService;
   private final RequestValidator requestValidator;
   private final MetricsService metricsService;
@@ -57,6 +60,8 @@ public abstract class RpcTransactionStatusHandler<T extends RpcMethodParamsReque
       Sep6TransactionStore txn6Store,
       Sep24TransactionStore txn24Store,
       Sep31TransactionStore txn31Store,
+      TransactionRouter txnRouter,
+      TransactionResponseCache txnResponseCache,
       RequestValidator requestValidator,
       AssetService assetService,
       EventService eventService,
@@ -65,6 +70,8 @@ public abstract class RpcTransactionStatusHandler<T extends RpcMethodParamsReque
     this.txn6Store = txn6Store;
     this.txn24Store = txn24Store;
     this.txn31Store = txn31Store;
+    this.txnRouter = txnRouter;
+    this.txnResponseCache = txnResponseCache;
     this.requestValidator = requestValidator;
     this.assetService = assetService;
     this.metricsService = metricsService;
@@ -72,8 +79,13 @@ public abstract class RpcTransactionStatusHandler<T extends RpcMethodParamsReque
     this.eventSession = eventService.createSession(this.getClass().getName(), TRANSACTION);
   }
 
+  @Transactional(rollbackOn = {AnchorException.class, RuntimeException.class})
   public Object handle(Object requestParams) throws AnchorException {
-    T request = gson.fromJson(gson.toJson(requestParams), requestType);
+    // The in-process callers pass the typed request, which needs no conversion.
+    T request =
+        requestType.isInstance(requestParams)
+            ? requestType.cast(requestParams)
+            : gson.fromJson(gson.toJson(requestParams), requestType);
     Log.infoF("Processing RPC request {}", request);
     JdbcSepTransaction txn = getTransaction(request.getTransactionId());
     Log.debugF("SEP transaction before request is executed {}", txn);
@@ -105,11 +117,12 @@ public abstract class RpcTransactionStatusHandler<T extends RpcMethodParamsReque
               getRpcMethod(), txn.getStatus(), kind, txn.getProtocol(), areFundsReceived(txn)));
     }
 
-    updateTransaction(txn, request);
+    JdbcSepTransaction savedTxn = updateTransaction(txn, request);
 
     Log.debugF("Transaction after update is executed {}", txn);
 
     GetTransactionResponse txResponse = toGetTransactionResponse(txn, assetService);
+    txnResponseCache.put(savedTxn, txResponse);
 
     eventSession.publish(
         AnchorEvent.builder()
@@ -133,15 +146,7 @@ public abstract class RpcTransactionStatusHandler<T extends RpcMethodParamsReque
       throws AnchorException;
 
   protected JdbcSepTransaction getTransaction(String transactionId) throws AnchorException {
-    Sep31Transaction txn31 = txn31Store.findByTransactionId(transactionId);
-    if (txn31 != null) {
-      return (JdbcSep31Transaction) txn31;
-    }
-    Sep24Transaction txn24 = txn24Store.findByTransactionId(transactionId);
-    if (txn24 != null) {
-      return (JdbcSep24Transaction) txn24;
-    }
-    return (JdbcSep6Transaction) txn6Store.findByTransactionId(transactionId);
+    return txnRouter.findTransaction(transactionId);
   }
 
   protected void validate(JdbcSepTransaction txn, T request)
@@ -158,7 +163,16 @@ public abstract class RpcTransactionStatusHandler<T extends RpcMethodParamsReque
     requestValidator.validate(request);
   }
 
-  protected void updateTransaction(JdbcSepTransaction txn, T request) throws AnchorException {
+  /**
+   * Update the transaction with the RPC request and save it.
+   *
+   * @param txn the transaction
+   * @param request the RPC request
+   * @return the saved transaction
+   * @throws AnchorException if the request is invalid
+   */
+  protected JdbcSepTransaction updateTransaction(JdbcSepTransaction txn, T request)
+      throws AnchorException {
     validate(txn, request);
 
     SepTransactionStatus nextStatus = getNextStatus(txn, request);
@@ -186,6 +200,7 @@ public abstract class RpcTransactionStatusHandler<T extends RpcMethodParamsReque
       txn.setCompletedAt(Instant.now());
     }
 
+    JdbcSepTransaction savedTxn = null;
     switch (Sep.from(txn.getProtocol())) {
       case SEP_6:
         JdbcSep6Transaction txn6 = (JdbcSep6Transaction) txn;
@@ -194,7 +209,7 @@ public abstract class RpcTransactionStatusHandler<T extends RpcMethodParamsReque
         } else if (shouldClearMessageStatus) {
           txn6.setMessage(null);
         }
-        txn6Store.save(txn6);
+        savedTxn = (JdbcSep6Transaction) txn6Store.save(txn6);
         break;
       case SEP_24:
         JdbcSep24Transaction txn24 = (JdbcSep24Transaction) txn;
@@ -203,7 +218,7 @@ public abstract class RpcTransactionStatusHandler<T extends RpcMethodParamsReque
         } else if (shouldClearMessageStatus) {
           txn24.setMessage(null);
         }
-        txn24Store.save(txn24);
+        savedTxn = (JdbcSep24Transaction) txn24Store.save(txn24);
         break;
       case SEP_31:
         JdbcSep31Transaction txn31 = (JdbcSep31Transaction) txn;
@@ -212,11 +227,12 @@ public abstract class RpcTransactionStatusHandler<T extends RpcMethodParamsReque
         } else if (shouldClearMessageStatus) {
           txn31.setRequiredInfoMessage(null);
         }
-        txn31Store.save(txn31);
+        savedTxn = (JdbcSep31Transaction) txn31Store.save(txn31);
         break;
     }
 
     updateMetrics(txn);
+    return savedTxn;
   }
 
   protected boolean areFundsReceived(JdbcSepTransaction txn) {
@@ -0,0 +1,28 @@
+package org.stellar.anchor.platform.service;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Holds the RPC service of the platform server running in this JVM, so that the other servers
+ * started in the same JVM (ex: by the service runner with --all) can call it directly.
+ */
+public class InProcessRpcServices {
+  private static final AtomicReference<RpcService> rpcService = new AtomicReference<>();
+
+  public static void register(RpcService service) {
+    rpcService.set(service);
+  }
+
+  public static void unregister(RpcService service) {
+    rpcService.compareAndSet(service, null);
+  }
+
+  /**
+   * Get the RPC service of the platform server running in this JVM.
+   *
+   * @return the RPC service. null if the platform server is not running in this JVM.
+   */
+  public static RpcService get() {
+    return rpcService.get();
+  }
+}
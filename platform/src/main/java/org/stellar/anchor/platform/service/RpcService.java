@@ -6,6 +6,7 @@ import static java.util.stream.Collectors.toMap;
 import static org.stellar.anchor.util.Log.debugF;
 import static org.stellar.anchor.util.Log.errorEx;
 
+import jakarta.annotation.PreDestroy;
 import java.util.List;
 import java.util.Map;
 import org.springframework.dao.OptimisticLockingFailureException;
@@ -85,6 +86,11 @@ public class RpcService {
         .collect(toList());
   }
 
+  @PreDestroy
+  public void close() {
+    InProcessRpcServices.unregister(this);
+  }
+
   private Object processRpcCall(RpcRequest rpcCall) throws AnchorException {
     debugF("Started processing of RPC request with method[{}]", rpcCall.getMethod());
     RpcMethodHandler<?> rpcMethodHandler =
@@ -0,0 +1,137 @@
+package org.stellar.anchor.platform.service;
+
+import com.google.gson.Gson;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import lombok.AllArgsConstructor;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.stellar.anchor.api.platform.GetTransactionResponse;
+import org.stellar.anchor.api.platform.PlatformTransactionData.Sep;
+import org.stellar.anchor.platform.data.JdbcSep24TransactionRepo;
+import org.stellar.anchor.platform.data.JdbcSep31TransactionRepo;
+import org.stellar.anchor.platform.data.JdbcSep6TransactionRepo;
+import org.stellar.anchor.platform.data.JdbcSepTransaction;
+import org.stellar.anchor.util.GsonUtils;
+
+/**
+ * Caches the GetTransactionResponse of the transactions, keyed by the transaction id and version.
+ * A cached response is returned only if the version of the transaction in the database is still
+ * the cached one.
+ *
+ * <p>Every hit still queries the version of the transaction, which is a single column read by the
+ * primary key. What the cache saves is loading the transaction row and mapping it again. The check
+ * is kept because the SEP servers and the other platform nodes write the same tables without
+ * going through this cache, so an entry cannot be trusted without it.
+ *
+ * <p>The responses are cached as JSON, so every caller gets its own copy of the response.
+ */
+public class TransactionResponseCache {
+  /** The number of transactions whose response is cached. */
+  static final int DEFAULT_CACHE_SIZE = 1000;
+
+  private static final Gson gson = GsonUtils.getInstance();
+
+  private final JdbcSep6TransactionRepo txn6Repo;
+  private final JdbcSep24TransactionRepo txn24Repo;
+  private final JdbcSep31TransactionRepo txn31Repo;
+  final Map<String, Entry> entries;
+
+  public TransactionResponseCache(
+      JdbcSep6TransactionRepo txn6Repo,
+      JdbcSep24TransactionRepo txn24Repo,
+      JdbcSep31TransactionRepo txn31Repo) {
+    this(txn6Repo, txn24Repo, txn31Repo, DEFAULT_CACHE_SIZE);
+  }
+
+  public TransactionResponseCache(
+      JdbcSep6TransactionRepo txn6Repo,
+      JdbcSep24TransactionRepo txn24Repo,
+      JdbcSep31TransactionRepo txn31Repo,
+      int cacheSize) {
+    this.txn6Repo = txn6Repo;
+    this.txn24Repo = txn24Repo;
+    this.txn31Repo = txn31Repo;
+    this.entries =
+        Collections.synchronizedMap(
+            new LinkedHashMap<>(16, 0.75f, true) {
+              @Override
+              protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > cacheSize;
+              }
+            });
+  }
+
+  /**
+   * Get the cached response of the transaction.
+   *
+   * @param txnId the transaction ID
+   * @return a copy of the response, or null if it is not cached or the transaction was updated
+   *     since
+   */
+  public GetTransactionResponse get(String txnId) {
+    Entry entry = entries.get(txnId);
+    if (entry == null) {
+      return null;
+    }
+    if (!Objects.equals(entry.version, findVersion(entry.sep, txnId))) {
+      entries.remove(txnId, entry);
+      return null;
+    }
+    return gson.fromJson(entry.json, GetTransactionResponse.class);
+  }
+
+  /**
+   * Cache the response of a transaction that was loaded or saved. If a database transaction is
+   * active, the response is cached once it commits, when the new version of the saved transaction
+   * is flushed. Nothing is cached if it rolls back.
+   *
+   * @param txn the transaction, or null if it was not saved
+   * @param response the response mapped from the transaction
+   */
+  public void put(JdbcSepTransaction txn, GetTransactionResponse response) {
+    if (txn == null || response.getSep() == null) {
+      return;
+    }
+    String json = gson.toJson(response);
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.registerSynchronization(
+          new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+              put(txn, response.getSep(), json);
+            }
+          });
+    } else {
+      put(txn, response.getSep(), json);
+    }
+  }
+
+  private void put(JdbcSepTransaction txn, Sep sep, String json) {
+    if (txn.getVersion() != null) {
+      entries.put(txn.getId(), new Entry(sep, txn.getVersion(), json));
+    }
+  }
+
+  private Integer findVersion(Sep sep, String txnId) {
+    switch (sep) {
+      case SEP_6:
+        return txn6Repo.findVersionById(txnId);
+      case SEP_24:
+        return txn24Repo.findVersionById(txnId);
+      case SEP_31:
+        return txn31Repo.findVersionById(txnId);
+      default:
+        return null;
+    }
+  }
+
+  @AllArgsConstructor
+  static class Entry {
+    final Sep sep;
+    final int version;
+    final String json;
+  }
+}
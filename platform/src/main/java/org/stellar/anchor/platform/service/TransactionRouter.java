@@ -0,0 +1,98 @@
+package org.stellar.anchor.platform.service;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import org.stellar.anchor.api.exception.AnchorException;
+import org.stellar.anchor.api.platform.PlatformTransactionData.Sep;
+import org.stellar.anchor.platform.data.JdbcSep24Transaction;
+import org.stellar.anchor.platform.data.JdbcSep31Transaction;
+import org.stellar.anchor.platform.data.JdbcSep6Transaction;
+import org.stellar.anchor.platform.data.JdbcSepTransaction;
+import org.stellar.anchor.platform.data.JdbcTransactionRoute;
+import org.stellar.anchor.platform.data.JdbcTransactionRouteRepo;
+import org.stellar.anchor.sep24.Sep24TransactionStore;
+import org.stellar.anchor.sep31.Sep31TransactionStore;
+import org.stellar.anchor.sep6.Sep6TransactionStore;
+
+/**
+ * Finds a transaction by its id in the table of its protocol. The protocol is read from the
+ * transaction route that the stores write when the transaction is created, so every lookup queries
+ * a single transaction table. The routes that were read are cached in process.
+ */
+public class TransactionRouter {
+  /** The number of transaction ids whose protocol is cached. */
+  static final int DEFAULT_CACHE_SIZE = 10000;
+
+  private final Sep6TransactionStore txn6Store;
+  private final Sep24TransactionStore txn24Store;
+  private final Sep31TransactionStore txn31Store;
+  private final JdbcTransactionRouteRepo routeRepo;
+  final Map<String, Sep> protocols;
+
+  public TransactionRouter(
+      Sep6TransactionStore txn6Store,
+      Sep24TransactionStore txn24Store,
+      Sep31TransactionStore txn31Store,
+      JdbcTransactionRouteRepo routeRepo) {
+    this(txn6Store, txn24Store, txn31Store, routeRepo, DEFAULT_CACHE_SIZE);
+  }
+
+  public TransactionRouter(
+      Sep6TransactionStore txn6Store,
+      Sep24TransactionStore txn24Store,
+      Sep31TransactionStore txn31Store,
+      JdbcTransactionRouteRepo routeRepo,
+      int cacheSize) {
+    this.txn6Store = txn6Store;
+    this.txn24Store = txn24Store;
+    this.txn31Store = txn31Store;
+    this.routeRepo = routeRepo;
+    this.protocols =
+        Collections.synchronizedMap(
+            new LinkedHashMap<>(16, 0.75f, true) {
+              @Override
+              protected boolean removeEldestEntry(Map.Entry<String, Sep> eldest) {
+                return size() > cacheSize;
+              }
+            });
+  }
+
+  /**
+   * Find the transaction by its id.
+   *
+   * @param txnId the transaction ID
+   * @return the transaction, or null if it is not found
+   * @throws AnchorException if the lookup fails
+   */
+  public JdbcSepTransaction findTransaction(String txnId) throws AnchorException {
+    Sep protocol = protocols.get(txnId);
+    if (protocol == null) {
+      protocol = routeRepo.findById(txnId).map(JdbcTransactionRoute::getSep).orElse(null);
+      if (protocol == null) {
+        return null;
+      }
+      protocols.put(txnId, protocol);
+    }
+
+    JdbcSepTransaction txn = findTransaction(protocol, txnId);
+    if (txn == null) {
+      // The transaction was removed since its route was read
+      protocols.remove(txnId);
+    }
+    return txn;
+  }
+
+  private JdbcSepTransaction findTransaction(Sep protocol, String txnId) throws AnchorException {
+    switch (protocol) {
+      case SEP_6:
+        return (JdbcSep6Transaction) txn6Store.findByTransactionId(txnId);
+      case SEP_24:
+        return (JdbcSep24Transaction) txn24Store.findByTransactionId(txnId);
+      case SEP_31:
+        return (JdbcSep31Transaction) txn31Store.findByTransactionId(txnId);
+      default:
+        return null;
+    }
+  }
+}
@@ -16,6 +16,7 @@ import static org.stellar.anchor.util.MetricConstants.*;
 import com.google.common.collect.ImmutableSet;
 import io.micrometer.core.instrument.Counter;
 import io.micrometer.core.instrument.Metrics;
+import jakarta.transaction.Transactional;
 import java.time.Instant;
 import java.util.Comparator;
 import java.util.LinkedList;
@@ -49,6 +50,7 @@ import org.stellar.anchor.platform.data.JdbcSep24Transaction;
 import org.stellar.anchor.platform.data.JdbcSep31Transaction;
 import org.stellar.anchor.platform.data.JdbcSep6Transaction;
 import org.stellar.anchor.platform.data.JdbcSepTransaction;
+import org.stellar.anchor.platform.data.TransactionsCursor;
 import org.stellar.anchor.platform.utils.AssetValidationUtils;
 import org.stellar.anchor.platform.utils.PlatformTransactionHelper;
 import org.stellar.anchor.sep24.Sep24DepositInfoGenerator;
@@ -60,7 +62,6 @@ import org.stellar.anchor.sep31.Sep31TransactionStore;
 import org.stellar.anchor.sep38.Sep38Quote;
 import org.stellar.anchor.sep38.Sep38QuoteStore;
 import org.stellar.anchor.sep6.Sep6DepositInfoGenerator;
-import org.stellar.anchor.sep6.Sep6Transaction;
 import org.stellar.anchor.sep6.Sep6TransactionStore;
 import org.stellar.anchor.util.*;
 import org.stellar.anchor.util.Log;
@@ -74,6 +75,8 @@ public class TransactionService {
   private final Sep6TransactionStore txn6Store;
   private final Sep24TransactionStore txn24Store;
   private final Sep31TransactionStore txn31Store;
+  private final TransactionRouter txnRouter;
+  private final TransactionResponseCache txnResponseCache;
 
   private final List<AssetInfo> assets;
   private final Session eventSession;
@@ -115,6 +118,8 @@ public class TransactionService {
       Sep6TransactionStore txn6Store,
       Sep24TransactionStore txn24Store,
       Sep31TransactionStore txn31Store,
+      TransactionRouter txnRouter,
+      TransactionResponseCache txnResponseCache,
       Sep38QuoteStore quoteStore,
       AssetService assetService,
       EventService eventService,
@@ -123,6 +128,8 @@ public class TransactionService {
     this.txn6Store = txn6Store;
     this.txn24Store = txn24Store;
     this.txn31Store = txn31Store;
+    this.txnRouter = txnRouter;
+    this.txnResponseCache = txnResponseCache;
     this.quoteStore = quoteStore;
     this.assets = assetService.getAssets();
     this.eventSession = eventService.createSession(this.getClass().getName(), TRANSACTION);
@@ -142,31 +149,45 @@ public class TransactionService {
       Log.info("Rejecting GET {platformApi}/transaction/:id because the id is empty.");
       throw new BadRequestException("transaction id cannot be empty");
     }
+    GetTransactionResponse cached = txnResponseCache.get(txnId);
+    if (cached != null) {
+      incrementFindTransactionCounter(cached.getSep().getSep().toString());
+      return cached;
+    }
     JdbcSepTransaction txn = queryTransactionById(txnId);
     if (txn != null) {
-      switch (txn.getProtocol()) {
-        case "6":
-          findSep6TransactionCounter.increment();
-          break;
-        case "24":
-          findSep24TransactionCounter.increment();
-          break;
-        case "31":
-          findSep31TransactionCounter.increment();
-          break;
-        default:
-          findUnknownTransactionCounter.increment();
-      }
+      incrementFindTransactionCounter(txn.getProtocol());
 
-      return PlatformTransactionHelper.toGetTransactionResponse(txn, assetService);
+      GetTransactionResponse response =
+          PlatformTransactionHelper.toGetTransactionResponse(txn, assetService);
+      txnResponseCache.put(txn, response);
+      return response;
     } else {
       throw new NotFoundException(String.format("transaction (id=%s) is not found", txnId));
     }
   }
 
+  private void incrementFindTransactionCounter(String protocol) {
+    switch (protocol) {
+      case "6":
+        findSep6TransactionCounter.increment();
+        break;
+      case "24":
+        findSep24TransactionCounter.increment();
+        break;
+      case "31":
+        findSep31TransactionCounter.increment();
+        break;
+      default:
+        findUnknownTransactionCounter.increment();
+    }
+  }
+
   public GetTransactionsResponse findTransactions(TransactionsSeps sep, TransactionsParams params)
       throws AnchorException {
     List<?> txn;
+    // Reject an invalid cursor before querying
+    TransactionsCursor.decode(params);
 
     switch (sep) {
       case SEP_6:
@@ -185,13 +206,20 @@ public class TransactionService {
         throw new BadRequestException("SEP not supported");
     }
 
-    return new GetTransactionsResponse(
-        txn.stream()
-            .map(
-                t ->
-                    PlatformTransactionHelper.toGetTransactionResponse(
-                        (JdbcSepTransaction) t, assetService))
-            .collect(Collectors.toList()));
+    GetTransactionsResponse response =
+        new GetTransactionsResponse(
+            txn.stream()
+                .map(
+                    t ->
+                        PlatformTransactionHelper.toGetTransactionResponse(
+                            (JdbcSepTransaction) t, assetService))
+                .collect(Collectors.toList()));
+    // A full page may be followed by another one
+    if (params.getPageSize() != null && !txn.isEmpty() && txn.size() >= params.getPageSize()) {
+      JdbcSepTransaction last = (JdbcSepTransaction) txn.get(txn.size() - 1);
+      response.setNextCursor(TransactionsCursor.after(params, last).encode());
+    }
+    return response;
   }
 
   /**
@@ -201,16 +229,7 @@ public class TransactionService {
    * @return an object of JdbcSepTransaction
    */
   JdbcSepTransaction queryTransactionById(String txnId) throws AnchorException {
-    Sep31Transaction txn31 = txn31Store.findByTransactionId(txnId);
-    if (txn31 != null) {
-      return (JdbcSep31Transaction) txn31;
-    }
-    Sep6Transaction txn6 = txn6Store.findByTransactionId(txnId);
-    if (txn6 != null) {
-      return (JdbcSep6Transaction) txn6;
-    }
-
-    return (JdbcSep24Transaction) txn24Store.findByTransactionId(txnId);
+    return txnRouter.findTransaction(txnId);
   }
 
   /**
@@ -220,6 +239,7 @@ public class TransactionService {
    * @return the response
    */
   @Deprecated
+  @Transactional(rollbackOn = {AnchorException.class, RuntimeException.class})
   public PatchTransactionsResponse patchTransactions(PatchTransactionsRequest request)
       throws AnchorException {
     List<PatchTransactionRequest> patchRequests = request.getRecords();
@@ -271,6 +291,7 @@ public class TransactionService {
           String.format("transaction(id=%s) not found", patch.getTransaction().getId()));
 
     updateSepTransaction(patch.getTransaction(), txn);
+    JdbcSepTransaction savedTxn = null;
     switch (txn.getProtocol()) {
       case "6":
         JdbcSep6Transaction sep6Transaction = (JdbcSep6Transaction) txn;
@@ -293,7 +314,7 @@ public class TransactionService {
           sep6Transaction.setFeeDetails(feeDetails);
         }
 
-        txn6Store.save(sep6Transaction);
+        savedTxn = (JdbcSep6Transaction) txn6Store.save(sep6Transaction);
         eventSession.publish(
             AnchorEvent.builder()
                 .id(UUID.randomUUID().toString())
@@ -311,7 +332,7 @@ public class TransactionService {
           sep24Txn.setFeeDetails(feeDetails);
         }
 
-        txn24Store.save(sep24Txn);
+        savedTxn = (JdbcSep24Transaction) txn24Store.save(sep24Txn);
         eventSession.publish(
             AnchorEvent.builder()
                 .id(UUID.randomUUID().toString())
@@ -328,7 +349,7 @@ public class TransactionService {
           sep31Txn.setFeeDetails(feeDetails);
         }
 
-        txn31Store.save(sep31Txn);
+        savedTxn = (JdbcSep31Transaction) txn31Store.save(sep31Txn);
         eventSession.publish(
             AnchorEvent.builder()
                 .id(UUID.randomUUID().toString())
@@ -340,7 +361,10 @@ public class TransactionService {
         break;
     }
 
-    return PlatformTransactionHelper.toGetTransactionResponse(txn, assetService);
+    GetTransactionResponse response =
+        PlatformTransactionHelper.toGetTransactionResponse(txn, assetService);
+    txnResponseCache.put(savedTxn, response);
+    return response;
   }
 
   @Deprecated
@@ -1,5 +1,6 @@
 package org.stellar.anchor.platform.utils;
 
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ThreadFactory;
@@ -10,4 +11,8 @@ public class DaemonExecutors {
   public static ScheduledExecutorService newScheduledThreadPool(int threadCount) {
     return Executors.newScheduledThreadPool(threadCount, daemonThreadFactory);
   }
+
+  public static ExecutorService newFixedThreadPool(int threadCount) {
+    return Executors.newFixedThreadPool(threadCount, daemonThreadFactory);
+  }
 }
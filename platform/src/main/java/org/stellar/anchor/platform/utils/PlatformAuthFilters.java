@@ -0,0 +1,34 @@
+package org.stellar.anchor.platform.utils;
+
+import jakarta.servlet.Filter;
+import org.stellar.anchor.auth.JwtService;
+import org.stellar.anchor.filter.ApiKeyFilter;
+import org.stellar.anchor.filter.NoneFilter;
+import org.stellar.anchor.filter.PlatformAuthJwtFilter;
+import org.stellar.anchor.platform.config.PlatformApiConfig;
+import org.stellar.anchor.platform.config.PlatformServerConfig;
+
+public class PlatformAuthFilters {
+  /**
+   * Create the filter that authenticates the anchor-to-platform requests with the authentication
+   * type of the Platform API.
+   *
+   * @param serverConfig the platform server config holding the auth secret
+   * @param apiConfig the Platform API config
+   * @return the filter
+   */
+  public static Filter create(PlatformServerConfig serverConfig, PlatformApiConfig apiConfig) {
+    String authSecret = serverConfig.getSecretConfig().getPlatformAuthSecret();
+    switch (apiConfig.getAuth().getType()) {
+      case JWT:
+        JwtService jwtService = JwtService.builder().platformAuthSecret(authSecret).build();
+        return new PlatformAuthJwtFilter(jwtService, apiConfig.getAuth().getJwt().getHttpHeader());
+
+      case API_KEY:
+        return new ApiKeyFilter(authSecret, apiConfig.getAuth().getApiKey().getHttpHeader());
+
+      default:
+        return new NoneFilter();
+    }
+  }
+}
@@ -0,0 +1,3 @@
+CREATE INDEX idx_sep31_transaction_to_account_memo_status ON sep31_transaction (to_account, stellar_memo, status);
+CREATE INDEX idx_sep24_transaction_withdraw_account_memo_status ON sep24_transaction (withdraw_anchor_account, memo, status);
+CREATE INDEX idx_sep6_transaction_withdraw_account_memo_status ON sep6_transaction (withdraw_anchor_account, memo, status);
@@ -0,0 +1,13 @@
+CREATE TABLE client_callback_dead_letter (
+    id VARCHAR(36) NOT NULL,
+    client_name VARCHAR(255),
+    event_id VARCHAR(255),
+    transaction_id VARCHAR(255),
+    event_json TEXT,
+    last_error TEXT,
+    attempts INTEGER,
+    created_at TIMESTAMP WITHOUT TIME ZONE,
+    CONSTRAINT pk_client_callback_dead_letter PRIMARY KEY (id)
+);
+
+CREATE INDEX idx_client_callback_dead_letter_client_name ON client_callback_dead_letter (client_name, created_at);
@@ -0,0 +1,10 @@
+CREATE TABLE event_outbox (
+    id VARCHAR(36) NOT NULL,
+    event_queue VARCHAR(32),
+    event_id VARCHAR(255),
+    event_json TEXT,
+    created_at TIMESTAMP WITHOUT TIME ZONE,
+    CONSTRAINT pk_event_outbox PRIMARY KEY (id)
+);
+
+CREATE INDEX idx_event_outbox_created_at ON event_outbox (created_at, id);
@@ -0,0 +1,9 @@
+CREATE INDEX idx_sep6_transaction_started_at_id ON sep6_transaction (started_at, id);
+CREATE INDEX idx_sep6_transaction_transfer_received_at_id ON sep6_transaction (transfer_received_at, id);
+CREATE INDEX idx_sep6_transaction_user_action_required_by_id ON sep6_transaction (user_action_required_by, id);
+CREATE INDEX idx_sep24_transaction_started_at_id ON sep24_transaction (started_at, id);
+CREATE INDEX idx_sep24_transaction_transfer_received_at_id ON sep24_transaction (transfer_received_at, id);
+CREATE INDEX idx_sep24_transaction_user_action_required_by_id ON sep24_transaction (user_action_required_by, id);
+CREATE INDEX idx_sep31_transaction_started_at_id ON sep31_transaction (started_at, id);
+CREATE INDEX idx_sep31_transaction_transfer_received_at_id ON sep31_transaction (transfer_received_at, id);
+CREATE INDEX idx_sep31_transaction_user_action_required_by_id ON sep31_transaction (user_action_required_by, id);
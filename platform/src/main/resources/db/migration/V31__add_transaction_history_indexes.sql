@@ -0,0 +1,4 @@
+CREATE INDEX idx_sep6_transaction_account_asset_started_at ON sep6_transaction (web_auth_account, request_asset_code, started_at);
+CREATE INDEX idx_sep6_transaction_account_memo_asset_started_at ON sep6_transaction (web_auth_account, web_auth_account_memo, request_asset_code, started_at);
+CREATE INDEX idx_sep24_transaction_account_asset_started_at ON sep24_transaction (web_auth_account, request_asset_code, started_at);
+CREATE INDEX idx_sep24_transaction_account_memo_asset_started_at ON sep24_transaction (web_auth_account, web_auth_account_memo, request_asset_code, started_at);
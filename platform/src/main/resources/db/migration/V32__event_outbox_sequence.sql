@@ -0,0 +1,4 @@
+ALTER TABLE event_outbox ADD COLUMN seq BIGSERIAL;
+
+DROP INDEX idx_event_outbox_created_at;
+CREATE INDEX idx_event_outbox_seq ON event_outbox (seq);
@@ -0,0 +1,17 @@
+CREATE TABLE transaction_route (
+    id VARCHAR(255) NOT NULL,
+    sep VARCHAR(16) NOT NULL,
+    CONSTRAINT pk_transaction_route PRIMARY KEY (id)
+);
+
+INSERT INTO transaction_route (id, sep)
+SELECT id, 'SEP_6' FROM sep6_transaction
+ON CONFLICT DO NOTHING;
+
+INSERT INTO transaction_route (id, sep)
+SELECT transaction_id, 'SEP_24' FROM sep24_transaction WHERE transaction_id IS NOT NULL
+ON CONFLICT DO NOTHING;
+
+INSERT INTO transaction_route (id, sep)
+SELECT id, 'SEP_31' FROM sep31_transaction
+ON CONFLICT DO NOTHING;
@@ -0,0 +1 @@
+ALTER TABLE client_callback_dead_letter ADD COLUMN replay_started_at TIMESTAMP WITHOUT TIME ZONE;
@@ -42,6 +42,47 @@ class PropertyQueueConfigTest {
     assertErrorCode(errors, "queue-type-empty")
   }
 
+  @Test
+  fun `test outbox requires its batch size and the Kafka configuration`() {
+    configs.type = QueueType.OUTBOX
+    configs.outbox = OutboxConfig(0, 500, 30000)
+    configs.kafka.bootstrapServer = null
+    configs.validate(configs, errors)
+
+    assertErrorCode(errors, "outbox-batch-size-invalid")
+    assertErrorCode(errors, "kafka-bootstrap-server-empty")
+  }
+
+  @Test
+  fun `test valid outbox`() {
+    configs.type = QueueType.OUTBOX
+    configs.outbox = OutboxConfig()
+    configs.validate(configs, errors)
+
+    Assertions.assertEquals(0, errors.errorCount)
+  }
+
+  @Test
+  fun `test memory requires a positive capacity and read batch size`() {
+    configs.type = QueueType.MEMORY
+    configs.memory = MemoryQueueConfig(0, 0, 1000, 10000)
+    configs.validate(configs, errors)
+
+    Assertions.assertEquals(2, errors.errorCount)
+    assertErrorCode(errors, "memory-capacity-invalid")
+    assertErrorCode(errors, "memory-read-batch-size-invalid")
+  }
+
+  @Test
+  fun `test valid memory without Kafka`() {
+    configs.type = QueueType.MEMORY
+    configs.memory = MemoryQueueConfig()
+    configs.kafka = null
+    configs.validate(configs, errors)
+
+    Assertions.assertEquals(0, errors.errorCount)
+  }
+
   @ParameterizedTest
   @ValueSource(strings = [""])
   @NullSource
@@ -0,0 +1,185 @@
+package org.stellar.anchor.platform.data
+
+import io.mockk.*
+import io.mockk.impl.annotations.MockK
+import jakarta.persistence.EntityManager
+import jakarta.persistence.Query
+import java.time.Instant
+import org.junit.jupiter.api.AfterEach
+import org.junit.jupiter.api.Assertions.*
+import org.junit.jupiter.api.BeforeEach
+import org.junit.jupiter.api.Test
+import org.junit.jupiter.api.assertThrows
+import org.springframework.data.domain.Sort
+import org.springframework.data.jpa.repository.support.JpaEntityInformation
+import org.springframework.data.jpa.repository.support.JpaEntityInformationSupport
+import org.stellar.anchor.api.exception.BadRequestException
+import org.stellar.anchor.api.platform.TransactionsOrderBy.CREATED_AT
+import org.stellar.anchor.api.platform.TransactionsOrderBy.TRANSFER_RECEIVED_AT
+import org.stellar.anchor.api.sep.SepTransactionStatus.COMPLETED
+import org.stellar.anchor.util.TransactionsParams
+
+class AllTransactionsRepositoryImplTest {
+  @MockK(relaxed = true) private lateinit var em: EntityManager
+  private lateinit var repo: AllTransactionsRepositoryImpl<JdbcSep24Transaction>
+  private val queries = mutableListOf<Pair<String, Query>>()
+
+  @BeforeEach
+  fun setup() {
+    MockKAnnotations.init(this)
+    val entityInformation = mockk<JpaEntityInformation<JdbcSep24Transaction, *>>()
+    every { entityInformation.javaType } returns JdbcSep24Transaction::class.java
+    mockkStatic(JpaEntityInformationSupport::class)
+    every {
+      JpaEntityInformationSupport.getEntityInformation(JdbcSep24Transaction::class.java, em)
+    } returns entityInformation
+    every { em.createNativeQuery(any<String>(), JdbcSep24Transaction::class.java) } answers
+      {
+        val query = mockk<Query>(relaxed = true)
+        queries.add(Pair(firstArg(), query))
+        query
+      }
+    repo = AllTransactionsRepositoryImpl(em)
+  }
+
+  @AfterEach
+  fun tearDown() {
+    unmockkStatic(JpaEntityInformationSupport::class)
+  }
+
+  @Test
+  fun `test the page number is skipped with an offset`() {
+    repo.findAllTransactions(
+      TransactionsParams(CREATED_AT, Sort.Direction.DESC, listOf(COMPLETED), 3, 20),
+      JdbcSep24Transaction::class.java
+    )
+
+    val (sql, query) = queries.single()
+    assertEquals(
+      "SELECT * FROM sep24_transaction t WHERE t.status IN (:statuses)" +
+        " ORDER BY t.started_at DESC NULLS LAST, t.id ASC",
+      sql
+    )
+    verify { query.setParameter("statuses", listOf("completed")) }
+    verify { query.setMaxResults(20) }
+    verify { query.setFirstResult(60) }
+  }
+
+  @Test
+  fun `test the page following the cursor is selected by a keyset condition`() {
+    val startedAt = Instant.parse("2024-01-01T00:00:00.123456Z")
+    val cursor = TransactionsCursor(CREATED_AT, Sort.Direction.ASC, startedAt, "txn-1").encode()
+    val page = (1..20).map { JdbcSep24Transaction() }
+    every { em.createNativeQuery(any<String>(), JdbcSep24Transaction::class.java) } answers
+      {
+        val query = mockk<Query>(relaxed = true)
+        every { query.resultList } returns page
+        queries.add(Pair(firstArg(), query))
+        query
+      }
+
+    val results =
+      repo.findAllTransactions(
+        TransactionsParams(CREATED_AT, Sort.Direction.ASC, null, 500, 20, cursor),
+        JdbcSep24Transaction::class.java
+      )
+
+    assertEquals(20, results.size)
+    // The page is full, so the null values are not queried
+    val (sql, query) = queries.single()
+    assertEquals(
+      "SELECT * FROM sep24_transaction t WHERE (t.started_at, t.id) > (:cursorValue, :cursorId)" +
+        " ORDER BY t.started_at ASC, t.id ASC",
+      sql
+    )
+    verify { query.setParameter("cursorValue", startedAt) }
+    verify { query.setParameter("cursorId", "txn-1") }
+    verify(exactly = 0) { query.setFirstResult(any()) }
+  }
+
+  @Test
+  fun `test the null values follow the last non-null value`() {
+    val cursor =
+      TransactionsCursor(TRANSFER_RECEIVED_AT, Sort.Direction.DESC, Instant.now(), "txn-1").encode()
+    val nonNull = (1..5).map { JdbcSep24Transaction() }
+    val nulls = (1..15).map { JdbcSep24Transaction() }
+    every { em.createNativeQuery(any<String>(), JdbcSep24Transaction::class.java) } answers
+      {
+        val query = mockk<Query>(relaxed = true)
+        every { query.resultList } returns (if (queries.isEmpty()) nonNull else nulls)
+        queries.add(Pair(firstArg(), query))
+        query
+      }
+
+    val results =
+      repo.findAllTransactions(
+        TransactionsParams(TRANSFER_RECEIVED_AT, Sort.Direction.DESC, null, 0, 20, cursor),
+        JdbcSep24Transaction::class.java
+      )
+
+    assertEquals(nonNull + nulls, results)
+    assertEquals(2, queries.size)
+    assertEquals(
+      "SELECT * FROM sep24_transaction t WHERE t.transfer_received_at <= :cursorValue" +
+        " AND (t.transfer_received_at < :cursorValue OR t.id > :cursorId)" +
+        " ORDER BY t.transfer_received_at DESC, t.id ASC",
+      queries[0].first
+    )
+    assertEquals(
+      "SELECT * FROM sep24_transaction t WHERE t.transfer_received_at IS NULL ORDER BY t.id ASC",
+      queries[1].first
+    )
+    verify { queries[1].second.setMaxResults(15) }
+  }
+
+  @Test
+  fun `test the cursor of a null value continues the null values after its id`() {
+    val cursor =
+      TransactionsCursor(TRANSFER_RECEIVED_AT, Sort.Direction.ASC, null, "txn-1").encode()
+    val params =
+      TransactionsParams(TRANSFER_RECEIVED_AT, Sort.Direction.ASC, listOf(COMPLETED), 0, 20, cursor)
+
+    repo.findAllTransactions(params, JdbcSep24Transaction::class.java)
+
+    val (sql, query) = queries.single()
+    assertEquals(
+      "SELECT * FROM sep24_transaction t WHERE t.transfer_received_at IS NULL" +
+        " AND t.id > :cursorId AND t.status IN (:statuses) ORDER BY t.id ASC",
+      sql
+    )
+    verify { query.setParameter("cursorId", "txn-1") }
+  }
+
+  @Test
+  fun `test the cursor round trip`() {
+    val cursor =
+      TransactionsCursor(
+        CREATED_AT,
+        Sort.Direction.ASC,
+        Instant.parse("2024-01-01T00:00:00.123456Z"),
+        "a,b"
+      )
+    val params = TransactionsParams(CREATED_AT, Sort.Direction.ASC, null, 0, 20, cursor.encode())
+
+    assertEquals(cursor, TransactionsCursor.decode(params))
+  }
+
+  @Test
+  fun `test an invalid cursor or a cursor of another order is rejected`() {
+    val cursor = TransactionsCursor(CREATED_AT, Sort.Direction.ASC, null, "txn-1").encode()
+
+    assertThrows<BadRequestException> {
+      TransactionsCursor.decode(
+        TransactionsParams(CREATED_AT, Sort.Direction.DESC, null, 0, 20, cursor)
+      )
+    }
+    assertThrows<BadRequestException> {
+      TransactionsCursor.decode(
+        TransactionsParams(CREATED_AT, Sort.Direction.ASC, null, 0, 20, "not a cursor")
+      )
+    }
+    assertNull(
+      TransactionsCursor.decode(TransactionsParams(CREATED_AT, Sort.Direction.ASC, null, 0, 20))
+    )
+  }
+}
@@ -0,0 +1,107 @@
+package org.stellar.anchor.platform.data
+
+import io.mockk.MockKAnnotations
+import io.mockk.every
+import io.mockk.impl.annotations.MockK
+import io.mockk.mockk
+import io.mockk.slot
+import io.mockk.verify
+import jakarta.persistence.EntityManager
+import jakarta.persistence.Query
+import jakarta.persistence.TypedQuery
+import jakarta.persistence.metamodel.EntityType
+import org.junit.jupiter.api.Assertions.assertEquals
+import org.junit.jupiter.api.Assertions.assertTrue
+import org.junit.jupiter.api.BeforeEach
+import org.junit.jupiter.api.Test
+import org.stellar.anchor.platform.data.JdbcPendingTransactionMatcher.Candidate
+
+class JdbcPendingTransactionMatcherTest {
+  @MockK(relaxed = true) private lateinit var em: EntityManager
+  @MockK(relaxed = true) private lateinit var query: Query
+
+  private lateinit var matcher: JdbcPendingTransactionMatcher
+
+  @BeforeEach
+  fun setUp() {
+    MockKAnnotations.init(this, relaxUnitFun = true)
+    every { em.createNativeQuery(any<String>()) } returns query
+    matcher = JdbcPendingTransactionMatcher(em)
+  }
+
+  @Test
+  fun `test all candidates are resolved by a single query`() {
+    val sql = slot<String>()
+    every { em.createNativeQuery(capture(sql)) } returns query
+    every { query.resultList } returns
+      listOf(arrayOf<Any>("sep24-id", 1), arrayOf<Any>("sep6-id", 2))
+    val sep24Txn = JdbcSep24Transaction().apply { id = "sep24-id" }
+    val sep6Txn = JdbcSep6Transaction().apply { id = "sep6-id" }
+    stubFindAll(JdbcSep24Transaction::class.java, listOf(sep24Txn))
+    stubFindAll(JdbcSep6Transaction::class.java, listOf(sep6Txn))
+
+    val result =
+      matcher.findPendingTransactions(
+        listOf(Candidate("GACCOUNT", "memo")),
+        listOf(Candidate("GACCOUNT", null))
+      )
+
+    verify(exactly = 1) { em.createNativeQuery(any<String>()) }
+    verify(exactly = 0) { em.find(any<Class<*>>(), any()) }
+    assertEquals(listOf(sep24Txn, sep6Txn), result)
+    assertEquals(2, sql.captured.split(" UNION ALL ").size - 1)
+    assertTrue(sql.captured.contains("FROM sep31_transaction WHERE to_account = :account0"))
+    assertTrue(sql.captured.contains("stellar_memo = :memo0"))
+    assertTrue(sql.captured.contains("FROM sep24_transaction WHERE withdraw_anchor_account"))
+    assertTrue(sql.captured.contains("memo IS NULL"))
+    assertTrue(sql.captured.endsWith("ORDER BY priority ASC"))
+
+    verify { query.setParameter("account0", "GACCOUNT") }
+    verify { query.setParameter("memo0", "memo") }
+    verify { query.setParameter("status0", "pending_sender") }
+    verify { query.setParameter("status1", "pending_user_transfer_start") }
+    verify(exactly = 0) { query.setParameter("memo1", any()) }
+  }
+
+  @Test
+  fun `test the matched transactions of a table are loaded by a single query`() {
+    every { query.resultList } returns
+      listOf(arrayOf<Any>("id-2", 0), arrayOf<Any>("id-1", 1), arrayOf<Any>("removed", 1))
+    val txn1 = JdbcSep31Transaction().apply { id = "id-1" }
+    val txn2 = JdbcSep31Transaction().apply { id = "id-2" }
+    val typedQuery = stubFindAll(JdbcSep31Transaction::class.java, listOf(txn1, txn2))
+
+    val result =
+      matcher.findPendingTransactions(
+        listOf(Candidate("GACCOUNT", "memo-1"), Candidate("GACCOUNT", "memo-2")),
+        listOf()
+      )
+
+    // The transactions are returned in the order of the candidates
+    assertEquals(listOf(txn2, txn1), result)
+    verify(exactly = 1) {
+      em.createQuery("SELECT t FROM JdbcSep31Transaction t WHERE t.id IN :ids", any<Class<*>>())
+    }
+    verify(exactly = 1) { typedQuery.setParameter("ids", listOf("id-2", "id-1", "removed")) }
+  }
+
+  @Test
+  fun `test no candidates does not query the database`() {
+    assertEquals(listOf<JdbcSepTransaction>(), matcher.findPendingTransactions(listOf(), listOf()))
+    verify(exactly = 0) { em.createNativeQuery(any<String>()) }
+  }
+
+  private fun <T : JdbcSepTransaction> stubFindAll(
+    entityClass: Class<T>,
+    txns: List<T>
+  ): TypedQuery<T> {
+    val entityType = mockk<EntityType<T>>()
+    every { entityType.name } returns entityClass.simpleName
+    every { em.metamodel.entity(entityClass) } returns entityType
+    val typedQuery = mockk<TypedQuery<T>>(relaxed = true)
+    every { typedQuery.setParameter(any<String>(), any()) } returns typedQuery
+    every { typedQuery.resultList } returns txns
+    every { em.createQuery(any<String>(), entityClass) } returns typedQuery
+    return typedQuery
+  }
+}
@@ -18,21 +18,23 @@ import org.stellar.anchor.util.TransactionQueryLimits
 class JdbcSep24TransactionStoreTest {
 
   @MockK(relaxed = true) private lateinit var txnRepo: JdbcSep24TransactionRepo
+  @MockK(relaxed = true) private lateinit var routeRepo: JdbcTransactionRouteRepo
 
   private lateinit var store: JdbcSep24TransactionStore
 
   @BeforeEach
   fun setUp() {
     MockKAnnotations.init(this, relaxUnitFun = true)
-    store = JdbcSep24TransactionStore(txnRepo)
+    store = JdbcSep24TransactionStore(txnRepo, routeRepo)
   }
 
   @Test
   fun `findTransactions uses database-level pagination with default limit`() {
     val request = GetTransactionsRequest.of("USDC", null, null, null, null, null)
 
-    every { txnRepo.findTransactionsWithFilters(any(), any(), any(), any(), any(), any()) } returns
-      emptyList()
+    every {
+      txnRepo.findTransactionsWithFilters(any(), any(), any(), any(), any(), any(), any())
+    } returns emptyList()
 
     store.findTransactions("GACCOUNT", null, request)
 
@@ -44,6 +46,7 @@ class JdbcSep24TransactionStoreTest {
         isNull(),
         any(),
         any(),
+        any(),
         capture(pageableSlot)
       )
     }
@@ -55,14 +58,23 @@ class JdbcSep24TransactionStoreTest {
   fun `findTransactions respects provided limit`() {
     val request = GetTransactionsRequest.of("USDC", null, 50, null, null, null)
 
-    every { txnRepo.findTransactionsWithFilters(any(), any(), any(), any(), any(), any()) } returns
-      emptyList()
+    every {
+      txnRepo.findTransactionsWithFilters(any(), any(), any(), any(), any(), any(), any())
+    } returns emptyList()
 
     store.findTransactions("GACCOUNT", null, request)
 
     val pageableSlot = slot<Pageable>()
     verify {
-      txnRepo.findTransactionsWithFilters(any(), any(), any(), any(), any(), capture(pageableSlot))
+      txnRepo.findTransactionsWithFilters(
+        any(),
+        any(),
+        any(),
+        any(),
+        any(),
+        any(),
+        capture(pageableSlot)
+      )
     }
     assertEquals(50, pageableSlot.captured.pageSize)
   }
@@ -71,14 +83,23 @@ class JdbcSep24TransactionStoreTest {
   fun `findTransactions caps limit at MAX_LIMIT`() {
     val request = GetTransactionsRequest.of("USDC", null, 50000, null, null, null)
 
-    every { txnRepo.findTransactionsWithFilters(any(), any(), any(), any(), any(), any()) } returns
-      emptyList()
+    every {
+      txnRepo.findTransactionsWithFilters(any(), any(), any(), any(), any(), any(), any())
+    } returns emptyList()
 
     store.findTransactions("GACCOUNT", null, request)
 
     val pageableSlot = slot<Pageable>()
     verify {
-      txnRepo.findTransactionsWithFilters(any(), any(), any(), any(), any(), capture(pageableSlot))
+      txnRepo.findTransactionsWithFilters(
+        any(),
+        any(),
+        any(),
+        any(),
+        any(),
+        any(),
+        capture(pageableSlot)
+      )
     }
     assertEquals(TransactionQueryLimits.MAX_LIMIT, pageableSlot.captured.pageSize)
   }
@@ -87,8 +108,9 @@ class JdbcSep24TransactionStoreTest {
   fun `findTransactions passes kind filter to query`() {
     val request = GetTransactionsRequest.of("USDC", "deposit", 10, null, null, null)
 
-    every { txnRepo.findTransactionsWithFilters(any(), any(), any(), any(), any(), any()) } returns
-      emptyList()
+    every {
+      txnRepo.findTransactionsWithFilters(any(), any(), any(), any(), any(), any(), any())
+    } returns emptyList()
 
     store.findTransactions("GACCOUNT", null, request)
 
@@ -99,6 +121,7 @@ class JdbcSep24TransactionStoreTest {
         eq("deposit"),
         any(),
         any(),
+        any(),
         any()
       )
     }
@@ -108,8 +131,9 @@ class JdbcSep24TransactionStoreTest {
   fun `findTransactions passes date filters to query`() {
     val request = GetTransactionsRequest.of("USDC", null, 10, "2024-01-01T00:00:00Z", null, null)
 
-    every { txnRepo.findTransactionsWithFilters(any(), any(), any(), any(), any(), any()) } returns
-      emptyList()
+    every {
+      txnRepo.findTransactionsWithFilters(any(), any(), any(), any(), any(), any(), any())
+    } returns emptyList()
 
     store.findTransactions("GACCOUNT", null, request)
 
@@ -121,6 +145,7 @@ class JdbcSep24TransactionStoreTest {
         any(),
         capture(noOlderThanSlot),
         any(),
+        any(),
         any()
       )
     }
@@ -132,7 +157,17 @@ class JdbcSep24TransactionStoreTest {
     val request = GetTransactionsRequest.of("USDC", null, 10, null, null, null)
 
     every {
-      txnRepo.findTransactionsWithMemoAndFilters(any(), any(), any(), any(), any(), any(), any())
+      txnRepo.findTransactionsWithMemoAndFilters(
+        any(),
+        any(),
+        any(),
+        any(),
+        any(),
+        any(),
+        any(),
+        any(),
+        any()
+      )
     } returns listOf(JdbcSep24Transaction())
 
     store.findTransactions("GACCOUNT", "12345", request)
@@ -141,71 +176,91 @@ class JdbcSep24TransactionStoreTest {
       txnRepo.findTransactionsWithMemoAndFilters(
         eq("GACCOUNT"),
         eq("12345"),
+        any(),
         eq("USDC"),
         any(),
         any(),
         any(),
+        any(),
         any()
       )
     }
   }
 
   @Test
-  fun `findTransactions with accountMemo falls back to legacy format when empty`() {
+  fun `findTransactions with accountMemo includes the legacy account in the same query`() {
     val request = GetTransactionsRequest.of("USDC", null, 10, null, null, null)
 
     every {
-      txnRepo.findTransactionsWithMemoAndFilters(any(), any(), any(), any(), any(), any(), any())
+      txnRepo.findTransactionsWithMemoAndFilters(
+        any(),
+        any(),
+        any(),
+        any(),
+        any(),
+        any(),
+        any(),
+        any(),
+        any()
+      )
     } returns emptyList()
 
-    every { txnRepo.findTransactionsWithFilters(any(), any(), any(), any(), any(), any()) } returns
-      emptyList()
-
     store.findTransactions("GACCOUNT", "12345", request)
 
-    // First tries with memo
-    verify {
+    // The legacy account:memo format is matched by the memo query instead of a second query
+    verify(exactly = 1) {
       txnRepo.findTransactionsWithMemoAndFilters(
         eq("GACCOUNT"),
         eq("12345"),
+        eq("GACCOUNT:12345"),
         eq("USDC"),
         any(),
         any(),
         any(),
+        any(),
         any()
       )
     }
-    // Falls back to legacy account:memo format
+    verify(exactly = 0) {
+      txnRepo.findTransactionsWithFilters(any(), any(), any(), any(), any(), any(), any())
+    }
+  }
+
+  @Test
+  fun `findTransactions with paging_id passes it to the query`() {
+    every {
+      txnRepo.findTransactionsWithFilters(any(), any(), any(), any(), any(), any(), any())
+    } returns listOf(JdbcSep24Transaction())
+
+    val request = GetTransactionsRequest.of("USDC", null, 10, null, "paging-txn-id", null)
+    store.findTransactions("GACCOUNT", null, request)
+
+    // The started_at of the paging transaction is resolved by the query itself
     verify {
       txnRepo.findTransactionsWithFilters(
-        eq("GACCOUNT:12345"),
-        eq("USDC"),
         any(),
         any(),
         any(),
+        any(),
+        isNull(),
+        eq("paging-txn-id"),
         any()
       )
     }
+    verify(exactly = 0) { txnRepo.findOneByTransactionId(any()) }
+    verify(exactly = 0) { txnRepo.existsById(any()) }
   }
 
   @Test
-  fun `findTransactions with paging_id resolves olderThan from transaction`() {
-    val pagingTxn = JdbcSep24Transaction()
-    val pagingTime = Instant.parse("2024-06-15T12:00:00Z")
-    pagingTxn.startedAt = pagingTime
-
-    every { txnRepo.findOneByTransactionId("paging-txn-id") } returns pagingTxn
-    every { txnRepo.findTransactionsWithFilters(any(), any(), any(), any(), any(), any()) } returns
-      emptyList()
+  fun `findTransactions with invalid paging_id throws SepValidationException`() {
+    every {
+      txnRepo.findTransactionsWithFilters(any(), any(), any(), any(), any(), any(), any())
+    } returns emptyList()
+    every { txnRepo.existsById("bad-id") } returns false
 
-    val request = GetTransactionsRequest.of("USDC", null, 10, null, "paging-txn-id", null)
-    store.findTransactions("GACCOUNT", null, request)
+    val request = GetTransactionsRequest.of("USDC", null, 10, null, "bad-id", null)
 
-    val olderThanSlot = slot<Instant>()
-    verify {
-      txnRepo.findTransactionsWithFilters(any(), any(), any(), any(), capture(olderThanSlot), any())
-    }
-    assertEquals(pagingTime, olderThanSlot.captured)
+    assertThrows<SepValidationException> { store.findTransactions("GACCOUNT", null, request) }
   }
 
   @Test
@@ -219,14 +274,23 @@ class JdbcSep24TransactionStoreTest {
   fun `findTransactions with zero or negative limit uses default`() {
     val request = GetTransactionsRequest.of("USDC", null, 0, null, null, null)
 
-    every { txnRepo.findTransactionsWithFilters(any(), any(), any(), any(), any(), any()) } returns
-      emptyList()
+    every {
+      txnRepo.findTransactionsWithFilters(any(), any(), any(), any(), any(), any(), any())
+    } returns emptyList()
 
     store.findTransactions("GACCOUNT", null, request)
 
     val pageableSlot = slot<Pageable>()
     verify {
-      txnRepo.findTransactionsWithFilters(any(), any(), any(), any(), any(), capture(pageableSlot))
+      txnRepo.findTransactionsWithFilters(
+        any(),
+        any(),
+        any(),
+        any(),
+        any(),
+        any(),
+        capture(pageableSlot)
+      )
     }
     assertEquals(TransactionQueryLimits.DEFAULT_LIMIT, pageableSlot.captured.pageSize)
   }
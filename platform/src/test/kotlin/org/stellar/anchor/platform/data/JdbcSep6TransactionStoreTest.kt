@@ -5,34 +5,36 @@ import io.mockk.every
 import io.mockk.impl.annotations.MockK
 import io.mockk.slot
 import io.mockk.verify
-import java.time.Instant
 import org.junit.jupiter.api.Assertions.*
 import org.junit.jupiter.api.BeforeEach
 import org.junit.jupiter.api.Test
 import org.junit.jupiter.api.assertThrows
 import org.springframework.data.domain.Pageable
 import org.stellar.anchor.api.exception.SepValidationException
+import org.stellar.anchor.api.platform.PlatformTransactionData.Sep
 import org.stellar.anchor.api.sep.sep6.GetTransactionsRequest
 import org.stellar.anchor.util.TransactionQueryLimits
 
 class JdbcSep6TransactionStoreTest {
 
   @MockK(relaxed = true) private lateinit var txnRepo: JdbcSep6TransactionRepo
+  @MockK(relaxed = true) private lateinit var routeRepo: JdbcTransactionRouteRepo
 
   private lateinit var store: JdbcSep6TransactionStore
 
   @BeforeEach
   fun setUp() {
     MockKAnnotations.init(this, relaxUnitFun = true)
-    store = JdbcSep6TransactionStore(txnRepo)
+    store = JdbcSep6TransactionStore(txnRepo, routeRepo)
   }
 
   @Test
   fun `findTransactions uses database-level pagination with default limit`() {
     val request = GetTransactionsRequest.builder().assetCode("USDC").build()
 
-    every { txnRepo.findTransactionsWithFilters(any(), any(), any(), any(), any(), any()) } returns
-      emptyList()
+    every {
+      txnRepo.findTransactionsWithFilters(any(), any(), any(), any(), any(), any(), any())
+    } returns emptyList()
 
     store.findTransactions("GACCOUNT", null, request)
 
@@ -44,6 +46,7 @@ class JdbcSep6TransactionStoreTest {
         isNull(),
         any(),
         any(),
+        any(),
         capture(pageableSlot)
       )
     }
@@ -55,14 +58,23 @@ class JdbcSep6TransactionStoreTest {
   fun `findTransactions with zero or negative limit uses default`() {
     val request = GetTransactionsRequest.builder().assetCode("USDC").limit(0).build()
 
-    every { txnRepo.findTransactionsWithFilters(any(), any(), any(), any(), any(), any()) } returns
-      emptyList()
+    every {
+      txnRepo.findTransactionsWithFilters(any(), any(), any(), any(), any(), any(), any())
+    } returns emptyList()
 
     store.findTransactions("GACCOUNT", null, request)
 
     val pageableSlot = slot<Pageable>()
     verify {
-      txnRepo.findTransactionsWithFilters(any(), any(), any(), any(), any(), capture(pageableSlot))
+      txnRepo.findTransactionsWithFilters(
+        any(),
+        any(),
+        any(),
+        any(),
+        any(),
+        any(),
+        capture(pageableSlot)
+      )
     }
     assertEquals(TransactionQueryLimits.DEFAULT_LIMIT, pageableSlot.captured.pageSize)
   }
@@ -71,14 +83,23 @@ class JdbcSep6TransactionStoreTest {
   fun `findTransactions caps limit at MAX_LIMIT`() {
     val request = GetTransactionsRequest.builder().assetCode("USDC").limit(50000).build()
 
-    every { txnRepo.findTransactionsWithFilters(any(), any(), any(), any(), any(), any()) } returns
-      emptyList()
+    every {
+      txnRepo.findTransactionsWithFilters(any(), any(), any(), any(), any(), any(), any())
+    } returns emptyList()
 
     store.findTransactions("GACCOUNT", null, request)
 
     val pageableSlot = slot<Pageable>()
     verify {
-      txnRepo.findTransactionsWithFilters(any(), any(), any(), any(), any(), capture(pageableSlot))
+      txnRepo.findTransactionsWithFilters(
+        any(),
+        any(),
+        any(),
+        any(),
+        any(),
+        any(),
+        capture(pageableSlot)
+      )
     }
     assertEquals(TransactionQueryLimits.MAX_LIMIT, pageableSlot.captured.pageSize)
   }
@@ -88,8 +109,9 @@ class JdbcSep6TransactionStoreTest {
     val request =
       GetTransactionsRequest.builder().assetCode("USDC").kind("deposit").limit(10).build()
 
-    every { txnRepo.findTransactionsWithFilters(any(), any(), any(), any(), any(), any()) } returns
-      emptyList()
+    every {
+      txnRepo.findTransactionsWithFilters(any(), any(), any(), any(), any(), any(), any())
+    } returns emptyList()
 
     store.findTransactions("GACCOUNT", null, request)
 
@@ -100,6 +122,7 @@ class JdbcSep6TransactionStoreTest {
         eq("deposit"),
         any(),
         any(),
+        any(),
         any()
       )
     }
@@ -110,7 +133,16 @@ class JdbcSep6TransactionStoreTest {
     val request = GetTransactionsRequest.builder().assetCode("USDC").limit(10).build()
 
     every {
-      txnRepo.findTransactionsWithMemoAndFilters(any(), any(), any(), any(), any(), any(), any())
+      txnRepo.findTransactionsWithMemoAndFilters(
+        any(),
+        any(),
+        any(),
+        any(),
+        any(),
+        any(),
+        any(),
+        any()
+      )
     } returns listOf(JdbcSep6Transaction())
 
     store.findTransactions("GACCOUNT", "12345", request)
@@ -123,35 +155,44 @@ class JdbcSep6TransactionStoreTest {
         any(),
         any(),
         any(),
+        any(),
         any()
       )
     }
   }
 
   @Test
-  fun `findTransactions with paging_id resolves olderThan from transaction`() {
-    val pagingTxn = JdbcSep6Transaction()
-    val pagingTime = Instant.parse("2024-06-15T12:00:00Z")
-    pagingTxn.startedAt = pagingTime
-
-    every { txnRepo.findOneByTransactionId("paging-txn-id") } returns pagingTxn
-    every { txnRepo.findTransactionsWithFilters(any(), any(), any(), any(), any(), any()) } returns
-      emptyList()
+  fun `findTransactions with paging_id passes it to the query`() {
+    every {
+      txnRepo.findTransactionsWithFilters(any(), any(), any(), any(), any(), any(), any())
+    } returns listOf(JdbcSep6Transaction())
 
     val request =
       GetTransactionsRequest.builder().assetCode("USDC").limit(10).pagingId("paging-txn-id").build()
     store.findTransactions("GACCOUNT", null, request)
 
-    val olderThanSlot = slot<Instant>()
+    // The started_at of the paging transaction is resolved by the query itself
     verify {
-      txnRepo.findTransactionsWithFilters(any(), any(), any(), any(), capture(olderThanSlot), any())
+      txnRepo.findTransactionsWithFilters(
+        any(),
+        any(),
+        any(),
+        any(),
+        isNull(),
+        eq("paging-txn-id"),
+        any()
+      )
     }
-    assertEquals(pagingTime, olderThanSlot.captured)
+    verify(exactly = 0) { txnRepo.findOneByTransactionId(any()) }
+    verify(exactly = 0) { txnRepo.existsById(any()) }
   }
 
   @Test
   fun `findTransactions with invalid paging_id throws SepValidationException`() {
-    every { txnRepo.findOneByTransactionId("bad-id") } returns null
+    every {
+      txnRepo.findTransactionsWithFilters(any(), any(), any(), any(), any(), any(), any())
+    } returns emptyList()
+    every { txnRepo.existsById("bad-id") } returns false
 
     val request = GetTransactionsRequest.builder().assetCode("USDC").pagingId("bad-id").build()
 
@@ -165,4 +206,32 @@ class JdbcSep6TransactionStoreTest {
 
     assertThrows<SepValidationException> { store.findTransactions("GACCOUNT", null, request) }
   }
+
+  @Test
+  fun `save writes the route of a new transaction`() {
+    val txn = JdbcSep6Transaction()
+    txn.id = "txn-1"
+    txn.transactionId = "txn-1"
+    every { txnRepo.save(txn) } returns txn
+
+    store.save(txn)
+
+    val routeSlot = slot<JdbcTransactionRoute>()
+    verify(exactly = 1) { routeRepo.save(capture(routeSlot)) }
+    assertEquals("txn-1", routeSlot.captured.id)
+    assertEquals(Sep.SEP_6, routeSlot.captured.sep)
+  }
+
+  @Test
+  fun `save does not write the route of an existing transaction`() {
+    val txn = JdbcSep6Transaction()
+    txn.id = "txn-1"
+    txn.transactionId = "txn-1"
+    txn.version = 1
+    every { txnRepo.save(txn) } returns txn
+
+    store.save(txn)
+
+    verify(exactly = 0) { routeRepo.save(any()) }
+  }
 }
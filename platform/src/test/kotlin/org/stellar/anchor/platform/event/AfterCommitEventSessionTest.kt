@@ -0,0 +1,125 @@
+package org.stellar.anchor.platform.event
+
+import io.mockk.MockKAnnotations
+import io.mockk.every
+import io.mockk.impl.annotations.MockK
+import io.mockk.verify
+import io.mockk.verifyOrder
+import java.util.concurrent.CompletableFuture
+import org.junit.jupiter.api.AfterEach
+import org.junit.jupiter.api.Assertions.assertEquals
+import org.junit.jupiter.api.Assertions.assertNull
+import org.junit.jupiter.api.BeforeEach
+import org.junit.jupiter.api.Test
+import org.junit.jupiter.api.assertThrows
+import org.springframework.transaction.support.TransactionSynchronization
+import org.springframework.transaction.support.TransactionSynchronizationManager
+import org.springframework.transaction.support.TransactionSynchronizationUtils
+import org.stellar.anchor.api.event.AnchorEvent
+import org.stellar.anchor.api.exception.EventPublishException
+import org.stellar.anchor.event.EventService
+
+class AfterCommitEventSessionTest {
+  @MockK(relaxed = true) private lateinit var delegate: EventService.Session
+
+  private lateinit var session: AfterCommitEventSession
+
+  @BeforeEach
+  fun setUp() {
+    MockKAnnotations.init(this, relaxUnitFun = true)
+    every { delegate.publishAsync(any()) } returns CompletableFuture.completedFuture(null)
+    session = AfterCommitEventSession(delegate)
+  }
+
+  @AfterEach
+  fun tearDown() {
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.clearSynchronization()
+    }
+    TransactionSynchronizationManager.unbindResourceIfPossible(session)
+  }
+
+  @Test
+  fun `test events are published immediately without transaction`() {
+    val event = event("1")
+    session.publish(event)
+
+    verify(exactly = 1) { delegate.publishAsync(event) }
+    verify(exactly = 0) { delegate.flush() }
+  }
+
+  @Test
+  fun `test the delivery failure is thrown to the caller without transaction`() {
+    every { delegate.publishAsync(any()) } returns
+      CompletableFuture.failedFuture(EventPublishException("broker down"))
+
+    val ex = assertThrows<EventPublishException> { session.publish(event("1")) }
+    assertEquals("broker down", ex.message)
+  }
+
+  @Test
+  fun `test events of a transaction are published and flushed once after commit`() {
+    TransactionSynchronizationManager.initSynchronization()
+    val event1 = event("1")
+    val event2 = event("2")
+
+    session.publish(event1)
+    session.publish(event2)
+    verify(exactly = 0) { delegate.publishAsync(any()) }
+    verify(exactly = 0) { delegate.publish(any()) }
+
+    TransactionSynchronizationUtils.triggerAfterCommit()
+    TransactionSynchronizationUtils.triggerAfterCompletion(
+      TransactionSynchronization.STATUS_COMMITTED
+    )
+
+    verifyOrder {
+      delegate.publishAsync(event1)
+      delegate.publishAsync(event2)
+      delegate.flush()
+    }
+    verify(exactly = 1) { delegate.flush() }
+    assertNull(TransactionSynchronizationManager.getResource(session))
+  }
+
+  @Test
+  fun `test events of a rolled back transaction are not published`() {
+    TransactionSynchronizationManager.initSynchronization()
+    session.publish(event("1"))
+
+    TransactionSynchronizationUtils.triggerAfterCompletion(
+      TransactionSynchronization.STATUS_ROLLED_BACK
+    )
+
+    verify(exactly = 0) { delegate.publishAsync(any()) }
+    verify(exactly = 0) { delegate.flush() }
+    assertNull(TransactionSynchronizationManager.getResource(session))
+  }
+
+  @Test
+  fun `test the delivery failure is thrown to the caller of the commit`() {
+    TransactionSynchronizationManager.initSynchronization()
+    every { delegate.flush() } throws EventPublishException("broker down")
+    every { delegate.publishAsync(any()) } returns
+      CompletableFuture.failedFuture(EventPublishException("broker down"))
+    session.publish(event("1"))
+
+    assertThrows<EventPublishException> { TransactionSynchronizationUtils.triggerAfterCommit() }
+
+    verify(exactly = 1) { delegate.flush() }
+  }
+
+  @Test
+  fun `test the failed event is thrown even if the delegate does not report it on flush`() {
+    TransactionSynchronizationManager.initSynchronization()
+    every { delegate.publishAsync(any()) } returns
+      CompletableFuture.failedFuture(EventPublishException("queue full"))
+    session.publish(event("1"))
+
+    assertThrows<EventPublishException> { TransactionSynchronizationUtils.triggerAfterCommit() }
+  }
+
+  private fun event(id: String): AnchorEvent {
+    return AnchorEvent.builder().id(id).type(AnchorEvent.Type.TRANSACTION_CREATED).build()
+  }
+}
@@ -3,11 +3,14 @@ package org.stellar.anchor.platform.event
 import io.mockk.*
 import io.mockk.impl.annotations.MockK
 import java.io.IOException
+import java.util.concurrent.CompletableFuture
+import java.util.concurrent.TimeUnit
 import org.junit.jupiter.api.BeforeEach
 import org.junit.jupiter.api.Test
 import org.junit.jupiter.params.ParameterizedTest
 import org.junit.jupiter.params.provider.ValueSource
 import org.stellar.anchor.api.event.AnchorEvent
+import org.stellar.anchor.api.platform.GetTransactionResponse
 import org.stellar.anchor.event.EventService
 import org.stellar.anchor.util.ExponentialBackoffTimer
 
@@ -59,4 +62,112 @@ class CallbackApiEventProcessorTest {
     verify(exactly = attempts) { eventHandler.handleEvent(event) }
     verify(exactly = attempts) { backoffTimer.backoff() }
   }
+
+  @Test
+  fun `test a full batch is sent at once and its failed events are retried`() {
+    val events = (1..4).map { event("$it") }
+    val batchProcessor =
+      spyk(
+        CallbackApiEventProcessor(
+          "TEST PROCESSOR",
+          EventService.EventQueue.TRANSACTION,
+          eventService,
+          eventHandler,
+          1,
+          4,
+          60_000
+        )
+      )
+    every { batchProcessor.backoffTimer } returns backoffTimer
+    // The second event fails once
+    every { eventHandler.handleEvents(events) } returns listOf(events[1])
+    every { eventHandler.handleEvents(listOf(events[1])) } returns listOf()
+
+    try {
+      val handled = events.map { batchProcessor.dispatch(it) }
+      CompletableFuture.allOf(*handled.toTypedArray()).get(5, TimeUnit.SECONDS)
+
+      verifyOrder {
+        eventHandler.handleEvents(events)
+        backoffTimer.backoff()
+        eventHandler.handleEvents(listOf(events[1]))
+      }
+      verify(exactly = 4) { batchProcessor.incrementProcessedCounter() }
+    } finally {
+      batchProcessor.stop()
+    }
+  }
+
+  @Test
+  fun `test the later events of the transaction of a failed event are retried with it`() {
+    val events = listOf(event("1", "txn-a"), event("2", "txn-b"), event("3", "txn-a"))
+    val batchProcessor =
+      spyk(
+        CallbackApiEventProcessor(
+          "TEST PROCESSOR",
+          EventService.EventQueue.TRANSACTION,
+          eventService,
+          eventHandler,
+          1,
+          3,
+          60_000
+        )
+      )
+    every { batchProcessor.backoffTimer } returns backoffTimer
+    // The first event of txn-a fails once, the second one is processed
+    every { eventHandler.handleEvents(events) } returns listOf(events[0])
+    every { eventHandler.handleEvents(listOf(events[0], events[2])) } returns listOf()
+
+    try {
+      val handled = events.map { batchProcessor.dispatch(it) }
+      CompletableFuture.allOf(*handled.toTypedArray()).get(5, TimeUnit.SECONDS)
+
+      verifyOrder {
+        eventHandler.handleEvents(events)
+        backoffTimer.backoff()
+        eventHandler.handleEvents(listOf(events[0], events[2]))
+      }
+      verify(exactly = 3) { batchProcessor.incrementProcessedCounter() }
+    } finally {
+      batchProcessor.stop()
+    }
+  }
+
+  @Test
+  fun `test a partial batch is sent after the linger time`() {
+    val events = (1..2).map { event("$it") }
+    val batchProcessor =
+      CallbackApiEventProcessor(
+        "TEST PROCESSOR",
+        EventService.EventQueue.TRANSACTION,
+        eventService,
+        eventHandler,
+        1,
+        100,
+        50
+      )
+    every { eventHandler.handleEvents(any()) } returns listOf()
+
+    try {
+      val handled = events.map { batchProcessor.dispatch(it) }
+      CompletableFuture.allOf(*handled.toTypedArray()).get(5, TimeUnit.SECONDS)
+
+      verify(exactly = 1) { eventHandler.handleEvents(events) }
+      verify(exactly = 0) { eventHandler.handleEvent(any()) }
+    } finally {
+      batchProcessor.stop()
+    }
+  }
+
+  private fun event(id: String): AnchorEvent {
+    return AnchorEvent.builder().id(id).type(AnchorEvent.Type.TRANSACTION_STATUS_CHANGED).build()
+  }
+
+  private fun event(id: String, txnId: String): AnchorEvent {
+    return AnchorEvent.builder()
+      .id(id)
+      .type(AnchorEvent.Type.TRANSACTION_STATUS_CHANGED)
+      .transaction(GetTransactionResponse.builder().id(txnId).build())
+      .build()
+  }
 }
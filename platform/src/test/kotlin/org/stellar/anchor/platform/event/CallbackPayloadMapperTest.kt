@@ -0,0 +1,305 @@
+package org.stellar.anchor.platform.event
+
+import com.google.gson.JsonParser
+import io.mockk.MockKAnnotations
+import io.mockk.every
+import io.mockk.impl.annotations.MockK
+import io.mockk.verify
+import java.time.Instant
+import org.junit.jupiter.api.Assertions.assertEquals
+import org.junit.jupiter.api.Assertions.assertNotSame
+import org.junit.jupiter.api.Assertions.assertSame
+import org.junit.jupiter.api.BeforeEach
+import org.junit.jupiter.api.Test
+import org.junit.jupiter.params.ParameterizedTest
+import org.junit.jupiter.params.provider.EnumSource
+import org.stellar.anchor.api.event.AnchorEvent
+import org.stellar.anchor.api.platform.GetTransactionResponse
+import org.stellar.anchor.api.platform.PlatformTransactionData
+import org.stellar.anchor.api.platform.PlatformTransactionData.Kind
+import org.stellar.anchor.api.platform.PlatformTransactionData.Sep.*
+import org.stellar.anchor.api.sep.SepTransactionStatus.PENDING_USR_TRANSFER_START
+import org.stellar.anchor.api.sep.sep6.Sep6GetTransactionResponse
+import org.stellar.anchor.api.shared.Amount
+import org.stellar.anchor.api.shared.FeeDetails
+import org.stellar.anchor.api.shared.RefundPayment
+import org.stellar.anchor.api.shared.Refunds
+import org.stellar.anchor.api.shared.StellarTransaction
+import org.stellar.anchor.asset.AssetService
+import org.stellar.anchor.platform.service.Sep24MoreInfoUrlConstructor
+import org.stellar.anchor.platform.service.Sep6MoreInfoUrlConstructor
+import org.stellar.anchor.sep6.Sep6Transaction
+import org.stellar.anchor.sep6.Sep6TransactionUtils
+import org.stellar.anchor.util.StringHelper.json
+
+class CallbackPayloadMapperTest {
+  @MockK(relaxed = true) private lateinit var assetService: AssetService
+  @MockK(relaxed = true) lateinit var sep6MoreInfoUrlConstructor: Sep6MoreInfoUrlConstructor
+  @MockK(relaxed = true) lateinit var sep24MoreInfoUrlConstructor: Sep24MoreInfoUrlConstructor
+  private lateinit var mapper: CallbackPayloadMapper
+
+  @BeforeEach
+  fun setUp() {
+    MockKAnnotations.init(this)
+    every { sep6MoreInfoUrlConstructor.construct(any(), any()) } returns "https://example.com"
+    every { sep24MoreInfoUrlConstructor.construct(any(), any()) } returns "https://example.com"
+    mapper =
+      CallbackPayloadMapper(assetService, sep6MoreInfoUrlConstructor, sep24MoreInfoUrlConstructor)
+  }
+
+  @ParameterizedTest
+  @EnumSource(Kind::class, names = ["DEPOSIT", "WITHDRAWAL_EXCHANGE"])
+  fun `test the SEP-6 payload matches the SEP-6 transaction response`(kind: Kind) {
+    val txn = transaction(SEP_6, kind)
+
+    val expected =
+      json(
+        Sep6GetTransactionResponse(
+          Sep6TransactionUtils.fromTxn(
+            CallbackPayloadMapper.fromSep6Txn(txn),
+            sep6MoreInfoUrlConstructor,
+            null
+          )
+        )
+      )
+
+    assertEquals(JsonParser.parseString(expected), parse(mapper.toPayload(event("1", txn))))
+  }
+
+  @Test
+  fun `test the SEP-31 payload matches the SEP-31 transaction response`() {
+    val txn = transaction(SEP_31, Kind.RECEIVE)
+
+    val expected = json(CallbackPayloadMapper.fromSep31Txn(txn).toSep31GetTransactionResponse())
+
+    assertEquals(JsonParser.parseString(expected), parse(mapper.toPayload(event("1", txn))))
+  }
+
+  @Test
+  fun `test the payload of an event is mapped once and shared`() {
+    val event = event("1", transaction(SEP_6, Kind.DEPOSIT))
+
+    val first = mapper.getPayload(event)
+    val second = mapper.getPayload(event)
+    val other = mapper.getPayload(event("2", transaction(SEP_6, Kind.DEPOSIT)))
+
+    assertSame(first, second)
+    assertNotSame(first, other)
+    verify(exactly = 2) { sep6MoreInfoUrlConstructor.construct(any(), any()) }
+  }
+
+  @Test
+  fun `test the oldest payloads are evicted`() {
+    val txn = transaction(SEP_31, Kind.RECEIVE)
+    val first = mapper.getPayload(event("0", txn))
+
+    (1..CallbackPayloadMapper.MAX_CACHED_PAYLOADS).forEach { mapper.getPayload(event("$it", txn)) }
+
+    assertNotSame(first, mapper.getPayload(event("0", txn)))
+  }
+
+  @Test
+  fun `fromSep6Txn should map GetTransactionResponse to Sep6Transaction correctly`() {
+    // Arrange
+    val amountIn = Amount("100.0", "USD")
+    val amountOut = Amount("99.0", "USD")
+    val feeDetails = FeeDetails("1.0", "USD", emptyList())
+    val txnResponse =
+      GetTransactionResponse.builder()
+        .id("test-id")
+        .sep(SEP_6)
+        .kind(Kind.WITHDRAWAL)
+        .status(PENDING_USR_TRANSFER_START)
+        .startedAt(java.time.Instant.now())
+        .completedAt(java.time.Instant.now())
+        .transferReceivedAt(java.time.Instant.now())
+        .type("bank_account")
+        .amountIn(amountIn)
+        .amountOut(amountOut)
+        .feeDetails(feeDetails)
+        .amountExpected(amountIn)
+        .sourceAccount("source-account")
+        .destinationAccount("dest-account")
+        .externalTransactionId("ext-id")
+        .memo("memo")
+        .memoType("id")
+        .clientDomain("client.com")
+        .quoteId("quote-id")
+        .message("message")
+        .build()
+
+    // Act
+    val sep6Txn: Sep6Transaction = CallbackPayloadMapper.fromSep6Txn(txnResponse)
+
+    // Assert
+    assertEquals("test-id", sep6Txn.id)
+    assertEquals("test-id", sep6Txn.transactionId)
+    assertEquals("ext-id", sep6Txn.externalTransactionId)
+    assertEquals("pending_user_transfer_start", sep6Txn.status)
+    assertEquals("bank_account", sep6Txn.type)
+    assertEquals("100.0", sep6Txn.amountIn)
+    assertEquals("USD", sep6Txn.amountInAsset)
+    assertEquals("99.0", sep6Txn.amountOut)
+    assertEquals("USD", sep6Txn.amountOutAsset)
+    assertEquals(feeDetails, sep6Txn.feeDetails)
+    assertEquals("100.0", sep6Txn.amountExpected)
+    assertEquals("source-account", sep6Txn.fromAccount)
+    assertEquals("dest-account", sep6Txn.toAccount)
+    assertEquals("memo", sep6Txn.memo)
+    assertEquals("id", sep6Txn.memoType)
+    assertEquals("client.com", sep6Txn.clientDomain)
+    assertEquals("quote-id", sep6Txn.quoteId)
+    assertEquals("message", sep6Txn.message)
+  }
+
+  @Test
+  fun `fromSep24Txn should map GetTransactionResponse to Sep24Transaction correctly`() {
+    // Arrange
+    val amountIn = Amount("200.0", "USD")
+    val amountOut = Amount("198.0", "USD")
+    val feeDetails = FeeDetails("2.0", "USD", emptyList())
+    val txnResponse =
+      GetTransactionResponse.builder()
+        .id("sep24-id")
+        .sep(SEP_24)
+        .kind(Kind.DEPOSIT)
+        .status(PENDING_USR_TRANSFER_START)
+        .startedAt(java.time.Instant.now())
+        .completedAt(java.time.Instant.now())
+        .transferReceivedAt(java.time.Instant.now())
+        .amountIn(amountIn)
+        .amountOut(amountOut)
+        .feeDetails(feeDetails)
+        .amountExpected(amountIn)
+        .sourceAccount("source-account")
+        .destinationAccount("dest-account")
+        .externalTransactionId("ext-id")
+        .memo("memo")
+        .memoType("id")
+        .clientDomain("client.com")
+        .quoteId("quote-id")
+        .message("message")
+        .build()
+
+    // Act
+    val sep24Txn = CallbackPayloadMapper.fromSep24Txn(txnResponse)
+
+    // Assert
+    assertEquals("sep24-id", sep24Txn.id)
+    assertEquals("sep24-id", sep24Txn.transactionId)
+    assertEquals("ext-id", sep24Txn.externalTransactionId)
+    assertEquals("pending_user_transfer_start", sep24Txn.status)
+    assertEquals("200.0", sep24Txn.amountIn)
+    assertEquals("USD", sep24Txn.amountInAsset)
+    assertEquals("198.0", sep24Txn.amountOut)
+    assertEquals("USD", sep24Txn.amountOutAsset)
+    assertEquals(feeDetails, sep24Txn.feeDetails)
+    assertEquals("200.0", sep24Txn.amountExpected)
+    assertEquals("source-account", sep24Txn.fromAccount)
+    assertEquals("dest-account", sep24Txn.toAccount)
+    assertEquals("memo", sep24Txn.memo)
+    assertEquals("id", sep24Txn.memoType)
+    assertEquals("client.com", sep24Txn.clientDomain)
+    assertEquals("quote-id", sep24Txn.quoteId)
+    assertEquals("message", sep24Txn.message)
+  }
+
+  @Test
+  fun `fromSep31Txn should map GetTransactionResponse to Sep31Transaction correctly`() {
+    // Arrange
+    val amountIn = Amount("300.0", "USD")
+    val amountOut = Amount("295.0", "USD")
+    val feeDetails = FeeDetails("5.0", "USD", emptyList())
+    val txnResponse =
+      GetTransactionResponse.builder()
+        .id("sep31-id")
+        .sep(SEP_31)
+        .kind(Kind.RECEIVE)
+        .status(PENDING_USR_TRANSFER_START)
+        .startedAt(java.time.Instant.now())
+        .completedAt(java.time.Instant.now())
+        .transferReceivedAt(java.time.Instant.now())
+        .amountIn(amountIn)
+        .amountOut(amountOut)
+        .feeDetails(feeDetails)
+        .amountExpected(amountIn)
+        .sourceAccount("source-account")
+        .destinationAccount("dest-account")
+        .externalTransactionId("ext-id")
+        .memo("memo")
+        .memoType("id")
+        .clientDomain("client.com")
+        .quoteId("quote-id")
+        .message("message")
+        .build()
+
+    // Act
+    val sep31Txn = CallbackPayloadMapper.fromSep31Txn(txnResponse)
+
+    // Assert
+    assertEquals("sep31-id", sep31Txn.id)
+    assertEquals("ext-id", sep31Txn.externalTransactionId)
+    assertEquals("pending_user_transfer_start", sep31Txn.status)
+    assertEquals("300.0", sep31Txn.amountIn)
+    assertEquals("USD", sep31Txn.amountInAsset)
+    assertEquals("295.0", sep31Txn.amountOut)
+    assertEquals("USD", sep31Txn.amountOutAsset)
+    assertEquals(feeDetails, sep31Txn.feeDetails)
+    assertEquals("300.0", sep31Txn.amountExpected)
+    assertEquals("source-account", sep31Txn.fromAccount)
+    assertEquals("dest-account", sep31Txn.toAccount)
+    assertEquals("client.com", sep31Txn.clientDomain)
+    assertEquals("quote-id", sep31Txn.quoteId)
+    assertEquals("message", sep31Txn.requiredInfoMessage)
+  }
+
+  private fun parse(payload: ByteArray) = JsonParser.parseString(String(payload))
+
+  private fun event(id: String, txn: GetTransactionResponse): AnchorEvent {
+    return AnchorEvent.builder()
+      .id(id)
+      .type(AnchorEvent.Type.TRANSACTION_STATUS_CHANGED)
+      .transaction(txn)
+      .build()
+  }
+
+  private fun transaction(sep: PlatformTransactionData.Sep, kind: Kind): GetTransactionResponse {
+    return GetTransactionResponse.builder()
+      .id("test-id")
+      .sep(sep)
+      .kind(kind)
+      .status(PENDING_USR_TRANSFER_START)
+      .startedAt(Instant.now())
+      .completedAt(Instant.now())
+      .amountIn(Amount("100.0", "USD"))
+      .amountOut(Amount("99.0", "USD"))
+      .feeDetails(FeeDetails("1.0", "USD", emptyList()))
+      .sourceAccount("source-account")
+      .destinationAccount("dest-account")
+      .externalTransactionId("ext-id")
+      .stellarTransactions(listOf(StellarTransaction.builder().id("stellar-id").build()))
+      .memo("memo")
+      .memoType("id")
+      .clientDomain("client.com")
+      .quoteId("quote-id")
+      .message("message")
+      .refunds(
+        Refunds.builder()
+          .amountRefunded(Amount("10.0", "USD"))
+          .amountFee(Amount("1.0", "USD"))
+          .payments(
+            arrayOf(
+              RefundPayment.builder()
+                .id("refund-id")
+                .idType(RefundPayment.IdType.STELLAR)
+                .amount(Amount("9.0", "USD"))
+                .fee(Amount("1.0", "USD"))
+                .requestedAt(Instant.now())
+                .build()
+            )
+          )
+          .build()
+      )
+      .build()
+  }
+}
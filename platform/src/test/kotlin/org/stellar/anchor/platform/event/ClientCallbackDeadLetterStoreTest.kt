@@ -0,0 +1,163 @@
+package org.stellar.anchor.platform.event
+
+import io.mockk.MockKAnnotations
+import io.mockk.every
+import io.mockk.impl.annotations.MockK
+import io.mockk.slot
+import io.mockk.verify
+import java.util.Optional
+import java.util.concurrent.CompletableFuture
+import org.junit.jupiter.api.Assertions.assertEquals
+import org.junit.jupiter.api.Assertions.assertNotNull
+import org.junit.jupiter.api.BeforeEach
+import org.junit.jupiter.api.Test
+import org.junit.jupiter.api.assertThrows
+import org.springframework.data.domain.Pageable
+import org.stellar.anchor.api.event.AnchorEvent
+import org.stellar.anchor.api.exception.BadRequestException
+import org.stellar.anchor.api.exception.NotFoundException
+import org.stellar.anchor.api.platform.GetTransactionResponse
+import org.stellar.anchor.platform.data.JdbcClientCallbackDeadLetter
+import org.stellar.anchor.platform.data.JdbcClientCallbackDeadLetterRepo
+import org.stellar.anchor.util.GsonUtils
+import org.stellar.anchor.util.TransactionQueryLimits.DEFAULT_LIMIT
+import org.stellar.anchor.util.TransactionQueryLimits.MAX_LIMIT
+
+class ClientCallbackDeadLetterStoreTest {
+  @MockK(relaxed = true) lateinit var repo: JdbcClientCallbackDeadLetterRepo
+  @MockK(relaxed = true) lateinit var clientQueue: ClientStatusCallbackQueue
+  private lateinit var store: ClientCallbackDeadLetterStore
+
+  private val event =
+    AnchorEvent.builder()
+      .id("event-id")
+      .type(AnchorEvent.Type.TRANSACTION_STATUS_CHANGED)
+      .transaction(GetTransactionResponse.builder().id("txn-id").build())
+      .build()
+
+  @BeforeEach
+  fun setup() {
+    MockKAnnotations.init(this)
+    every { clientQueue.clientName } returns "client"
+    every { repo.markAsReplaying(any(), any(), any()) } returns 1
+    store = ClientCallbackDeadLetterStore(repo)
+    store.register(clientQueue)
+  }
+
+  @Test
+  fun `test save persists the event`() {
+    val saved = slot<JdbcClientCallbackDeadLetter>()
+    every { repo.save(capture(saved)) } answers { firstArg() }
+
+    store.save("client", event, "connection refused", 3)
+
+    assertNotNull(saved.captured.id)
+    assertEquals("client", saved.captured.clientName)
+    assertEquals("event-id", saved.captured.eventId)
+    assertEquals("txn-id", saved.captured.transactionId)
+    assertEquals("connection refused", saved.captured.error)
+    assertEquals(3, saved.captured.attempts)
+    assertNotNull(saved.captured.createdAt)
+  }
+
+  @Test
+  fun `test replay enqueues the event and removes the dead letter once it is delivered`() {
+    val deadLetter = deadLetter("client")
+    every { repo.findById("dl-id") } returns Optional.of(deadLetter)
+    val replayed = slot<AnchorEvent>()
+    val delivered = CompletableFuture<Boolean>()
+    every { clientQueue.replay(capture(replayed)) } returns delivered
+
+    store.replay("dl-id")
+
+    assertEquals("event-id", replayed.captured.id)
+    assertEquals("txn-id", replayed.captured.transaction.id)
+    verify(exactly = 0) { repo.delete(any()) }
+    delivered.complete(true)
+    verify(exactly = 1) { repo.delete(deadLetter) }
+  }
+
+  @Test
+  fun `test the dead letter is kept if the replay is not delivered`() {
+    every { repo.findById("dl-id") } returns Optional.of(deadLetter("client"))
+    every { clientQueue.replay(any()) } returns CompletableFuture.completedFuture(false)
+
+    store.replay("dl-id")
+
+    verify(exactly = 0) { repo.delete(any()) }
+    // The dead letter can be replayed again
+    verify(exactly = 1) { repo.clearReplaying("dl-id") }
+  }
+
+  @Test
+  fun `test a dead letter being replayed is not replayed again`() {
+    every { repo.findById("dl-id") } returns Optional.of(deadLetter("client"))
+    every { repo.markAsReplaying("dl-id", any(), any()) } returns 0
+
+    assertThrows<BadRequestException> { store.replay("dl-id") }
+
+    verify(exactly = 0) { clientQueue.replay(any()) }
+  }
+
+  @Test
+  fun `test replay all skips the dead letters being replayed`() {
+    val inFlight = deadLetter("client")
+    inFlight.id = "in-flight"
+    every { repo.findByClientNameOrderByCreatedAtAsc("client") } returns
+      listOf(inFlight, deadLetter("client"))
+    every { repo.markAsReplaying("in-flight", any(), any()) } returns 0
+    every { clientQueue.replay(any()) } returns CompletableFuture<Boolean>()
+
+    assertEquals(1, store.replayAll("client"))
+    verify(exactly = 1) { clientQueue.replay(any()) }
+  }
+
+  @Test
+  fun `test list returns the oldest dead letters up to the limit`() {
+    val pageable = slot<Pageable>()
+    every { repo.findByClientNameOrderByCreatedAtAsc("client", capture(pageable)) } returns
+      listOf(deadLetter("client"))
+
+    assertEquals(1, store.list("client", 10).size)
+    assertEquals(10, pageable.captured.pageSize)
+
+    store.list(null, null)
+    verify(exactly = 1) {
+      repo.findAllByOrderByCreatedAtAsc(match { it.pageSize == DEFAULT_LIMIT })
+    }
+    store.list(null, 1_000_000)
+    verify(exactly = 1) {
+      repo.findAllByOrderByCreatedAtAsc(match { it.pageSize == MAX_LIMIT })
+    }
+  }
+
+  @Test
+  fun `test replay all replays the dead letters of the client`() {
+    every { repo.findByClientNameOrderByCreatedAtAsc("client") } returns
+      listOf(deadLetter("client"), deadLetter("client"))
+    every { clientQueue.replay(any()) } returns CompletableFuture.completedFuture(true)
+
+    assertEquals(2, store.replayAll("client"))
+    verify(exactly = 2) { clientQueue.replay(match { it.id == "event-id" }) }
+    verify(exactly = 2) { repo.delete(any()) }
+  }
+
+  @Test
+  fun `test replay of unknown dead letter or client throws NotFoundException`() {
+    every { repo.findById("unknown") } returns Optional.empty()
+    every { repo.findById("dl-id") } returns Optional.of(deadLetter("removed-client"))
+
+    assertThrows<NotFoundException> { store.replay("unknown") }
+    assertThrows<NotFoundException> { store.replay("dl-id") }
+    verify(exactly = 0) { repo.delete(any()) }
+  }
+
+  private fun deadLetter(clientName: String): JdbcClientCallbackDeadLetter {
+    val deadLetter = JdbcClientCallbackDeadLetter()
+    deadLetter.id = "dl-id"
+    deadLetter.clientName = clientName
+    deadLetter.eventId = event.id
+    deadLetter.event = GsonUtils.getInstance().toJson(event)
+    return deadLetter
+  }
+}
@@ -1,15 +1,21 @@
 package org.stellar.anchor.platform.event
 
+import io.mockk.clearMocks
 import io.mockk.every
 import io.mockk.impl.annotations.MockK
 import io.mockk.mockk
+import io.mockk.verify
 import java.util.*
 import java.util.concurrent.TimeUnit
+import okio.Buffer
 import org.junit.jupiter.api.Assertions
 import org.junit.jupiter.api.Assertions.assertEquals
+import org.junit.jupiter.api.Assertions.assertTrue
 import org.junit.jupiter.api.BeforeEach
 import org.junit.jupiter.api.Test
 import org.junit.jupiter.api.extension.ExtendWith
+import org.skyscreamer.jsonassert.JSONAssert
+import org.skyscreamer.jsonassert.JSONCompareMode
 import org.stellar.anchor.LockAndMockStatic
 import org.stellar.anchor.LockAndMockTest
 import org.stellar.anchor.api.event.AnchorEvent
@@ -17,12 +23,9 @@ import org.stellar.anchor.api.platform.GetTransactionResponse
 import org.stellar.anchor.api.platform.PlatformTransactionData.Kind
 import org.stellar.anchor.api.platform.PlatformTransactionData.Sep.*
 import org.stellar.anchor.api.sep.SepTransactionStatus.COMPLETED
-import org.stellar.anchor.api.sep.SepTransactionStatus.PENDING_USR_TRANSFER_START
 import org.stellar.anchor.api.sep.sep12.Sep12GetCustomerResponse
 import org.stellar.anchor.api.sep.sep24.TransactionResponse
 import org.stellar.anchor.api.sep.sep6.Sep6TransactionResponse
-import org.stellar.anchor.api.shared.Amount
-import org.stellar.anchor.api.shared.FeeDetails
 import org.stellar.anchor.asset.AssetService
 import org.stellar.anchor.client.ClientConfig.CallbackUrls
 import org.stellar.anchor.client.CustodialClient
@@ -34,7 +37,6 @@ import org.stellar.anchor.sep24.Sep24Helper
 import org.stellar.anchor.sep24.Sep24Helper.fromTxn
 import org.stellar.anchor.sep24.Sep24TransactionStore
 import org.stellar.anchor.sep31.Sep31TransactionStore
-import org.stellar.anchor.sep6.Sep6Transaction
 import org.stellar.anchor.sep6.Sep6TransactionStore
 import org.stellar.anchor.sep6.Sep6TransactionUtils
 import org.stellar.anchor.util.StringHelper.json
@@ -109,9 +111,7 @@ class ClientStatusCallbackHandlerTest {
       ClientStatusCallbackHandler(
         secretConfig,
         clientConfig,
-        assetService,
-        sep6MoreInfoUrlConstructor,
-        sep24MoreInfoUrlConstructor
+        CallbackPayloadMapper(assetService, sep6MoreInfoUrlConstructor, sep24MoreInfoUrlConstructor)
       )
   }
 
@@ -184,162 +184,47 @@ class ClientStatusCallbackHandlerTest {
     clientConfig.callbackUrls.sep31 = null
     clientConfig.callbackUrls.sep12 = null
 
-    val request = handler.buildHttpRequest(signer, event)
+    val request = handler.buildHttpRequest(event)
     Assertions.assertNull(request)
   }
 
   @Test
-  fun `fromSep6Txn should map GetTransactionResponse to Sep6Transaction correctly`() {
-    // Arrange
-    val amountIn = Amount("100.0", "USD")
-    val amountOut = Amount("99.0", "USD")
-    val feeDetails = FeeDetails("1.0", "USD", emptyList())
-    val txnResponse =
-      GetTransactionResponse.builder()
-        .id("test-id")
-        .sep(SEP_6)
-        .kind(Kind.WITHDRAWAL)
-        .status(PENDING_USR_TRANSFER_START)
-        .startedAt(java.time.Instant.now())
-        .completedAt(java.time.Instant.now())
-        .transferReceivedAt(java.time.Instant.now())
-        .type("bank_account")
-        .amountIn(amountIn)
-        .amountOut(amountOut)
-        .feeDetails(feeDetails)
-        .amountExpected(amountIn)
-        .sourceAccount("source-account")
-        .destinationAccount("dest-account")
-        .externalTransactionId("ext-id")
-        .memo("memo")
-        .memoType("id")
-        .clientDomain("client.com")
-        .quoteId("quote-id")
-        .message("message")
-        .build()
-
-    // Act
-    val sep6Txn: Sep6Transaction = ClientStatusCallbackHandler.fromSep6Txn(txnResponse)
-
-    // Assert
-    assertEquals("test-id", sep6Txn.id)
-    assertEquals("test-id", sep6Txn.transactionId)
-    assertEquals("ext-id", sep6Txn.externalTransactionId)
-    assertEquals("pending_user_transfer_start", sep6Txn.status)
-    assertEquals("bank_account", sep6Txn.type)
-    assertEquals("100.0", sep6Txn.amountIn)
-    assertEquals("USD", sep6Txn.amountInAsset)
-    assertEquals("99.0", sep6Txn.amountOut)
-    assertEquals("USD", sep6Txn.amountOutAsset)
-    assertEquals(feeDetails, sep6Txn.feeDetails)
-    assertEquals("100.0", sep6Txn.amountExpected)
-    assertEquals("source-account", sep6Txn.fromAccount)
-    assertEquals("dest-account", sep6Txn.toAccount)
-    assertEquals("memo", sep6Txn.memo)
-    assertEquals("id", sep6Txn.memoType)
-    assertEquals("client.com", sep6Txn.clientDomain)
-    assertEquals("quote-id", sep6Txn.quoteId)
-    assertEquals("message", sep6Txn.message)
-  }
-
-  @Test
-  fun `fromSep24Txn should map GetTransactionResponse to Sep24Transaction correctly`() {
-    // Arrange
-    val amountIn = Amount("200.0", "USD")
-    val amountOut = Amount("198.0", "USD")
-    val feeDetails = FeeDetails("2.0", "USD", emptyList())
-    val txnResponse =
-      GetTransactionResponse.builder()
-        .id("sep24-id")
-        .sep(SEP_24)
-        .kind(Kind.DEPOSIT)
-        .status(PENDING_USR_TRANSFER_START)
-        .startedAt(java.time.Instant.now())
-        .completedAt(java.time.Instant.now())
-        .transferReceivedAt(java.time.Instant.now())
-        .amountIn(amountIn)
-        .amountOut(amountOut)
-        .feeDetails(feeDetails)
-        .amountExpected(amountIn)
-        .sourceAccount("source-account")
-        .destinationAccount("dest-account")
-        .externalTransactionId("ext-id")
-        .memo("memo")
-        .memoType("id")
-        .clientDomain("client.com")
-        .quoteId("quote-id")
-        .message("message")
-        .build()
-
-    // Act
-    val sep24Txn = ClientStatusCallbackHandler.fromSep24Txn(txnResponse)
-
-    // Assert
-    assertEquals("sep24-id", sep24Txn.id)
-    assertEquals("sep24-id", sep24Txn.transactionId)
-    assertEquals("ext-id", sep24Txn.externalTransactionId)
-    assertEquals("pending_user_transfer_start", sep24Txn.status)
-    assertEquals("200.0", sep24Txn.amountIn)
-    assertEquals("USD", sep24Txn.amountInAsset)
-    assertEquals("198.0", sep24Txn.amountOut)
-    assertEquals("USD", sep24Txn.amountOutAsset)
-    assertEquals(feeDetails, sep24Txn.feeDetails)
-    assertEquals("200.0", sep24Txn.amountExpected)
-    assertEquals("source-account", sep24Txn.fromAccount)
-    assertEquals("dest-account", sep24Txn.toAccount)
-    assertEquals("memo", sep24Txn.memo)
-    assertEquals("id", sep24Txn.memoType)
-    assertEquals("client.com", sep24Txn.clientDomain)
-    assertEquals("quote-id", sep24Txn.quoteId)
-    assertEquals("message", sep24Txn.message)
+  fun `test the callback is signed by the signer decoded once`() {
+    event.transaction = null
+    event.customer = Sep12GetCustomerResponse.builder().id("customer-id").build()
+    clearMocks(secretConfig, answers = false)
+
+    val request = handler.buildHttpRequest(event)!!
+    handler.buildHttpRequest(event)
+
+    val header = request.header("Signature")!!.split(", ")
+    val ts = header[0].substring(2)
+    val signature = Base64.getDecoder().decode(header[1].substring(2))
+    val body = Buffer().also { request.body!!.writeTo(it) }.readUtf8()
+    assertEquals(json(event.customer), body)
+    assertTrue(signer.verify("$ts.callback.circle.com.$body".toByteArray(), signature))
+    verify(exactly = 1) { secretConfig.sep10SigningSeed }
   }
 
   @Test
-  fun `fromSep31Txn should map GetTransactionResponse to Sep31Transaction correctly`() {
-    // Arrange
-    val amountIn = Amount("300.0", "USD")
-    val amountOut = Amount("295.0", "USD")
-    val feeDetails = FeeDetails("5.0", "USD", emptyList())
-    val txnResponse =
-      GetTransactionResponse.builder()
-        .id("sep31-id")
-        .sep(SEP_31)
-        .kind(Kind.RECEIVE)
-        .status(PENDING_USR_TRANSFER_START)
-        .startedAt(java.time.Instant.now())
-        .completedAt(java.time.Instant.now())
-        .transferReceivedAt(java.time.Instant.now())
-        .amountIn(amountIn)
-        .amountOut(amountOut)
-        .feeDetails(feeDetails)
-        .amountExpected(amountIn)
-        .sourceAccount("source-account")
-        .destinationAccount("dest-account")
-        .externalTransactionId("ext-id")
-        .memo("memo")
-        .memoType("id")
-        .clientDomain("client.com")
-        .quoteId("quote-id")
-        .message("message")
-        .build()
-
-    // Act
-    val sep31Txn = ClientStatusCallbackHandler.fromSep31Txn(txnResponse)
-
-    // Assert
-    assertEquals("sep31-id", sep31Txn.id)
-    assertEquals("ext-id", sep31Txn.externalTransactionId)
-    assertEquals("pending_user_transfer_start", sep31Txn.status)
-    assertEquals("300.0", sep31Txn.amountIn)
-    assertEquals("USD", sep31Txn.amountInAsset)
-    assertEquals("295.0", sep31Txn.amountOut)
-    assertEquals("USD", sep31Txn.amountOutAsset)
-    assertEquals(feeDetails, sep31Txn.feeDetails)
-    assertEquals("300.0", sep31Txn.amountExpected)
-    assertEquals("source-account", sep31Txn.fromAccount)
-    assertEquals("dest-account", sep31Txn.toAccount)
-    assertEquals("client.com", sep31Txn.clientDomain)
-    assertEquals("quote-id", sep31Txn.quoteId)
-    assertEquals("message", sep31Txn.requiredInfoMessage)
+  fun `test the skipped statuses are listed in the signed callback payload`() {
+    event.transaction = null
+    event.customer = Sep12GetCustomerResponse.builder().id("customer-id").build()
+
+    val coalesced = handler.buildHttpRequest(event, listOf("pending_anchor", "pending_stellar"))!!
+    val single = handler.buildHttpRequest(event)!!
+
+    val header = coalesced.header("Signature")!!.split(", ")
+    val ts = header[0].substring(2)
+    val signature = Base64.getDecoder().decode(header[1].substring(2))
+    val body = Buffer().also { coalesced.body!!.writeTo(it) }.readUtf8()
+    JSONAssert.assertEquals(
+      """{"id": "customer-id", "skipped_statuses": ["pending_anchor", "pending_stellar"]}""",
+      body,
+      JSONCompareMode.STRICT
+    )
+    assertTrue(signer.verify("$ts.callback.circle.com.$body".toByteArray(), signature))
+    val singleBody = Buffer().also { single.body!!.writeTo(it) }.readUtf8()
+    assertEquals(json(event.customer), singleBody)
   }
 }
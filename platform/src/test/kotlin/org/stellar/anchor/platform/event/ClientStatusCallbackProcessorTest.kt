@@ -1,124 +1,163 @@
 package org.stellar.anchor.platform.event
 
-import io.mockk.*
+import io.mockk.MockKAnnotations
+import io.mockk.every
 import io.mockk.impl.annotations.MockK
-import java.io.FileNotFoundException
-import java.io.IOException
+import io.mockk.mockk
+import io.mockk.verify
+import io.mockk.verifyOrder
+import java.util.concurrent.CompletableFuture
+import java.util.concurrent.ConcurrentLinkedQueue
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.TimeUnit
+import org.junit.jupiter.api.AfterEach
+import org.junit.jupiter.api.Assertions.assertEquals
+import org.junit.jupiter.api.Assertions.assertFalse
+import org.junit.jupiter.api.Assertions.assertTrue
 import org.junit.jupiter.api.BeforeEach
 import org.junit.jupiter.api.Test
-import org.junit.jupiter.params.ParameterizedTest
-import org.junit.jupiter.params.provider.ValueSource
 import org.stellar.anchor.api.event.AnchorEvent
-import org.stellar.anchor.api.exception.SepException
 import org.stellar.anchor.event.EventService
 import org.stellar.anchor.event.EventService.EventQueue
-import org.stellar.anchor.util.ExponentialBackoffTimer
 
 class ClientStatusCallbackProcessorTest {
-  @MockK(relaxed = true) lateinit var event: AnchorEvent
-  @MockK(relaxed = true) lateinit var eventHandler: ClientStatusCallbackHandler
   @MockK(relaxed = true) lateinit var eventService: EventService
-  @MockK(relaxed = true) lateinit var httpErrorBackoffTimer: ExponentialBackoffTimer
-  @MockK(relaxed = true) lateinit var networkErrorBackoffTimer: ExponentialBackoffTimer
-  private lateinit var eventProcessor: ClientStatusCallbackProcessor
+  @MockK(relaxed = true) lateinit var handler1: ClientStatusCallbackHandler
+  @MockK(relaxed = true) lateinit var handler2: ClientStatusCallbackHandler
+  @MockK(relaxed = true) lateinit var deadLetterStore: ClientCallbackDeadLetterStore
+  private lateinit var queue1: ClientStatusCallbackQueue
+  private lateinit var queue2: ClientStatusCallbackQueue
+  private lateinit var processor: ClientStatusCallbackProcessor
 
   @BeforeEach
   fun setup() {
     MockKAnnotations.init(this)
-    eventProcessor =
-      spyk(
-        ClientStatusCallbackProcessor(
-          "TEST PROCESSOR",
-          EventQueue.TRANSACTION,
-          eventService,
-          eventHandler
-        )
+    queue1 = ClientStatusCallbackQueue("queue-1", "client-1", handler1, deadLetterStore)
+    queue2 = ClientStatusCallbackQueue("queue-2", "client-2", handler2, deadLetterStore)
+    processor =
+      ClientStatusCallbackProcessor(
+        "client-status-callback",
+        EventQueue.TRANSACTION,
+        eventService,
+        listOf(queue1, queue2)
       )
   }
 
+  @AfterEach
+  fun tearDown() {
+    processor.stop()
+  }
+
   @Test
-  fun `test that the event is not retried if the event handler returns true`() {
-    every { eventHandler.handleEvent(event) } returns true
-    eventProcessor.handleEventWithRetry(event)
-    // Check if handleEvent is called only once
-    verify(exactly = 1) { eventHandler.handleEvent(any()) }
-    // Check if incrementProcessCount is called
-    verify(exactly = 1) { eventProcessor.incrementProcessedCounter() }
+  fun `test every event is delivered to every client`() {
+    val event1 = event("1")
+    val event2 = event("2")
+    every { handler1.handleEvent(any()) } returns true
+    every { handler2.handleEvent(any()) } returns true
+
+    CompletableFuture.allOf(processor.dispatch(event1), processor.dispatch(event2))
+      .get(5, TimeUnit.SECONDS)
+
+    verify(exactly = 1) { handler1.handleEvent(event1) }
+    verify(exactly = 1) { handler1.handleEvent(event2) }
+    verify(exactly = 1) { handler2.handleEvent(event1) }
+    verify(exactly = 1) { handler2.handleEvent(event2) }
+    assertEquals(0, queue1.depth)
+    assertEquals(0, queue2.depth)
   }
 
   @Test
-  fun `test that when event handler returns false httpErrorBackoffTimer backoff() is called 3 times`() {
-    every { eventHandler.handleEvent(event) } returns false
-    every { eventProcessor.httpErrorBackoffTimer } returns httpErrorBackoffTimer
-    every { eventProcessor.networkBackoffTimer } returns networkErrorBackoffTimer
-    eventProcessor.handleEventWithRetry(event)
-
-    // Check if handleEvent is called 3 times
-    verify(exactly = 3) { eventHandler.handleEvent(any()) }
-    // Check if the timer is called 2 times when the handleEvent is called 3 times.
-    verify(exactly = 2) { httpErrorBackoffTimer.backoff() }
-    // Eventually, we mark it successful
-    verify(exactly = 1) { eventProcessor.incrementProcessedCounter() }
+  fun `test a slow client does not delay the other clients`() {
+    val slowClient = CountDownLatch(1)
+    val delivered = CountDownLatch(2)
+    every { handler1.handleEvent(any()) } answers
+      {
+        slowClient.await()
+        true
+      }
+    every { handler2.handleEvent(any()) } answers
+      {
+        delivered.countDown()
+        true
+      }
+
+    val first = processor.dispatch(event("1"))
+    val second = processor.dispatch(event("2"))
+
+    assertTrue(delivered.await(5, TimeUnit.SECONDS))
+    // Both events of the slow client are still waiting
+    assertEquals(2, queue1.depth)
+    assertFalse(first.isDone)
+
+    slowClient.countDown()
+    CompletableFuture.allOf(first, second).get(5, TimeUnit.SECONDS)
+    assertEquals(0, queue1.depth)
+    assertEquals(0, queue1.lagMillis)
   }
 
-  @ParameterizedTest
-  @ValueSource(ints = [1, 3, 5, 10, 100])
-  fun `test that when event handler throws IOException, networkBackoffTimer is called at most 3 times`(
-    attempts: Int
-  ) {
-    var counter = attempts
-    every { eventHandler.handleEvent(event) } answers { throw IOException("Mock exception") }
-    every { eventProcessor.httpErrorBackoffTimer } returns httpErrorBackoffTimer
-    every { eventProcessor.networkBackoffTimer } returns networkErrorBackoffTimer
-    every { networkErrorBackoffTimer.backoff() } answers
+  @Test
+  fun `test the consumer keeps reading while a client is slow`() {
+    val slowClient = CountDownLatch(1)
+    every { handler1.handleEvent(any()) } answers
       {
-        counter--
-        if (counter == 0) {
-          Thread.currentThread().interrupt()
-        }
+        slowClient.await()
+        true
       }
+    every { handler2.handleEvent(any()) } returns true
+    val reads = listOf(response(event("1")), response(event("2")))
+    val session = session(reads)
+
+    val consumer = Thread(processor).apply { start() }
+    try {
+      // The second read is delivered to the other client before the first one is acknowledged
+      verify(timeout = 5000) { handler2.handleEvent(match { it.id == "2" }) }
+      verify(exactly = 0) { session.ack(any()) }
 
-    eventProcessor.handleEventWithRetry(event)
-
-    // Check if handleEvent is called `attempts` times
-    verify(atLeast = 1, atMost = 3) { eventHandler.handleEvent(any()) }
-    // Check if the timer is called `attempts` times when the handleEvent is called at most 3 times.
-    verify(atLeast = 1, atMost = 3) { networkErrorBackoffTimer.backoff() }
-    // Make sure the metric does not show it passes before running out of retry
-    if (attempts < 3) {
-      // If thread interrupted before 3 retries
-      verify(exactly = 0) { eventProcessor.incrementProcessedCounter() }
-    } else {
-      verify(exactly = 1) { eventProcessor.incrementProcessedCounter() }
+      slowClient.countDown()
+      verifyOrder {
+        session.ack(reads[0])
+        session.ack(reads[1])
+      }
+    } finally {
+      slowClient.countDown()
+      processor.stop()
+      consumer.join(5000)
     }
   }
 
-  @ParameterizedTest
-  @ValueSource(
-    classes = [RuntimeException::class, SepException::class, FileNotFoundException::class]
-  )
-  fun `test that when event handler throws uncaught exception, sendToDLQ is called once`(
-    clz: Class<Throwable>
-  ) {
-    // Mock handleEvent to throw uncaught exception
-    every { eventHandler.handleEvent(event) } answers
+  @Test
+  fun `test a read is not acknowledged if an event cannot be saved to the dead letter store`() {
+    every { handler1.handleEvent(any()) } throws RuntimeException("uncaught")
+    every { handler2.handleEvent(any()) } returns true
+    every { deadLetterStore.save(any(), any(), any(), any()) } throws RuntimeException("db down")
+    val session = session(listOf(response(event("1"))))
+
+    processor.run()
+
+    verify(exactly = 0) { session.ack(any()) }
+    verify(exactly = 1) { session.close() }
+  }
+
+  private fun session(reads: List<EventService.ReadResponse>): EventService.Session {
+    val remaining = ConcurrentLinkedQueue(reads)
+    val session = mockk<EventService.Session>(relaxed = true)
+    every { session.read() } answers
       {
-        throw clz.getConstructor(String::class.java).newInstance()
+        remaining.poll()
+          ?: run {
+            Thread.sleep(10)
+            response()
+          }
       }
+    every { eventService.createSession(any(), any()) } returns session
+    return session
+  }
 
-    every { eventProcessor.httpErrorBackoffTimer } returns httpErrorBackoffTimer
-    every { eventProcessor.networkBackoffTimer } returns networkErrorBackoffTimer
-
-    eventProcessor.handleEventWithRetry(event)
+  private fun response(vararg events: AnchorEvent): EventService.ReadResponse {
+    return KafkaSession.KafkaReadResponse(events.toList(), mapOf())
+  }
 
-    // Check if handleEvent is called 1 times
-    verify(exactly = 1) { eventHandler.handleEvent(any()) }
-    // Check if the timer is called 1 times when the handleEvent is called 3 times.
-    verify(exactly = 1) { eventProcessor.sendToDLQ(any(), any()) }
-    // Check that no backoff is called
-    verify(exactly = 0) { networkErrorBackoffTimer.backoff() }
-    verify(exactly = 0) { httpErrorBackoffTimer.backoff() }
-    // Make sure the metric does not show it passes
-    verify(exactly = 0) { eventProcessor.incrementProcessedCounter() }
+  private fun event(id: String): AnchorEvent {
+    return AnchorEvent.builder().id(id).type(AnchorEvent.Type.TRANSACTION_STATUS_CHANGED).build()
   }
 }
@@ -0,0 +1,318 @@
+package org.stellar.anchor.platform.event
+
+import io.mockk.*
+import io.mockk.impl.annotations.MockK
+import java.io.FileNotFoundException
+import java.io.IOException
+import java.util.concurrent.CompletableFuture
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.TimeUnit
+import org.junit.jupiter.api.AfterEach
+import org.junit.jupiter.api.Assertions.assertEquals
+import org.junit.jupiter.api.Assertions.assertFalse
+import org.junit.jupiter.api.Assertions.assertTrue
+import org.junit.jupiter.api.BeforeEach
+import org.junit.jupiter.api.Test
+import org.junit.jupiter.params.ParameterizedTest
+import org.junit.jupiter.params.provider.ValueSource
+import org.stellar.anchor.api.event.AnchorEvent
+import org.stellar.anchor.api.exception.SepException
+import org.stellar.anchor.api.platform.GetTransactionResponse
+import org.stellar.anchor.api.sep.SepTransactionStatus
+import org.stellar.anchor.api.sep.SepTransactionStatus.*
+import org.stellar.anchor.platform.event.ClientStatusCallbackQueue.Delivery
+
+class ClientStatusCallbackQueueTest {
+  @MockK(relaxed = true) lateinit var eventHandler: ClientStatusCallbackHandler
+  @MockK(relaxed = true) lateinit var deadLetterStore: ClientCallbackDeadLetterStore
+  private lateinit var clientQueue: ClientStatusCallbackQueue
+  private val retries = mutableListOf<Pair<Delivery, Long>>()
+
+  @BeforeEach
+  fun setup() {
+    MockKAnnotations.init(this)
+    clientQueue =
+      spyk(ClientStatusCallbackQueue("TEST QUEUE", "test", eventHandler, deadLetterStore))
+    every { clientQueue.scheduleRetry(any(), any()) } answers
+      {
+        retries.add(Pair(firstArg(), secondArg()))
+      }
+  }
+
+  @AfterEach
+  fun tearDown() {
+    clientQueue.stop()
+  }
+
+  @Test
+  fun `test that the event is not retried if the event handler returns true`() {
+    val event = event("1", "txn-1")
+    every { eventHandler.handleEvent(event) } returns true
+
+    clientQueue.deliver(Delivery(event, System.currentTimeMillis()))
+
+    // Check if handleEvent is called only once
+    verify(exactly = 1) { eventHandler.handleEvent(any()) }
+    // Check if incrementProcessCount is called
+    verify(exactly = 1) { clientQueue.incrementProcessedCounter() }
+    assertEquals(0, retries.size)
+  }
+
+  @Test
+  fun `test that when event handler returns false the event is retried later and dead-lettered after 3 attempts`() {
+    val event = event("1", "txn-1")
+    every { eventHandler.handleEvent(event) } returns false
+    val delivery = Delivery(event, System.currentTimeMillis())
+
+    clientQueue.deliver(delivery)
+    // The retry is scheduled instead of waiting inline
+    assertEquals(listOf(Pair(delivery, 1L)), retries)
+    clientQueue.process(delivery)
+    assertEquals(listOf(Pair(delivery, 1L), Pair(delivery, 2L)), retries)
+    // The event is not handled while it is waiting for retry
+    assertFalse(delivery.done.isDone)
+    clientQueue.process(delivery)
+    assertTrue(delivery.done.isDone)
+
+    verify(exactly = 3) { eventHandler.handleEvent(any()) }
+    verify(exactly = 1) { deadLetterStore.save("test", event, any(), 3) }
+    verify(exactly = 0) { clientQueue.incrementProcessedCounter() }
+  }
+
+  @Test
+  fun `test that when event handler throws IOException the network backoff is used`() {
+    val event = event("1", "txn-1")
+    every { eventHandler.handleEvent(event) } throws IOException("Mock exception")
+    val delivery = Delivery(event, System.currentTimeMillis())
+
+    clientQueue.deliver(delivery)
+    clientQueue.process(delivery)
+    clientQueue.process(delivery)
+
+    assertEquals(listOf(1L, 2L), retries.map { it.second })
+    verify(exactly = 1) { deadLetterStore.save("test", event, match { it.contains("Mock") }, 3) }
+  }
+
+  @Test
+  fun `test that the events of a retried transaction are held in order`() {
+    val first = event("1", "txn-1")
+    val second = event("2", "txn-1")
+    val other = event("3", "txn-2")
+    every { eventHandler.handleEvent(first) } returns false
+    every { eventHandler.handleEvent(second) } returns true
+    every { eventHandler.handleEvent(other) } returns true
+    val firstDelivery = Delivery(first, System.currentTimeMillis())
+
+    clientQueue.deliver(firstDelivery)
+    clientQueue.deliver(Delivery(second, System.currentTimeMillis()))
+    clientQueue.deliver(Delivery(other, System.currentTimeMillis()))
+
+    // The event of the other transaction is not blocked by the retry
+    verify(exactly = 1) { eventHandler.handleEvent(other) }
+    verify(exactly = 0) { eventHandler.handleEvent(second) }
+
+    every { eventHandler.handleEvent(first) } returns true
+    clientQueue.process(firstDelivery)
+
+    verifyOrder {
+      eventHandler.handleEvent(first)
+      eventHandler.handleEvent(second)
+    }
+    verify(exactly = 1) { eventHandler.handleEvent(second) }
+    verify(exactly = 3) { clientQueue.incrementProcessedCounter() }
+  }
+
+  @ParameterizedTest
+  @ValueSource(
+    classes = [RuntimeException::class, SepException::class, FileNotFoundException::class]
+  )
+  fun `test that when event handler throws uncaught exception, the event is dead-lettered once`(
+    clz: Class<Throwable>
+  ) {
+    val event = event("1", "txn-1")
+    // Mock handleEvent to throw uncaught exception
+    every { eventHandler.handleEvent(event) } answers
+      {
+        throw clz.getConstructor(String::class.java).newInstance("uncaught")
+      }
+
+    clientQueue.deliver(Delivery(event, System.currentTimeMillis()))
+
+    verify(exactly = 1) { eventHandler.handleEvent(any()) }
+    if (clz == FileNotFoundException::class.java) {
+      // FileNotFoundException is an IOException, so it is retried
+      assertEquals(1, retries.size)
+      verify(exactly = 0) { deadLetterStore.save(any(), any(), any(), any()) }
+    } else {
+      assertEquals(0, retries.size)
+      verify(exactly = 1) { deadLetterStore.save("test", event, any(), 0) }
+    }
+    // Make sure the metric does not show it passes
+    verify(exactly = 0) { clientQueue.incrementProcessedCounter() }
+  }
+
+  @Test
+  fun `test that the event is not handled if it cannot be saved to the dead letter store`() {
+    val event = event("1", "txn-1")
+    every { eventHandler.handleEvent(event) } throws RuntimeException("uncaught")
+    every { deadLetterStore.save(any(), any(), any(), any()) } throws RuntimeException("db down")
+    val delivery = Delivery(event, System.currentTimeMillis())
+
+    clientQueue.deliver(delivery)
+
+    assertTrue(delivery.done.isCompletedExceptionally)
+  }
+
+  @Test
+  fun `test that a replayed event is not dead-lettered again`() {
+    val event = event("1", "txn-1")
+    every { eventHandler.handleEvent(event) } throws RuntimeException("uncaught")
+
+    assertFalse(clientQueue.replay(event).get(5, TimeUnit.SECONDS))
+    verify(exactly = 0) { deadLetterStore.save(any(), any(), any(), any()) }
+
+    every { eventHandler.handleEvent(event) } returns true
+    assertTrue(clientQueue.replay(event).get(5, TimeUnit.SECONDS))
+  }
+
+  @Test
+  fun `test that stop saves the held events to the dead letter store`() {
+    val first = event("1", "txn-1")
+    val second = event("2", "txn-1")
+    every { eventHandler.handleEvent(first) } returns false
+    val secondDelivery = Delivery(second, System.currentTimeMillis())
+
+    clientQueue.deliver(Delivery(first, System.currentTimeMillis()))
+    clientQueue.deliver(secondDelivery)
+    // The held event is not handled until it is delivered or saved
+    assertFalse(secondDelivery.done.isDone)
+    clientQueue.stop()
+
+    assertTrue(secondDelivery.done.isDone)
+    verify(exactly = 1) { deadLetterStore.save("test", first, any(), 1) }
+    verify(exactly = 1) { deadLetterStore.save("test", second, any(), 0) }
+  }
+
+  @Test
+  fun `test the events of other transactions are delivered by other lanes`() {
+    val lanedQueue =
+      ClientStatusCallbackQueue("TEST QUEUE", "test", eventHandler, deadLetterStore, 4)
+    val slow = event("1", "txn-1")
+    val slowLane = lanedQueue.laneOf(Delivery(slow, 0))
+    // Find a transaction delivered by another lane
+    val other =
+      (2..100)
+        .map { event("$it", "txn-$it") }
+        .first { lanedQueue.laneOf(Delivery(it, 0)) != slowLane }
+    val release = CountDownLatch(1)
+    every { eventHandler.handleEvent(slow) } answers
+      {
+        release.await()
+        true
+      }
+    every { eventHandler.handleEvent(other) } returns true
+
+    try {
+      val slowDelivered = lanedQueue.enqueue(slow)
+      lanedQueue.enqueue(other).get(5, TimeUnit.SECONDS)
+
+      assertFalse(slowDelivered.isDone)
+      assertEquals(1, lanedQueue.depth)
+      release.countDown()
+      slowDelivered.get(5, TimeUnit.SECONDS)
+      assertEquals(0, lanedQueue.depth)
+    } finally {
+      release.countDown()
+      lanedQueue.stop()
+    }
+  }
+
+  @Test
+  fun `test the status changes of a transaction in the coalescing window are delivered once`() {
+    val coalescingQueue =
+      ClientStatusCallbackQueue("TEST QUEUE", "test", eventHandler, deadLetterStore, 1, 200)
+    val events =
+      listOf(
+        event("1", "txn-1", PENDING_ANCHOR),
+        event("2", "txn-1", PENDING_STELLAR),
+        event("3", "txn-1", COMPLETED)
+      )
+    val other = event("4", "txn-2", PENDING_ANCHOR)
+    every { eventHandler.handleEvent(any()) } returns true
+    every { eventHandler.handleEvent(any(), any()) } returns true
+
+    try {
+      val deliveries = (events + other).map { coalescingQueue.enqueue(it) }
+      CompletableFuture.allOf(*deliveries.toTypedArray()).get(5, TimeUnit.SECONDS)
+
+      verify(exactly = 1) {
+        eventHandler.handleEvent(events[2], listOf("pending_anchor", "pending_stellar"))
+      }
+      verify(exactly = 1) { eventHandler.handleEvent(other) }
+      verify(exactly = 0) { eventHandler.handleEvent(events[0]) }
+      verify(exactly = 0) { eventHandler.handleEvent(events[1]) }
+      assertEquals(0, coalescingQueue.depth)
+    } finally {
+      coalescingQueue.stop()
+    }
+  }
+
+  @Test
+  fun `test the coalesced status changes are delivered before the other events of the transaction`() {
+    val coalescingQueue =
+      ClientStatusCallbackQueue("TEST QUEUE", "test", eventHandler, deadLetterStore, 1, 60_000)
+    val statusChange = event("1", "txn-1", PENDING_ANCHOR)
+    val created =
+      AnchorEvent.builder()
+        .id("2")
+        .type(AnchorEvent.Type.TRANSACTION_CREATED)
+        .transaction(GetTransactionResponse.builder().id("txn-1").build())
+        .build()
+    every { eventHandler.handleEvent(any()) } returns true
+
+    try {
+      val first = coalescingQueue.enqueue(statusChange)
+      coalescingQueue.enqueue(created).get(5, TimeUnit.SECONDS)
+      first.get(5, TimeUnit.SECONDS)
+
+      verifyOrder {
+        eventHandler.handleEvent(statusChange)
+        eventHandler.handleEvent(created)
+      }
+    } finally {
+      coalescingQueue.stop()
+    }
+  }
+
+  @Test
+  fun `test that stop saves the coalesced status changes to the dead letter store`() {
+    val coalescingQueue =
+      ClientStatusCallbackQueue("TEST QUEUE", "test", eventHandler, deadLetterStore, 1, 60_000)
+    val first = event("1", "txn-1", PENDING_ANCHOR)
+    val latest = event("2", "txn-1", COMPLETED)
+
+    val delivery = coalescingQueue.enqueue(first)
+    coalescingQueue.enqueue(latest)
+    coalescingQueue.stop()
+
+    assertTrue(delivery.isDone)
+    verify(exactly = 0) { eventHandler.handleEvent(any()) }
+    verify(exactly = 1) { deadLetterStore.save("test", latest, any(), 0) }
+  }
+
+  private fun event(id: String, txnId: String, status: SepTransactionStatus): AnchorEvent {
+    return AnchorEvent.builder()
+      .id(id)
+      .type(AnchorEvent.Type.TRANSACTION_STATUS_CHANGED)
+      .transaction(GetTransactionResponse.builder().id(txnId).status(status).build())
+      .build()
+  }
+
+  private fun event(id: String, txnId: String): AnchorEvent {
+    return AnchorEvent.builder()
+      .id(id)
+      .type(AnchorEvent.Type.TRANSACTION_STATUS_CHANGED)
+      .transaction(GetTransactionResponse.builder().id(txnId).build())
+      .build()
+  }
+}
@@ -1,11 +1,13 @@
 package org.stellar.anchor.platform.event
 
+import io.mockk.mockk
 import org.apache.commons.lang3.NotImplementedException
 import org.junit.jupiter.api.BeforeEach
 import org.junit.jupiter.api.Test
 import org.junit.jupiter.api.assertThrows
 import org.stellar.anchor.config.event.QueueConfig.QueueType.*
 import org.stellar.anchor.event.EventService.EventQueue.TRANSACTION
+import org.stellar.anchor.platform.config.MemoryQueueConfig
 import org.stellar.anchor.platform.config.PropertyEventConfig
 import org.stellar.anchor.util.GsonUtils
 
@@ -33,6 +35,16 @@ internal class DefaultEventServiceTest {
     // Test create MSK session should throw not implemented exception
     eventConfig.queue.type = MSK
     assertThrows<NotImplementedException> { defaultEventService.createSession("test", TRANSACTION) }
+    // Test create outbox session
+    eventConfig.queue.type = OUTBOX
+    defaultEventService = DefaultEventService(eventConfig, mockk())
+    session = defaultEventService.createSession("test", TRANSACTION)
+    assert(session is OutboxSession)
+    // Test create in-memory session
+    eventConfig.queue.type = MEMORY
+    eventConfig.queue.memory = MemoryQueueConfig()
+    session = defaultEventService.createSession("test", TRANSACTION)
+    assert(session is AfterCommitEventSession)
   }
 
   val eventConfigJson =
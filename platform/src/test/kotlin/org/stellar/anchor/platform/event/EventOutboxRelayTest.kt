@@ -0,0 +1,117 @@
+package org.stellar.anchor.platform.event
+
+import io.mockk.*
+import io.mockk.impl.annotations.MockK
+import java.util.concurrent.CompletableFuture
+import java.util.concurrent.TimeoutException
+import org.junit.jupiter.api.Assertions.assertEquals
+import org.junit.jupiter.api.Assertions.assertTrue
+import org.junit.jupiter.api.BeforeEach
+import org.junit.jupiter.api.Test
+import org.junit.jupiter.api.assertThrows
+import org.springframework.transaction.TransactionStatus
+import org.springframework.transaction.support.TransactionCallback
+import org.springframework.transaction.support.TransactionTemplate
+import org.stellar.anchor.api.event.AnchorEvent
+import org.stellar.anchor.api.exception.EventPublishException
+import org.stellar.anchor.event.EventService.EventQueue.TRANSACTION
+import org.stellar.anchor.platform.config.PropertyEventConfig
+import org.stellar.anchor.platform.data.JdbcEventOutbox
+import org.stellar.anchor.platform.data.JdbcEventOutboxRepo
+import org.stellar.anchor.util.GsonUtils
+
+class EventOutboxRelayTest {
+  @MockK(relaxed = true) lateinit var eventConfig: PropertyEventConfig
+  @MockK(relaxed = true) lateinit var outboxRepo: JdbcEventOutboxRepo
+  @MockK(relaxed = true) lateinit var transactionTemplate: TransactionTemplate
+  @MockK(relaxed = true) lateinit var kafkaSession: KafkaSession
+  private lateinit var relay: EventOutboxRelay
+
+  @BeforeEach
+  fun setup() {
+    MockKAnnotations.init(this)
+    every { transactionTemplate.execute(any<TransactionCallback<Int>>()) } answers
+      {
+        firstArg<TransactionCallback<Int>>().doInTransaction(mockk<TransactionStatus>())
+      }
+    every { outboxRepo.tryLockRelay() } returns true
+    every { eventConfig.queue.outbox.sendTimeoutMs } returns 100
+    relay = spyk(EventOutboxRelay(eventConfig, outboxRepo, transactionTemplate))
+    every { relay.getSession(any()) } returns kafkaSession
+  }
+
+  @Test
+  fun `test the events are deleted from the outbox once they are delivered`() {
+    val outboxEvents = listOf(outboxEvent("1"), outboxEvent("2"))
+    every { outboxRepo.lockOldest(10) } returns outboxEvents
+    every { kafkaSession.send(any()) } returns CompletableFuture.completedFuture(null)
+
+    assertEquals(2, relay.relayBatch(10))
+
+    verify(exactly = 2) { kafkaSession.send(any()) }
+    verify(exactly = 1) { outboxRepo.deleteAll(outboxEvents) }
+  }
+
+  @Test
+  fun `test the events stay in the outbox if an event is not delivered`() {
+    val outboxEvents = listOf(outboxEvent("1"), outboxEvent("2"))
+    every { outboxRepo.lockOldest(10) } returns outboxEvents
+    every { kafkaSession.send(match { it.id == "1" }) } returns
+      CompletableFuture.completedFuture(null)
+    every { kafkaSession.send(match { it.id == "2" }) } returns
+      CompletableFuture.failedFuture(EventPublishException("Mock failure"))
+
+    assertThrows<Exception> { relay.relayBatch(10) }
+
+    verify(exactly = 0) { outboxRepo.deleteAll(any()) }
+  }
+
+  @Test
+  fun `test the events stay in the outbox if Kafka does not acknowledge them in time`() {
+    val outboxEvents = listOf(outboxEvent("1"))
+    every { outboxRepo.lockOldest(10) } returns outboxEvents
+    every { kafkaSession.send(any()) } returns CompletableFuture()
+
+    val ex = assertThrows<IllegalStateException> { relay.relayBatch(10) }
+
+    assertTrue(ex.cause is TimeoutException)
+    verify(exactly = 0) { outboxRepo.deleteAll(any()) }
+  }
+
+  @Test
+  fun `test the outbox is not relayed while another relay holds the lock`() {
+    every { outboxRepo.tryLockRelay() } returns false
+
+    assertEquals(0, relay.relayBatch(10))
+
+    verify(exactly = 0) { outboxRepo.lockOldest(any()) }
+    verify(exactly = 0) { kafkaSession.send(any()) }
+  }
+
+  @Test
+  fun `test the outbox is drained until a batch is not full`() {
+    every { eventConfig.queue.outbox.batchSize } returns 2
+    every { outboxRepo.lockOldest(2) } returnsMany
+      listOf(
+        listOf(outboxEvent("1"), outboxEvent("2")),
+        listOf(outboxEvent("3")),
+      )
+    every { kafkaSession.send(any()) } returns CompletableFuture.completedFuture(null)
+
+    relay.drain()
+
+    verify(exactly = 2) { outboxRepo.lockOldest(2) }
+    verify(exactly = 3) { kafkaSession.send(any()) }
+  }
+
+  private fun outboxEvent(id: String): JdbcEventOutbox {
+    val event =
+      AnchorEvent.builder().id(id).type(AnchorEvent.Type.TRANSACTION_STATUS_CHANGED).build()
+    return JdbcEventOutbox().apply {
+      this.id = "outbox-$id"
+      this.queue = TRANSACTION.name
+      this.eventId = id
+      this.event = GsonUtils.getInstance().toJson(event)
+    }
+  }
+}
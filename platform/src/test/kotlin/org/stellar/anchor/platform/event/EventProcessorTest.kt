@@ -0,0 +1,255 @@
+package org.stellar.anchor.platform.event
+
+import io.mockk.MockKAnnotations
+import io.mockk.every
+import io.mockk.impl.annotations.MockK
+import io.mockk.mockk
+import java.util.Collections
+import java.util.concurrent.ConcurrentLinkedQueue
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicInteger
+import okhttp3.mockwebserver.Dispatcher
+import okhttp3.mockwebserver.MockResponse
+import okhttp3.mockwebserver.MockWebServer
+import okhttp3.mockwebserver.RecordedRequest
+import org.junit.jupiter.api.AfterEach
+import org.junit.jupiter.api.Assertions.assertEquals
+import org.junit.jupiter.api.Assertions.assertTrue
+import org.junit.jupiter.api.BeforeEach
+import org.junit.jupiter.api.Test
+import org.stellar.anchor.api.callback.SendEventsRequest
+import org.stellar.anchor.api.callback.SendEventsResponse
+import org.stellar.anchor.api.event.AnchorEvent
+import org.stellar.anchor.api.platform.GetTransactionResponse
+import org.stellar.anchor.auth.AuthConfig
+import org.stellar.anchor.auth.AuthType
+import org.stellar.anchor.event.EventService
+import org.stellar.anchor.event.EventService.EventQueue
+import org.stellar.anchor.platform.config.CallbackApiConfig
+import org.stellar.anchor.util.GsonUtils
+
+class EventProcessorTest {
+  @MockK(relaxed = true) lateinit var eventService: EventService
+  @MockK(relaxed = true) lateinit var eventHandler: CallbackApiEventHandler
+  private val acked = ConcurrentLinkedQueue<EventService.ReadResponse>()
+  private var processor: EventProcessor? = null
+
+  @BeforeEach
+  fun setup() {
+    MockKAnnotations.init(this)
+  }
+
+  @AfterEach
+  fun tearDown() {
+    processor?.stop()
+  }
+
+  @Test
+  fun `test the events of a transaction are handled in order by the same lane`() {
+    val handled = Collections.synchronizedList(mutableListOf<String>())
+    every { eventHandler.handleEvent(any()) } answers
+      {
+        val event = firstArg<AnchorEvent>()
+        // The later events of txn-1 are handled faster than the first one
+        if (event.id == "1") Thread.sleep(100)
+        handled.add(event.id)
+        true
+      }
+    val reads =
+      listOf(
+        response(event("1", "txn-1"), event("2", "txn-2")),
+        response(event("3", "txn-1"), event("4", "txn-1"))
+      )
+
+    handle(lanes(4), reads)
+
+    assertEquals(listOf("1", "3", "4"), handled.filter { it != "2" })
+    assertEquals(reads, acked.toList())
+  }
+
+  @Test
+  fun `test a read is acknowledged only after all the previous reads are handled`() {
+    val slowEvent = CountDownLatch(1)
+    val fastEvent = CountDownLatch(1)
+    every { eventHandler.handleEvent(any()) } answers
+      {
+        val event = firstArg<AnchorEvent>()
+        if (event.id == "1") slowEvent.await() else fastEvent.countDown()
+        true
+      }
+    val reads = listOf(response(event("1", "txn-1")), response(event("2", "txn-2")))
+    val processor = lanes(2)
+    val consumer = start(processor, reads)
+
+    assertTrue(fastEvent.await(5, TimeUnit.SECONDS))
+    Thread.sleep(100)
+    // The second read is handled, but the first one is not
+    assertTrue(acked.isEmpty())
+
+    slowEvent.countDown()
+    awaitAcked(reads.size)
+    assertEquals(reads, acked.toList())
+    processor.stop()
+    consumer.join(5000)
+  }
+
+  @Test
+  fun `test the lanes send the callbacks of different transactions concurrently`() {
+    val laneCount = 4
+    // The first requests wait until a request of every lane is in flight
+    val allInFlight = CountDownLatch(laneCount)
+    val inFlight = AtomicInteger()
+    val maxInFlight = AtomicInteger()
+    val timedOut = AtomicInteger()
+    val server = MockWebServer()
+    server.dispatcher =
+      object : Dispatcher() {
+        override fun dispatch(request: RecordedRequest): MockResponse {
+          maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), ::maxOf)
+          allInFlight.countDown()
+          if (!allInFlight.await(5, TimeUnit.SECONDS)) timedOut.incrementAndGet()
+          inFlight.decrementAndGet()
+          return MockResponse().setResponseCode(200).setBody("{}")
+        }
+      }
+    server.start()
+    val callbackApiConfig = CallbackApiConfig(mockk(relaxed = true))
+    callbackApiConfig.baseUrl = server.url("").toString()
+    callbackApiConfig.auth = AuthConfig().apply { type = AuthType.NONE }
+
+    try {
+      val processor =
+        CallbackApiEventProcessor(
+          "callback-api",
+          EventQueue.TRANSACTION,
+          eventService,
+          CallbackApiEventHandler(callbackApiConfig),
+          laneCount
+        )
+      // Two events of a transaction of every lane
+      val txnIds =
+        (0 until 100)
+          .map { "txn-$it" }
+          .distinctBy { processor.laneOf(event(it, it)) }
+          .take(laneCount)
+      assertEquals(laneCount, txnIds.size)
+      val events = (0 until 2 * laneCount).map { i -> event("$i", txnIds[i % laneCount]) }
+
+      handle(processor, events.chunked(laneCount).map { response(*it.toTypedArray()) })
+
+      assertEquals(0, timedOut.get())
+      assertEquals(laneCount, maxInFlight.get())
+      assertEquals(events.size, server.requestCount)
+    } finally {
+      server.shutdown()
+    }
+  }
+
+  @Test
+  fun `test the events are sent in full batches in order`() {
+    val batchSize = 50
+    val eventCount = 200
+    val gson = GsonUtils.getInstance()
+    val batches = Collections.synchronizedList(mutableListOf<List<String>>())
+    val server = MockWebServer()
+    server.dispatcher =
+      object : Dispatcher() {
+        override fun dispatch(request: RecordedRequest): MockResponse {
+          val batch = gson.fromJson(request.body.readUtf8(), SendEventsRequest::class.java).events
+          batches.add(batch.map { it.id })
+          val results = batch.map { SendEventsResponse.Result(it.id, 200, "event processed") }
+          return MockResponse()
+            .setResponseCode(200)
+            .setBody(gson.toJson(SendEventsResponse(results)))
+        }
+      }
+    server.start()
+    val callbackApiConfig = CallbackApiConfig(mockk(relaxed = true))
+    callbackApiConfig.baseUrl = server.url("").toString()
+    callbackApiConfig.auth = AuthConfig().apply { type = AuthType.NONE }
+    val events = (0 until eventCount).map { i -> event("$i", "txn-${i % 20}") }
+
+    try {
+      val processor =
+        CallbackApiEventProcessor(
+          "callback-api",
+          EventQueue.TRANSACTION,
+          eventService,
+          CallbackApiEventHandler(callbackApiConfig),
+          1,
+          batchSize,
+          // The batches are sent when they are full, not after the linger time
+          60_000
+        )
+      handle(processor, events.chunked(batchSize).map { response(*it.toTypedArray()) })
+
+      assertEquals(eventCount / batchSize, server.requestCount)
+      repeat(server.requestCount) {
+        assertTrue(server.takeRequest().path!!.endsWith("/event/batch"))
+      }
+      assertEquals(events.map { it.id }.chunked(batchSize), batches.toList())
+    } finally {
+      server.shutdown()
+    }
+  }
+
+  private fun lanes(count: Int): EventProcessor {
+    return CallbackApiEventProcessor(
+      "TEST PROCESSOR",
+      EventQueue.TRANSACTION,
+      eventService,
+      eventHandler,
+      count
+    )
+  }
+
+  /** Handle the reads and stop the processor once they are all acknowledged. */
+  private fun handle(processor: EventProcessor, reads: List<EventService.ReadResponse>) {
+    val consumer = start(processor, reads)
+    awaitAcked(reads.size)
+    processor.stop()
+    consumer.join(5000)
+  }
+
+  private fun start(processor: EventProcessor, reads: List<EventService.ReadResponse>): Thread {
+    this.processor = processor
+    val remaining = ConcurrentLinkedQueue(reads)
+    val session = mockk<EventService.Session>(relaxed = true)
+    every { session.read() } answers
+      {
+        remaining.poll()
+          ?: run {
+            Thread.sleep(10)
+            response()
+          }
+      }
+    every { session.ack(any()) } answers
+      {
+        val readResponse = firstArg<EventService.ReadResponse>()
+        if (readResponse.events.isNotEmpty()) acked.add(readResponse)
+      }
+    every { eventService.createSession(any(), any()) } returns session
+    return Thread(processor).apply { start() }
+  }
+
+  private fun awaitAcked(count: Int) {
+    val deadline = System.currentTimeMillis() + 10_000
+    while (acked.size < count && System.currentTimeMillis() < deadline) {
+      Thread.sleep(5)
+    }
+    assertEquals(count, acked.size)
+  }
+
+  private fun response(vararg events: AnchorEvent): EventService.ReadResponse {
+    return KafkaSession.KafkaReadResponse(events.toList(), mapOf())
+  }
+
+  private fun event(id: String, txnId: String): AnchorEvent {
+    return AnchorEvent.builder()
+      .id(id)
+      .type(AnchorEvent.Type.TRANSACTION_STATUS_CHANGED)
+      .transaction(GetTransactionResponse.builder().id(txnId).build())
+      .build()
+  }
+}
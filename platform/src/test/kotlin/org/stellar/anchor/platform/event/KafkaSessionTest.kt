@@ -3,19 +3,37 @@ package org.stellar.anchor.platform.event
 import io.mockk.MockKAnnotations
 import io.mockk.every
 import io.mockk.impl.annotations.MockK
+import io.mockk.mockk
 import io.mockk.spyk
 import io.mockk.verify
+import java.time.Duration
 import java.util.*
+import java.util.concurrent.CompletableFuture
+import java.util.concurrent.CompletionException
+import org.apache.kafka.clients.consumer.Consumer
+import org.apache.kafka.clients.consumer.ConsumerRecord
+import org.apache.kafka.clients.consumer.ConsumerRecords
+import org.apache.kafka.clients.consumer.OffsetAndMetadata
+import org.apache.kafka.clients.producer.Callback
+import org.apache.kafka.clients.producer.Producer
+import org.apache.kafka.clients.producer.ProducerRecord
+import org.apache.kafka.clients.producer.RecordMetadata
 import org.apache.kafka.clients.CommonClientConfigs.SECURITY_PROTOCOL_CONFIG
+import org.apache.kafka.common.TopicPartition
 import org.apache.kafka.common.config.SaslConfigs.SASL_MECHANISM
 import org.apache.kafka.common.config.SslConfigs.*
 import org.junit.jupiter.api.Assertions.assertEquals
+import org.junit.jupiter.api.Assertions.assertFalse
+import org.junit.jupiter.api.Assertions.assertTrue
 import org.junit.jupiter.api.BeforeEach
 import org.junit.jupiter.api.Test
+import org.junit.jupiter.api.assertThrows
 import org.junit.jupiter.api.extension.ExtendWith
 import org.junit.jupiter.params.ParameterizedTest
 import org.junit.jupiter.params.provider.ValueSource
 import org.springframework.context.ConfigurableApplicationContext
+import org.stellar.anchor.api.event.AnchorEvent
+import org.stellar.anchor.api.exception.EventPublishException
 import org.stellar.anchor.LockAndMockStatic
 import org.stellar.anchor.LockAndMockTest
 import org.stellar.anchor.event.EventService.EventQueue
@@ -24,8 +42,10 @@ import org.stellar.anchor.platform.config.KafkaConfig.SecurityProtocol.PLAINTEXT
 import org.stellar.anchor.platform.config.PropertySecretConfig.SECRET_EVENTS_QUEUE_KAFKA_PASSWORD
 import org.stellar.anchor.platform.config.PropertySecretConfig.SECRET_EVENTS_QUEUE_KAFKA_USERNAME
 import org.stellar.anchor.platform.configurator.SecretManager
+import org.stellar.anchor.platform.event.EventProcessorManager.CLIENT_STATUS_CALLBACK_EVENT_PROCESSOR_NAME
 import org.stellar.anchor.platform.utils.ResourceHelper
 import org.stellar.anchor.platform.utils.TrustAllSslEngineFactory
+import org.stellar.anchor.util.GsonUtils
 
 @ExtendWith(LockAndMockTest::class)
 class KafkaSessionTest {
@@ -37,12 +57,14 @@ class KafkaSessionTest {
   @MockK(relaxed = true) lateinit var kafkaConfig: KafkaConfig
   @MockK(relaxed = true) lateinit var eventQueue: EventQueue
   @MockK(relaxed = true) lateinit var appContext: ConfigurableApplicationContext
+  @MockK(relaxed = true) lateinit var producer: Producer<String, String>
   private lateinit var kafkaSession: KafkaSession
 
   @BeforeEach
   fun setUp() {
     MockKAnnotations.init(this, relaxUnitFun = true)
     kafkaSession = spyk(KafkaSession(kafkaConfig, "test", eventQueue))
+    kafkaSession.producer = producer
   }
 
   @Test
@@ -109,4 +131,188 @@ class KafkaSessionTest {
       verify(exactly = 0) { kafkaSession.find(any()) }
     }
   }
+
+  @Test
+  fun `test async publish does not wait for the broker acknowledgement`() {
+    every { kafkaConfig.isAsyncPublish } returns true
+    val callbacks = mutableListOf<Callback>()
+    every { producer.send(any(), capture(callbacks)) } returns CompletableFuture()
+
+    val delivered = kafkaSession.publishAsync(event("1"))
+    kafkaSession.publish(event("2"))
+
+    verify(exactly = 2) { producer.send(any(), any()) }
+    assertFalse(delivered.isDone)
+    callbacks[0].onCompletion(mockk<RecordMetadata>(), null)
+    assertTrue(delivered.isDone)
+    assertFalse(delivered.isCompletedExceptionally)
+  }
+
+  @Test
+  fun `test sync publish waits for the broker acknowledgement`() {
+    val records = mutableListOf<ProducerRecord<String, String>>()
+    every { producer.send(capture(records), any()) } answers
+      {
+        secondArg<Callback>().onCompletion(mockk<RecordMetadata>(), null)
+        CompletableFuture()
+      }
+
+    kafkaSession.publish(event("1"))
+
+    assertEquals(1, records.size)
+    assertEquals("1", records[0].key())
+    assertEquals("transaction_created", String(records[0].headers().lastHeader("type").value()))
+  }
+
+  @Test
+  fun `test sync publish throws when the event cannot be delivered`() {
+    val keys = mutableListOf<String>()
+    var failing = true
+    every { producer.send(any(), any()) } answers
+      {
+        keys.add(firstArg<ProducerRecord<String, String>>().key())
+        secondArg<Callback>()
+          .onCompletion(
+            if (failing) null else mockk<RecordMetadata>(),
+            if (failing) RuntimeException("broker down") else null,
+          )
+        CompletableFuture()
+      }
+
+    assertThrows<EventPublishException> { kafkaSession.publish(event("1")) }
+
+    failing = false
+    kafkaSession.publish(event("2"))
+    // The failed event is not sent again by the session
+    assertEquals(listOf("1", "2"), keys)
+  }
+
+  @Test
+  fun `test the failure is reported by the future of the failed event only`() {
+    every { producer.send(any(), any()) } answers
+      {
+        val failed = firstArg<ProducerRecord<String, String>>().key() == "1"
+        secondArg<Callback>()
+          .onCompletion(
+            if (failed) null else mockk<RecordMetadata>(),
+            if (failed) RuntimeException("broker down") else null,
+          )
+        CompletableFuture()
+      }
+
+    val failed = kafkaSession.publishAsync(event("1"))
+    val delivered = kafkaSession.publishAsync(event("2"))
+    // The flush of another caller does not report the failure
+    kafkaSession.flush()
+
+    verify(exactly = 1) { producer.flush() }
+    assertTrue(failed.isCompletedExceptionally)
+    val ex = assertThrows<CompletionException> { failed.join() }
+    assertTrue(ex.cause is EventPublishException)
+    assertTrue(delivered.isDone)
+    assertFalse(delivered.isCompletedExceptionally)
+  }
+
+  @Test
+  fun `test ack commits the offsets of the read response only`() {
+    val consumer = mockk<Consumer<String, String>>(relaxed = true)
+    kafkaSession.consumer = consumer
+    val partition0 = TopicPartition("TRANSACTION", 0)
+    val partition1 = TopicPartition("TRANSACTION", 1)
+    every { consumer.poll(any<Duration>()) } returnsMany
+      listOf(
+        ConsumerRecords(
+          mapOf(
+            partition0 to listOf(record(partition0, 5, "1"), record(partition0, 6, "2")),
+            partition1 to listOf(record(partition1, 3, "3"))
+          )
+        ),
+        ConsumerRecords(mapOf(partition0 to listOf(record(partition0, 7, "4"))))
+      )
+
+    val first = kafkaSession.read()
+    kafkaSession.read()
+    kafkaSession.ack(first)
+
+    assertEquals(3, first.events.size)
+    verify(exactly = 1) {
+      consumer.commitSync(
+        mapOf(partition0 to OffsetAndMetadata(7), partition1 to OffsetAndMetadata(4))
+      )
+    }
+    verify(exactly = 0) { consumer.commitSync() }
+  }
+
+  @Test
+  fun `test a new consumer group resumes from the lowest offset of the groups it replaces`() {
+    kafkaSession =
+      spyk(KafkaSession(kafkaConfig, CLIENT_STATUS_CALLBACK_EVENT_PROCESSOR_NAME, eventQueue))
+    val consumer = mockk<Consumer<String, String>>(relaxed = true)
+    kafkaSession.consumer = consumer
+    val partition0 = TopicPartition("TRANSACTION", 0)
+    val partition1 = TopicPartition("TRANSACTION", 1)
+    val partition2 = TopicPartition("TRANSACTION", 2)
+    every { consumer.committed(any<Set<TopicPartition>>()) } returns
+      mapOf(partition0 to null, partition1 to OffsetAndMetadata(10), partition2 to null)
+    every { kafkaSession.findReplacedGroupOffsets() } returns
+      mapOf(
+        "group-client-status-callback-client-1" to
+          mapOf(partition0 to OffsetAndMetadata(7), partition1 to OffsetAndMetadata(3)),
+        "group-client-status-callback-client-2" to mapOf(partition0 to OffsetAndMetadata(5))
+      )
+
+    kafkaSession.seedOffsets(listOf(partition0, partition1, partition2))
+
+    verify(exactly = 1) { consumer.seek(partition0, 5L) }
+    // The committed partition and the partition unknown to the replaced groups are not seeded
+    verify(exactly = 0) { consumer.seek(partition1, any<Long>()) }
+    verify(exactly = 0) { consumer.seek(partition2, any<Long>()) }
+  }
+
+  @Test
+  fun `test the replaced groups are not looked up once the group has committed`() {
+    kafkaSession =
+      spyk(KafkaSession(kafkaConfig, CLIENT_STATUS_CALLBACK_EVENT_PROCESSOR_NAME, eventQueue))
+    val consumer = mockk<Consumer<String, String>>(relaxed = true)
+    kafkaSession.consumer = consumer
+    val partition0 = TopicPartition("TRANSACTION", 0)
+    every { consumer.committed(any<Set<TopicPartition>>()) } returns
+      mapOf(partition0 to OffsetAndMetadata(10))
+
+    kafkaSession.seedOffsets(listOf(partition0))
+
+    verify(exactly = 0) { kafkaSession.findReplacedGroupOffsets() }
+    verify(exactly = 0) { consumer.seek(any(), any<Long>()) }
+  }
+
+  @Test
+  fun `test the offsets of the other consumer groups are not seeded`() {
+    val consumer = mockk<Consumer<String, String>>(relaxed = true)
+    kafkaSession.consumer = consumer
+    val partition0 = TopicPartition("TRANSACTION", 0)
+    every { consumer.committed(any<Set<TopicPartition>>()) } returns mapOf(partition0 to null)
+
+    kafkaSession.seedOffsets(listOf(partition0))
+
+    verify(exactly = 0) { kafkaSession.findReplacedGroupOffsets() }
+    verify(exactly = 0) { consumer.seek(any(), any<Long>()) }
+  }
+
+  private fun record(
+    partition: TopicPartition,
+    offset: Long,
+    id: String
+  ): ConsumerRecord<String, String> {
+    return ConsumerRecord(
+      partition.topic(),
+      partition.partition(),
+      offset,
+      id,
+      GsonUtils.getInstance().toJson(event(id))
+    )
+  }
+
+  private fun event(id: String): AnchorEvent {
+    return AnchorEvent.builder().id(id).type(AnchorEvent.Type.TRANSACTION_CREATED).build()
+  }
 }
@@ -0,0 +1,157 @@
+package org.stellar.anchor.platform.event
+
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.TimeUnit
+import kotlin.concurrent.thread
+import org.junit.jupiter.api.Assertions.assertEquals
+import org.junit.jupiter.api.Assertions.assertSame
+import org.junit.jupiter.api.Assertions.assertTrue
+import org.junit.jupiter.api.Test
+import org.junit.jupiter.api.assertThrows
+import org.stellar.anchor.api.event.AnchorEvent
+import org.stellar.anchor.api.exception.EventPublishException
+import org.stellar.anchor.platform.config.MemoryQueueConfig
+
+class RingBufferEventQueueTest {
+  private val config = MemoryQueueConfig(4, 10, 100, 100)
+
+  @Test
+  fun `test the capacity is rounded up to a power of two`() {
+    assertEquals(4, RingBufferEventQueue(3).capacity)
+    assertEquals(8, RingBufferEventQueue(8).capacity)
+    assertEquals(1, RingBufferEventQueue(0).capacity)
+  }
+
+  @Test
+  fun `test every subscriber reads the events by reference`() {
+    val queue = RingBufferEventQueue(config.capacity)
+    val session1 = RingBufferSession(config, "processor-1", queue)
+    val session2 = RingBufferSession(config, "processor-2", queue)
+    // Subscribe before publishing
+    session1.read()
+    session2.read()
+    val event = event("1")
+
+    RingBufferSession(config, "publisher", queue).publish(event)
+
+    val read1 = session1.read()
+    val read2 = session2.read()
+    assertSame(event, read1.events.single())
+    assertSame(event, read2.events.single())
+    session1.ack(read1)
+    // The events are not read again once read
+    assertEquals(0, session1.read().events.size)
+  }
+
+  @Test
+  fun `test the sessions with the same name share the read position`() {
+    val queue = RingBufferEventQueue(config.capacity)
+    val session1 = RingBufferSession(config, "processor", queue)
+    val session2 = RingBufferSession(config, "processor", queue)
+    session1.read()
+    queue.publish(event("1"), 0)
+    queue.publish(event("2"), 0)
+
+    assertEquals(listOf("1", "2"), session2.read().events.map { it.id })
+    assertEquals(0, session1.read().events.size)
+  }
+
+  @Test
+  fun `test a new subscriber reads the events published before it subscribed`() {
+    val queue = RingBufferEventQueue(config.capacity)
+    (1..6).forEach { queue.publish(event("$it"), 0) }
+
+    val read = RingBufferSession(config, "processor", queue).read()
+
+    // Only the last events are kept without subscribers
+    assertEquals(listOf("3", "4", "5", "6"), read.events.map { it.id })
+  }
+
+  @Test
+  fun `test the publisher waits for the slowest subscriber to acknowledge`() {
+    val queue = RingBufferEventQueue(config.capacity)
+    val fast = RingBufferSession(config, "fast", queue)
+    val slow = RingBufferSession(config, "slow", queue)
+    fast.read()
+    slow.read()
+    (1..4).forEach { queue.publish(event("$it"), 0) }
+    fast.ack(fast.read())
+    val slowRead = slow.read()
+
+    // The events read by the slow subscriber are not acknowledged yet
+    assertThrows<EventPublishException> { queue.publish(event("5"), 50) }
+
+    val published = CountDownLatch(1)
+    thread {
+      queue.publish(event("5"), 5000)
+      published.countDown()
+    }
+    slow.ack(slowRead)
+    assertTrue(published.await(5, TimeUnit.SECONDS))
+    assertEquals(listOf("5"), fast.read().events.map { it.id })
+  }
+
+  @Test
+  fun `test the events of concurrent publishers are all read once`() {
+    val queue = RingBufferEventQueue(64)
+    val readConfig = MemoryQueueConfig(64, 16, 100, 5000)
+    val publishers = 4
+    val eventsPerPublisher = 5000
+    val sessions = (1..2).map { RingBufferSession(readConfig, "processor-$it", queue) }
+    sessions.forEach { it.read() }
+
+    val readers =
+      sessions.map { session ->
+        val ids = mutableListOf<String>()
+        Pair(
+          ids,
+          thread {
+            while (ids.size < publishers * eventsPerPublisher) {
+              val read = session.read()
+              read.events.forEach { ids.add(it.id) }
+              session.ack(read)
+            }
+          }
+        )
+      }
+    val writers =
+      (0 until publishers).map { p ->
+        thread { (0 until eventsPerPublisher).forEach { queue.publish(event("$p-$it"), 5000) } }
+      }
+    writers.forEach { it.join(10_000) }
+    readers.forEach { it.second.join(10_000) }
+
+    for ((ids, _) in readers) {
+      assertEquals(publishers * eventsPerPublisher, ids.toSet().size)
+      // The events of each publisher are read in the order they are published
+      for (p in 0 until publishers) {
+        val own = ids.filter { it.startsWith("$p-") }.map { it.substringAfter("-").toInt() }
+        assertEquals((0 until eventsPerPublisher).toList(), own)
+      }
+    }
+  }
+
+  @Test
+  fun `test the events not acknowledged are read again by the next session`() {
+    val queue = RingBufferEventQueue(config.capacity)
+    val session = RingBufferSession(config, "processor", queue)
+    session.read()
+    (1..3).forEach { queue.publish(event("$it"), 0) }
+    session.ack(session.read())
+    (4..5).forEach { queue.publish(event("$it"), 0) }
+
+    // The processor fails before acknowledging the events
+    assertThrows<IllegalStateException> {
+      assertEquals(listOf("4", "5"), session.read().events.map { it.id })
+      throw IllegalStateException("processing failed")
+    }
+    session.close()
+
+    val next = RingBufferSession(config, "processor", queue)
+    assertEquals(listOf("4", "5"), next.read().events.map { it.id })
+  }
+
+  private fun event(id: String): AnchorEvent {
+    return AnchorEvent.builder().id(id).type(AnchorEvent.Type.TRANSACTION_STATUS_CHANGED).build()
+  }
+}
@@ -0,0 +1,96 @@
+package org.stellar.anchor.platform.observer
+
+import io.mockk.MockKAnnotations
+import io.mockk.every
+import io.mockk.impl.annotations.MockK
+import io.mockk.slot
+import io.mockk.verify
+import org.junit.jupiter.api.AfterEach
+import org.junit.jupiter.api.Assertions.assertEquals
+import org.junit.jupiter.api.Assertions.assertSame
+import org.junit.jupiter.api.BeforeEach
+import org.junit.jupiter.api.Test
+import org.stellar.anchor.api.rpc.RpcRequest
+import org.stellar.anchor.api.rpc.RpcResponse
+import org.stellar.anchor.api.rpc.method.NotifyOnchainFundsReceivedRequest
+import org.stellar.anchor.api.rpc.method.NotifyOnchainFundsSentRequest
+import org.stellar.anchor.api.rpc.method.RpcMethod.NOTIFY_ONCHAIN_FUNDS_RECEIVED
+import org.stellar.anchor.api.rpc.method.RpcMethod.NOTIFY_ONCHAIN_FUNDS_SENT
+import org.stellar.anchor.platform.service.InProcessRpcServices
+import org.stellar.anchor.platform.service.RpcService
+
+class InProcessPaymentNotifierTest {
+  @MockK(relaxed = true) private lateinit var rpcService: RpcService
+  @MockK(relaxed = true) private lateinit var fallback: PaymentNotifier
+
+  private lateinit var notifier: InProcessPaymentNotifier
+
+  @BeforeEach
+  fun setup() {
+    MockKAnnotations.init(this, relaxUnitFun = true)
+    every { rpcService.handle(any()) } returns listOf(RpcResponse.builder().build())
+    notifier = InProcessPaymentNotifier(fallback)
+  }
+
+  @AfterEach
+  fun tearDown() {
+    InProcessRpcServices.unregister(rpcService)
+  }
+
+  @Test
+  fun `test notifications are sent through HTTP if the platform server is not in the JVM`() {
+    notifier.notifyOnchainFundsReceived("txn-id", "stellar-txn-id", "10", "received")
+    notifier.notifyOnchainFundsSent("txn-id", "stellar-txn-id", "sent")
+
+    verify(exactly = 1) {
+      fallback.notifyOnchainFundsReceived("txn-id", "stellar-txn-id", "10", "received")
+    }
+    verify(exactly = 1) { fallback.notifyOnchainFundsSent("txn-id", "stellar-txn-id", "sent") }
+    verify { rpcService wasNot Called }
+  }
+
+  @Test
+  fun `test notifyOnchainFundsReceived calls the RPC service directly`() {
+    InProcessRpcServices.register(rpcService)
+    val requests = slot<List<RpcRequest>>()
+    every { rpcService.handle(capture(requests)) } returns listOf(RpcResponse.builder().build())
+
+    notifier.notifyOnchainFundsReceived("txn-id", "stellar-txn-id", "10", "received")
+
+    assertEquals(1, requests.captured.size)
+    val rpcRequest = requests.captured[0]
+    assertEquals(NOTIFY_ONCHAIN_FUNDS_RECEIVED.toString(), rpcRequest.method)
+    assertEquals("2.0", rpcRequest.jsonrpc)
+    val params = rpcRequest.params as NotifyOnchainFundsReceivedRequest
+    assertEquals("txn-id", params.transactionId)
+    assertEquals("stellar-txn-id", params.stellarTransactionId)
+    assertEquals("10", params.amountIn.amount)
+    assertEquals("received", params.message)
+    verify { fallback wasNot Called }
+  }
+
+  @Test
+  fun `test notifyOnchainFundsSent calls the RPC service directly`() {
+    InProcessRpcServices.register(rpcService)
+    val requests = slot<List<RpcRequest>>()
+    every { rpcService.handle(capture(requests)) } returns listOf(RpcResponse.builder().build())
+
+    notifier.notifyOnchainFundsSent("txn-id", "stellar-txn-id", "sent")
+
+    val rpcRequest = requests.captured[0]
+    assertEquals(NOTIFY_ONCHAIN_FUNDS_SENT.toString(), rpcRequest.method)
+    val params = rpcRequest.params as NotifyOnchainFundsSentRequest
+    assertEquals("txn-id", params.transactionId)
+    assertEquals("stellar-txn-id", params.stellarTransactionId)
+    assertEquals("sent", params.message)
+    verify { fallback wasNot Called }
+  }
+
+  @Test
+  fun `test unregistering another RPC service keeps the registered one`() {
+    InProcessRpcServices.register(rpcService)
+    InProcessRpcServices.unregister(RpcService(listOf(), null))
+
+    assertSame(rpcService, InProcessRpcServices.get())
+  }
+}
@@ -0,0 +1,94 @@
+package org.stellar.anchor.platform.observer.stellar
+
+import java.time.Clock
+import java.time.Duration
+import java.time.Instant
+import java.time.ZoneId
+import org.junit.jupiter.api.Assertions.assertEquals
+import org.junit.jupiter.api.Assertions.assertFalse
+import org.junit.jupiter.api.Assertions.assertThrows
+import org.junit.jupiter.api.Assertions.assertTrue
+import org.junit.jupiter.api.Test
+
+class CursorCheckpointerTest {
+  private val saved = mutableListOf<String>()
+  private var now = Instant.parse("2025-01-01T00:00:00Z")
+  private val clock =
+    object : Clock() {
+      override fun getZone(): ZoneId = ZoneId.of("UTC")
+
+      override fun withZone(zone: ZoneId?): Clock = this
+
+      override fun instant(): Instant = now
+    }
+
+  @Test
+  fun `test the cursor is saved every N events`() {
+    val checkpointer = CursorCheckpointer(3, Duration.ofHours(1), { saved.add(it) }, clock)
+
+    assertFalse(checkpointer.acknowledge("c1", 1))
+    assertFalse(checkpointer.acknowledge("c2", 1))
+    assertTrue(checkpointer.acknowledge("c3", 1))
+    assertFalse(checkpointer.acknowledge("c4", 2))
+    assertTrue(checkpointer.acknowledge("c5", 5))
+
+    assertEquals(listOf("c3", "c5"), saved)
+  }
+
+  @Test
+  fun `test the cursor is saved when the interval elapses`() {
+    val checkpointer = CursorCheckpointer(100, Duration.ofSeconds(5), { saved.add(it) }, clock)
+
+    assertFalse(checkpointer.acknowledge("c1", 1))
+    now = now.plusSeconds(4)
+    assertFalse(checkpointer.acknowledge("c2", 0))
+    now = now.plusSeconds(1)
+    assertTrue(checkpointer.acknowledge("c3", 0))
+
+    assertEquals(listOf("c3"), saved)
+  }
+
+  @Test
+  fun `test events are counted until a cursor is acknowledged`() {
+    val checkpointer = CursorCheckpointer(2, Duration.ofHours(1), { saved.add(it) }, clock)
+
+    assertFalse(checkpointer.acknowledge(null, 1))
+    assertFalse(checkpointer.acknowledge(null, 1))
+    assertTrue(checkpointer.acknowledge("c2", 0))
+
+    assertEquals(listOf("c2"), saved)
+  }
+
+  @Test
+  fun `test flush saves the pending cursor only once`() {
+    val checkpointer = CursorCheckpointer(100, Duration.ofHours(1), { saved.add(it) }, clock)
+
+    assertFalse(checkpointer.flush())
+    checkpointer.acknowledge("c1", 1)
+    assertTrue(checkpointer.flush())
+    assertFalse(checkpointer.flush())
+
+    assertEquals(listOf("c1"), saved)
+  }
+
+  @Test
+  fun `test the cursor is kept when the save fails`() {
+    var failing = true
+    val checkpointer =
+      CursorCheckpointer(
+        1,
+        Duration.ofHours(1),
+        {
+          if (failing) throw RuntimeException("db down")
+          saved.add(it)
+        },
+        clock,
+      )
+
+    assertThrows(RuntimeException::class.java) { checkpointer.acknowledge("c1", 1) }
+    failing = false
+    assertTrue(checkpointer.flush())
+
+    assertEquals(listOf("c1"), saved)
+  }
+}
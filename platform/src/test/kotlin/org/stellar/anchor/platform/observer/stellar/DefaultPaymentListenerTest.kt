@@ -7,14 +7,17 @@ import org.junit.jupiter.api.Assertions.assertEquals
 import org.junit.jupiter.api.Assertions.assertFalse
 import org.junit.jupiter.api.BeforeEach
 import org.junit.jupiter.api.Test
+import org.stellar.anchor.api.exception.BadRequestException
 import org.stellar.anchor.api.platform.PlatformTransactionData
-import org.stellar.anchor.apiclient.PlatformApiClient
 import org.stellar.anchor.ledger.LedgerTransaction
 import org.stellar.anchor.ledger.LedgerTransaction.LedgerOperation
 import org.stellar.anchor.ledger.PaymentTransferEvent
 import org.stellar.anchor.platform.config.RpcConfig
 import org.stellar.anchor.platform.data.*
+import org.stellar.anchor.platform.data.JdbcPendingTransactionMatcher.Candidate
+import org.stellar.anchor.platform.observer.PaymentNotifier
 import org.stellar.anchor.util.AssetHelper.fromXdrAmount
+import org.stellar.sdk.MuxedAccount
 import org.stellar.sdk.TOID
 import org.stellar.sdk.xdr.Asset
 import org.stellar.sdk.xdr.AssetType.ASSET_TYPE_POOL_SHARE
@@ -29,7 +32,9 @@ class DefaultPaymentListenerTest {
   @MockK(relaxed = true) private lateinit var sep31TransactionStore: JdbcSep31TransactionStore
   @MockK(relaxed = true) private lateinit var sep24TransactionStore: JdbcSep24TransactionStore
   @MockK(relaxed = true) private lateinit var sep6TransactionStore: JdbcSep6TransactionStore
-  @MockK(relaxed = true) private lateinit var platformApiClient: PlatformApiClient
+  @MockK(relaxed = true)
+  private lateinit var pendingTransactionMatcher: JdbcPendingTransactionMatcher
+  @MockK(relaxed = true) private lateinit var paymentNotifier: PaymentNotifier
   @MockK(relaxed = true) private lateinit var rpcConfig: RpcConfig
   @MockK(relaxed = true) private lateinit var sacToAssetMapper: SacToAssetMapper
 
@@ -54,7 +59,8 @@ class DefaultPaymentListenerTest {
           sep31TransactionStore,
           sep24TransactionStore,
           sep6TransactionStore,
-          platformApiClient,
+          pendingTransactionMatcher,
+          paymentNotifier,
           rpcConfig,
           sacToAssetMapper
         )
@@ -112,35 +118,27 @@ class DefaultPaymentListenerTest {
     xdrMemoText.text = XdrString("my_memo_1")
     ledgerTransaction.memo = xdrMemoText
 
-    val slotMemo = slot<String>()
-    val slotAccount = slot<String>()
-    val slotStatus = slot<String>()
-
+    val slotSep31 = slot<List<Candidate>>()
+    val slotWithdraw = slot<List<Candidate>>()
     every {
-      sep31TransactionStore.findByToAccountAndMemoAndStatus(
-        capture(slotAccount),
-        capture(slotMemo),
-        capture(slotStatus),
-      )
-    } returns JdbcSep31Transaction()
+      pendingTransactionMatcher.findPendingTransactions(capture(slotSep31), capture(slotWithdraw))
+    } returns listOf(JdbcSep31Transaction(), JdbcSep24Transaction())
 
     every { paymentListener.handleSep31Transaction(any(), any(), any()) } answers {}
 
     paymentListener.onReceived(event)
 
-    verify(exactly = 1) {
-      sep31TransactionStore.findByToAccountAndMemoAndStatus(
-        "GBZ4HPSEHKEEJ6MOZBSVV2B3LE27EZLV6LJY55G47V7BGBODWUXQM364",
-        "my_memo_1",
-        "pending_sender",
-      )
-    }
-
+    verify(exactly = 1) { pendingTransactionMatcher.findPendingTransactions(any(), any()) }
     verify(exactly = 1) { paymentListener.handleSep31Transaction(ledgerTransaction, any(), any()) }
-
-    assertEquals("my_memo_1", slotMemo.captured)
-    assertEquals("GBZ4HPSEHKEEJ6MOZBSVV2B3LE27EZLV6LJY55G47V7BGBODWUXQM364", slotAccount.captured)
-    assertEquals("pending_sender", slotStatus.captured)
+    verify(exactly = 0) { paymentListener.handleSep24Transaction(any(), any(), any()) }
+
+    assertEquals(1, slotSep31.captured.size)
+    assertEquals("my_memo_1", slotSep31.captured[0].memo)
+    assertEquals(
+      "GBZ4HPSEHKEEJ6MOZBSVV2B3LE27EZLV6LJY55G47V7BGBODWUXQM364",
+      slotSep31.captured[0].account
+    )
+    verify { sep31TransactionStore wasNot Called }
   }
 
   @Test
@@ -150,38 +148,25 @@ class DefaultPaymentListenerTest {
     xdrMemoText.text = XdrString("my_memo_1")
     ledgerTransaction.memo = xdrMemoText
 
-    val slotMemo = slot<String>()
-    val slotAccount = slot<String>()
-    val slotStatus = slot<String>()
-
-    every { sep31TransactionStore.findByToAccountAndMemoAndStatus(any(), any(), any()) } returns
-      null
-
+    val slotWithdraw = slot<List<Candidate>>()
     every {
-      sep24TransactionStore.findOneByWithdrawAnchorAccountAndMemoAndStatus(
-        capture(slotAccount),
-        capture(slotMemo),
-        capture(slotStatus),
-      )
-    } returns JdbcSep24Transaction()
+      pendingTransactionMatcher.findPendingTransactions(any(), capture(slotWithdraw))
+    } returns listOf(JdbcSep24Transaction(), JdbcSep6Transaction())
 
     every { paymentListener.handleSep24Transaction(any(), any(), any()) } answers {}
 
     paymentListener.onReceived(event)
 
-    verify(exactly = 1) {
-      sep24TransactionStore.findOneByWithdrawAnchorAccountAndMemoAndStatus(
-        "GBZ4HPSEHKEEJ6MOZBSVV2B3LE27EZLV6LJY55G47V7BGBODWUXQM364",
-        "my_memo_1",
-        "pending_user_transfer_start",
-      )
-    }
-
     verify(exactly = 1) { paymentListener.handleSep24Transaction(ledgerTransaction, any(), any()) }
-
-    assertEquals("my_memo_1", slotMemo.captured)
-    assertEquals("GBZ4HPSEHKEEJ6MOZBSVV2B3LE27EZLV6LJY55G47V7BGBODWUXQM364", slotAccount.captured)
-    assertEquals("pending_user_transfer_start", slotStatus.captured)
+    verify(exactly = 0) { paymentListener.handleSep6Transaction(any(), any(), any()) }
+
+    assertEquals(1, slotWithdraw.captured.size)
+    assertEquals("my_memo_1", slotWithdraw.captured[0].memo)
+    assertEquals(
+      "GBZ4HPSEHKEEJ6MOZBSVV2B3LE27EZLV6LJY55G47V7BGBODWUXQM364",
+      slotWithdraw.captured[0].account
+    )
+    verify { sep24TransactionStore wasNot Called }
   }
 
   @Test
@@ -191,40 +176,62 @@ class DefaultPaymentListenerTest {
     xdrMemoText.text = XdrString("my_memo_1")
     ledgerTransaction.memo = xdrMemoText
 
-    val slotMemo = slot<String>()
-    val slotAccount = slot<String>()
-    val slotStatus = slot<String>()
-
-    every { sep31TransactionStore.findByToAccountAndMemoAndStatus(any(), any(), any()) } returns
-      null
-    every {
-      sep24TransactionStore.findOneByWithdrawAnchorAccountAndMemoAndStatus(any(), any(), any())
-    } returns null
-    every {
-      sep6TransactionStore.findOneByWithdrawAnchorAccountAndMemoAndStatus(
-        capture(slotAccount),
-        capture(slotMemo),
-        capture(slotStatus),
-      )
-    } returns JdbcSep6Transaction()
+    every { pendingTransactionMatcher.findPendingTransactions(any(), any()) } returns
+      listOf(JdbcSep6Transaction())
 
     every { paymentListener.handleSep6Transaction(any(), any(), any()) } answers {}
 
     paymentListener.onReceived(event)
 
-    verify(exactly = 1) {
-      sep6TransactionStore.findOneByWithdrawAnchorAccountAndMemoAndStatus(
-        "GBZ4HPSEHKEEJ6MOZBSVV2B3LE27EZLV6LJY55G47V7BGBODWUXQM364",
-        "my_memo_1",
-        "pending_user_transfer_start",
-      )
-    }
+    verify(exactly = 1) { paymentListener.handleSep6Transaction(ledgerTransaction, any(), any()) }
+    verify(exactly = 0) { paymentListener.handleSep31Transaction(any(), any(), any()) }
+    verify(exactly = 0) { paymentListener.handleSep24Transaction(any(), any(), any()) }
+    verify { sep6TransactionStore wasNot Called }
+  }
+
+  @Test
+  fun `test SEP-6 transaction is handled if handling the SEP-24 transaction fails`() {
+    val event = createTestTransferEvent()
+    val ledgerTransaction = event.ledgerTransaction
+
+    every { pendingTransactionMatcher.findPendingTransactions(any(), any()) } returns
+      listOf(JdbcSep24Transaction(), JdbcSep6Transaction())
 
+    every { paymentListener.handleSep24Transaction(any(), any(), any()) } throws
+      BadRequestException("bad request")
+    every { paymentListener.handleSep6Transaction(any(), any(), any()) } answers {}
+
+    paymentListener.onReceived(event)
+
+    verify(exactly = 1) { paymentListener.handleSep24Transaction(ledgerTransaction, any(), any()) }
     verify(exactly = 1) { paymentListener.handleSep6Transaction(ledgerTransaction, any(), any()) }
+  }
+
+  @Test
+  fun `test muxed destination account adds the fallback candidates`() {
+    val muxedAccount =
+      MuxedAccount("GBZ4HPSEHKEEJ6MOZBSVV2B3LE27EZLV6LJY55G47V7BGBODWUXQM364", BigInteger.TEN)
+    val event = createTestTransferEvent()
+    val ledgerTransaction = event.ledgerTransaction
+    ledgerTransaction.operations[0].paymentOperation.to = muxedAccount.address
 
-    assertEquals("my_memo_1", slotMemo.captured)
-    assertEquals("GBZ4HPSEHKEEJ6MOZBSVV2B3LE27EZLV6LJY55G47V7BGBODWUXQM364", slotAccount.captured)
-    assertEquals("pending_user_transfer_start", slotStatus.captured)
+    val slotSep31 = slot<List<Candidate>>()
+    val slotWithdraw = slot<List<Candidate>>()
+    every {
+      pendingTransactionMatcher.findPendingTransactions(capture(slotSep31), capture(slotWithdraw))
+    } returns listOf()
+
+    paymentListener.processAndDispatchLedgerPayment(
+      ledgerTransaction,
+      ledgerTransaction.operations[0].paymentOperation
+    )
+
+    for (candidates in listOf(slotSep31.captured, slotWithdraw.captured)) {
+      assertEquals(2, candidates.size)
+      assertEquals(muxedAccount.address, candidates[0].account)
+      assertEquals(muxedAccount.accountId, candidates[1].account)
+      assertEquals("10", candidates[1].memo)
+    }
   }
 
   private val ledgerSequence = 1234567
@@ -274,115 +281,22 @@ class DefaultPaymentListenerTest {
   }
 
   @Test
-  fun `test if Sep31 findByToAccountAndMemoAndStatus throws an exception, we shouldn't trigger any updates`() {
+  fun `test if findPendingTransactions throws an exception, we shouldn't trigger any updates`() {
     val event = createTestTransferEvent()
     val ledgerTransaction = event.ledgerTransaction
 
     xdrMemoText.text = XdrString("my_memo_3")
     ledgerTransaction.memo = xdrMemoText
 
-    every {
-      sep31TransactionStore.findByToAccountAndMemoAndStatus(
-        "GBZ4HPSEHKEEJ6MOZBSVV2B3LE27EZLV6LJY55G47V7BGBODWUXQM364",
-        "my_memo_3",
-        "pending_sender",
-      )
-    } throws RuntimeException("Something went wrong")
+    every { pendingTransactionMatcher.findPendingTransactions(any(), any()) } throws
+      RuntimeException("Something went wrong")
 
     paymentListener.onReceived(event)
 
-    verify(exactly = 1) {
-      sep31TransactionStore.findByToAccountAndMemoAndStatus(
-        "GBZ4HPSEHKEEJ6MOZBSVV2B3LE27EZLV6LJY55G47V7BGBODWUXQM364",
-        "my_memo_3",
-        "pending_sender",
-      )
-    }
-
-    verify(exactly = 0) {
-      paymentListener.handleSep31Transaction(
-        ledgerTransaction,
-        ledgerTransaction.operations[0].paymentOperation,
-        any(),
-      )
-    }
-  }
-
-  @Test
-  fun `test if Sep24 findByStellarAccountIdAndMemoAndStatus throws an exception, we shouldn't trigger any updates`() {
-    val event = createTestTransferEvent()
-    val ledgerTransaction = event.ledgerTransaction
-
-    xdrMemoText.text = XdrString("my_memo_3")
-    ledgerTransaction.memo = xdrMemoText
-
-    every { sep31TransactionStore.findByToAccountAndMemoAndStatus(any(), any(), any()) } returns
-      null
-    every {
-      sep24TransactionStore.findOneByWithdrawAnchorAccountAndMemoAndStatus(
-        "GBZ4HPSEHKEEJ6MOZBSVV2B3LE27EZLV6LJY55G47V7BGBODWUXQM364",
-        "my_memo_3",
-        "pending_user_transfer_start",
-      )
-    } throws RuntimeException("Something went wrong")
-
-    paymentListener.onReceived(event)
-
-    verify(exactly = 1) {
-      sep24TransactionStore.findOneByWithdrawAnchorAccountAndMemoAndStatus(
-        "GBZ4HPSEHKEEJ6MOZBSVV2B3LE27EZLV6LJY55G47V7BGBODWUXQM364",
-        "my_memo_3",
-        "pending_user_transfer_start",
-      )
-    }
-
-    verify(exactly = 0) {
-      paymentListener.handleSep24Transaction(
-        ledgerTransaction,
-        ledgerTransaction.operations[0].paymentOperation,
-        any(),
-      )
-    }
-  }
-
-  @Test
-  fun `test if Sep6 findOneByWithdrawAnchorAccountAndMemoAndStatus throws an exception, we shouldn't trigger any updates`() {
-    val event = createTestTransferEvent()
-    val ledgerTransaction = event.ledgerTransaction
-
-    xdrMemoText.text = XdrString("my_memo_3")
-    ledgerTransaction.memo = xdrMemoText
-
-    every { sep31TransactionStore.findByToAccountAndMemoAndStatus(any(), any(), any()) } returns
-      null
-    every {
-      sep24TransactionStore.findOneByWithdrawAnchorAccountAndMemoAndStatus(any(), any(), any())
-    } returns null
-    every {
-      sep6TransactionStore.findOneByWithdrawAnchorAccountAndMemoAndStatus(
-        "GBZ4HPSEHKEEJ6MOZBSVV2B3LE27EZLV6LJY55G47V7BGBODWUXQM364",
-        "my_memo_3",
-        "pending_user_transfer_start",
-      )
-    } throws RuntimeException("Something went wrong")
-
-    paymentListener.onReceived(event)
-
-    verify(exactly = 1) {
-      sep6TransactionStore.findOneByWithdrawAnchorAccountAndMemoAndStatus(
-        "GBZ4HPSEHKEEJ6MOZBSVV2B3LE27EZLV6LJY55G47V7BGBODWUXQM364",
-        "my_memo_3",
-        "pending_user_transfer_start",
-      )
-    }
-
-    verify(exactly = 0) {
-      paymentListener.handleSep24Transaction(
-        ledgerTransaction,
-        ledgerTransaction.operations[0].paymentOperation,
-        any(),
-      )
-    }
+    verify(exactly = 1) { pendingTransactionMatcher.findPendingTransactions(any(), any()) }
+    verify(exactly = 0) { paymentListener.handleSep31Transaction(any(), any(), any()) }
+    verify(exactly = 0) { paymentListener.handleSep24Transaction(any(), any(), any()) }
+    verify(exactly = 0) { paymentListener.handleSep6Transaction(any(), any(), any()) }
   }
 
   @Test
@@ -396,27 +310,11 @@ class DefaultPaymentListenerTest {
     sep31TxMock.amountInAsset = "BAR"
     sep31TxMock.amountIn = "1"
 
-    val slotMemo = slot<String>()
-    val slotAccount = slot<String>()
-    val slotStatus = slot<String>()
-    every {
-      sep31TransactionStore.findByToAccountAndMemoAndStatus(
-        capture(slotAccount),
-        capture(slotMemo),
-        capture(slotStatus),
-      )
-    } returns sep31TxMock
+    every { pendingTransactionMatcher.findPendingTransactions(any(), any()) } returns
+      listOf(sep31TxMock)
     paymentListener.onReceived(event)
-    verify(exactly = 1) {
-      sep31TransactionStore.findByToAccountAndMemoAndStatus(
-        "GBZ4HPSEHKEEJ6MOZBSVV2B3LE27EZLV6LJY55G47V7BGBODWUXQM364",
-        "my_memo_4",
-        "pending_sender",
-      )
-    }
-    assertEquals("my_memo_4", slotMemo.captured)
-    assertEquals("GBZ4HPSEHKEEJ6MOZBSVV2B3LE27EZLV6LJY55G47V7BGBODWUXQM364", slotAccount.captured)
-    assertEquals("pending_sender", slotStatus.captured)
+    verify(exactly = 1) { pendingTransactionMatcher.findPendingTransactions(any(), any()) }
+    verify(exactly = 1) { paymentListener.handleSep31Transaction(ledgerTransaction, any(), any()) }
   }
 
   @Test
@@ -439,7 +337,7 @@ class DefaultPaymentListenerTest {
     }
 
     verify(exactly = 1) {
-      platformApiClient.notifyOnchainFundsReceived(
+      paymentNotifier.notifyOnchainFundsReceived(
         "123",
         testTxn.hash,
         fromXdrAmount(testPayment.amount).toString(),
@@ -467,7 +365,7 @@ class DefaultPaymentListenerTest {
       paymentListener.checkAndWarnAssetAmountMismatch(testTxn, testPayment, testJdbcSepTransaction)
     }
     verify(exactly = 1) {
-      platformApiClient.notifyOnchainFundsReceived(
+      paymentNotifier.notifyOnchainFundsReceived(
         "123",
         testTxn.hash,
         fromXdrAmount(testPayment.amount).toString(),
@@ -495,7 +393,7 @@ class DefaultPaymentListenerTest {
     verify(exactly = 1) {
       paymentListener.checkAndWarnAssetAmountMismatch(testTxn, testPayment, testJdbcSepTransaction)
     }
-    verify(exactly = 1) { platformApiClient.notifyOnchainFundsSent("123", testTxn.hash, any()) }
+    verify(exactly = 1) { paymentNotifier.notifyOnchainFundsSent("123", testTxn.hash, any()) }
   }
 
   @Test
@@ -520,7 +418,7 @@ class DefaultPaymentListenerTest {
       paymentListener.checkAndWarnAssetAmountMismatch(testTxn, testPayment, testJdbcSepTransaction)
     }
     verify(exactly = 1) {
-      platformApiClient.notifyOnchainFundsReceived(
+      paymentNotifier.notifyOnchainFundsReceived(
         "123",
         testTxn.hash,
         fromXdrAmount(testPayment.amount).toString(),
@@ -549,6 +447,6 @@ class DefaultPaymentListenerTest {
     verify(exactly = 1) {
       paymentListener.checkAndWarnAssetAmountMismatch(testTxn, testPayment, testJdbcSepTransaction)
     }
-    verify(exactly = 1) { platformApiClient.notifyOnchainFundsSent("123", testTxn.hash, any()) }
+    verify(exactly = 1) { paymentNotifier.notifyOnchainFundsSent("123", testTxn.hash, any()) }
   }
 }
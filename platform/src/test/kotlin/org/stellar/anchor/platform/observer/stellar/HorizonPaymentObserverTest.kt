@@ -2,15 +2,18 @@ package org.stellar.anchor.platform.observer.stellar
 
 import io.mockk.every
 import io.mockk.mockk
+import io.mockk.verify
 import org.junit.jupiter.api.Assertions.*
 import org.junit.jupiter.api.BeforeEach
 import org.junit.jupiter.api.Test
 import org.stellar.anchor.ledger.Horizon
+import org.stellar.anchor.ledger.LedgerTransaction
 import org.stellar.anchor.platform.config.PaymentObserverConfig.StellarPaymentObserverConfig
 import org.stellar.anchor.platform.observer.PaymentListener
 import org.stellar.anchor.util.AssetHelper
 import org.stellar.sdk.Asset
 import org.stellar.sdk.KeyPair
+import org.stellar.sdk.responses.TransactionResponse
 import org.stellar.sdk.responses.operations.InvokeHostFunctionOperationResponse
 import org.stellar.sdk.responses.operations.InvokeHostFunctionOperationResponse.HostFunctionParameter
 import org.stellar.sdk.responses.operations.OperationResponse
@@ -63,6 +66,7 @@ class HorizonPaymentObserverTest {
     every { op.amount } returns "100.0"
     every { op.id } returns 123L
     every { op.transactionHash } returns "txHash"
+    every { op.transaction } returns null
     every { paymentObservingAccountsManager.lookupAndUpdate(any()) } returns true
     every { horizon.getTransaction(any()) } returns mockk()
 
@@ -89,6 +93,7 @@ class HorizonPaymentObserverTest {
     every { op.amount } returns "200.0"
     every { op.id } returns 456L
     every { op.transactionHash } returns "txHash2"
+    every { op.transaction } returns null
     every { paymentObservingAccountsManager.lookupAndUpdate(any()) } returns true
     every { horizon.getTransaction(any()) } returns mockk()
 
@@ -119,6 +124,7 @@ class HorizonPaymentObserverTest {
     every { invokeOp.function } returns "HostFunctionTypeHostFunctionTypeInvokeContract"
     every { invokeOp.assetBalanceChanges } returns listOf(assetBalanceChange)
     every { invokeOp.transactionHash } returns "txHash3"
+    every { invokeOp.transaction } returns null
     every { invokeOp.id } returns 789L
     val transferXdr =
       SCVal.builder()
@@ -158,4 +164,48 @@ class HorizonPaymentObserverTest {
     val event = observer.toPaymentTransferEvent(op)
     assertNull(event)
   }
+
+  @Test
+  fun `getLedgerTransaction builds the transaction from the joined transaction`() {
+    val op = mockk<PaymentOperationResponse>()
+    val txnResponse = mockk<TransactionResponse>()
+    val ledgerTransaction = mockk<LedgerTransaction>()
+    every { op.transactionHash } returns "txHash"
+    every { op.transaction } returns txnResponse
+    every { horizon.toLedgerTransaction(txnResponse) } returns ledgerTransaction
+
+    assertSame(ledgerTransaction, observer.getLedgerTransaction(op))
+    verify(exactly = 1) { horizon.toLedgerTransaction(txnResponse) }
+    verify(exactly = 0) { horizon.getTransaction(any()) }
+  }
+
+  @Test
+  fun `getLedgerTransaction fetches the transaction only once when the join is missing`() {
+    val op1 = mockk<PaymentOperationResponse>()
+    val op2 = mockk<PaymentOperationResponse>()
+    val ledgerTransaction = mockk<LedgerTransaction>()
+    for (op in listOf(op1, op2)) {
+      every { op.transactionHash } returns "txHash"
+      every { op.transaction } returns null
+    }
+    every { horizon.getTransaction("txHash") } returns ledgerTransaction
+
+    assertSame(ledgerTransaction, observer.getLedgerTransaction(op1))
+    assertSame(ledgerTransaction, observer.getLedgerTransaction(op2))
+    verify(exactly = 1) { horizon.getTransaction("txHash") }
+  }
+
+  @Test
+  fun `getLedgerTransaction keeps only the recent transactions`() {
+    every { horizon.getTransaction(any()) } answers { mockk() }
+    for (i in 0..HorizonPaymentObserver.RECENT_TRANSACTIONS_SIZE) {
+      val op = mockk<PaymentOperationResponse>()
+      every { op.transactionHash } returns "txHash$i"
+      every { op.transaction } returns null
+      observer.getLedgerTransaction(op)
+    }
+
+    assertEquals(HorizonPaymentObserver.RECENT_TRANSACTIONS_SIZE, observer.recentTransactions.size)
+    assertFalse(observer.recentTransactions.containsKey("txHash0"))
+  }
 }
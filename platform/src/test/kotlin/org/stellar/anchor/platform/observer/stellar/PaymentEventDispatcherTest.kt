@@ -0,0 +1,154 @@
+package org.stellar.anchor.platform.observer.stellar
+
+import java.util.Collections
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.TimeUnit
+import org.junit.jupiter.api.AfterEach
+import org.junit.jupiter.api.Assertions.assertEquals
+import org.junit.jupiter.api.Assertions.assertFalse
+import org.junit.jupiter.api.Assertions.assertNull
+import org.junit.jupiter.api.Assertions.assertTrue
+import org.junit.jupiter.api.BeforeEach
+import org.junit.jupiter.api.Test
+import org.stellar.anchor.ledger.PaymentTransferEvent
+import org.stellar.anchor.platform.observer.PaymentListener
+
+class PaymentEventDispatcherTest {
+  private val received: MutableList<PaymentTransferEvent> =
+    Collections.synchronizedList(mutableListOf())
+  private val errors: MutableList<Throwable> = Collections.synchronizedList(mutableListOf())
+  private lateinit var blocker: CountDownLatch
+  private lateinit var listener: PaymentListener
+  private lateinit var dispatcher: PaymentEventDispatcher
+  private var retry = false
+
+  @BeforeEach
+  fun setUp() {
+    blocker = CountDownLatch(0)
+    listener = PaymentListener { event ->
+      if (event.to == "blocked") blocker.await()
+      if (event.to == "failing") throw IllegalStateException("listener failure")
+      received.add(event)
+    }
+    dispatcher = PaymentEventDispatcher(listOf(listener), 4) { errors.add(it) && retry }
+  }
+
+  @AfterEach
+  fun tearDown() {
+    dispatcher.shutdown()
+  }
+
+  @Test
+  fun `events of the same account are processed in order`() {
+    val accounts = listOf("account1", "account2", "account3")
+    for (i in 0 until 300) {
+      dispatcher.dispatch(event(accounts[i % 3], "op$i"))
+    }
+    dispatcher.checkpoint("cursor")
+
+    assertEquals("cursor", dispatcher.awaitAcknowledged())
+    assertEquals(300, received.size)
+    for (account in accounts) {
+      val ids =
+        received.filter { it.to == account }.map { it.operationId.removePrefix("op").toInt() }
+      assertEquals(ids.sorted(), ids)
+    }
+  }
+
+  @Test
+  fun `checkpoint is not acknowledged before the events before it are processed`() {
+    blocker = CountDownLatch(1)
+    // "blocked" and "account2" are dispatched to different lanes
+    dispatcher.dispatch(event("blocked", "op1"))
+    dispatcher.checkpoint("cursor1")
+    dispatcher.dispatch(event("account2", "op2"))
+    dispatcher.checkpoint("cursor2")
+
+    // Wait for the unblocked event to be processed
+    val deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(5)
+    while (received.isEmpty() && System.currentTimeMillis() < deadline) {
+      Thread.sleep(10)
+    }
+    assertEquals(listOf("op2"), received.map { it.operationId })
+    // cursor2 cannot be acknowledged before cursor1
+    assertNull(dispatcher.acknowledged())
+
+    blocker.countDown()
+    assertEquals("cursor2", dispatcher.awaitAcknowledged())
+    assertNull(dispatcher.acknowledged())
+  }
+
+  @Test
+  fun `listener errors are reported and do not block the checkpoint`() {
+    dispatcher.dispatch(event("failing", "op1"))
+    dispatcher.dispatch(event("account1", "op2"))
+    dispatcher.checkpoint("cursor")
+
+    assertEquals("cursor", dispatcher.awaitAcknowledged())
+    assertEquals(1, errors.size)
+    assertTrue(errors[0] is IllegalStateException)
+    assertEquals(listOf("op2"), received.map { it.operationId })
+  }
+
+  @Test
+  fun `the cursor is held before an event that must be processed again`() {
+    retry = true
+    dispatcher.dispatch(event("account1", "op1"))
+    dispatcher.checkpoint("cursor1")
+    dispatcher.dispatch(event("failing", "op2"))
+    dispatcher.checkpoint("cursor2")
+    dispatcher.dispatch(event("account1", "op3"))
+    dispatcher.checkpoint("cursor3")
+
+    assertEquals("cursor1", dispatcher.awaitAcknowledged())
+    assertEquals(1, errors.size)
+    assertEquals(listOf("op1", "op3"), received.map { it.operationId })
+    // The held checkpoints are discarded, and the next ones are acknowledged again
+    assertNull(dispatcher.acknowledged())
+    dispatcher.dispatch(event("account1", "op4"))
+    dispatcher.checkpoint("cursor4")
+    assertEquals("cursor4", dispatcher.awaitAcknowledged())
+  }
+
+  @Test
+  fun `the cursor after a failed event is never acknowledged without waiting`() {
+    retry = true
+    dispatcher.dispatch(event("failing", "op1"))
+    dispatcher.checkpoint("cursor1")
+    dispatcher.dispatch(event("account1", "op2"))
+    dispatcher.checkpoint("cursor2")
+
+    val deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(5)
+    while (received.isEmpty() && System.currentTimeMillis() < deadline) {
+      Thread.sleep(10)
+    }
+    assertNull(dispatcher.acknowledged())
+    assertNull(dispatcher.awaitAcknowledged())
+  }
+
+  @Test
+  fun `dispatch blocks while the lane is full`() {
+    dispatcher.shutdown()
+    dispatcher = PaymentEventDispatcher(listOf(listener), 1, 1) { errors.add(it) && retry }
+    blocker = CountDownLatch(1)
+    // op1 is run by the lane thread and op2 fills the lane queue
+    dispatcher.dispatch(event("blocked", "op1"))
+    dispatcher.dispatch(event("account1", "op2"))
+
+    val stream = Thread { dispatcher.dispatch(event("account1", "op3")) }
+    stream.start()
+    stream.join(200)
+    assertTrue(stream.isAlive)
+
+    blocker.countDown()
+    stream.join(TimeUnit.SECONDS.toMillis(5))
+    assertFalse(stream.isAlive)
+    dispatcher.checkpoint("cursor")
+    assertEquals("cursor", dispatcher.awaitAcknowledged())
+    assertEquals(listOf("op1", "op2", "op3"), received.map { it.operationId })
+  }
+
+  private fun event(to: String, operationId: String): PaymentTransferEvent {
+    return PaymentTransferEvent.builder().to(to).operationId(operationId).build()
+  }
+}
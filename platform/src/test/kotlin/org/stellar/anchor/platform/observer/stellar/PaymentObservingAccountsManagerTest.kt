@@ -125,10 +125,62 @@ class PaymentObservingAccountsManagerTest {
     assertTrue(obs.lookupAndUpdate(testMuxAcct100))
     assertTrue(obs.lookupAndUpdate(testMuxAcct200))
   }
+
+  @Test
+  fun `test muxed address shares the key of its G-account`() {
+    val obs = PaymentObservingAccountsManager(paymentObservingAccountStore)
+    obs.initialize()
+
+    obs.upsert(testAcct4, TRANSIENT)
+    assertTrue(obs.lookupAndUpdate(MuxedAccount(testAcct4, BigInteger("100")).address))
+    assertTrue(obs.lookupAndUpdate(MuxedAccount(testAcct4, BigInteger("200")).address))
+    assertFalse(obs.lookupAndUpdate(MuxedAccount(testAcct1, BigInteger("100")).address))
+  }
+
+  @Test
+  fun `test invalid accounts are not observed`() {
+    val obs = PaymentObservingAccountsManager(paymentObservingAccountStore)
+    obs.initialize()
+
+    obs.upsert("invalid", TRANSIENT)
+    assertEquals(0, obs.accounts.size)
+    assertFalse(obs.lookupAndUpdate(null))
+    assertFalse(obs.lookupAndUpdate(""))
+    assertFalse(obs.lookupAndUpdate("invalid"))
+    // Bad checksum
+    val corrupted = testAcct1.replaceRange(10, 11, if (testAcct1[10] == 'A') "B" else "A")
+    assertFalse(obs.lookupAndUpdate(corrupted))
+  }
+
+  @Test
+  fun `test only the changed accounts are persisted in one batch`() {
+    val obs = PaymentObservingAccountsManager(paymentObservingAccountStore)
+    obs.initialize()
+
+    val longAgo = Instant.now().minus(1, HOURS)
+    obs.upsert(PaymentObservingAccountsManager.ObservingAccount(testAcct1, longAgo, TRANSIENT))
+    obs.upsert(PaymentObservingAccountsManager.ObservingAccount(testAcct2, longAgo, TRANSIENT))
+    obs.upsert(PaymentObservingAccountsManager.ObservingAccount(testAcct3, longAgo, TRANSIENT))
+
+    // Nothing changed since the accounts were added
+    obs.evictAndPersist()
+    assertEquals(0, paymentObservingAccountStore.upsertAllCalls.size)
+
+    assertTrue(obs.lookupAndUpdate(testAcct1))
+    assertTrue(obs.lookupAndUpdate(testAcct3))
+    obs.evictAndPersist()
+    assertEquals(1, paymentObservingAccountStore.upsertAllCalls.size)
+    assertEquals(setOf(testAcct1, testAcct3), paymentObservingAccountStore.upsertAllCalls[0].keys)
+
+    // The persisted accounts are not written again
+    obs.evictAndPersist()
+    assertEquals(1, paymentObservingAccountStore.upsertAllCalls.size)
+  }
 }
 
 class MemoryPaymentObservingAccountStore : PaymentObservingAccountStore(null) {
   private val accounts = mutableListOf<PaymentObservingAccount>()
+  val upsertAllCalls = mutableListOf<Map<String, Instant>>()
 
   override fun list(): List<PaymentObservingAccount> = accounts
 
@@ -137,6 +189,11 @@ class MemoryPaymentObservingAccountStore : PaymentObservingAccountStore(null) {
     accounts.add(PaymentObservingAccount(account, lastObserved))
   }
 
+  override fun upsertAll(lastObserved: Map<String, Instant>) {
+    upsertAllCalls.add(lastObserved)
+    lastObserved.forEach { (account, observed) -> upsert(account, observed) }
+  }
+
   override fun delete(account: String) {
     accounts.removeIf { it.account == account }
   }
@@ -0,0 +1,71 @@
+package org.stellar.anchor.platform.observer.stellar
+
+import io.mockk.every
+import io.mockk.mockk
+import io.mockk.verify
+import java.io.IOException
+import org.junit.jupiter.api.Assertions.assertEquals
+import org.junit.jupiter.api.Assertions.assertNull
+import org.junit.jupiter.api.BeforeEach
+import org.junit.jupiter.api.Test
+import org.stellar.anchor.api.asset.StellarAssetInfo
+import org.stellar.sdk.Asset
+import org.stellar.sdk.Network
+import org.stellar.sdk.SorobanServer
+import org.stellar.sdk.responses.sorobanrpc.GetLedgerEntriesResponse
+
+class SacToAssetMapperTest {
+  private val usdcIssuer = "GDQOE23CFSUMSVQK4Y5JHPPYK73VYCNHZHA7ENKCV37P6SUEO6XQBKPP"
+  private lateinit var sorobanServer: SorobanServer
+  private lateinit var mapper: SacToAssetMapper
+
+  @BeforeEach
+  fun setup() {
+    sorobanServer = mockk()
+    mapper = SacToAssetMapper(sorobanServer)
+  }
+
+  @Test
+  fun `test warmUp caches the SACs of the stellar assets`() {
+    mapper.warmUp(
+      listOf(stellarAsset("stellar:native"), stellarAsset("stellar:USDC:$usdcIssuer")),
+      Network.TESTNET
+    )
+
+    val native = Asset.create("native")
+    val usdc = Asset.create("USDC:$usdcIssuer")
+    assertEquals(native.toXdr(), mapper.getAssetFromSac(native.getContractId(Network.TESTNET)))
+    assertEquals(usdc.toXdr(), mapper.getAssetFromSac(usdc.getContractId(Network.TESTNET)))
+    verify { sorobanServer wasNot Called }
+  }
+
+  @Test
+  fun `test unknown contracts are negatively cached`() {
+    val response = mockk<GetLedgerEntriesResponse>()
+    every { response.entries } returns listOf()
+    every { sorobanServer.getLedgerEntries(any()) } returns response
+
+    val contractId = Asset.create("native").getContractId(Network.PUBLIC)
+    assertNull(mapper.getAssetFromSac(contractId))
+    assertNull(mapper.getAssetFromSac(contractId))
+
+    verify(exactly = 1) { sorobanServer.getLedgerEntries(any()) }
+  }
+
+  @Test
+  fun `test RPC failures are not cached`() {
+    every { sorobanServer.getLedgerEntries(any()) } throws IOException("unavailable")
+
+    val contractId = Asset.create("native").getContractId(Network.PUBLIC)
+    assertNull(mapper.getAssetFromSac(contractId))
+    assertNull(mapper.getAssetFromSac(contractId))
+
+    verify(exactly = 2) { sorobanServer.getLedgerEntries(any()) }
+  }
+
+  private fun stellarAsset(id: String): StellarAssetInfo {
+    val asset = StellarAssetInfo()
+    asset.id = id
+    return asset
+  }
+}
@@ -5,14 +5,25 @@ import io.mockk.justRun
 import io.mockk.mockk
 import io.mockk.slot
 import io.mockk.spyk
+import io.mockk.verify
 import java.io.IOException
 import java.math.BigInteger
+import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicInteger
 import org.junit.jupiter.api.Assertions.assertDoesNotThrow
 import org.junit.jupiter.api.Assertions.assertEquals
+import org.junit.jupiter.api.Assertions.assertFalse
 import org.junit.jupiter.api.Assertions.assertNotNull
+import org.junit.jupiter.api.Assertions.assertNotSame
+import org.junit.jupiter.api.Assertions.assertNull
+import org.junit.jupiter.api.Assertions.assertSame
+import org.junit.jupiter.api.Assertions.assertTrue
 import org.junit.jupiter.api.BeforeEach
 import org.junit.jupiter.api.Test
 import org.stellar.anchor.api.asset.StellarAssetInfo
+import org.stellar.anchor.api.exception.LedgerException
 import org.stellar.anchor.asset.AssetService
 import org.stellar.anchor.ledger.LedgerTransaction
 import org.stellar.anchor.ledger.LedgerTransaction.LedgerOperation
@@ -29,6 +40,7 @@ import org.stellar.sdk.exception.NetworkException
 import org.stellar.sdk.requests.sorobanrpc.EventFilterType
 import org.stellar.sdk.requests.sorobanrpc.GetEventsRequest
 import org.stellar.sdk.responses.sorobanrpc.GetEventsResponse
+import org.stellar.sdk.responses.sorobanrpc.GetEventsResponse.EventInfo
 import org.stellar.sdk.scval.Scv
 import org.stellar.sdk.xdr.OperationType
 
@@ -54,6 +66,10 @@ class StellarRpcPaymentObserverTest {
         maxStreamBackoffTime = 10000
         initialEventBackoffTime = 500
         maxEventBackoffTime = 5000
+        transactionFetchConcurrency = 8
+        eventPollingInterval = 1
+        // Save the cursor after every page
+        cursorCheckpointInterval = 0
       }
     stellarRpc = mockk(relaxed = true)
     sorobanServer = mockk(relaxed = true)
@@ -243,6 +259,128 @@ class StellarRpcPaymentObserverTest {
     assertEquals(ledgerTxn, event.ledgerTransaction)
   }
 
+  @Test
+  fun `processEvents fetches each transaction once and dispatches in ledger order`() {
+    val from = KeyPair.random().accountId
+    val to = KeyPair.random().accountId
+    every { paymentObservingAccountsManager.lookupAndUpdate(any()) } returns true
+    // two events per transaction, delivered out of ledger order
+    val events =
+      listOf(
+        transferEvent(from, to, "hash2", 2L, 0),
+        transferEvent(from, to, "hash1", 1L, 0),
+        transferEvent(from, to, "hash1", 1L, 1),
+        transferEvent(from, to, "hash2", 2L, 1),
+      )
+    val fetchCount = ConcurrentHashMap<String, AtomicInteger>()
+    every { stellarRpc.getTransaction(any()) } answers
+      {
+        val hash = firstArg<String>()
+        fetchCount.computeIfAbsent(hash) { AtomicInteger() }.incrementAndGet()
+        ledgerTransaction(hash)
+      }
+    val dispatched = mutableListOf<String>()
+    every { observer.processOperation(any(), any()) } answers
+      {
+        dispatched.add(firstArg<LedgerTransaction>().hash + ":" + secondArg<LedgerOperation>().paymentOperation.id)
+      }
+
+    observer.processEvents(events)
+
+    assertEquals(1, fetchCount["hash1"]!!.get())
+    assertEquals(1, fetchCount["hash2"]!!.get())
+    assertEquals(listOf("hash1:op0", "hash1:op1", "hash2:op0", "hash2:op1"), dispatched)
+  }
+
+  @Test
+  fun `processEvents skips events whose transaction cannot be fetched`() {
+    val from = KeyPair.random().accountId
+    val to = KeyPair.random().accountId
+    every { paymentObservingAccountsManager.lookupAndUpdate(any()) } returns true
+    every { stellarRpc.getTransaction("hash1") } throws LedgerException("rpc down")
+    every { stellarRpc.getTransaction("hash2") } answers { ledgerTransaction("hash2") }
+    val dispatched = mutableListOf<String>()
+    every { observer.processOperation(any(), any()) } answers
+      {
+        dispatched.add(firstArg<LedgerTransaction>().hash)
+      }
+
+    observer.processEvents(
+      listOf(transferEvent(from, to, "hash1", 1L, 0), transferEvent(from, to, "hash2", 2L, 0))
+    )
+
+    assertEquals(listOf("hash2"), dispatched)
+  }
+
+  @Test
+  fun `processEvents fetches the transactions concurrently up to the fetch concurrency`() {
+    val from = KeyPair.random().accountId
+    val to = KeyPair.random().accountId
+    val txnCount = 40
+    every { paymentObservingAccountsManager.lookupAndUpdate(any()) } returns true
+    // A full page of 100 events spread over 40 transactions
+    val events =
+      (0 until 100).map { i -> transferEvent(from, to, "hash${i % txnCount}", i.toLong(), 0) }
+    // The first fetches wait until as many fetches as the pool size are in flight
+    val allInFlight = CountDownLatch(config.transactionFetchConcurrency)
+    val inFlight = AtomicInteger()
+    val maxInFlight = AtomicInteger()
+    val timedOut = AtomicInteger()
+    every { stellarRpc.getTransaction(any()) } answers
+      {
+        maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), ::maxOf)
+        allInFlight.countDown()
+        if (!allInFlight.await(5, TimeUnit.SECONDS)) timedOut.incrementAndGet()
+        inFlight.decrementAndGet()
+        ledgerTransaction(firstArg())
+      }
+    val dispatchCount = AtomicInteger()
+    every { observer.processOperation(any(), any()) } answers { dispatchCount.incrementAndGet() }
+
+    observer.processEvents(events)
+
+    assertEquals(0, timedOut.get())
+    assertEquals(config.transactionFetchConcurrency, maxInFlight.get())
+    verify(exactly = txnCount) { stellarRpc.getTransaction(any()) }
+    assertEquals(100, dispatchCount.get())
+  }
+
+  private fun transferEvent(
+    from: String,
+    to: String,
+    hash: String,
+    ledgerSeq: Long,
+    opIndex: Long,
+  ): EventInfo {
+    return mockk {
+      every { topic } returns
+        listOf(
+          Scv.toSymbol("transfer").toXdrBase64(),
+          Scv.toAddress(from).toXdrBase64(),
+          Scv.toAddress(to).toXdrBase64(),
+          Scv.toString("native").toXdrBase64(),
+        )
+      every { value } returns Scv.toInt128(BigInteger.valueOf(100)).toXdrBase64()
+      every { transactionHash } returns hash
+      every { operationIndex } returns opIndex
+      every { ledger } returns ledgerSeq
+    }
+  }
+
+  private fun ledgerTransaction(hash: String): LedgerTransaction {
+    return LedgerTransaction.builder()
+      .hash(hash)
+      .operations(
+        (0..1).map { i ->
+          LedgerOperation().apply {
+            type = OperationType.PAYMENT
+            paymentOperation = LedgerTransaction.LedgerPaymentOperation().apply { id = "op$i" }
+          }
+        }
+      )
+      .build()
+  }
+
   @Test
   fun `test buildEventRequest`() {
     val account1 = KeyPair.random().accountId
@@ -282,6 +420,51 @@ class StellarRpcPaymentObserverTest {
     )
   }
 
+  @Test
+  fun `buildEventRequest reuses the filters until the assets change`() {
+    val account1 = KeyPair.random().accountId
+    val account2 = KeyPair.random().accountId
+    val assets = listOf(StellarAssetInfo().apply { distributionAccount = account1 })
+    every { assetService.stellarAssets } returns assets
+
+    val filters = observer.buildEventRequest(null).filters
+    assertSame(filters, observer.buildEventRequest(null).filters)
+
+    // Same distribution accounts in a new asset list
+    every { assetService.stellarAssets } returns
+      listOf(StellarAssetInfo().apply { distributionAccount = account1 })
+    assertSame(filters, observer.buildEventRequest(null).filters)
+
+    // A new distribution account
+    every { assetService.stellarAssets } returns
+      listOf(
+        StellarAssetInfo().apply { distributionAccount = account1 },
+        StellarAssetInfo().apply { distributionAccount = account2 },
+      )
+    val newFilters = observer.buildEventRequest(null).filters
+    assertNotSame(filters, newFilters)
+    assertEquals(4, newFilters.size)
+  }
+
+  @Test
+  fun `processEvents skips events without the transfer topic`() {
+    val from = KeyPair.random().accountId
+    val to = KeyPair.random().accountId
+    val event = transferEvent(from, to, "hash1", 1L, 0)
+    every { event.topic } returns
+      listOf(
+        Scv.toSymbol("mint").toXdrBase64(),
+        Scv.toAddress(from).toXdrBase64(),
+        Scv.toAddress(to).toXdrBase64(),
+        Scv.toString("native").toXdrBase64(),
+      )
+
+    observer.processEvents(listOf(event))
+
+    verify(exactly = 0) { paymentObservingAccountsManager.lookupAndUpdate(any()) }
+    verify(exactly = 0) { stellarRpc.getTransaction(any()) }
+  }
+
   @Test
   fun `fetchEvents resets silence counter and updates metrics on success`() {
     val response = mockk<GetEventsResponse>()
@@ -376,6 +559,171 @@ class StellarRpcPaymentObserverTest {
     assertDoesNotThrow { observer.fetchEvents() }
     assertEquals(ObserverStatus.STREAM_ERROR, observer.getStatus())
   }
+
+  @Test
+  fun `pollEvents drains pages back-to-back until caught up`() {
+    every { observer.fetchEvents() } returnsMany listOf(true, true, false)
+
+    observer.pollEvents()
+
+    verify(exactly = 3) { observer.fetchEvents() }
+    assertEquals(3, observer.metricPagesPerTick.get())
+  }
+
+  @Test
+  fun `pollEvents stops draining when the observer is unhealthy`() {
+    every { observer.fetchEvents() } answers
+      {
+        observer.setStatus(ObserverStatus.STREAM_ERROR)
+        true
+      }
+
+    observer.pollEvents()
+
+    verify(exactly = 1) { observer.fetchEvents() }
+  }
+
+  @Test
+  fun `fetchEvents keeps draining when the page is full`() {
+    val response = mockk<GetEventsResponse>()
+    val latest = 1000L
+    every { observer.buildEventRequest(any()) } returns mockk<GetEventsRequest>()
+    every { observer.processEvents(any()) } answers {}
+    every { response.events } returns List(100) { mockk<EventInfo>() }
+    every { response.latestLedger } returns latest
+    every { response.cursor } returns cursorAt(latest)
+    every { sorobanServer.getEvents(any()) } returns response
+
+    assertTrue(observer.fetchEvents())
+    assertEquals(0, observer.metricCaughtUp.get())
+  }
+
+  @Test
+  fun `fetchEvents keeps draining while the cursor trails the latest ledger`() {
+    val response = mockk<GetEventsResponse>()
+    every { observer.buildEventRequest(any()) } returns mockk<GetEventsRequest>()
+    every { response.events } returns emptyList()
+    every { response.latestLedger } returns 1000L
+    every { response.cursor } returns cursorAt(900L)
+    every { sorobanServer.getEvents(any()) } returns response
+
+    assertTrue(observer.fetchEvents())
+    assertEquals(100, observer.metricLagLedgers.get())
+    assertEquals(0, observer.metricCaughtUp.get())
+  }
+
+  @Test
+  fun `fetchEvents reports caught up at the latest ledger`() {
+    val response = mockk<GetEventsResponse>()
+    every { observer.buildEventRequest(any()) } returns mockk<GetEventsRequest>()
+    every { response.events } returns emptyList()
+    every { response.latestLedger } returns 1000L
+    every { response.cursor } returns cursorAt(1000L)
+    every { sorobanServer.getEvents(any()) } returns response
+
+    assertFalse(observer.fetchEvents())
+    assertEquals(0, observer.metricLagLedgers.get())
+    assertEquals(1, observer.metricCaughtUp.get())
+  }
+
+  @Test
+  fun `no event is skipped when the observer crashes between two checkpoints`() {
+    var savedCursor: String? = null
+    every { paymentStreamerCursorStore.loadStellarRpcCursor() } answers { savedCursor }
+    every { paymentStreamerCursorStore.saveStellarRpcCursor(any()) } answers
+      {
+        savedCursor = firstArg()
+      }
+    config.cursorCheckpointEvents = 3
+    config.cursorCheckpointInterval = 3600
+
+    // The first observer processes 5 pages of 1 event and crashes without shutting down.
+    val processed = mutableListOf<String>()
+    val firstObserver = ledgerObserver(processed)
+    repeat(5) { firstObserver.fetchEvents() }
+    assertEquals(listOf("e1", "e2", "e3", "e4", "e5"), processed)
+    assertEquals("c3", savedCursor)
+
+    // The restarted observer resumes from the last checkpoint and re-delivers the events after it.
+    processed.clear()
+    val restartedObserver = ledgerObserver(processed)
+    repeat(2) { restartedObserver.fetchEvents() }
+    assertEquals(listOf("e4", "e5"), processed)
+    assertEquals("c5", restartedObserver.cursor)
+  }
+
+  @Test
+  fun `shutdown saves the last acknowledged cursor`() {
+    var savedCursor: String? = null
+    every { paymentStreamerCursorStore.saveStellarRpcCursor(any()) } answers
+      {
+        savedCursor = firstArg()
+      }
+    config.cursorCheckpointEvents = 100
+    config.cursorCheckpointInterval = 3600
+
+    val ledgerObserver = ledgerObserver(mutableListOf())
+    ledgerObserver.task = mockk(relaxed = true)
+    repeat(2) { ledgerObserver.fetchEvents() }
+    assertNull(savedCursor)
+
+    ledgerObserver.shutdownInternal()
+    assertEquals("c2", savedCursor)
+    assertTrue(ledgerObserver.transactionFetcher.isShutdown)
+  }
+
+  /**
+   * Create an observer reading a ledger of which the page after cursor c(n-1) contains the event
+   * e(n) and ends at the cursor c(n).
+   */
+  private fun ledgerObserver(processed: MutableList<String>): StellarRpcPaymentObserver {
+    val ledgerObserver =
+      spyk(
+        StellarRpcPaymentObserver(
+          stellarRpc,
+          config,
+          paymentListeners,
+          paymentObservingAccountsManager,
+          paymentStreamerCursorStore,
+          sacToAssetMapper,
+          assetService,
+        )
+      )
+    val requests = ConcurrentHashMap<GetEventsRequest, Int>()
+    every { ledgerObserver.buildEventRequest(any()) } answers
+      {
+        val cursor = firstArg<String?>()
+        val page = if (cursor == null) 1 else cursor.removePrefix("c").toInt() + 1
+        mockk<GetEventsRequest>().also { requests[it] = page }
+      }
+    every { sorobanServer.getEvents(any()) } answers
+      {
+        val page = requests[firstArg()]!!
+        mockk<GetEventsResponse> {
+          every { events } returns listOf(mockk<EventInfo> { every { id } returns "e$page" })
+          every { latestLedger } returns 10L
+          every { cursor } returns "c$page"
+        }
+      }
+    every { ledgerObserver.processEvents(any()) } answers
+      {
+        firstArg<List<EventInfo>>().forEach { processed.add(it.id) }
+      }
+    return ledgerObserver
+  }
+
+  @Test
+  fun `test getCursorLedger`() {
+    assertEquals(123L, StellarRpcPaymentObserver.getCursorLedger(cursorAt(123L)))
+    assertEquals(123L, StellarRpcPaymentObserver.getCursorLedger((123L shl 32).toString()))
+    assertNull(StellarRpcPaymentObserver.getCursorLedger(null))
+    assertNull(StellarRpcPaymentObserver.getCursorLedger(""))
+    assertNull(StellarRpcPaymentObserver.getCursorLedger("CUR123"))
+  }
+
+  private fun cursorAt(ledger: Long): String {
+    return String.format("%019d-%010d", ledger shl 32, 1)
+  }
 }
 
 /**
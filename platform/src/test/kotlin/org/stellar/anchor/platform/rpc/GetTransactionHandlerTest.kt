@@ -3,6 +3,7 @@ package org.stellar.anchor.platform.rpc
 import io.mockk.*
 import io.mockk.impl.annotations.MockK
 import java.time.Instant
+import java.util.Optional
 import kotlin.test.assertEquals
 import org.junit.jupiter.api.BeforeEach
 import org.junit.jupiter.api.Test
@@ -22,6 +23,10 @@ import org.stellar.anchor.api.shared.StellarId
 import org.stellar.anchor.asset.AssetService
 import org.stellar.anchor.event.EventService
 import org.stellar.anchor.platform.data.JdbcSep31Transaction
+import org.stellar.anchor.platform.data.JdbcTransactionRoute
+import org.stellar.anchor.platform.data.JdbcTransactionRouteRepo
+import org.stellar.anchor.platform.service.TransactionResponseCache
+import org.stellar.anchor.platform.service.TransactionRouter
 import org.stellar.anchor.platform.service.TransactionService
 import org.stellar.anchor.sep24.Sep24DepositInfoGenerator
 import org.stellar.anchor.sep24.Sep24TransactionStore
@@ -44,6 +49,7 @@ class GetTransactionHandlerTest {
   @MockK(relaxed = true) private lateinit var txn6Store: Sep6TransactionStore
   @MockK(relaxed = true) private lateinit var txn24Store: Sep24TransactionStore
   @MockK(relaxed = true) private lateinit var txn31Store: Sep31TransactionStore
+  @MockK(relaxed = true) private lateinit var routeRepo: JdbcTransactionRouteRepo
   @MockK(relaxed = true) private lateinit var assetService: AssetService
   @MockK(relaxed = true) private lateinit var eventService: EventService
   @MockK(relaxed = true) private lateinit var eventSession: EventService.Session
@@ -57,11 +63,18 @@ class GetTransactionHandlerTest {
     MockKAnnotations.init(this, relaxUnitFun = true)
     every { eventService.createSession(any(), EventService.EventQueue.TRANSACTION) } returns
       eventSession
+    every { routeRepo.findById(any()) } returns Optional.empty()
     transactionService =
       TransactionService(
         txn6Store,
         txn24Store,
         txn31Store,
+        TransactionRouter(txn6Store, txn24Store, txn31Store, routeRepo),
+        TransactionResponseCache(
+          mockk(relaxed = true),
+          mockk(relaxed = true),
+          mockk(relaxed = true)
+        ),
         sep38QuoteStore,
         assetService,
         eventService,
@@ -82,6 +95,8 @@ class GetTransactionHandlerTest {
     every { txn6Store.findByTransactionId(any()) } returns null
     every { txn24Store.findByTransactionId(any()) } returns null
     every { txn31Store.findByTransactionId(TX_ID) } returns txn31
+    every { routeRepo.findById(TX_ID) } returns
+      Optional.of(JdbcTransactionRoute(TX_ID, PlatformTransactionData.Sep.SEP_31))
     every { eventSession.publish(capture(anchorEventCapture)) } just Runs
 
     val response = handler.handle(request)
@@ -3,20 +3,29 @@ package org.stellar.anchor.platform.rpc
 import io.mockk.*
 import io.mockk.impl.annotations.MockK
 import java.time.Instant
+import org.junit.jupiter.api.Assertions.assertEquals
+import org.junit.jupiter.api.Assertions.assertNull
 import org.junit.jupiter.api.BeforeEach
 import org.junit.jupiter.api.Test
+import org.junit.jupiter.api.assertThrows
 import org.skyscreamer.jsonassert.JSONAssert
 import org.skyscreamer.jsonassert.JSONCompareMode
+import org.springframework.data.domain.Sort
 import org.stellar.anchor.api.event.AnchorEvent
+import org.stellar.anchor.api.exception.BadRequestException
 import org.stellar.anchor.api.platform.GetTransactionsResponse
+import org.stellar.anchor.api.platform.TransactionsOrderBy.CREATED_AT
 import org.stellar.anchor.api.platform.TransactionsSeps
 import org.stellar.anchor.api.rpc.method.GetTransactionsRpcRequest
 import org.stellar.anchor.api.sep.SepTransactionStatus
 import org.stellar.anchor.asset.AssetService
 import org.stellar.anchor.event.EventService
 import org.stellar.anchor.platform.data.JdbcSep31Transaction
+import org.stellar.anchor.platform.data.TransactionsCursor
+import org.stellar.anchor.platform.service.TransactionResponseCache
 import org.stellar.anchor.platform.service.TransactionService
 import org.stellar.anchor.platform.utils.PlatformTransactionHelper
+import org.stellar.anchor.platform.utils.storeProbingRouter
 import org.stellar.anchor.sep24.Sep24DepositInfoGenerator
 import org.stellar.anchor.sep24.Sep24TransactionStore
 import org.stellar.anchor.sep31.Sep31TransactionStore
@@ -53,6 +62,12 @@ class GetTransactionsHandlerTest {
         txn6Store,
         txn24Store,
         txn31Store,
+        storeProbingRouter(txn6Store, txn24Store, txn31Store),
+        TransactionResponseCache(
+          mockk(relaxed = true),
+          mockk(relaxed = true),
+          mockk(relaxed = true)
+        ),
         sep38QuoteStore,
         assetService,
         eventService,
@@ -102,4 +117,43 @@ class GetTransactionsHandlerTest {
       JSONCompareMode.STRICT
     )
   }
+
+  @Test
+  fun `test the next cursor is returned with a full page`() {
+    val txn1 = JdbcSep31Transaction()
+    txn1.id = "txn-1"
+    txn1.startedAt = Instant.parse("2024-01-01T00:00:00Z")
+    val txn2 = JdbcSep31Transaction()
+    txn2.id = "txn-2"
+    txn2.startedAt = Instant.parse("2024-01-02T00:00:00Z")
+    every { txn31Store.findTransactions(any()) } returns listOf(txn1, txn2)
+
+    val fullPage = handler.handle(request(pageSize = 2)) as GetTransactionsResponse
+    val lastPage =
+      handler.handle(request(pageSize = 3, cursor = fullPage.nextCursor)) as GetTransactionsResponse
+
+    assertEquals(
+      TransactionsCursor(CREATED_AT, Sort.Direction.ASC, txn2.startedAt, "txn-2").encode(),
+      fullPage.nextCursor
+    )
+    assertNull(lastPage.nextCursor)
+    verify { txn31Store.findTransactions(match { it.cursor == fullPage.nextCursor }) }
+  }
+
+  @Test
+  fun `test an invalid cursor is rejected before querying`() {
+    assertThrows<BadRequestException> { handler.handle(request(pageSize = 2, cursor = "invalid")) }
+
+    verify(exactly = 0) { txn31Store.findTransactions(any()) }
+  }
+
+  private fun request(pageSize: Int, cursor: String? = null): GetTransactionsRpcRequest {
+    return GetTransactionsRpcRequest.builder()
+      .sep(TransactionsSeps.SEP_31)
+      .orderBy(CREATED_AT)
+      .order(Sort.Direction.ASC)
+      .pageSize(pageSize)
+      .cursor(cursor)
+      .build()
+  }
 }
@@ -40,6 +40,9 @@ import org.stellar.anchor.metrics.MetricsService
 import org.stellar.anchor.platform.data.JdbcSep24Transaction
 import org.stellar.anchor.platform.data.JdbcSep6Transaction
 import org.stellar.anchor.platform.service.AnchorMetrics.PLATFORM_RPC_TRANSACTION
+import org.stellar.anchor.platform.service.TransactionResponseCache
+import org.stellar.anchor.platform.service.TransactionRouter
+import org.stellar.anchor.platform.utils.storeProbingRouter
 import org.stellar.anchor.platform.utils.toRate
 import org.stellar.anchor.platform.validator.RequestValidator
 import org.stellar.anchor.sep24.Sep24TransactionStore
@@ -65,6 +68,10 @@ class NotifyAmountsUpdatedHandlerTest {
 
   @MockK(relaxed = true) private lateinit var txn31Store: Sep31TransactionStore
 
+  @MockK(relaxed = true) private lateinit var txnResponseCache: TransactionResponseCache
+
+  private lateinit var txnRouter: TransactionRouter
+
   @MockK(relaxed = true) private lateinit var requestValidator: RequestValidator
 
   @MockK(relaxed = true) private lateinit var assetService: AssetService
@@ -82,6 +89,7 @@ class NotifyAmountsUpdatedHandlerTest {
   @BeforeEach
   fun setup() {
     MockKAnnotations.init(this, relaxUnitFun = true)
+    txnRouter = storeProbingRouter(txn6Store, txn24Store, txn31Store)
     every { eventService.createSession(any(), TRANSACTION) } returns eventSession
     this.assetService = DefaultAssetService.fromJsonResource("test_assets.json")
     this.handler =
@@ -89,6 +97,8 @@ class NotifyAmountsUpdatedHandlerTest {
         txn6Store,
         txn24Store,
         txn31Store,
+        txnRouter,
+        txnResponseCache,
         requestValidator,
         assetService,
         eventService,
@@ -218,6 +228,7 @@ class NotifyAmountsUpdatedHandlerTest {
 
     every { txn24Store.findByTransactionId(TX_ID) } returns txn24
     every { txn31Store.findByTransactionId(any()) } returns null
+    every { txn24Store.save(any()) } returns txn24
 
     handler.handle(request)
 
@@ -377,6 +388,7 @@ class NotifyAmountsUpdatedHandlerTest {
     every { txn6Store.findByTransactionId(TX_ID) } returns txn6
     every { txn24Store.findByTransactionId(TX_ID) } returns null
     every { txn31Store.findByTransactionId(any()) } returns null
+    every { txn6Store.save(any()) } returns txn6
 
     handler.handle(request)
 
@@ -37,6 +37,9 @@ import org.stellar.anchor.metrics.MetricsService
 import org.stellar.anchor.platform.data.JdbcSep31Transaction
 import org.stellar.anchor.platform.data.JdbcSep6Transaction
 import org.stellar.anchor.platform.service.AnchorMetrics.PLATFORM_RPC_TRANSACTION
+import org.stellar.anchor.platform.service.TransactionResponseCache
+import org.stellar.anchor.platform.service.TransactionRouter
+import org.stellar.anchor.platform.utils.storeProbingRouter
 import org.stellar.anchor.platform.validator.RequestValidator
 import org.stellar.anchor.sep24.Sep24TransactionStore
 import org.stellar.anchor.sep31.Sep31TransactionStore
@@ -60,6 +63,10 @@ class NotifyCustomerInfoUpdatedHandlerTest {
 
   @MockK(relaxed = true) private lateinit var txn31Store: Sep31TransactionStore
 
+  @MockK(relaxed = true) private lateinit var txnResponseCache: TransactionResponseCache
+
+  private lateinit var txnRouter: TransactionRouter
+
   @MockK(relaxed = true) private lateinit var requestValidator: RequestValidator
 
   @MockK(relaxed = true) private lateinit var customerIntegration: CustomerIntegration
@@ -79,6 +86,7 @@ class NotifyCustomerInfoUpdatedHandlerTest {
   @BeforeEach
   fun setup() {
     MockKAnnotations.init(this, relaxUnitFun = true)
+    txnRouter = storeProbingRouter(txn6Store, txn24Store, txn31Store)
     every { eventService.createSession(any(), EventService.EventQueue.TRANSACTION) } returns
       eventSession
     this.handler =
@@ -86,6 +94,8 @@ class NotifyCustomerInfoUpdatedHandlerTest {
         txn6Store,
         txn24Store,
         txn31Store,
+        txnRouter,
+        txnResponseCache,
         requestValidator,
         customerIntegration,
         assetService,
@@ -38,6 +38,9 @@ import org.stellar.anchor.event.EventService.Session
 import org.stellar.anchor.metrics.MetricsService
 import org.stellar.anchor.platform.data.JdbcSep24Transaction
 import org.stellar.anchor.platform.service.AnchorMetrics.PLATFORM_RPC_TRANSACTION
+import org.stellar.anchor.platform.service.TransactionResponseCache
+import org.stellar.anchor.platform.service.TransactionRouter
+import org.stellar.anchor.platform.utils.storeProbingRouter
 import org.stellar.anchor.platform.utils.toRate
 import org.stellar.anchor.platform.validator.RequestValidator
 import org.stellar.anchor.sep24.Sep24TransactionStore
@@ -63,6 +66,10 @@ class NotifyInteractiveFlowCompletedHandlerTest {
 
   @MockK(relaxed = true) private lateinit var txn31Store: Sep31TransactionStore
 
+  @MockK(relaxed = true) private lateinit var txnResponseCache: TransactionResponseCache
+
+  private lateinit var txnRouter: TransactionRouter
+
   @MockK(relaxed = true) private lateinit var requestValidator: RequestValidator
 
   @MockK(relaxed = true) private lateinit var assetService: AssetService
@@ -80,6 +87,7 @@ class NotifyInteractiveFlowCompletedHandlerTest {
   @BeforeEach
   fun setup() {
     MockKAnnotations.init(this, relaxUnitFun = true)
+    txnRouter = storeProbingRouter(txn6Store, txn24Store, txn31Store)
     every { eventService.createSession(any(), TRANSACTION) } returns eventSession
     this.assetService = DefaultAssetService.fromJsonResource("test_assets.json")
     this.handler =
@@ -87,6 +95,8 @@ class NotifyInteractiveFlowCompletedHandlerTest {
         txn6Store,
         txn24Store,
         txn31Store,
+        txnRouter,
+        txnResponseCache,
         requestValidator,
         assetService,
         eventService,
@@ -35,6 +35,9 @@ import org.stellar.anchor.platform.data.JdbcSep24Transaction
 import org.stellar.anchor.platform.data.JdbcSep31Transaction
 import org.stellar.anchor.platform.data.JdbcSep6Transaction
 import org.stellar.anchor.platform.service.AnchorMetrics.PLATFORM_RPC_TRANSACTION
+import org.stellar.anchor.platform.service.TransactionResponseCache
+import org.stellar.anchor.platform.service.TransactionRouter
+import org.stellar.anchor.platform.utils.storeProbingRouter
 import org.stellar.anchor.platform.validator.RequestValidator
 import org.stellar.anchor.sep24.Sep24TransactionStore
 import org.stellar.anchor.sep31.Sep31TransactionStore
@@ -56,6 +59,10 @@ class NotifyOffchainFundsPendingHandlerTest {
 
   @MockK(relaxed = true) private lateinit var txn31Store: Sep31TransactionStore
 
+  @MockK(relaxed = true) private lateinit var txnResponseCache: TransactionResponseCache
+
+  private lateinit var txnRouter: TransactionRouter
+
   @MockK(relaxed = true) private lateinit var requestValidator: RequestValidator
 
   @MockK(relaxed = true) private lateinit var assetService: AssetService
@@ -73,12 +80,15 @@ class NotifyOffchainFundsPendingHandlerTest {
   @BeforeEach
   fun setup() {
     MockKAnnotations.init(this, relaxUnitFun = true)
+    txnRouter = storeProbingRouter(txn6Store, txn24Store, txn31Store)
     every { eventService.createSession(any(), TRANSACTION) } returns eventSession
     this.handler =
       NotifyOffchainFundsPendingHandler(
         txn6Store,
         txn24Store,
         txn31Store,
+        txnRouter,
+        txnResponseCache,
         requestValidator,
         assetService,
         eventService,
@@ -22,6 +22,9 @@ import org.stellar.anchor.event.EventService
 import org.stellar.anchor.metrics.MetricsService
 import org.stellar.anchor.platform.data.JdbcSep24Transaction
 import org.stellar.anchor.platform.data.JdbcSepTransaction
+import org.stellar.anchor.platform.service.TransactionResponseCache
+import org.stellar.anchor.platform.service.TransactionRouter
+import org.stellar.anchor.platform.utils.storeProbingRouter
 import org.stellar.anchor.platform.validator.RequestValidator
 import org.stellar.anchor.sep24.Sep24TransactionStore
 import org.stellar.anchor.sep31.Sep31TransactionStore
@@ -34,6 +37,8 @@ class RpcTransactionStatusHandlerTest {
     txn6Store: Sep6TransactionStore,
     txn24Store: Sep24TransactionStore,
     txn31Store: Sep31TransactionStore,
+    txnRouter: TransactionRouter,
+    txnResponseCache: TransactionResponseCache,
     requestValidator: RequestValidator,
     assetService: AssetService,
     eventService: EventService,
@@ -43,6 +48,8 @@ class RpcTransactionStatusHandlerTest {
       txn6Store,
       txn24Store,
       txn31Store,
+      txnRouter,
+      txnResponseCache,
       requestValidator,
       assetService,
       eventService,
@@ -80,6 +87,10 @@ class RpcTransactionStatusHandlerTest {
 
   @MockK(relaxed = true) private lateinit var txn31Store: Sep31TransactionStore
 
+  @MockK(relaxed = true) private lateinit var txnResponseCache: TransactionResponseCache
+
+  private lateinit var txnRouter: TransactionRouter
+
   @MockK(relaxed = true) private lateinit var requestValidator: RequestValidator
 
   @MockK(relaxed = true) private lateinit var assetService: AssetService
@@ -93,11 +104,14 @@ class RpcTransactionStatusHandlerTest {
   @BeforeEach
   fun setup() {
     MockKAnnotations.init(this, relaxUnitFun = true)
+    txnRouter = storeProbingRouter(txn6Store, txn24Store, txn31Store)
     this.handler =
       RpcTransactionStatusHandlerTestImpl(
         txn6Store,
         txn24Store,
         txn31Store,
+        txnRouter,
+        txnResponseCache,
         requestValidator,
         assetService,
         eventService,
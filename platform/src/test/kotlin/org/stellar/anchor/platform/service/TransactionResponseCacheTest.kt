@@ -0,0 +1,124 @@
+package org.stellar.anchor.platform.service
+
+import io.mockk.MockKAnnotations
+import io.mockk.every
+import io.mockk.impl.annotations.MockK
+import io.mockk.verify
+import org.junit.jupiter.api.Assertions.assertEquals
+import org.junit.jupiter.api.Assertions.assertNotSame
+import org.junit.jupiter.api.Assertions.assertNull
+import org.junit.jupiter.api.BeforeEach
+import org.junit.jupiter.api.Test
+import org.springframework.transaction.support.TransactionSynchronizationManager
+import org.stellar.anchor.api.platform.GetTransactionResponse
+import org.stellar.anchor.api.platform.PlatformTransactionData.Sep
+import org.stellar.anchor.platform.data.JdbcSep24Transaction
+import org.stellar.anchor.platform.data.JdbcSep24TransactionRepo
+import org.stellar.anchor.platform.data.JdbcSep31TransactionRepo
+import org.stellar.anchor.platform.data.JdbcSep6TransactionRepo
+
+class TransactionResponseCacheTest {
+  @MockK(relaxed = true) private lateinit var txn6Repo: JdbcSep6TransactionRepo
+  @MockK(relaxed = true) private lateinit var txn24Repo: JdbcSep24TransactionRepo
+  @MockK(relaxed = true) private lateinit var txn31Repo: JdbcSep31TransactionRepo
+  private lateinit var cache: TransactionResponseCache
+
+  @BeforeEach
+  fun setup() {
+    MockKAnnotations.init(this, relaxUnitFun = true)
+    cache = TransactionResponseCache(txn6Repo, txn24Repo, txn31Repo)
+  }
+
+  @Test
+  fun `test the cached response is returned while the version is unchanged`() {
+    cache.put(txn("txn-1", 3), response("txn-1"))
+    every { txn24Repo.findVersionById("txn-1") } returns 3
+
+    assertEquals("txn-1", cache.get("txn-1")!!.id)
+    assertEquals(Sep.SEP_24, cache.get("txn-1")!!.sep)
+    verify(exactly = 2) { txn24Repo.findVersionById("txn-1") }
+    verify(exactly = 0) { txn24Repo.findById(any()) }
+  }
+
+  @Test
+  fun `test every caller gets its own copy of the cached response`() {
+    val response = response("txn-1")
+    cache.put(txn("txn-1", 3), response)
+    every { txn24Repo.findVersionById("txn-1") } returns 3
+
+    val first = cache.get("txn-1")!!
+    first.message = "changed by the caller"
+    response.message = "changed after it was cached"
+
+    val second = cache.get("txn-1")!!
+    assertNotSame(first, second)
+    assertNotSame(response, second)
+    assertNull(second.message)
+  }
+
+  @Test
+  fun `test the cached response is dropped when the transaction is updated`() {
+    cache.put(txn("txn-1", 3), response("txn-1"))
+    every { txn24Repo.findVersionById("txn-1") } returns 4
+
+    assertNull(cache.get("txn-1"))
+    assertEquals(0, cache.entries.size)
+  }
+
+  @Test
+  fun `test the cached response is dropped when the transaction is removed`() {
+    cache.put(txn("txn-1", 3), response("txn-1"))
+    every { txn24Repo.findVersionById("txn-1") } returns null
+
+    assertNull(cache.get("txn-1"))
+  }
+
+  @Test
+  fun `test a transaction without version is not cached`() {
+    cache.put(txn("txn-1", null), response("txn-1"))
+    cache.put(null, response("txn-2"))
+
+    assertNull(cache.get("txn-1"))
+    assertEquals(0, cache.entries.size)
+    verify(exactly = 0) { txn24Repo.findVersionById(any()) }
+  }
+
+  @Test
+  fun `test the response is cached once the database transaction commits`() {
+    TransactionSynchronizationManager.initSynchronization()
+    try {
+      val txn = txn("txn-1", 3)
+      cache.put(txn, response("txn-1"))
+      assertEquals(0, cache.entries.size)
+
+      // The version of the saved transaction is incremented when it is flushed
+      txn.version = 4
+      TransactionSynchronizationManager.getSynchronizations().forEach { it.afterCommit() }
+      assertEquals(4, cache.entries["txn-1"]!!.version)
+    } finally {
+      TransactionSynchronizationManager.clearSynchronization()
+    }
+  }
+
+  @Test
+  fun `test the cache keeps the most recently used responses`() {
+    cache = TransactionResponseCache(txn6Repo, txn24Repo, txn31Repo, 2)
+
+    cache.put(txn("txn-1", 1), response("txn-1"))
+    cache.put(txn("txn-2", 1), response("txn-2"))
+    cache.put(txn("txn-3", 1), response("txn-3"))
+
+    assertEquals(setOf("txn-2", "txn-3"), cache.entries.keys)
+  }
+
+  private fun txn(id: String, version: Int?): JdbcSep24Transaction {
+    val txn = JdbcSep24Transaction()
+    txn.id = id
+    txn.version = version
+    return txn
+  }
+
+  private fun response(id: String): GetTransactionResponse {
+    return GetTransactionResponse.builder().id(id).sep(Sep.SEP_24).build()
+  }
+}
@@ -0,0 +1,115 @@
+package org.stellar.anchor.platform.service
+
+import io.mockk.MockKAnnotations
+import io.mockk.every
+import io.mockk.impl.annotations.MockK
+import io.mockk.verify
+import java.util.Optional
+import org.junit.jupiter.api.Assertions.assertEquals
+import org.junit.jupiter.api.Assertions.assertNull
+import org.junit.jupiter.api.Assertions.assertSame
+import org.junit.jupiter.api.BeforeEach
+import org.junit.jupiter.api.Test
+import org.stellar.anchor.api.platform.PlatformTransactionData.Sep
+import org.stellar.anchor.platform.data.JdbcSep24Transaction
+import org.stellar.anchor.platform.data.JdbcSep31Transaction
+import org.stellar.anchor.platform.data.JdbcSep6Transaction
+import org.stellar.anchor.platform.data.JdbcTransactionRoute
+import org.stellar.anchor.platform.data.JdbcTransactionRouteRepo
+import org.stellar.anchor.sep24.Sep24TransactionStore
+import org.stellar.anchor.sep31.Sep31TransactionStore
+import org.stellar.anchor.sep6.Sep6TransactionStore
+
+class TransactionRouterTest {
+  @MockK(relaxed = true) private lateinit var txn6Store: Sep6TransactionStore
+  @MockK(relaxed = true) private lateinit var txn24Store: Sep24TransactionStore
+  @MockK(relaxed = true) private lateinit var txn31Store: Sep31TransactionStore
+  @MockK(relaxed = true) private lateinit var routeRepo: JdbcTransactionRouteRepo
+  private lateinit var router: TransactionRouter
+
+  @BeforeEach
+  fun setup() {
+    MockKAnnotations.init(this, relaxUnitFun = true)
+    every { txn6Store.findByTransactionId(any()) } returns null
+    every { txn24Store.findByTransactionId(any()) } returns null
+    every { txn31Store.findByTransactionId(any()) } returns null
+    every { routeRepo.findById(any()) } returns Optional.empty()
+    router = TransactionRouter(txn6Store, txn24Store, txn31Store, routeRepo)
+  }
+
+  private fun route(txnId: String, sep: Sep) {
+    every { routeRepo.findById(txnId) } returns Optional.of(JdbcTransactionRoute(txnId, sep))
+  }
+
+  @Test
+  fun `test every lookup of a transaction queries only the table of its protocol`() {
+    val txn6 = JdbcSep6Transaction()
+    route("txn-6", Sep.SEP_6)
+    every { txn6Store.findByTransactionId("txn-6") } returns txn6
+
+    assertSame(txn6, router.findTransaction("txn-6"))
+    assertSame(txn6, router.findTransaction("txn-6"))
+    assertSame(txn6, router.findTransaction("txn-6"))
+
+    verify(exactly = 1) { routeRepo.findById("txn-6") }
+    verify(exactly = 0) { txn31Store.findByTransactionId(any()) }
+    verify(exactly = 0) { txn24Store.findByTransactionId(any()) }
+    verify(exactly = 3) { txn6Store.findByTransactionId("txn-6") }
+    assertEquals(Sep.SEP_6, router.protocols["txn-6"])
+  }
+
+  @Test
+  fun `test the transactions of each protocol are found`() {
+    val txn24 = JdbcSep24Transaction()
+    val txn31 = JdbcSep31Transaction()
+    route("txn-24", Sep.SEP_24)
+    route("txn-31", Sep.SEP_31)
+    every { txn24Store.findByTransactionId("txn-24") } returns txn24
+    every { txn31Store.findByTransactionId("txn-31") } returns txn31
+
+    assertSame(txn24, router.findTransaction("txn-24"))
+    assertSame(txn31, router.findTransaction("txn-31"))
+
+    verify(exactly = 0) { txn6Store.findByTransactionId(any()) }
+    verify(exactly = 0) { txn24Store.findByTransactionId("txn-31") }
+    verify(exactly = 0) { txn31Store.findByTransactionId("txn-24") }
+  }
+
+  @Test
+  fun `test a transaction without a route is not looked up`() {
+    assertNull(router.findTransaction("unknown"))
+    assertNull(router.findTransaction("unknown"))
+
+    verify(exactly = 2) { routeRepo.findById("unknown") }
+    verify(exactly = 0) { txn31Store.findByTransactionId(any()) }
+    verify(exactly = 0) { txn24Store.findByTransactionId(any()) }
+    verify(exactly = 0) { txn6Store.findByTransactionId(any()) }
+    assertEquals(0, router.protocols.size)
+  }
+
+  @Test
+  fun `test a cached route of a removed transaction is dropped`() {
+    route("txn-1", Sep.SEP_24)
+    every { txn24Store.findByTransactionId("txn-1") } returns JdbcSep24Transaction()
+    router.findTransaction("txn-1")
+    every { txn24Store.findByTransactionId("txn-1") } returns null
+
+    assertNull(router.findTransaction("txn-1"))
+
+    assertNull(router.protocols["txn-1"])
+  }
+
+  @Test
+  fun `test the cache keeps the most recently used routes`() {
+    router = TransactionRouter(txn6Store, txn24Store, txn31Store, routeRepo, 2)
+    listOf("txn-1", "txn-2", "txn-3").forEach { route(it, Sep.SEP_6) }
+    every { txn6Store.findByTransactionId(any()) } returns JdbcSep6Transaction()
+
+    router.findTransaction("txn-1")
+    router.findTransaction("txn-2")
+    router.findTransaction("txn-1")
+    router.findTransaction("txn-3")
+
+    assertEquals(setOf("txn-1", "txn-3"), router.protocols.keys)
+  }
+}
@@ -3,6 +3,7 @@ package org.stellar.anchor.platform.service
 import io.mockk.MockKAnnotations
 import io.mockk.every
 import io.mockk.impl.annotations.MockK
+import io.mockk.mockk
 import io.mockk.verify
 import org.junit.jupiter.api.Assertions.*
 import org.junit.jupiter.api.BeforeEach
@@ -30,6 +31,7 @@ import org.stellar.anchor.event.EventService
 import org.stellar.anchor.event.EventService.EventQueue.TRANSACTION
 import org.stellar.anchor.event.EventService.Session
 import org.stellar.anchor.platform.data.*
+import org.stellar.anchor.platform.utils.storeProbingRouter
 import org.stellar.anchor.sep24.Sep24DepositInfoGenerator
 import org.stellar.anchor.sep24.Sep24TransactionStore
 import org.stellar.anchor.sep31.Sep31TransactionStore
@@ -66,11 +68,20 @@ class TransactionServiceTest {
   fun setup() {
     MockKAnnotations.init(this, relaxUnitFun = true)
     every { eventService.createSession(any(), TRANSACTION) } returns eventSession
+    every { sep6TransactionStore.save(any()) } answers { firstArg() }
+    every { sep24TransactionStore.save(any()) } answers { firstArg() }
+    every { sep31TransactionStore.save(any()) } answers { firstArg() }
     transactionService =
       TransactionService(
         sep6TransactionStore,
         sep24TransactionStore,
         sep31TransactionStore,
+        storeProbingRouter(sep6TransactionStore, sep24TransactionStore, sep31TransactionStore),
+        TransactionResponseCache(
+          mockk(relaxed = true),
+          mockk(relaxed = true),
+          mockk(relaxed = true)
+        ),
         sep38QuoteStore,
         assetService,
         eventService,
@@ -223,6 +234,12 @@ class TransactionServiceTest {
         sep6TransactionStore,
         sep24TransactionStore,
         sep31TransactionStore,
+        storeProbingRouter(sep6TransactionStore, sep24TransactionStore, sep31TransactionStore),
+        TransactionResponseCache(
+          mockk(relaxed = true),
+          mockk(relaxed = true),
+          mockk(relaxed = true)
+        ),
         sep38QuoteStore,
         assetService,
         eventService,
@@ -518,6 +535,12 @@ class TransactionServiceTest {
         sep6TransactionStore,
         sep24TransactionStore,
         sep31TransactionStore,
+        storeProbingRouter(sep6TransactionStore, sep24TransactionStore, sep31TransactionStore),
+        TransactionResponseCache(
+          mockk(relaxed = true),
+          mockk(relaxed = true),
+          mockk(relaxed = true)
+        ),
         sep38QuoteStore,
         assetService,
         eventService,
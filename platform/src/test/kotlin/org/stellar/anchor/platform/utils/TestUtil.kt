@@ -1,10 +1,19 @@
 package org.stellar.anchor.platform.utils
 
 import io.mockk.every
+import io.mockk.mockk
+import java.util.Optional
 import javax.crypto.SecretKey
+import org.stellar.anchor.api.platform.PlatformTransactionData.Sep
 import org.stellar.anchor.api.shared.Amount
 import org.stellar.anchor.api.shared.FeeDetails
 import org.stellar.anchor.config.SecretConfig
+import org.stellar.anchor.platform.data.JdbcTransactionRoute
+import org.stellar.anchor.platform.data.JdbcTransactionRouteRepo
+import org.stellar.anchor.platform.service.TransactionRouter
+import org.stellar.anchor.sep24.Sep24TransactionStore
+import org.stellar.anchor.sep31.Sep31TransactionStore
+import org.stellar.anchor.sep6.Sep6TransactionStore
 import org.stellar.anchor.util.KeyUtil
 
 // TODO: remove copypaste below
@@ -37,3 +46,28 @@ fun SecretConfig.setupMock(block: (() -> Any)? = null) {
 
   block?.invoke()
 }
+
+/**
+ * A transaction router whose routes are resolved from the mocked stores, so the tests only need to
+ * mock the transaction of the store it belongs to.
+ */
+fun storeProbingRouter(
+  txn6Store: Sep6TransactionStore,
+  txn24Store: Sep24TransactionStore,
+  txn31Store: Sep31TransactionStore
+): TransactionRouter {
+  val routeRepo = mockk<JdbcTransactionRouteRepo>()
+  every { routeRepo.findById(any()) } answers
+    {
+      val txnId = firstArg<String>()
+      val sep =
+        when {
+          txn31Store.findByTransactionId(txnId) != null -> Sep.SEP_31
+          txn24Store.findByTransactionId(txnId) != null -> Sep.SEP_24
+          txn6Store.findByTransactionId(txnId) != null -> Sep.SEP_6
+          else -> null
+        }
+      Optional.ofNullable(sep?.let { JdbcTransactionRoute(txnId, it) })
+    }
+  return TransactionRouter(txn6Store, txn24Store, txn31Store, routeRepo)
+}
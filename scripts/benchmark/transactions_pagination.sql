@@ -0,0 +1,71 @@
+-- Compares the OFFSET pages and the cursor (keyset) pages of the Platform GET /transactions query
+-- on a table of a million transactions.
+--
+-- Usage:
+--   psql -h localhost -U postgres -d postgres -f scripts/benchmark/transactions_pagination.sql
+--
+-- The table is created in a transaction that is rolled back, so the database is left unchanged.
+
+BEGIN;
+
+CREATE TABLE bench_transaction (
+    id VARCHAR(36) NOT NULL,
+    status VARCHAR(255),
+    started_at TIMESTAMP WITHOUT TIME ZONE,
+    transfer_received_at TIMESTAMP WITHOUT TIME ZONE,
+    user_action_required_by TIMESTAMP WITHOUT TIME ZONE,
+    -- Pads the rows to the width of a transaction
+    padding TEXT,
+    CONSTRAINT pk_bench_transaction PRIMARY KEY (id)
+);
+
+INSERT INTO bench_transaction
+SELECT md5(i::text),
+       (ARRAY['pending_anchor', 'pending_user_transfer_start', 'completed'])[1 + i % 3],
+       TIMESTAMP '2024-01-01' + (i * INTERVAL '1 second') / 4,
+       CASE WHEN i % 5 = 0 THEN NULL ELSE TIMESTAMP '2024-01-01' + i * INTERVAL '1 second' END,
+       NULL,
+       repeat('x', 500)
+FROM generate_series(1, 1000000) AS i;
+
+-- The index added by V30__add_transactions_keyset_indexes.sql
+CREATE INDEX idx_bench_transaction_started_at_id ON bench_transaction (started_at, id);
+ANALYZE bench_transaction;
+
+\echo '--- page 25000 of 20 with OFFSET'
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT * FROM bench_transaction t
+ORDER BY t.started_at ASC NULLS LAST, t.id ASC
+LIMIT 20 OFFSET 500000;
+
+\echo '--- the same page after the cursor of the previous page'
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT * FROM bench_transaction t
+WHERE (t.started_at, t.id) > (TIMESTAMP '2024-01-02 10:43:20', md5('500000'))
+ORDER BY t.started_at ASC, t.id ASC
+LIMIT 20;
+
+\echo '--- the last page of the null values of transfer_received_at after the cursor'
+CREATE INDEX idx_bench_transaction_transfer_received_at_id ON bench_transaction (transfer_received_at, id);
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT * FROM bench_transaction t
+WHERE t.transfer_received_at IS NULL AND t.id > md5('500000')
+ORDER BY t.id ASC
+LIMIT 20;
+
+\echo '--- page 25000 of 20 with OFFSET, filtered by status'
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT * FROM bench_transaction t
+WHERE t.status IN ('pending_anchor', 'completed')
+ORDER BY t.started_at ASC NULLS LAST, t.id ASC
+LIMIT 20 OFFSET 500000;
+
+\echo '--- the same page after the cursor of the previous page, filtered by status'
+EXPLAIN (ANALYZE, BUFFERS)
+SELECT * FROM bench_transaction t
+WHERE (t.started_at, t.id) > (TIMESTAMP '2024-01-02 10:43:20', md5('500000'))
+  AND t.status IN ('pending_anchor', 'completed')
+ORDER BY t.started_at ASC, t.id ASC
+LIMIT 20;
+
+ROLLBACK;